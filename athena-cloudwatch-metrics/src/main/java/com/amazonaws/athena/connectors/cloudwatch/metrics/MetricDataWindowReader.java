@@ -0,0 +1,247 @@
+/*-
+ * #%L
+ * athena-cloudwatch-metrics
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.cloudwatch.metrics;
+
+import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataQuery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Iterates over the pages of a GetMetricData request, fetching consecutive time windows of the request concurrently.
+ * <p>
+ * The boundaries between windows are multiples of an hour and of the period of every query. CloudWatch rounds the
+ * start time of older data down to the minute, the five minutes or the hour, so with such boundaries a data point
+ * still lands in exactly one window. The pages of a window are fetched one after the other, since each needs the token
+ * of the previous one, and at most a couple of pages per window are held ahead of the caller, who gets the pages of
+ * the first window, then of the second one, and so on.
+ */
+class MetricDataWindowReader
+        implements Iterator<GetMetricDataResponse>, AutoCloseable
+{
+    //CloudWatch keeps metric data for 15 months, windows are only spread over the part of the range that may have data.
+    private static final Duration RETENTION = Duration.ofDays(455);
+    private static final long SECONDS_PER_HOUR = 3600;
+    //The pages of a window fetched ahead of the caller.
+    private static final int PAGES_AHEAD = 2;
+    //Marks the end of the pages of a window.
+    private static final Page END_OF_WINDOW = new Page(null, null);
+
+    private final ExecutorService executor;
+    private final List<BlockingQueue<Page>> windows = new ArrayList<>();
+    private int currentWindow = 0;
+    //The page hasNext() took from the current window, if any.
+    private GetMetricDataResponse nextPage;
+
+    /**
+     * @param invoker     The invoker to call CloudWatch with, so that throttling is handled across all the windows.
+     * @param cloudwatch  The client to fetch the pages with.
+     * @param request     The request to read.
+     * @param parallelism The number of windows to cut the request into and fetch concurrently.
+     */
+    MetricDataWindowReader(ThrottlingInvoker invoker, CloudWatchClient cloudwatch, GetMetricDataRequest request, int parallelism)
+    {
+        List<GetMetricDataRequest> windowRequests = makeWindows(request, parallelism);
+        this.executor = Executors.newFixedThreadPool(windowRequests.size(), runnable -> {
+            Thread thread = new Thread(runnable, "metric-data-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (GetMetricDataRequest windowRequest : windowRequests) {
+            BlockingQueue<Page> pages = new ArrayBlockingQueue<>(PAGES_AHEAD);
+            windows.add(pages);
+            executor.execute(() -> fetchWindow(invoker, cloudwatch, windowRequest, pages));
+        }
+    }
+
+    /**
+     * Cuts the time range of a request into consecutive windows.
+     *
+     * @param request The request to cut.
+     * @param maxWindows The most windows to cut it into.
+     * @return The requests of the windows, in time order, or the request itself if it is not worth cutting.
+     */
+    static List<GetMetricDataRequest> makeWindows(GetMetricDataRequest request, int maxWindows)
+    {
+        long start = request.startTime().getEpochSecond();
+        long end = request.endTime().getEpochSecond();
+        long alignment = SECONDS_PER_HOUR;
+        for (MetricDataQuery query : request.metricDataQueries()) {
+            if (query.metricStat() != null && query.metricStat().period() != null) {
+                alignment = lcm(alignment, query.metricStat().period());
+            }
+        }
+
+        long dataStart = Math.max(start, end - RETENTION.getSeconds());
+        if (maxWindows <= 1 || end - dataStart <= alignment) {
+            return Collections.singletonList(request);
+        }
+        long windowSeconds = ceilDiv(ceilDiv(end - dataStart, maxWindows), alignment) * alignment;
+
+        List<GetMetricDataRequest> windowRequests = new ArrayList<>();
+        Instant windowStart = request.startTime();
+        for (long boundary = Math.floorDiv(dataStart, alignment) * alignment + windowSeconds; boundary < end; boundary += windowSeconds) {
+            if (boundary > windowStart.getEpochSecond()) {
+                windowRequests.add(makeWindow(request, windowStart, Instant.ofEpochSecond(boundary)));
+                windowStart = Instant.ofEpochSecond(boundary);
+            }
+        }
+        windowRequests.add(makeWindow(request, windowStart, request.endTime()));
+        return windowRequests;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (nextPage == null && currentWindow < windows.size()) {
+            Page page = take(windows.get(currentWindow));
+            if (page.error != null) {
+                throw page.error;
+            }
+            if (page == END_OF_WINDOW) {
+                currentWindow++;
+            }
+            else {
+                nextPage = page.response;
+            }
+        }
+        return nextPage != null;
+    }
+
+    /**
+     * Provides the next page, waiting for it if it has not been fetched yet.
+     */
+    @Override
+    public GetMetricDataResponse next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GetMetricDataResponse page = nextPage;
+        nextPage = null;
+        return page;
+    }
+
+    /**
+     * Stops fetching pages, pages that are being fetched are discarded.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    private static void fetchWindow(ThrottlingInvoker invoker, CloudWatchClient cloudwatch, GetMetricDataRequest windowRequest,
+            BlockingQueue<Page> pages)
+    {
+        try {
+            try {
+                GetMetricDataRequest.Builder requestBuilder = windowRequest.toBuilder();
+                String prevToken;
+                String nextToken;
+                do {
+                    GetMetricDataRequest pageRequest = requestBuilder.build();
+                    prevToken = pageRequest.nextToken();
+                    GetMetricDataResponse page = invoker.invoke(() -> cloudwatch.getMetricData(pageRequest));
+                    pages.put(new Page(page, null));
+                    nextToken = page.nextToken();
+                    requestBuilder.nextToken(nextToken);
+                }
+                while (nextToken != null && !nextToken.equalsIgnoreCase(prevToken));
+                pages.put(END_OF_WINDOW);
+            }
+            catch (RuntimeException ex) {
+                pages.put(new Page(null, ex));
+            }
+            catch (InterruptedException ex) {
+                throw ex;
+            }
+            catch (Exception ex) {
+                pages.put(new Page(null, new RuntimeException(ex)));
+            }
+        }
+        catch (InterruptedException ex) {
+            //the reader was closed
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Page take(BlockingQueue<Page> pages)
+    {
+        try {
+            return pages.take();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static GetMetricDataRequest makeWindow(GetMetricDataRequest request, Instant start, Instant end)
+    {
+        return request.toBuilder()
+                .startTime(start)
+                .endTime(end)
+                .nextToken(null)
+                .build();
+    }
+
+    private static long ceilDiv(long dividend, long divisor)
+    {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static long lcm(long a, long b)
+    {
+        long gcd = a;
+        for (long rest = b; rest != 0; ) {
+            long next = gcd % rest;
+            gcd = rest;
+            rest = next;
+        }
+        return a / gcd * b;
+    }
+
+    private static final class Page
+    {
+        //null with END_OF_WINDOW or an error
+        private final GetMetricDataResponse response;
+        private final RuntimeException error;
+
+        private Page(GetMetricDataResponse response, RuntimeException error)
+        {
+            this.response = response;
+            this.error = error;
+        }
+    }
+}
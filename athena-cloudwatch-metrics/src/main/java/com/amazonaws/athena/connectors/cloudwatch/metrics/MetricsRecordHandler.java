@@ -23,6 +23,10 @@ import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.FieldResolver;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
@@ -30,6 +34,11 @@ import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.MetricSamplesTa
 import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.MetricsTable;
 import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +46,6 @@ import software.amazon.awssdk.services.athena.AthenaClient;
 import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
 import software.amazon.awssdk.services.cloudwatch.model.Dimension;
 import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataRequest;
-import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataResponse;
 import software.amazon.awssdk.services.cloudwatch.model.ListMetricsRequest;
 import software.amazon.awssdk.services.cloudwatch.model.ListMetricsResponse;
 import software.amazon.awssdk.services.cloudwatch.model.Metric;
@@ -47,6 +55,7 @@ import software.amazon.awssdk.services.cloudwatch.model.MetricStat;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -88,6 +97,23 @@ public class MetricsRecordHandler
     //Schema for the metric_samples table.
     private static final Table METRIC_DATA_TABLE = new MetricSamplesTable();
 
+    //Config option with the number of time windows the samples of a split are read in, each window is fetched
+    //concurrently but repeats the split's queries, and GetMetricData is billed by the metric requested.
+    protected static final String READ_PARALLELISM = "metric_samples_read_parallelism";
+    //The most samples written to a Block in one call.
+    private static final int MAX_SAMPLES_PER_WRITE = 1_000;
+    //Writes a Dimension into the dimensions struct.
+    private static final FieldResolver DIMENSION_RESOLVER = (Field field, Object val) -> {
+        if (field.getName().equals(DIMENSION_NAME_FIELD)) {
+            return ((Dimension) val).name();
+        }
+        else if (field.getName().equals(DIMENSION_VALUE_FIELD)) {
+            return ((Dimension) val).value();
+        }
+
+        throw new RuntimeException("Unexpected field " + field.getName());
+    };
+
     //Throttling configs derived from benchmarking
     private static final long THROTTLING_INITIAL_DELAY = 140;
     private static final long THROTTLING_INCREMENTAL_INCREASE = 20;
@@ -97,6 +123,7 @@ public class MetricsRecordHandler
 
     private final S3Client amazonS3;
     private final CloudWatchClient cloudwatchClient;
+    private final int readParallelism;
 
     public MetricsRecordHandler(java.util.Map<String, String> configOptions)
     {
@@ -112,6 +139,7 @@ public class MetricsRecordHandler
         super(amazonS3, secretsManager, athena, SOURCE_TYPE, configOptions);
         this.amazonS3 = amazonS3;
         this.cloudwatchClient = metrics;
+        this.readParallelism = Integer.parseInt(configOptions.getOrDefault(READ_PARALLELISM, "1"));
         this.invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions)
             .withInitialDelayMs(THROTTLING_INITIAL_DELAY)
             .withIncrease(THROTTLING_INCREMENTAL_INCREASE)
@@ -162,19 +190,7 @@ public class MetricsRecordHandler
                         matches &= block.offerValue(NAMESPACE_FIELD, row, nextMetric.namespace());
                         matches &= block.offerComplexValue(STATISTIC_FIELD, row, DEFAULT, STATISTICS);
 
-                        matches &= block.offerComplexValue(DIMENSIONS_FIELD,
-                                row,
-                                (Field field, Object val) -> {
-                                    if (field.getName().equals(DIMENSION_NAME_FIELD)) {
-                                        return ((Dimension) val).name();
-                                    }
-                                    else if (field.getName().equals(DIMENSION_VALUE_FIELD)) {
-                                        return ((Dimension) val).value();
-                                    }
-
-                                    throw new RuntimeException("Unexpected field " + field.getName());
-                                },
-                                nextMetric.dimensions());
+                        matches &= block.offerComplexValue(DIMENSIONS_FIELD, row, DIMENSION_RESOLVER, nextMetric.dimensions());
 
                         //This field is 'faked' in that we just use it as a convenient way to filter single dimensions. As such
                         //we always populate it with the value of the filter if the constraint passed and the filter was singleValue
@@ -201,78 +217,131 @@ public class MetricsRecordHandler
      * Handles retrieving the samples for a specific metric from Cloudwatch Metrics.
      */
     private void readMetricSamplesWithConstraint(BlockSpiller blockSpiller, ReadRecordsRequest request, QueryStatusChecker queryStatusChecker)
-            throws TimeoutException
     {
         GetMetricDataRequest originalDataRequest = MetricUtils.makeGetMetricDataRequest(request);
         Map<String, MetricDataQuery> queries = new HashMap<>();
         for (MetricDataQuery query : originalDataRequest.metricDataQueries()) {
             queries.put(query.id(), query);
         }
-        GetMetricDataRequest.Builder dataRequestBuilder = originalDataRequest.toBuilder();
 
-        String prevToken;
-        String nextToken;
         ValueSet dimensionNameConstraint = request.getConstraints().getSummary().get(DIMENSION_NAME_FIELD);
         ValueSet dimensionValueConstraint = request.getConstraints().getSummary().get(DIMENSION_VALUE_FIELD);
-        do {
-            GetMetricDataRequest dataRequest = dataRequestBuilder.build();
-            prevToken = dataRequest.nextToken();
-            GetMetricDataResponse result = invoker.invoke(() -> cloudwatchClient.getMetricData(dataRequest));
-            for (MetricDataResult nextMetric : result.metricDataResults()) {
-                MetricStat metricStat = queries.get(nextMetric.id()).metricStat();
-                List<Instant> timestamps = nextMetric.timestamps();
-                List<Double> values = nextMetric.values();
-                for (int i = 0; i < nextMetric.values().size(); i++) {
-                    int sampleNum = i;
-                    blockSpiller.writeRows((Block block, int row) -> {
-                        /**
-                         * Most constraints were already applied at split generation so we only need to apply
-                         * a subset.
-                         */
-                        block.offerValue(METRIC_NAME_FIELD, row, metricStat.metric().metricName());
-                        block.offerValue(NAMESPACE_FIELD, row, metricStat.metric().namespace());
-                        block.offerValue(STATISTIC_FIELD, row, metricStat.stat());
+        //These fields are 'faked' in that we just use them as a convenient way to filter single dimensions. As such
+        //we always populate them with the value of the filter if the constraint passed and the filter was singleValue
+        String dimName = (dimensionNameConstraint == null || !dimensionNameConstraint.isSingleValue())
+                ? null : dimensionNameConstraint.getSingleValue().toString();
+        String dimValue = (dimensionValueConstraint == null || !dimensionValueConstraint.isSingleValue())
+                ? null : dimensionValueConstraint.getSingleValue().toString();
 
-                        block.offerComplexValue(DIMENSIONS_FIELD,
-                                row,
-                                (Field field, Object val) -> {
-                                    if (field.getName().equals(DIMENSION_NAME_FIELD)) {
-                                        return ((Dimension) val).name();
-                                    }
-                                    else if (field.getName().equals(DIMENSION_VALUE_FIELD)) {
-                                        return ((Dimension) val).value();
-                                    }
+        /**
+         * Most constraints were already applied at split generation so we only need to apply
+         * those on the samples themselves.
+         */
+        ConstraintEvaluator evaluator = blockSpiller.getConstraintEvaluator();
+        ConstraintProjector timestampProjector = evaluator.makeConstraintProjector(TIMESTAMP_FIELD).orElse(null);
+        ConstraintProjector valueProjector = evaluator.makeConstraintProjector(VALUE_FIELD).orElse(null);
 
-                                    throw new RuntimeException("Unexpected field " + field.getName());
-                                },
-                                metricStat.metric().dimensions());
+        try (MetricDataWindowReader pages = new MetricDataWindowReader(invoker, cloudwatchClient, originalDataRequest, readParallelism)) {
+            while (pages.hasNext() && queryStatusChecker.isQueryRunning()) {
+                for (MetricDataResult nextMetric : pages.next().metricDataResults()) {
+                    MetricStat metricStat = queries.get(nextMetric.id()).metricStat();
+                    SampleWriter sampleWriter = new SampleWriter(metricStat, dimName, dimValue, nextMetric.timestamps(),
+                            nextMetric.values(), timestampProjector, valueProjector);
+                    for (int i = 0; i < nextMetric.values().size(); i += MAX_SAMPLES_PER_WRITE) {
+                        int first = i;
+                        int last = Math.min(nextMetric.values().size(), i + MAX_SAMPLES_PER_WRITE);
+                        blockSpiller.writeRows((Block block, int row) -> sampleWriter.write(block, row, first, last));
+                    }
+                }
+            }
+        }
+    }
 
-                        //This field is 'faked' in that we just use it as a convenient way to filter single dimensions. As such
-                        //we always populate it with the value of the filter if the constraint passed and the filter was singleValue
-                        String dimName = (dimensionNameConstraint == null || !dimensionNameConstraint.isSingleValue())
-                                ? null : dimensionNameConstraint.getSingleValue().toString();
-                        block.offerValue(DIMENSION_NAME_FIELD, row, dimName);
+    /**
+     * Writes the samples of one metric straight into the vectors of a Block. Every column other than the timestamp
+     * and the value is the same for all the samples of a metric, so those values are encoded once.
+     */
+    private static class SampleWriter
+    {
+        private final MetricStat metricStat;
+        private final byte[] metricName;
+        private final byte[] namespace;
+        private final byte[] statistic;
+        private final byte[] dimName;
+        private final byte[] dimValue;
+        private final List<Instant> timestamps;
+        private final List<Double> values;
+        private final ConstraintProjector timestampProjector;
+        private final ConstraintProjector valueProjector;
 
-                        //This field is 'faked' in that we just use it as a convenient way to filter single dimensions. As such
-                        //we always populate it with the value of the filter if the constraint passed and the filter was singleValue
-                        String dimVal = (dimensionValueConstraint == null || !dimensionValueConstraint.isSingleValue())
-                                ? null : dimensionValueConstraint.getSingleValue().toString();
-                        block.offerValue(DIMENSION_VALUE_FIELD, row, dimVal);
+        SampleWriter(MetricStat metricStat, String dimName, String dimValue, List<Instant> timestamps, List<Double> values,
+                ConstraintProjector timestampProjector, ConstraintProjector valueProjector)
+        {
+            this.metricStat = metricStat;
+            this.metricName = encode(metricStat.metric().metricName());
+            this.namespace = encode(metricStat.metric().namespace());
+            this.statistic = encode(metricStat.stat());
+            this.dimName = encode(dimName);
+            this.dimValue = encode(dimValue);
+            this.timestamps = timestamps;
+            this.values = values;
+            this.timestampProjector = timestampProjector;
+            this.valueProjector = valueProjector;
+        }
 
-                        block.offerValue(PERIOD_FIELD, row, metricStat.period());
+        /**
+         * Writes the samples [first, last) that pass the constraints, starting at the given row of the Block.
+         *
+         * @return The number of rows written.
+         */
+        int write(Block block, int firstRow, int first, int last)
+        {
+            BigIntVector timestampVector = (BigIntVector) block.getFieldVector(TIMESTAMP_FIELD);
+            Float8Vector valueVector = (Float8Vector) block.getFieldVector(VALUE_FIELD);
+            IntVector periodVector = (IntVector) block.getFieldVector(PERIOD_FIELD);
+            FieldVector dimensionsVector = block.getFieldVector(DIMENSIONS_FIELD);
+            VarCharVector[] stringVectors = {
+                    (VarCharVector) block.getFieldVector(METRIC_NAME_FIELD),
+                    (VarCharVector) block.getFieldVector(NAMESPACE_FIELD),
+                    (VarCharVector) block.getFieldVector(STATISTIC_FIELD),
+                    (VarCharVector) block.getFieldVector(DIMENSION_NAME_FIELD),
+                    (VarCharVector) block.getFieldVector(DIMENSION_VALUE_FIELD)};
+            byte[][] stringValues = {metricName, namespace, statistic, dimName, dimValue};
 
-                        boolean matches = true;
-                        block.offerValue(VALUE_FIELD, row, values.get(sampleNum));
-                        long timestamp = timestamps.get(sampleNum).getEpochSecond();
-                        block.offerValue(TIMESTAMP_FIELD, row, timestamp);
+            int row = firstRow;
+            for (int i = first; i < last; i++) {
+                long timestamp = timestamps.get(i).getEpochSecond();
+                Double value = values.get(i);
+                if ((timestampProjector != null && !timestampProjector.apply(timestamp))
+                        || (valueProjector != null && !valueProjector.apply(value))) {
+                    continue;
+                }
 
-                        return matches ? 1 : 0;
-                    });
+                if (timestampVector != null) {
+                    timestampVector.setSafe(row, timestamp);
+                }
+                if (valueVector != null && value != null) {
+                    valueVector.setSafe(row, value);
                 }
+                if (periodVector != null && metricStat.period() != null) {
+                    periodVector.setSafe(row, metricStat.period());
+                }
+                for (int field = 0; field < stringVectors.length; field++) {
+                    if (stringVectors[field] != null && stringValues[field] != null) {
+                        stringVectors[field].setSafe(row, stringValues[field]);
+                    }
+                }
+                if (dimensionsVector != null) {
+                    BlockUtils.setComplexValue(dimensionsVector, row, DIMENSION_RESOLVER, metricStat.metric().dimensions());
+                }
+                row++;
             }
-            nextToken = result.nextToken();
-            dataRequestBuilder.nextToken(result.nextToken());
+            return row - firstRow;
+        }
+
+        private static byte[] encode(String value)
+        {
+            return (value == null) ? null : value.getBytes(StandardCharsets.UTF_8);
         }
-        while (nextToken != null && !nextToken.equalsIgnoreCase(prevToken) && queryStatusChecker.isQueryRunning());
     }
 }
@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * athena-cloudwatch-metrics
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.cloudwatch.metrics;
+
+import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.Metric;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataQuery;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataResult;
+import software.amazon.awssdk.services.cloudwatch.model.MetricStat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.amazonaws.athena.connectors.cloudwatch.metrics.MetricsExceptionFilter.EXCEPTION_FILTER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class MetricDataWindowReaderTest
+{
+    private static final Instant START = Instant.parse("2024-01-01T00:20:00Z");
+
+    @Test
+    public void makeWindows_ContiguousAndHourAligned()
+    {
+        GetMetricDataRequest request = makeRequest(START, START.plus(Duration.ofHours(10)), 300);
+
+        List<GetMetricDataRequest> windows = MetricDataWindowReader.makeWindows(request, 4);
+
+        assertEquals(4, windows.size());
+        assertEquals(request.startTime(), windows.get(0).startTime());
+        assertEquals(request.endTime(), windows.get(windows.size() - 1).endTime());
+        for (int i = 1; i < windows.size(); i++) {
+            assertEquals(windows.get(i - 1).endTime(), windows.get(i).startTime());
+            assertEquals(0, windows.get(i).startTime().getEpochSecond() % 3600);
+            assertEquals(request.metricDataQueries(), windows.get(i).metricDataQueries());
+        }
+    }
+
+    @Test
+    public void makeWindows_AlignedToPeriods()
+    {
+        GetMetricDataRequest request = makeRequest(START, START.plus(Duration.ofDays(10)), 7200);
+
+        List<GetMetricDataRequest> windows = MetricDataWindowReader.makeWindows(request, 8);
+
+        assertTrue(windows.size() > 1);
+        for (int i = 1; i < windows.size(); i++) {
+            assertEquals(0, windows.get(i).startTime().getEpochSecond() % 7200);
+        }
+    }
+
+    @Test
+    public void makeWindows_NotWorthCutting()
+    {
+        GetMetricDataRequest request = makeRequest(START, START.plus(Duration.ofMinutes(50)), 60);
+        assertEquals(Collections.singletonList(request), MetricDataWindowReader.makeWindows(request, 4));
+
+        request = makeRequest(START, START.plus(Duration.ofDays(1)), 60);
+        assertEquals(Collections.singletonList(request), MetricDataWindowReader.makeWindows(request, 1));
+    }
+
+    @Test
+    public void makeWindows_OnlySpreadsRetainedData()
+    {
+        Instant end = START.plus(Duration.ofDays(1000));
+        GetMetricDataRequest request = makeRequest(Instant.EPOCH, end, 60);
+
+        List<GetMetricDataRequest> windows = MetricDataWindowReader.makeWindows(request, 4);
+
+        assertEquals(Instant.EPOCH, windows.get(0).startTime());
+        assertTrue(windows.get(1).startTime().isAfter(end.minus(Duration.ofDays(456))));
+    }
+
+    @Test
+    public void next_PagesOfEachWindowInOrder()
+    {
+        CloudWatchClient cloudwatch = Mockito.mock(CloudWatchClient.class);
+        when(cloudwatch.getMetricData(any(GetMetricDataRequest.class))).thenAnswer(invocation -> {
+            GetMetricDataRequest pageRequest = invocation.getArgument(0, GetMetricDataRequest.class);
+            //two pages per window, tagged with the start of the window
+            String nextToken = (pageRequest.nextToken() == null) ? "page2" : null;
+            String id = pageRequest.startTime().getEpochSecond() + "/" + ((nextToken == null) ? 2 : 1);
+            return GetMetricDataResponse.builder()
+                    .metricDataResults(MetricDataResult.builder().id(id).build())
+                    .nextToken(nextToken)
+                    .build();
+        });
+        GetMetricDataRequest request = makeRequest(START, START.plus(Duration.ofHours(10)), 60);
+        List<GetMetricDataRequest> windows = MetricDataWindowReader.makeWindows(request, 4);
+
+        List<String> pages = new ArrayList<>();
+        try (MetricDataWindowReader reader = new MetricDataWindowReader(newInvoker(), cloudwatch, request, 4)) {
+            while (reader.hasNext()) {
+                pages.add(reader.next().metricDataResults().get(0).id());
+            }
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (GetMetricDataRequest window : windows) {
+            expected.add(window.startTime().getEpochSecond() + "/1");
+            expected.add(window.startTime().getEpochSecond() + "/2");
+        }
+        assertEquals(expected, pages);
+    }
+
+    @Test
+    public void next_RethrowsErrorOfWindow()
+    {
+        CloudWatchClient cloudwatch = Mockito.mock(CloudWatchClient.class);
+        IllegalStateException error = new IllegalStateException("unexpected");
+        when(cloudwatch.getMetricData(any(GetMetricDataRequest.class))).thenThrow(error);
+        GetMetricDataRequest request = makeRequest(START, START.plus(Duration.ofHours(10)), 60);
+
+        try (MetricDataWindowReader reader = new MetricDataWindowReader(newInvoker(), cloudwatch, request, 2)) {
+            assertSame(error, assertThrows(IllegalStateException.class, reader::hasNext));
+        }
+    }
+
+    @Test
+    public void next_EmptyWindows()
+    {
+        CloudWatchClient cloudwatch = Mockito.mock(CloudWatchClient.class);
+        when(cloudwatch.getMetricData(any(GetMetricDataRequest.class))).thenReturn(GetMetricDataResponse.builder().build());
+        GetMetricDataRequest request = makeRequest(START, START.plus(Duration.ofHours(10)), 60);
+
+        try (MetricDataWindowReader reader = new MetricDataWindowReader(newInvoker(), cloudwatch, request, 3)) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(reader.hasNext());
+                assertTrue(reader.next().metricDataResults().isEmpty());
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    private static ThrottlingInvoker newInvoker()
+    {
+        return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, Collections.emptyMap()).build();
+    }
+
+    private static GetMetricDataRequest makeRequest(Instant start, Instant end, int period)
+    {
+        return GetMetricDataRequest.builder()
+                .startTime(start)
+                .endTime(end)
+                .metricDataQueries(MetricDataQuery.builder()
+                        .id("m1")
+                        .metricStat(MetricStat.builder()
+                                .metric(Metric.builder().namespace("namespace").metricName("metricName").build())
+                                .period(period)
+                                .stat("Average")
+                                .build())
+                        .build())
+                .build();
+    }
+}
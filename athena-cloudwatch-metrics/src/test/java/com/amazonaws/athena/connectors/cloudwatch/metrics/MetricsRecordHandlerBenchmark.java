@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * athena-cloudwatch-metrics
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.cloudwatch.metrics;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.MetricSamplesTable;
+import org.apache.arrow.vector.types.Types;
+import org.mockito.Mockito;
+import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.Metric;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataQuery;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataResult;
+import software.amazon.awssdk.services.cloudwatch.model.MetricStat;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.TIMESTAMP_FIELD;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the rows/sec of reading a split of metric samples in a single time window with reading it in concurrent
+ * time windows, against a mocked CloudWatchClient that answers GetMetricData with a latency that grows with the number
+ * of data points it returns. Not part of the test suite, run the main method with the test classpath:
+ * <p>
+ * mvn -pl athena-cloudwatch-metrics test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.amazonaws.athena.connectors.cloudwatch.metrics.MetricsRecordHandlerBenchmark
+ */
+public class MetricsRecordHandlerBenchmark
+{
+    private static final int METRICS = 100;
+    private static final int PERIOD = 60;
+    private static final long HOURS = 24;
+    //GetMetricData returns at most this many data points per page.
+    private static final int MAX_DATA_POINTS_PER_PAGE = 100_800;
+    private static final long BASE_LATENCY_MS = 40;
+    private static final long DATA_POINTS_PER_LATENCY_MS = 2_000;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 5;
+
+    private MetricsRecordHandlerBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        CloudWatchClient cloudwatch = Mockito.mock(CloudWatchClient.class);
+        when(cloudwatch.getMetricData(any(GetMetricDataRequest.class))).thenAnswer(invocation ->
+                getMetricData(invocation.getArgument(0, GetMetricDataRequest.class)));
+
+        for (int parallelism : new int[] {1, 2, 4, 8}) {
+            MetricsRecordHandler handler = new MetricsRecordHandler(Mockito.mock(S3Client.class),
+                    Mockito.mock(SecretsManagerClient.class), Mockito.mock(AthenaClient.class), cloudwatch,
+                    Map.of(MetricsRecordHandler.READ_PARALLELISM, String.valueOf(parallelism)));
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                run(handler);
+            }
+            long rows = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                rows += run(handler);
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("parallelism %d: %,.0f rows/sec (%,d rows in %.2f s)%n", parallelism, rows / seconds, rows, seconds);
+        }
+    }
+
+    private static long run(MetricsRecordHandler handler)
+            throws Exception
+    {
+        long start = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+        Map<String, ValueSet> constraints = new HashMap<>();
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            constraints.put(TIMESTAMP_FIELD, SortedRangeSet.of(Range.range(allocator, Types.MinorType.BIGINT.getType(),
+                    start, true, start + HOURS * 3600, false)));
+
+            List<MetricDataQuery> queries = new ArrayList<>();
+            for (int i = 0; i < METRICS; i++) {
+                queries.add(MetricDataQuery.builder()
+                        .id("m" + i)
+                        .metricStat(MetricStat.builder()
+                                .metric(Metric.builder()
+                                        .namespace("AWS/EC2")
+                                        .metricName("CPUUtilization")
+                                        .dimensions(Dimension.builder().name("InstanceId").value("i-" + i).build())
+                                        .build())
+                                .period(PERIOD)
+                                .stat("Average")
+                                .build())
+                        .build());
+            }
+            S3SpillLocation spillLocation = S3SpillLocation.newBuilder()
+                    .withBucket("bucket")
+                    .withSplitId(UUID.randomUUID().toString())
+                    .withQueryId(UUID.randomUUID().toString())
+                    .withIsDirectory(true)
+                    .build();
+            Split split = Split.newBuilder(spillLocation, null)
+                    .add(MetricDataQuerySerDe.SERIALIZED_METRIC_DATA_QUERIES_FIELD_NAME, MetricDataQuerySerDe.serialize(queries))
+                    .build();
+
+            ReadRecordsRequest request = new ReadRecordsRequest(
+                    new FederatedIdentity("arn", "account", Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap()),
+                    "catalog",
+                    "queryId",
+                    new TableName("default", "metric_samples"),
+                    new MetricSamplesTable().getSchema(),
+                    split,
+                    new Constraints(constraints, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                    100_000_000_000L,
+                    100_000_000_000L);
+
+            try (ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator, request)) {
+                return response.getRecordCount();
+            }
+        }
+    }
+
+    /**
+     * Answers with a sample per period of the request's time range for each query, paginated like CloudWatch.
+     */
+    private static GetMetricDataResponse getMetricData(GetMetricDataRequest request)
+            throws InterruptedException
+    {
+        long start = request.startTime().getEpochSecond();
+        long end = request.endTime().getEpochSecond();
+        long samplesPerQuery = (end - start + PERIOD - 1) / PERIOD;
+        long firstSample = (request.nextToken() == null) ? 0 : Long.parseLong(request.nextToken());
+        long lastSample = Math.min(samplesPerQuery, firstSample + MAX_DATA_POINTS_PER_PAGE / request.metricDataQueries().size());
+
+        List<MetricDataResult> results = new ArrayList<>();
+        for (MetricDataQuery query : request.metricDataQueries()) {
+            List<Instant> timestamps = new ArrayList<>();
+            List<Double> values = new ArrayList<>();
+            for (long sample = firstSample; sample < lastSample; sample++) {
+                timestamps.add(Instant.ofEpochSecond(start + sample * PERIOD));
+                values.add((double) (sample % 100));
+            }
+            results.add(MetricDataResult.builder().id(query.id()).timestamps(timestamps).values(values).build());
+        }
+        Thread.sleep(BASE_LATENCY_MS + (lastSample - firstSample) * results.size() / DATA_POINTS_PER_LATENCY_MS);
+
+        return GetMetricDataResponse.builder()
+                .metricDataResults(results)
+                .nextToken((lastSample < samplesPerQuery) ? String.valueOf(lastSample) : null)
+                .build();
+    }
+}
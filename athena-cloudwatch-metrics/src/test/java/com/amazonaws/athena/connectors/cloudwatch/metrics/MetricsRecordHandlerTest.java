@@ -26,6 +26,8 @@ import com.amazonaws.athena.connector.lambda.data.S3BlockSpillReader;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
@@ -39,6 +41,7 @@ import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.MetricSamplesTa
 import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.MetricsTable;
 import com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table;
 import com.google.common.io.ByteStreams;
+import org.apache.arrow.vector.types.Types;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -88,6 +91,8 @@ import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.ME
 import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.NAMESPACE_FIELD;
 import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.PERIOD_FIELD;
 import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.STATISTIC_FIELD;
+import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.TIMESTAMP_FIELD;
+import static com.amazonaws.athena.connectors.cloudwatch.metrics.tables.Table.VALUE_FIELD;
 import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -321,6 +326,91 @@ public class MetricsRecordHandlerTest
         logger.info("readMetricSamplesWithConstraint: exit");
     }
 
+    @Test
+    public void readMetricSamplesInTimeWindows()
+            throws Exception
+    {
+        handler = new MetricsRecordHandler(mockS3, mockSecretsManager, mockAthena, mockMetrics,
+                com.google.common.collect.ImmutableMap.of(MetricsRecordHandler.READ_PARALLELISM, "4"));
+
+        int numMetrics = 3;
+        int numSamples = 10;
+        List<Instant> windowStarts = Collections.synchronizedList(new ArrayList<>());
+        when(mockMetrics.getMetricData(nullable(GetMetricDataRequest.class))).thenAnswer((InvocationOnMock invocation) -> {
+            GetMetricDataRequest request = invocation.getArgument(0, GetMetricDataRequest.class);
+            if (request.nextToken() == null) {
+                windowStarts.add(request.startTime());
+            }
+            //one sample per minute from the start of the window, the value is the minute
+            List<MetricDataResult> samples = new ArrayList<>();
+            for (int i = 0; i < numMetrics; i++) {
+                List<Double> values = new ArrayList<>();
+                List<Instant> timestamps = new ArrayList<>();
+                for (int j = 0; j < numSamples; j++) {
+                    values.add((double) j);
+                    timestamps.add(request.startTime().plusSeconds(60L * j));
+                }
+                samples.add(MetricDataResult.builder().values(values).timestamps(timestamps).id("m1").build());
+            }
+            String nextToken = (request.nextToken() == null) ? "valid" : null;
+            return GetMetricDataResponse.builder().nextToken(nextToken).metricDataResults(samples).build();
+        });
+
+        long start = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put(TIMESTAMP_FIELD, SortedRangeSet.of(Range.range(allocator, Types.MinorType.BIGINT.getType(),
+                start, true, start + 8 * 3600, false)));
+        constraintsMap.put(VALUE_FIELD, SortedRangeSet.of(Range.greaterThanOrEqual(allocator, Types.MinorType.FLOAT8.getType(), 5D)));
+
+        List<MetricDataQuery> metricDataQueries = Collections.singletonList(MetricDataQuery.builder()
+                .metricStat(MetricStat.builder()
+                        .metric(Metric.builder()
+                                .namespace("namespace")
+                                .metricName("metricName")
+                                .dimensions(Dimension.builder().name("dimName").value("dimValue").build())
+                                .build())
+                        .period(60)
+                        .stat("p90")
+                        .build())
+                .id("m1")
+                .build());
+
+        S3SpillLocation spillLocation = S3SpillLocation.newBuilder()
+                .withBucket(UUID.randomUUID().toString())
+                .withSplitId(UUID.randomUUID().toString())
+                .withQueryId(UUID.randomUUID().toString())
+                .withIsDirectory(true)
+                .build();
+        Split split = Split.newBuilder(spillLocation, keyFactory.create())
+                .add(MetricDataQuerySerDe.SERIALIZED_METRIC_DATA_QUERIES_FIELD_NAME, MetricDataQuerySerDe.serialize(metricDataQueries))
+                .build();
+
+        ReadRecordsRequest request = new ReadRecordsRequest(identity,
+                "catalog",
+                "queryId-" + System.currentTimeMillis(),
+                METRIC_SAMPLES_TABLE_NAME,
+                METRIC_DATA_TABLE.getSchema(),
+                split,
+                new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                100_000_000_000L,
+                100_000_000_000L//100GB don't expect this to spill
+        );
+
+        RecordResponse rawResponse = handler.doReadRecords(allocator, request);
+
+        assertTrue(rawResponse instanceof ReadRecordsResponse);
+        ReadRecordsResponse response = (ReadRecordsResponse) rawResponse;
+
+        //two pages of each of the 4 windows, of which the samples with a value of 5 or more
+        assertEquals(4, windowStarts.size());
+        assertEquals(4 * 2 * numMetrics * 5, response.getRecords().getRowCount());
+        assertEquals(start + 5 * 60, response.getRecords().getFieldReader(TIMESTAMP_FIELD).readLong().longValue());
+        assertEquals(5D, response.getRecords().getFieldReader(VALUE_FIELD).readDouble(), 0D);
+        assertEquals("metricName", response.getRecords().getFieldReader(METRIC_NAME_FIELD).readText().toString());
+        assertEquals(60, response.getRecords().getFieldReader(PERIOD_FIELD).readInteger().intValue());
+        logger.info("readMetricSamplesInTimeWindows: {}", BlockUtils.rowToString(response.getRecords(), 0));
+    }
+
     private GetMetricDataResponse mockMetricData(InvocationOnMock invocation, int numMetrics, int numSamples)
     {
         GetMetricDataRequest request = invocation.getArgument(0, GetMetricDataRequest.class);
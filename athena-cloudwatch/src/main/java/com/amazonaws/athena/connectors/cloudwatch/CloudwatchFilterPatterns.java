@@ -0,0 +1,174 @@
+/*-
+ * #%L
+ * athena-cloudwatch
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.cloudwatch;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.ConstantExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.FederationExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.FunctionCallExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.VariableExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.functions.StandardFunctions;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.expression.ConstantExpression.DEFAULT_CONSTANT_EXPRESSION_BLOCK_NAME;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_MSG_FIELD;
+
+/**
+ * Turns the predicates of a query on the message column into a FilterLogEvents filter pattern.
+ * <p>
+ * The pattern only has to let through every event the predicates could match, Athena and the ConstraintEvaluator
+ * still filter the rows we return. So rather than translating a predicate exactly we pick the longest literal the
+ * message must contain, from an equality (message = 'x') or a LIKE pattern (message LIKE '%x%y%'), and search for
+ * it with a regular expression pattern, which matches substrings anywhere in the message, case-sensitively like SQL.
+ */
+final class CloudwatchFilterPatterns
+{
+    //Characters that are literals in a CloudWatch regular expression filter pattern.
+    private static final String PLAIN_CHARS = " _:,=@#/'<>!&;~";
+    //Characters that have to be escaped to be literals in a CloudWatch regular expression filter pattern.
+    private static final String ESCAPED_CHARS = ".*+?{}()|[]^$\\-";
+    //CloudWatch limits the length of a regular expression within a filter pattern.
+    private static final int MAX_LITERAL_LENGTH = 100;
+
+    private CloudwatchFilterPatterns() {}
+
+    /**
+     * @param constraints The constraints of the read.
+     * @return The filter pattern for the message predicates of the read, if any can be pushed down.
+     */
+    static Optional<String> fromConstraints(Constraints constraints)
+    {
+        List<String> literals = new ArrayList<>();
+
+        ValueSet messageConstraint = constraints.getSummary().get(LOG_MSG_FIELD);
+        if (messageConstraint != null && messageConstraint.isSingleValue()) {
+            literals.add(String.valueOf(messageConstraint.getSingleValue()));
+        }
+
+        //The expressions of a query are ANDed together, so each LIKE must hold on its own.
+        for (FederationExpression expression : constraints.getExpression()) {
+            String likePattern = likePatternOf(expression);
+            if (likePattern != null) {
+                literals.addAll(splitLikePattern(likePattern));
+            }
+        }
+
+        String longest = "";
+        for (String literal : literals) {
+            for (String fragment : splitOnUnsupported(literal)) {
+                if (fragment.length() > longest.length()) {
+                    longest = fragment;
+                }
+            }
+        }
+        if (longest.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of("%" + escape(longest.substring(0, Math.min(longest.length(), MAX_LITERAL_LENGTH))) + "%");
+    }
+
+    /**
+     * @return The pattern of a "message LIKE 'pattern'" expression or null if the expression is anything else,
+     * including a LIKE with an escape character.
+     */
+    private static String likePatternOf(FederationExpression expression)
+    {
+        if (!(expression instanceof FunctionCallExpression)) {
+            return null;
+        }
+        FunctionCallExpression functionCall = (FunctionCallExpression) expression;
+        List<FederationExpression> arguments = functionCall.getArguments();
+        if (!StandardFunctions.LIKE_PATTERN_FUNCTION_NAME.getFunctionName().equals(functionCall.getFunctionName())
+                || arguments.size() != 2
+                || !(arguments.get(0) instanceof VariableExpression)
+                || !LOG_MSG_FIELD.equals(((VariableExpression) arguments.get(0)).getColumnName())
+                || !(arguments.get(1) instanceof ConstantExpression)) {
+            return null;
+        }
+
+        Block values = ((ConstantExpression) arguments.get(1)).getValues();
+        if (values == null || values.getRowCount() != 1) {
+            return null;
+        }
+        FieldReader fieldReader = values.getFieldReader(DEFAULT_CONSTANT_EXPRESSION_BLOCK_NAME);
+        fieldReader.setPosition(0);
+        Object pattern = fieldReader.readObject();
+        return (pattern == null) ? null : pattern.toString();
+    }
+
+    /**
+     * @return The literal runs of a LIKE pattern, between its % and _ wildcards.
+     */
+    private static List<String> splitLikePattern(String likePattern)
+    {
+        List<String> literals = new ArrayList<>();
+        for (String literal : likePattern.split("[%_]")) {
+            if (!literal.isEmpty()) {
+                literals.add(literal);
+            }
+        }
+        return literals;
+    }
+
+    /**
+     * @return The runs of a literal that only contain characters we know how to write in a filter pattern.
+     */
+    private static List<String> splitOnUnsupported(String literal)
+    {
+        List<String> fragments = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder();
+        for (char c : literal.toCharArray()) {
+            if (isSupported(c)) {
+                fragment.append(c);
+            }
+            else if (fragment.length() > 0) {
+                fragments.add(fragment.toString());
+                fragment.setLength(0);
+            }
+        }
+        if (fragment.length() > 0) {
+            fragments.add(fragment.toString());
+        }
+        return fragments;
+    }
+
+    private static boolean isSupported(char c)
+    {
+        return (c < 128 && Character.isLetterOrDigit(c)) || PLAIN_CHARS.indexOf(c) >= 0 || ESCAPED_CHARS.indexOf(c) >= 0;
+    }
+
+    private static String escape(String literal)
+    {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : literal.toCharArray()) {
+            if (ESCAPED_CHARS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -27,7 +27,8 @@ import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
-import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.functions.StandardFunctions;
 import com.amazonaws.athena.connector.lambda.handlers.MetadataHandler;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesResponse;
@@ -40,7 +41,10 @@ import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
+import com.amazonaws.athena.connector.lambda.metadata.SplitPlanner;
+import com.amazonaws.athena.connector.lambda.metadata.optimizations.DataSourceOptimizations;
 import com.amazonaws.athena.connector.lambda.metadata.optimizations.OptimizationSubType;
+import com.amazonaws.athena.connector.lambda.metadata.optimizations.pushdown.ComplexExpressionPushdownSubType;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connectors.cloudwatch.qpt.CloudwatchQueryPassthrough;
 import com.google.common.collect.ImmutableMap;
@@ -64,15 +68,15 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.UNLIMITED_PAGE_SIZE_VALUE;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchExceptionFilter.EXCEPTION_FILTER;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchUtils.getResult;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchUtils.getTimeRange;
 
 /**
  * Handles metadata requests for the Athena Cloudwatch Connector.
@@ -84,6 +88,9 @@ import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchUtils.getResu
  * 3. A special 'all_log_streams' view is added which allows you to query all LogStreams in a LogGroup.
  * 4. LogStreams area treated as partitions and scanned in parallel.
  * 5. Timestamp predicates are pushed into Cloudwatch itself.
+ * 6. When split_target_bytes or split_slice_seconds are set, large LogStreams are read in time slices, and with
+ * split_target_bytes small ones are read in batches.
+ * 7. When filter_pattern_pushdown is enabled, message predicates (=, LIKE) are pushed into Cloudwatch as filter patterns.
  */
 public class CloudwatchMetadataHandler
         extends MetadataHandler
@@ -109,6 +116,28 @@ public class CloudwatchMetadataHandler
     protected static final String LOG_MSG_FIELD = "message";
     //The name of the log stream size field in our split objects.
     protected static final String LOG_STREAM_SIZE_FIELD = "log_stream_bytes";
+    //The name of the fields in our partition objects with the time of the first and last events of a log stream.
+    protected static final String LOG_STREAM_FIRST_EVENT_FIELD = "first_event_time";
+    protected static final String LOG_STREAM_LAST_EVENT_FIELD = "last_event_time";
+    //The name of the split property listing the log streams of a split that batches several small log streams.
+    protected static final String LOG_STREAMS_FIELD = "log_streams";
+    //Separates the log streams of a batched split, log stream names can't contain ':'.
+    protected static final String LOG_STREAMS_DELIMITER = ":";
+    //The name of the split properties bounding the time slice of a log stream that a split reads, end exclusive.
+    protected static final String SLICE_START_TIME_FIELD = "slice_start_time";
+    protected static final String SLICE_END_TIME_FIELD = "slice_end_time";
+    //Config option with the number of bytes a split should read. When set, larger log streams are cut into time slices
+    //and smaller ones are batched together, otherwise each log stream is read by one split.
+    protected static final String SPLIT_TARGET_BYTES = "split_target_bytes";
+    //Config option with the longest time range a split should read, LogStreams spanning more are cut into time slices.
+    //Unlike split_target_bytes it doesn't depend on storedBytes, which LogStreams no longer reliably report.
+    protected static final String SPLIT_SLICE_SECONDS = "split_slice_seconds";
+    //The most log streams batched in a split, FilterLogEvents accepts up to 100 log streams.
+    private static final int MAX_LOG_STREAMS_PER_SPLIT = 100;
+    //The most time slices a log stream is cut into.
+    private static final int MAX_SLICES_PER_LOG_STREAM = 100;
+    //Config option that makes reads push message predicates into FilterLogEvents filter patterns, false by default.
+    protected static final String FILTER_PATTERN_PUSHDOWN = "filter_pattern_pushdown";
     //The the schema of all Cloudwatch tables.
     protected static final Schema CLOUDWATCH_SCHEMA;
 
@@ -255,6 +284,8 @@ public class CloudwatchMetadataHandler
         }
         partitionSchemaBuilder.addField(LOG_STREAM_SIZE_FIELD, new ArrowType.Int(64, true));
         partitionSchemaBuilder.addField(LOG_GROUP_FIELD, Types.MinorType.VARCHAR.getType());
+        partitionSchemaBuilder.addField(LOG_STREAM_FIRST_EVENT_FIELD, new ArrowType.Int(64, true));
+        partitionSchemaBuilder.addField(LOG_STREAM_LAST_EVENT_FIELD, new ArrowType.Int(64, true));
     }
 
     /**
@@ -289,6 +320,9 @@ public class CloudwatchMetadataHandler
                     boolean matched = block.setValue(LOG_GROUP_FIELD, rowNum, cwRequestBuilder.build().logGroupName());
                     matched &= block.setValue(LOG_STREAM_FIELD, rowNum, next.logStreamName());
                     matched &= block.setValue(LOG_STREAM_SIZE_FIELD, rowNum, next.storedBytes());
+                    //Only used to slice the log stream, lastEventTimestamp can lag behind by up to an hour.
+                    block.setValue(LOG_STREAM_FIRST_EVENT_FIELD, rowNum, next.firstEventTimestamp());
+                    block.setValue(LOG_STREAM_LAST_EVENT_FIELD, rowNum, latestOf(next.lastEventTimestamp(), next.lastIngestionTime()));
                     return matched ? 1 : 0;
                 });
             }
@@ -299,12 +333,15 @@ public class CloudwatchMetadataHandler
 
     /**
      * Each partition is converted into a single Split which means we will potentially read all LogStreams required for
-     * the query in parallel.
+     * the query in parallel. When split_target_bytes is set, a LogStream that holds more than that is cut into time
+     * slices read by their own Splits, and consecutive LogStreams that hold less are batched into one Split. When
+     * split_slice_seconds is set, a LogStream whose events span more than that is cut into time slices too.
      *
      * @see MetadataHandler
      */
     @Override
     public GetSplitsResponse doGetSplits(BlockAllocator allocator, GetSplitsRequest request)
+            throws Exception
     {
         if (request.getConstraints().isQueryPassThrough()) {
             //Since this is QPT query we return a fixed split.
@@ -315,39 +352,146 @@ public class CloudwatchMetadataHandler
                             .build());
         }
 
-        int partitionContd = decodeContinuationToken(request);
-        Set<Split> splits = new HashSet<>();
-        Block partitions = request.getPartitions();
-        for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
-            FieldReader logStreamReader = partitions.getFieldReader(LOG_STREAM_FIELD);
-            logStreamReader.setPosition(curPartition);
+        SplitTarget target = new SplitTarget(Long.parseLong(configOptions.getOrDefault(SPLIT_TARGET_BYTES, "0")),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(configOptions.getOrDefault(SPLIT_SLICE_SECONDS, "0"))));
+        Range timeRange = getTimeRange(request.getConstraints());
+        List<List<StreamPartition>> units = batchSmallStreams(readPartitions(request.getPartitions()), target.bytes);
+        return SplitPlanner.newBuilder(units, (List<StreamPartition> unit) -> (unit.size() == 1)
+                        ? makeSlicedSplits(request, unit.get(0), target, timeRange)
+                        : Collections.singletonList(makeBatchedSplit(request, unit)))
+                .withMaxSplitsPerPage(MAX_SPLITS_PER_REQUEST)
+                .build()
+                .plan(request);
+    }
 
-            FieldReader logGroupReader = partitions.getFieldReader(LOG_GROUP_FIELD);
+    private static List<StreamPartition> readPartitions(Block partitions)
+    {
+        FieldReader logStreamReader = partitions.getFieldReader(LOG_STREAM_FIELD);
+        FieldReader logGroupReader = partitions.getFieldReader(LOG_GROUP_FIELD);
+        FieldReader sizeReader = partitions.getFieldReader(LOG_STREAM_SIZE_FIELD);
+        //Partitions written before the time of the events was added to them can't be sliced.
+        boolean hasEventTimes = partitions.getFieldVector(LOG_STREAM_FIRST_EVENT_FIELD) != null
+                && partitions.getFieldVector(LOG_STREAM_LAST_EVENT_FIELD) != null;
+        FieldReader firstEventReader = hasEventTimes ? partitions.getFieldReader(LOG_STREAM_FIRST_EVENT_FIELD) : null;
+        FieldReader lastEventReader = hasEventTimes ? partitions.getFieldReader(LOG_STREAM_LAST_EVENT_FIELD) : null;
+
+        List<StreamPartition> streams = new ArrayList<>(partitions.getRowCount());
+        for (int curPartition = 0; curPartition < partitions.getRowCount(); curPartition++) {
+            logStreamReader.setPosition(curPartition);
             logGroupReader.setPosition(curPartition);
-
-            FieldReader sizeReader = partitions.getFieldReader(LOG_STREAM_SIZE_FIELD);
             sizeReader.setPosition(curPartition);
+            Long firstEvent = null;
+            Long lastEvent = null;
+            if (hasEventTimes) {
+                firstEventReader.setPosition(curPartition);
+                lastEventReader.setPosition(curPartition);
+                firstEvent = firstEventReader.readLong();
+                lastEvent = lastEventReader.readLong();
+            }
+            streams.add(new StreamPartition(String.valueOf(logGroupReader.readText()), String.valueOf(logStreamReader.readText()),
+                    sizeReader.readLong(), firstEvent, lastEvent));
+        }
+        return streams;
+    }
 
-            //Every split must have a unique location if we wish to spill to avoid failures
-            SpillLocation spillLocation = makeSpillLocation(request);
-
-            Split.Builder splitBuilder = Split.newBuilder(spillLocation, makeEncryptionKey())
-                    .add(CloudwatchMetadataHandler.LOG_GROUP_FIELD, String.valueOf(logGroupReader.readText()))
-                    .add(CloudwatchMetadataHandler.LOG_STREAM_FIELD, String.valueOf(logStreamReader.readText()))
-                    .add(CloudwatchMetadataHandler.LOG_STREAM_SIZE_FIELD, String.valueOf(sizeReader.readLong()));
+    /**
+     * Batches consecutive LogStreams that hold less than the target bytes into groups of up to the target bytes. Every
+     * other LogStream is a group of its own. The partitions of a table all belong to the same LogGroup.
+     */
+    private static List<List<StreamPartition>> batchSmallStreams(List<StreamPartition> streams, long targetBytes)
+    {
+        List<List<StreamPartition>> units = new ArrayList<>();
+        List<StreamPartition> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (StreamPartition stream : streams) {
+            long bytes = stream.getBytes();
+            //storedBytes is reported as 0 by LogStreams that don't track it, their size is unknown.
+            boolean batchable = targetBytes > 0 && bytes > 0 && bytes < targetBytes;
+            if (!batchable || batchBytes + bytes > targetBytes || batch.size() >= MAX_LOG_STREAMS_PER_SPLIT) {
+                if (!batch.isEmpty()) {
+                    units.add(batch);
+                    batch = new ArrayList<>();
+                    batchBytes = 0;
+                }
+            }
+            if (!batchable) {
+                units.add(Collections.singletonList(stream));
+                continue;
+            }
+            batch.add(stream);
+            batchBytes += bytes;
+        }
+        if (!batch.isEmpty()) {
+            units.add(batch);
+        }
+        return units;
+    }
 
-            splits.add(splitBuilder.build());
+    /**
+     * Cuts a LogStream into time slices of about the target bytes, assuming its events are spread evenly over time,
+     * and of at most the target slice length. Only the part of the LogStream that the query's time range covers is
+     * sliced. The first slice has no start and the last one no end, so that events outside of the LogStream's known
+     * first and last event times are still read.
+     */
+    private List<Split> makeSlicedSplits(GetSplitsRequest request, StreamPartition stream, SplitTarget target, Range timeRange)
+    {
+        Long low = stream.getFirstEvent();
+        Long high = stream.getLastEvent();
+        int slices = 1;
+        if (target.isSlicing() && low != null && high != null && high > low) {
+            long streamSpan = high - low;
+            if (timeRange != null && !timeRange.getLow().isNullValue()) {
+                low = Math.max(low, (Long) timeRange.getLow().getValue());
+            }
+            if (timeRange != null && !timeRange.getHigh().isNullValue()) {
+                high = Math.min(high, (Long) timeRange.getHigh().getValue());
+            }
+            if (high > low) {
+                long wanted = 1;
+                if (target.bytes > 0 && stream.getBytes() > target.bytes) {
+                    double coveredBytes = (double) stream.getBytes() * (high - low) / streamSpan;
+                    wanted = Math.max(wanted, (long) Math.ceil(coveredBytes / target.bytes));
+                }
+                if (target.sliceMillis > 0) {
+                    wanted = Math.max(wanted, (high - low + target.sliceMillis - 1) / target.sliceMillis);
+                }
+                slices = (int) Math.min(MAX_SLICES_PER_LOG_STREAM, wanted);
+            }
+        }
 
-            if (splits.size() >= MAX_SPLITS_PER_REQUEST) {
-                //We exceeded the number of split we want to return in a single request, return and provide
-                //a continuation token.
-                return new GetSplitsResponse(request.getCatalogName(),
-                        splits,
-                        encodeContinuationToken(curPartition));
+        List<Split> splits = new ArrayList<>(slices);
+        Long sliceStart = null;
+        for (int slice = 1; slice <= slices; slice++) {
+            Long sliceEnd = (slice == slices) ? null : low + (high - low) * slice / slices;
+            Split.Builder splitBuilder = Split.newBuilder(makeSpillLocation(request), makeEncryptionKey())
+                    .add(LOG_GROUP_FIELD, stream.getLogGroup())
+                    .add(LOG_STREAM_FIELD, stream.getLogStream())
+                    .add(LOG_STREAM_SIZE_FIELD, String.valueOf(stream.getBytes() / slices));
+            if (sliceStart != null) {
+                splitBuilder.add(SLICE_START_TIME_FIELD, String.valueOf(sliceStart));
+            }
+            if (sliceEnd != null) {
+                splitBuilder.add(SLICE_END_TIME_FIELD, String.valueOf(sliceEnd));
             }
+            splits.add(splitBuilder.build());
+            sliceStart = sliceEnd;
         }
+        return splits;
+    }
 
-        return new GetSplitsResponse(request.getCatalogName(), splits, null);
+    private Split makeBatchedSplit(GetSplitsRequest request, List<StreamPartition> batch)
+    {
+        List<String> logStreams = new ArrayList<>(batch.size());
+        long bytes = 0;
+        for (StreamPartition stream : batch) {
+            logStreams.add(stream.getLogStream());
+            bytes += stream.getBytes();
+        }
+        return Split.newBuilder(makeSpillLocation(request), makeEncryptionKey())
+                .add(LOG_GROUP_FIELD, batch.get(0).getLogGroup())
+                .add(LOG_STREAMS_FIELD, String.join(LOG_STREAMS_DELIMITER, logStreams))
+                .add(LOG_STREAM_SIZE_FIELD, String.valueOf(bytes))
+                .build();
     }
 
     @Override
@@ -355,6 +499,12 @@ public class CloudwatchMetadataHandler
     {
         ImmutableMap.Builder<String, List<OptimizationSubType>> capabilities = ImmutableMap.builder();
         queryPassthrough.addQueryPassthroughCapabilityIfEnabled(capabilities, configOptions);
+        if (Boolean.parseBoolean(configOptions.getOrDefault(FILTER_PATTERN_PUSHDOWN, "false"))) {
+            //LIKE only reaches us as an expression, the record handler turns it into a filter pattern.
+            capabilities.put(DataSourceOptimizations.SUPPORTS_COMPLEX_EXPRESSION_PUSHDOWN.withSupportedSubTypes(
+                    ComplexExpressionPushdownSubType.SUPPORTED_FUNCTION_EXPRESSION_TYPES
+                            .withSubTypeProperties(StandardFunctions.LIKE_PATTERN_FUNCTION_NAME.getFunctionName().getFunctionName())));
+        }
 
         return new GetDataSourceCapabilitiesResponse(request.getCatalogName(), capabilities.build());
     }
@@ -380,40 +530,85 @@ public class CloudwatchMetadataHandler
     }
 
     /**
-     * Used to handle paginated requests.
+     * Helper that converts a LogStream to a TableName by lowercasing the schema of the request and the logstreamname.
      *
-     * @return The partition number to resume with.
+     * @param request The ListTablesRequest to retrieve the schema name from.
+     * @param logStream The LogStream to turn into a table.
+     * @return A TableName with both the schema (LogGroup) and the table (LogStream) lowercased.
      */
-    private int decodeContinuationToken(GetSplitsRequest request)
+    private TableName toTableName(ListTablesRequest request, LogStream logStream)
     {
-        if (request.hasContinuationToken()) {
-            return Integer.valueOf(request.getContinuationToken());
-        }
+        return new TableName(request.getSchemaName(), logStream.logStreamName());
+    }
 
-        //No continuation token present
-        return 0;
+    private static Long latestOf(Long first, Long second)
+    {
+        if (first == null || second == null) {
+            return (first == null) ? second : first;
+        }
+        return Math.max(first, second);
     }
 
-    /**
-     * Used to create pagination tokens by encoding the number of the next partition to process.
-     *
-     * @param partition The number of the next partition we should process on the next call.
-     * @return The encoded continuation token.
-     */
-    private String encodeContinuationToken(int partition)
+    private static final class SplitTarget
     {
-        return String.valueOf(partition);
+        private final long bytes;
+        private final long sliceMillis;
+
+        private SplitTarget(long bytes, long sliceMillis)
+        {
+            this.bytes = bytes;
+            this.sliceMillis = sliceMillis;
+        }
+
+        private boolean isSlicing()
+        {
+            return bytes > 0 || sliceMillis > 0;
+        }
     }
 
     /**
-     * Helper that converts a LogStream to a TableName by lowercasing the schema of the request and the logstreamname.
-     *
-     * @param request The ListTablesRequest to retrieve the schema name from.
-     * @param logStream The LogStream to turn into a table.
-     * @return A TableName with both the schema (LogGroup) and the table (LogStream) lowercased.
+     * A LogStream as described by a partition row.
      */
-    private TableName toTableName(ListTablesRequest request, LogStream logStream)
+    private static final class StreamPartition
     {
-        return new TableName(request.getSchemaName(), logStream.logStreamName());
+        private final String logGroup;
+        private final String logStream;
+        private final long bytes;
+        private final Long firstEvent;
+        private final Long lastEvent;
+
+        private StreamPartition(String logGroup, String logStream, Long bytes, Long firstEvent, Long lastEvent)
+        {
+            this.logGroup = logGroup;
+            this.logStream = logStream;
+            this.bytes = (bytes == null) ? 0 : bytes;
+            this.firstEvent = firstEvent;
+            this.lastEvent = lastEvent;
+        }
+
+        private String getLogGroup()
+        {
+            return logGroup;
+        }
+
+        private String getLogStream()
+        {
+            return logStream;
+        }
+
+        private long getBytes()
+        {
+            return bytes;
+        }
+
+        private Long getFirstEvent()
+        {
+            return firstEvent;
+        }
+
+        private Long getLastEvent()
+        {
+            return lastEvent;
+        }
     }
 }
@@ -27,8 +27,6 @@ import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
-import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
-import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connectors.cloudwatch.qpt.CloudwatchQueryPassthrough;
@@ -37,6 +35,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.athena.AthenaClient;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilterLogEventsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilterLogEventsResponse;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilteredLogEvent;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetLogEventsRequest;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetLogEventsResponse;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetQueryResultsResponse;
@@ -45,17 +46,26 @@ import software.amazon.awssdk.services.cloudwatchlogs.model.ResultField;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchExceptionFilter.EXCEPTION_FILTER;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.FILTER_PATTERN_PUSHDOWN;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_GROUP_FIELD;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_MSG_FIELD;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_STREAMS_DELIMITER;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_STREAMS_FIELD;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_STREAM_FIELD;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_TIME_FIELD;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.SLICE_END_TIME_FIELD;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.SLICE_START_TIME_FIELD;
 import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchUtils.getResult;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchUtils.getTimeRange;
 
 /**
  * Handles data read record requests for the Athena Cloudwatch Connector.
@@ -64,6 +74,9 @@ import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchUtils.getResu
  * <p>
  * 1. Reads and maps Cloudwatch Logs data for a specific LogStream (split)
  * 2. Attempts to push down time range predicates into Cloudwatch.
+ * 3. Reads either one LogStream, a time slice of one, or a batch of small LogStreams, as planned by the metadata handler.
+ * 4. When filter_pattern_pushdown is enabled, reads through FilterLogEvents with a filter pattern built from the
+ * message predicates (see CloudwatchFilterPatterns).
  */
 public class CloudwatchRecordHandler
         extends RecordHandler
@@ -76,6 +89,7 @@ public class CloudwatchRecordHandler
     private final AtomicLong count = new AtomicLong(0);
     private final CloudWatchLogsClient awsLogs;
     private final CloudwatchQueryPassthrough queryPassthrough = new CloudwatchQueryPassthrough();
+    private final boolean filterPatternPushdown;
 
     public CloudwatchRecordHandler(java.util.Map<String, String> configOptions)
     {
@@ -93,10 +107,11 @@ public class CloudwatchRecordHandler
         super(amazonS3, secretsManager, athena, SOURCE_TYPE, configOptions);
         this.awsLogs = awsLogs;
         this.invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions).build();
+        this.filterPatternPushdown = Boolean.parseBoolean(configOptions.getOrDefault(FILTER_PATTERN_PUSHDOWN, "false"));
     }
 
     /**
-     * Scans Cloudwatch Logs using the LogStream and optional Time stamp filters.
+     * Scans Cloudwatch Logs using the LogStream(s) of the split and optional Time stamp filters.
      *
      * @see RecordHandler
      */
@@ -106,49 +121,121 @@ public class CloudwatchRecordHandler
     {
         if (recordsRequest.getConstraints().isQueryPassThrough()) {
             getQueryPassthreoughResults(spiller, recordsRequest);
+            return;
+        }
+
+        invoker.setBlockSpiller(spiller);
+        Constraints constraints = recordsRequest.getConstraints();
+        Split split = recordsRequest.getSplit();
+        Optional<String> filterPattern = filterPatternPushdown
+                ? CloudwatchFilterPatterns.fromConstraints(constraints)
+                : Optional.empty();
+        Long startTime = getStartTime(constraints, split);
+        //FilterLogEvents includes events at its endTime, GetLogEvents does not
+        Long endTime = getEndTime(constraints, split, filterPattern.isPresent());
+        if (startTime != null && endTime != null && startTime > endTime) {
+            logger.info("readWithConstraint: time slice [{}, {}] of the split is outside of the query's time range", startTime, endTime);
+            return;
+        }
+
+        if (filterPattern.isPresent()) {
+            filterLogEvents(spiller, recordsRequest, filterPattern.get(), startTime, endTime, queryStatusChecker);
         }
         else {
-            String continuationToken = null;
-            TableName tableName = recordsRequest.getTableName();
-            Split split = recordsRequest.getSplit();
-            invoker.setBlockSpiller(spiller);
-            do {
-                final String actualContinuationToken = continuationToken;
-                GetLogEventsResponse logEventsResponse = invoker.invoke(() -> awsLogs.getLogEvents(
-                        pushDownConstraints(recordsRequest.getConstraints(),
-                                GetLogEventsRequest.builder()
-                                        .logGroupName(split.getProperty(LOG_GROUP_FIELD))
-                                        //We use the property instead of the table name because of the special all_streams table
-                                        .logStreamName(split.getProperty(LOG_STREAM_FIELD))
-                                        .nextToken(actualContinuationToken)
-                                        // must be set to use nextToken correctly
-                                        .startFromHead(true)
-                                        .build()
-                        )));
-
-                if (continuationToken == null || !continuationToken.equals(logEventsResponse.nextForwardToken())) {
-                    continuationToken = logEventsResponse.nextForwardToken();
-                }
-                else {
-                    continuationToken = null;
+            for (String logStream : getLogStreams(split)) {
+                if (!queryStatusChecker.isQueryRunning()) {
+                    return;
                 }
+                getLogEvents(spiller, recordsRequest, logStream, startTime, endTime, queryStatusChecker);
+            }
+        }
+    }
 
-                for (OutputLogEvent ole : logEventsResponse.events()) {
-                    spiller.writeRows((Block block, int rowNum) -> {
-                        boolean matched = true;
-                        matched &= block.offerValue(LOG_STREAM_FIELD, rowNum, split.getProperty(LOG_STREAM_FIELD));
-                        matched &= block.offerValue(LOG_TIME_FIELD, rowNum, ole.timestamp());
-                        matched &= block.offerValue(LOG_MSG_FIELD, rowNum, ole.message());
-                        return matched ? 1 : 0;
-                    });
-                }
+    private void getLogEvents(BlockSpiller spiller, ReadRecordsRequest recordsRequest, String logStream, Long startTime, Long endTime,
+            QueryStatusChecker queryStatusChecker)
+            throws TimeoutException
+    {
+        String continuationToken = null;
+        TableName tableName = recordsRequest.getTableName();
+        Split split = recordsRequest.getSplit();
+        do {
+            final String actualContinuationToken = continuationToken;
+            GetLogEventsResponse logEventsResponse = invoker.invoke(() -> awsLogs.getLogEvents(
+                    GetLogEventsRequest.builder()
+                            .logGroupName(split.getProperty(LOG_GROUP_FIELD))
+                            //We use the split's log stream instead of the table name because of the special all_streams table
+                            .logStreamName(logStream)
+                            .startTime(startTime)
+                            .endTime(endTime)
+                            .nextToken(actualContinuationToken)
+                            // must be set to use nextToken correctly
+                            .startFromHead(true)
+                            .build()));
+
+            if (continuationToken == null || !continuationToken.equals(logEventsResponse.nextForwardToken())) {
+                continuationToken = logEventsResponse.nextForwardToken();
+            }
+            else {
+                continuationToken = null;
+            }
+
+            for (OutputLogEvent ole : logEventsResponse.events()) {
+                writeLogEvent(spiller, logStream, ole.timestamp(), ole.message());
+            }
+
+            logger.info("readWithConstraint: LogGroup[{}] LogStream[{}] Continuation[{}] rows[{}]",
+                    tableName.getSchemaName(), logStream, continuationToken,
+                    logEventsResponse.events().size());
+        }
+        while (continuationToken != null && queryStatusChecker.isQueryRunning());
+    }
+
+    /**
+     * Reads the log streams of the split through FilterLogEvents so that Cloudwatch drops the events that can't match
+     * the message predicates. The filter pattern only narrows the events down, we still apply every constraint to
+     * the events Cloudwatch returns.
+     */
+    private void filterLogEvents(BlockSpiller spiller, ReadRecordsRequest recordsRequest, String filterPattern, Long startTime, Long endTime,
+            QueryStatusChecker queryStatusChecker)
+            throws TimeoutException
+    {
+        String continuationToken = null;
+        TableName tableName = recordsRequest.getTableName();
+        Split split = recordsRequest.getSplit();
+        FilterLogEventsRequest.Builder requestBuilder = FilterLogEventsRequest.builder()
+                .logGroupName(split.getProperty(LOG_GROUP_FIELD))
+                .logStreamNames(getLogStreams(split))
+                .startTime(startTime)
+                .endTime(endTime)
+                .filterPattern(filterPattern);
+        logger.info("filterLogEvents: LogGroup[{}] Table[{}] FilterPattern[{}]",
+                tableName.getSchemaName(), tableName.getTableName(), filterPattern);
+
+        do {
+            FilterLogEventsRequest request = requestBuilder.nextToken(continuationToken).build();
+            FilterLogEventsResponse filterLogEventsResponse = invoker.invoke(() -> awsLogs.filterLogEvents(request));
+            continuationToken = filterLogEventsResponse.nextToken();
 
-                logger.info("readWithConstraint: LogGroup[{}] LogStream[{}] Continuation[{}] rows[{}]",
-                        tableName.getSchemaName(), tableName.getTableName(), continuationToken,
-                        logEventsResponse.events().size());
+            for (FilteredLogEvent fle : filterLogEventsResponse.events()) {
+                writeLogEvent(spiller, fle.logStreamName(), fle.timestamp(), fle.message());
             }
-            while (continuationToken != null && queryStatusChecker.isQueryRunning());
+
+            logger.info("filterLogEvents: LogGroup[{}] Table[{}] Continuation[{}] rows[{}]",
+                    tableName.getSchemaName(), tableName.getTableName(), continuationToken,
+                    filterLogEventsResponse.events().size());
         }
+        while (continuationToken != null && queryStatusChecker.isQueryRunning());
+    }
+
+    private void writeLogEvent(BlockSpiller spiller, String logStream, Long timestamp, String message)
+    {
+        spiller.writeRows((Block block, int rowNum) -> {
+            boolean matched = true;
+            matched &= block.offerValue(LOG_STREAM_FIELD, rowNum, logStream);
+            matched &= block.offerValue(LOG_TIME_FIELD, rowNum, timestamp);
+            matched &= block.offerValue(LOG_MSG_FIELD, rowNum, message);
+            return matched ? 1 : 0;
+        });
     }
 
     private void getQueryPassthreoughResults(BlockSpiller spiller, ReadRecordsRequest recordsRequest) throws TimeoutException, InterruptedException
@@ -172,36 +259,53 @@ public class CloudwatchRecordHandler
     }
 
     /**
-     * Attempts to push down predicates into Cloudwatch Logs by decorating the Cloudwatch Logs request.
-     *
-     * @param constraints The constraints for the read as provided by Athena based on the customer's query.
-     * @param request     The Cloudwatch Logs request to inject predicates to.
-     * @return The decorated Cloudwatch Logs request.
-     * @note This impl currently only pushing down SortedRangeSet filters (>=, =<, between) on the log time column.
+     * @return The log streams to read, a split reads either one log stream or a batch of small ones.
      */
-    private GetLogEventsRequest pushDownConstraints(Constraints constraints, GetLogEventsRequest request)
+    private static List<String> getLogStreams(Split split)
     {
-        GetLogEventsRequest.Builder requestBuilder = request.toBuilder();
-        ValueSet timeConstraint = constraints.getSummary().get(LOG_TIME_FIELD);
-        if (timeConstraint instanceof SortedRangeSet && !timeConstraint.isNullAllowed()) {
-            //SortedRangeSet is how >, <, between is represented which are easiest and most common when
-            //searching logs so we attempt to push that down here as an optimization. SQL can represent complex
-            //overlapping ranges which Cloudwatch can not support so this is not a replacement for applying
-            //constraints using the ConstraintEvaluator.
-
-            Range basicPredicate = ((SortedRangeSet) timeConstraint).getSpan();
-
-            if (!basicPredicate.getLow().isNullValue()) {
-                Long lowerBound = (Long) basicPredicate.getLow().getValue();
-                requestBuilder.startTime(lowerBound);
-            }
+        String logStreams = split.getProperty(LOG_STREAMS_FIELD);
+        if (logStreams != null) {
+            return Arrays.asList(logStreams.split(LOG_STREAMS_DELIMITER));
+        }
+        return Collections.singletonList(split.getProperty(LOG_STREAM_FIELD));
+    }
 
-            if (!basicPredicate.getHigh().isNullValue()) {
-                Long upperBound = (Long) basicPredicate.getHigh().getValue();
-                requestBuilder.endTime(upperBound);
-            }
+    /**
+     * Pushes down the lower bound of the time constraint (>=, between) together with the start of the split's time
+     * slice, if it has one.
+     *
+     * @return The start time to read from or null to read from the first event.
+     * @note SQL can represent complex overlapping ranges which Cloudwatch can not support so this is not a
+     * replacement for applying constraints using the ConstraintEvaluator.
+     */
+    private static Long getStartTime(Constraints constraints, Split split)
+    {
+        Range timeRange = getTimeRange(constraints);
+        Long startTime = (timeRange == null || timeRange.getLow().isNullValue()) ? null : (Long) timeRange.getLow().getValue();
+        String sliceStart = split.getProperty(SLICE_START_TIME_FIELD);
+        if (sliceStart != null) {
+            startTime = (startTime == null) ? Long.valueOf(sliceStart) : Math.max(startTime, Long.parseLong(sliceStart));
         }
+        return startTime;
+    }
 
-        return requestBuilder.build();
+    /**
+     * Pushes down the upper bound of the time constraint (=<, between) together with the end of the split's time
+     * slice, if it has one. Time slices are end exclusive, so an API that reads up to its end time inclusively is given
+     * the last ms of the slice, otherwise the event at the boundary would be read by both adjacent splits.
+     *
+     * @param endInclusive Whether the end time is read up to inclusively, as FilterLogEvents does.
+     * @return The end time to read up to or null to read up to the last event.
+     */
+    private static Long getEndTime(Constraints constraints, Split split, boolean endInclusive)
+    {
+        Range timeRange = getTimeRange(constraints);
+        Long endTime = (timeRange == null || timeRange.getHigh().isNullValue()) ? null : (Long) timeRange.getHigh().getValue();
+        String sliceEnd = split.getProperty(SLICE_END_TIME_FIELD);
+        if (sliceEnd != null) {
+            long sliceEndTime = endInclusive ? Long.parseLong(sliceEnd) - 1 : Long.parseLong(sliceEnd);
+            endTime = (endTime == null) ? sliceEndTime : Math.min(endTime, sliceEndTime);
+        }
+        return endTime;
     }
 }
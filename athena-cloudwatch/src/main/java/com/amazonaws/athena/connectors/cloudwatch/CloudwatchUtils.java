@@ -20,6 +20,10 @@
 package com.amazonaws.athena.connectors.cloudwatch;
 
 import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connectors.cloudwatch.qpt.CloudwatchQueryPassthrough;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +39,8 @@ import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_TIME_FIELD;
+
 public final class CloudwatchUtils
 {
     private static final Logger logger = LoggerFactory.getLogger(CloudwatchUtils.class);
@@ -87,4 +93,20 @@ public final class CloudwatchUtils
 
         return getQueryResultsResponse;
     }
+
+    /**
+     * @return The span of the time constraint of a query, which can be pushed into Cloudwatch, or null if there is none.
+     */
+    public static Range getTimeRange(Constraints constraints)
+    {
+        ValueSet timeConstraint = constraints.getSummary().get(LOG_TIME_FIELD);
+        if (timeConstraint instanceof SortedRangeSet && !timeConstraint.isNullAllowed()) {
+            //SortedRangeSet is how >, <, between is represented which are easiest and most common when
+            //searching logs so we attempt to push that down here as an optimization. SQL can represent complex
+            //overlapping ranges which Cloudwatch can not support so this is not a replacement for applying
+            //constraints using the ConstraintEvaluator.
+            return ((SortedRangeSet) timeConstraint).getSpan();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * athena-cloudwatch
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.cloudwatch;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.ConstantExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.FederationExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.FunctionCallExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.VariableExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.functions.StandardFunctions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.types.Types;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_MSG_FIELD;
+import static com.amazonaws.athena.connectors.cloudwatch.CloudwatchMetadataHandler.LOG_STREAM_FIELD;
+import static org.junit.Assert.assertEquals;
+
+public class CloudwatchFilterPatternsTest
+{
+    private BlockAllocator allocator;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void fromConstraints_withLikePattern_usesLongestLiteral()
+    {
+        assertEquals(Optional.of("%connection reset%"),
+                CloudwatchFilterPatterns.fromConstraints(constraints(Collections.emptyMap(), like(LOG_MSG_FIELD, "ERROR_%connection reset%"))));
+    }
+
+    @Test
+    public void fromConstraints_withEquality_escapesRegexCharacters()
+    {
+        Map<String, ValueSet> summary = ImmutableMap.of(LOG_MSG_FIELD, SortedRangeSet.of(
+                Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "GET /api/v1.2?id=[7]")));
+        assertEquals(Optional.of("%GET /api/v1\\.2\\?id=\\[7\\]%"),
+                CloudwatchFilterPatterns.fromConstraints(constraints(summary)));
+    }
+
+    @Test
+    public void fromConstraints_withUnsupportedCharacters_usesLongestSupportedRun()
+    {
+        assertEquals(Optional.of("%payment declined%"),
+                CloudwatchFilterPatterns.fromConstraints(constraints(Collections.emptyMap(), like(LOG_MSG_FIELD, "%\"payment declined\"\t%"))));
+    }
+
+    @Test
+    public void fromConstraints_withoutMessagePredicates_isEmpty()
+    {
+        Map<String, ValueSet> summary = ImmutableMap.of(LOG_MSG_FIELD, EquatableValueSet.newBuilder(allocator, Types.MinorType.VARCHAR.getType(), true, false)
+                .add("a").add("b").build());
+        assertEquals(Optional.empty(), CloudwatchFilterPatterns.fromConstraints(constraints(summary)));
+        assertEquals(Optional.empty(), CloudwatchFilterPatterns.fromConstraints(constraints(Collections.emptyMap(), like(LOG_STREAM_FIELD, "%stream%"))));
+        assertEquals(Optional.empty(), CloudwatchFilterPatterns.fromConstraints(constraints(Collections.emptyMap(), like(LOG_MSG_FIELD, "%%_"))));
+    }
+
+    private FederationExpression like(String column, String pattern)
+    {
+        return new FunctionCallExpression(Types.MinorType.BIT.getType(),
+                StandardFunctions.LIKE_PATTERN_FUNCTION_NAME.getFunctionName(),
+                ImmutableList.of(new VariableExpression(column, Types.MinorType.VARCHAR.getType()),
+                        new ConstantExpression(BlockUtils.newBlock(allocator, ConstantExpression.DEFAULT_CONSTANT_EXPRESSION_BLOCK_NAME,
+                                Types.MinorType.VARCHAR.getType(), pattern), Types.MinorType.VARCHAR.getType())));
+    }
+
+    private static Constraints constraints(Map<String, ValueSet> summary, FederationExpression... expressions)
+    {
+        List<FederationExpression> expressionList = ImmutableList.copyOf(expressions);
+        return new Constraints(summary, expressionList, Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+    }
+}
@@ -403,6 +403,7 @@ public class CloudwatchMetadataHandlerTest
 
     @Test
     public void doGetSplits_withValidRequest_paginatesThroughAllPartitions()
+            throws Exception
     {
         logger.info("doGetSplits_withValidRequest_paginatesThroughAllPartitions: enter");
 
@@ -462,7 +463,54 @@ public class CloudwatchMetadataHandlerTest
     }
 
     @Test
-    public void doGetSplits_withQueryPassthrough_returnsSplitWithPassthroughArgs() {
+    public void doGetSplits_withSplitTarget_slicesLargeAndBatchesSmallStreams()
+            throws Exception
+    {
+        handler = new CloudwatchMetadataHandler(mockAwsLogs, new LocalKeyFactory(), mockSecretsManager, mockAthena, "spillBucket", "spillPrefix",
+                com.google.common.collect.ImmutableMap.of(CloudwatchMetadataHandler.SPLIT_TARGET_BYTES, "250"));
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField(CloudwatchMetadataHandler.LOG_STREAM_FIELD, new ArrowType.Utf8())
+                .addField(CloudwatchMetadataHandler.LOG_STREAM_SIZE_FIELD, new ArrowType.Int(64, true))
+                .addField(CloudwatchMetadataHandler.LOG_GROUP_FIELD, new ArrowType.Utf8())
+                .addField(CloudwatchMetadataHandler.LOG_STREAM_FIRST_EVENT_FIELD, new ArrowType.Int(64, true))
+                .addField(CloudwatchMetadataHandler.LOG_STREAM_LAST_EVENT_FIELD, new ArrowType.Int(64, true))
+                .build();
+        Block partitions = allocator.createBlock(schema);
+        String[] logStreams = {"big", "small-1", "small-2", "small-3"};
+        long[] sizes = {1_000L, 10L, 10L, 10L};
+        for (int i = 0; i < logStreams.length; i++) {
+            BlockUtils.setValue(partitions.getFieldVector(CloudwatchMetadataHandler.LOG_STREAM_FIELD), i, logStreams[i]);
+            BlockUtils.setValue(partitions.getFieldVector(CloudwatchMetadataHandler.LOG_STREAM_SIZE_FIELD), i, sizes[i]);
+            BlockUtils.setValue(partitions.getFieldVector(CloudwatchMetadataHandler.LOG_GROUP_FIELD), i, "log_group");
+            BlockUtils.setValue(partitions.getFieldVector(CloudwatchMetadataHandler.LOG_STREAM_FIRST_EVENT_FIELD), i, 0L);
+            BlockUtils.setValue(partitions.getFieldVector(CloudwatchMetadataHandler.LOG_STREAM_LAST_EVENT_FIELD), i, 10_000L);
+        }
+        partitions.setRowCount(logStreams.length);
+
+        GetSplitsResponse response = handler.doGetSplits(allocator, new GetSplitsRequest(identity, QUERY_ID, CATALOG_NAME,
+                new TableName("schema", "all_log_streams"), partitions, Collections.singletonList(CloudwatchMetadataHandler.LOG_STREAM_FIELD),
+                new Constraints(new HashMap<>(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                null));
+
+        List<String> slices = new ArrayList<>();
+        List<String> batches = new ArrayList<>();
+        for (Split split : response.getSplits()) {
+            if (split.getProperty(CloudwatchMetadataHandler.LOG_STREAMS_FIELD) != null) {
+                batches.add(split.getProperty(CloudwatchMetadataHandler.LOG_STREAMS_FIELD));
+            }
+            else {
+                assertEquals("big", split.getProperty(CloudwatchMetadataHandler.LOG_STREAM_FIELD));
+                slices.add(split.getProperty(CloudwatchMetadataHandler.SLICE_START_TIME_FIELD) + "-" + split.getProperty(CloudwatchMetadataHandler.SLICE_END_TIME_FIELD));
+            }
+        }
+        Collections.sort(slices);
+        assertEquals(List.of("2500-5000", "5000-7500", "7500-null", "null-2500"), slices);
+        assertEquals(List.of("small-1:small-2:small-3"), batches);
+        assertNull(response.getContinuationToken());
+    }
+
+    @Test
+    public void doGetSplits_withQueryPassthrough_returnsSplitWithPassthroughArgs() throws Exception {
         
         Map<String, String> qptArguments = new HashMap<>();
         qptArguments.put(CloudwatchQueryPassthrough.STARTTIME, "1000");
@@ -30,6 +30,11 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.ConstantExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.FederationExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.FunctionCallExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.expression.VariableExpression;
+import com.amazonaws.athena.connector.lambda.domain.predicate.functions.StandardFunctions;
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
@@ -57,6 +62,9 @@ import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.athena.AthenaClient;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilterLogEventsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilterLogEventsResponse;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilteredLogEvent;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetLogEventsRequest;
 import software.amazon.awssdk.services.cloudwatchlogs.model.GetLogEventsResponse;
 import software.amazon.awssdk.services.cloudwatchlogs.model.OutputLogEvent;
@@ -343,6 +351,148 @@ public class CloudwatchRecordHandlerTest
         ));
     }
 
+    @Test
+    public void doReadRecords_withFilterPatternPushdown_readsThroughFilterLogEvents()
+            throws Exception
+    {
+        handler = new CloudwatchRecordHandler(mockS3, mockSecretsManager, mockAthena, mockAwsLogs,
+                com.google.common.collect.ImmutableMap.of(CloudwatchMetadataHandler.FILTER_PATTERN_PUSHDOWN, "true"));
+        when(mockAwsLogs.filterLogEvents(any(FilterLogEventsRequest.class))).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            FilterLogEventsRequest request = (FilterLogEventsRequest) invocationOnMock.getArguments()[0];
+            assertEquals("%request timed out%", request.filterPattern());
+            assertEquals(ImmutableList.of("table"), request.logStreamNames());
+            assertEquals(Long.valueOf(1000L), request.startTime());
+            assertEquals(Long.valueOf(5000L), request.endTime());
+
+            String page = request.nextToken() == null ? "1" : "2";
+            return FilterLogEventsResponse.builder()
+                    .events(FilteredLogEvent.builder().message("page " + page + ": request timed out").timestamp(1500L).build(),
+                            FilteredLogEvent.builder().message("page " + page + ": request timed out again").timestamp(2500L).build())
+                    .nextToken(request.nextToken() == null ? "next" : null)
+                    .build();
+        });
+
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put(CloudwatchMetadataHandler.LOG_TIME_FIELD,
+                SortedRangeSet.of(Range.range(allocator, Types.MinorType.BIGINT.getType(), 1000L, true, 5000L, true)));
+        FederationExpression like = new FunctionCallExpression(Types.MinorType.BIT.getType(),
+                StandardFunctions.LIKE_PATTERN_FUNCTION_NAME.getFunctionName(),
+                ImmutableList.of(new VariableExpression(CloudwatchMetadataHandler.LOG_MSG_FIELD, Types.MinorType.VARCHAR.getType()),
+                        new ConstantExpression(BlockUtils.newBlock(allocator, ConstantExpression.DEFAULT_CONSTANT_EXPRESSION_BLOCK_NAME,
+                                Types.MinorType.VARCHAR.getType(), "%request timed out%"), Types.MinorType.VARCHAR.getType())));
+        Constraints constraints = new Constraints(constraintsMap, ImmutableList.of(like), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+        RecordResponse rawResponse = handler.doReadRecords(allocator, createReadRecordsRequest(constraints, BLOCK_SIZE, BLOCK_SIZE));
+
+        assertTrue(rawResponse instanceof ReadRecordsResponse);
+        assertEquals(4, ((ReadRecordsResponse) rawResponse).getRecords().getRowCount());
+        verify(mockAwsLogs, Mockito.times(2)).filterLogEvents(any(FilterLogEventsRequest.class));
+        verify(mockAwsLogs, Mockito.never()).getLogEvents(nullable(GetLogEventsRequest.class));
+    }
+
+    @Test
+    public void doReadRecords_withFilterPatternPushdownAndTimeSlices_readsBoundaryEventOnce()
+            throws Exception
+    {
+        handler = new CloudwatchRecordHandler(mockS3, mockSecretsManager, mockAthena, mockAwsLogs,
+                com.google.common.collect.ImmutableMap.of(CloudwatchMetadataHandler.FILTER_PATTERN_PUSHDOWN, "true"));
+        //FilterLogEvents returns the events from startTime up to and including endTime
+        List<Long> eventTimes = ImmutableList.of(1500L, 2000L, 2500L);
+        when(mockAwsLogs.filterLogEvents(any(FilterLogEventsRequest.class))).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            FilterLogEventsRequest request = (FilterLogEventsRequest) invocationOnMock.getArguments()[0];
+            List<FilteredLogEvent> events = new ArrayList<>();
+            for (Long eventTime : eventTimes) {
+                if (eventTime >= request.startTime() && eventTime <= request.endTime()) {
+                    events.add(FilteredLogEvent.builder().logStreamName("stream").message("request timed out at " + eventTime).timestamp(eventTime).build());
+                }
+            }
+            return FilterLogEventsResponse.builder().events(events).build();
+        });
+
+        FederationExpression like = new FunctionCallExpression(Types.MinorType.BIT.getType(),
+                StandardFunctions.LIKE_PATTERN_FUNCTION_NAME.getFunctionName(),
+                ImmutableList.of(new VariableExpression(CloudwatchMetadataHandler.LOG_MSG_FIELD, Types.MinorType.VARCHAR.getType()),
+                        new ConstantExpression(BlockUtils.newBlock(allocator, ConstantExpression.DEFAULT_CONSTANT_EXPRESSION_BLOCK_NAME,
+                                Types.MinorType.VARCHAR.getType(), "%request timed out%"), Types.MinorType.VARCHAR.getType())));
+        Constraints constraints = new Constraints(Collections.emptyMap(), ImmutableList.of(like), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+        //two adjacent time slices of the same log stream, the event at 2000 belongs to the second one only
+        int rows = 0;
+        for (String[] slice : new String[][] {{"1000", "2000"}, {"2000", "3000"}}) {
+            Split split = Split.newBuilder(S3SpillLocation.newBuilder()
+                                    .withBucket(UUID.randomUUID().toString())
+                                    .withSplitId(UUID.randomUUID().toString())
+                                    .withQueryId(UUID.randomUUID().toString())
+                                    .withIsDirectory(true)
+                                    .build(),
+                            keyFactory.create())
+                    .add(CloudwatchMetadataHandler.LOG_GROUP_FIELD, "group")
+                    .add(CloudwatchMetadataHandler.LOG_STREAM_FIELD, "stream")
+                    .add(CloudwatchMetadataHandler.SLICE_START_TIME_FIELD, slice[0])
+                    .add(CloudwatchMetadataHandler.SLICE_END_TIME_FIELD, slice[1])
+                    .build();
+            ReadRecordsRequest request = new ReadRecordsRequest(identity, "catalog", "queryId-" + System.currentTimeMillis(),
+                    new TableName("schema", "stream"), schemaForRead, split, constraints, BLOCK_SIZE, BLOCK_SIZE);
+
+            RecordResponse rawResponse = handler.doReadRecords(allocator, request);
+            assertTrue(rawResponse instanceof ReadRecordsResponse);
+            Block records = ((ReadRecordsResponse) rawResponse).getRecords();
+            rows += records.getRowCount();
+            for (int i = 0; i < records.getRowCount(); i++) {
+                long eventTime = (Long) records.getFieldVector(CloudwatchMetadataHandler.LOG_TIME_FIELD).getObject(i);
+                assertTrue(eventTime >= Long.parseLong(slice[0]) && eventTime < Long.parseLong(slice[1]));
+            }
+        }
+
+        assertEquals(3, rows);
+        verify(mockAwsLogs).filterLogEvents(argThat((FilterLogEventsRequest logRequest) ->
+                logRequest.startTime().equals(1000L) && logRequest.endTime().equals(1999L)));
+        verify(mockAwsLogs).filterLogEvents(argThat((FilterLogEventsRequest logRequest) ->
+                logRequest.startTime().equals(2000L) && logRequest.endTime().equals(2999L)));
+    }
+
+    @Test
+    public void doReadRecords_withBatchedTimeSlice_readsEachStreamWithinSlice()
+            throws Exception
+    {
+        Mockito.doAnswer((InvocationOnMock invocationOnMock) -> {
+            GetLogEventsRequest request = (GetLogEventsRequest) invocationOnMock.getArguments()[0];
+            return GetLogEventsResponse.builder()
+                    .events(OutputLogEvent.builder().message(request.logStreamName() + " message").timestamp(1600L).build())
+                    .build();
+        }).when(mockAwsLogs).getLogEvents(nullable(GetLogEventsRequest.class));
+
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put(CloudwatchMetadataHandler.LOG_TIME_FIELD,
+                SortedRangeSet.of(Range.range(allocator, Types.MinorType.BIGINT.getType(), 1500L, true, 5000L, true)));
+        Constraints constraints = new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+        Split split = Split.newBuilder(S3SpillLocation.newBuilder()
+                                .withBucket(UUID.randomUUID().toString())
+                                .withSplitId(UUID.randomUUID().toString())
+                                .withQueryId(UUID.randomUUID().toString())
+                                .withIsDirectory(true)
+                                .build(),
+                        keyFactory.create())
+                .add(CloudwatchMetadataHandler.LOG_GROUP_FIELD, "group")
+                .add(CloudwatchMetadataHandler.LOG_STREAMS_FIELD, "stream-a:stream-b")
+                .add(CloudwatchMetadataHandler.SLICE_START_TIME_FIELD, "1000")
+                .add(CloudwatchMetadataHandler.SLICE_END_TIME_FIELD, "2000")
+                .build();
+        ReadRecordsRequest request = new ReadRecordsRequest(identity, "catalog", "queryId-" + System.currentTimeMillis(),
+                new TableName("schema", "all_log_streams"), schemaForRead, split, constraints, BLOCK_SIZE, BLOCK_SIZE);
+
+        RecordResponse rawResponse = handler.doReadRecords(allocator, request);
+
+        assertTrue(rawResponse instanceof ReadRecordsResponse);
+        Block records = ((ReadRecordsResponse) rawResponse).getRecords();
+        assertEquals(2, records.getRowCount());
+        for (String logStream : ImmutableList.of("stream-a", "stream-b")) {
+            verify(mockAwsLogs).getLogEvents(argThat((GetLogEventsRequest logRequest) ->
+                    logStream.equals(logRequest.logStreamName())
+                            && logRequest.startTime().equals(1500L) && logRequest.endTime().equals(2000L)));
+        }
+    }
+
     @Test(expected = NullPointerException.class)
     public void doReadRecords_withNullConstraints_throwsException() {
         // ReadRecordsRequest constructor will throw NPE for null constraints
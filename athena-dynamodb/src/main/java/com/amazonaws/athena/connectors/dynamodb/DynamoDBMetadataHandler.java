@@ -108,19 +108,27 @@ import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.UNLIMITED_PAGE_SIZE_VALUE;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.ASYNC_SCAN_ENABLED_CONFIG;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.DEFAULT_SCAN_SUB_SEGMENTS;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.DEFAULT_SCHEMA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_NAMES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_VALUES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.HASH_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.INDEX_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.MAX_POINT_LOOKUP_KEYS;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.MAX_POINT_LOOKUP_KEYS_PER_SPLIT;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.NON_KEY_FILTER_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.PARTITION_TYPE_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.POINT_LOOKUP_KEYS_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.POINT_LOOKUP_PARTITION_TYPE;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.QUERY_PARTITION_TYPE;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_FILTER_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SCAN_PARTITION_TYPE;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SCAN_SUB_SEGMENTS_CONFIG;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_ID_PROPERTY;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SUB_SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.TABLE_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.throttling.DynamoDBExceptionFilter.EXCEPTION_FILTER;
 import static com.amazonaws.athena.connectors.dynamodb.util.DDBPredicateUtils.buildFilterPredicatesFromPlan;
@@ -357,7 +365,7 @@ public class DynamoDBMetadataHandler
     /**
      * Generates a partition schema with metadata derived from available predicates.  This metadata will be
      * copied to splits in the #doGetSplits call.  At this point it is determined whether we can partition
-     * by hash key or fall back to a full table scan.
+     * by primary key (point lookups), by hash key or fall back to a full table scan.
      *
      * @see GlueMetadataHandler
      */
@@ -412,7 +420,15 @@ public class DynamoDBMetadataHandler
         List<AttributeValue> valueAccumulator = new ArrayList<>();
         IncrementingValueNameProducer valueNameProducer = new IncrementingValueNameProducer();
         
-        if (!hashKeyInfo.isEmpty()) {
+        List<Object> rangeKeyValues = hashKeyInfo.isEmpty() ? Collections.emptyList()
+                : getPointLookupRangeKeyValues(table, index, summary, useQueryPlan, hashKeyInfo.values().size());
+        if (!rangeKeyValues.isEmpty()) {
+            // the whole primary key is pinned to discrete values, "partition" on key tuples read via BatchGetItem
+            String rangeKeyName = index.getRangeKey().get();
+            setupPointLookupPartition(partitionSchemaBuilder, hashKeyName, hashKeyInfo.arrowType(),
+                    rangeKeyName, summary.get(rangeKeyName).getType(), columnsToIgnore);
+        }
+        else if (!hashKeyInfo.isEmpty()) {
             // can "partition" on hash key
             setupQueryPartition(partitionSchemaBuilder, hashKeyName, hashKeyInfo.arrowType(), table, index, columnsToIgnore);
 
@@ -423,6 +439,12 @@ public class DynamoDBMetadataHandler
             // always fall back to a scan
             partitionSchemaBuilder.addField(SEGMENT_COUNT_METADATA, Types.MinorType.INT.getType());
             partitionSchemaBuilder.addMetadata(PARTITION_TYPE_METADATA, SCAN_PARTITION_TYPE);
+            if (table.isOnDemand() && Boolean.parseBoolean(configOptions.getOrDefault(ASYNC_SCAN_ENABLED_CONFIG, "false"))) {
+                // on-demand tables have no provisioned throughput bounding the segment count, so let every split
+                // read several segments concurrently instead of paying for more Lambda invocations
+                int subSegmentCount = Integer.parseInt(configOptions.getOrDefault(SCAN_SUB_SEGMENTS_CONFIG, String.valueOf(DEFAULT_SCAN_SUB_SEGMENTS)));
+                partitionSchemaBuilder.addMetadata(SUB_SEGMENT_COUNT_METADATA, String.valueOf(subSegmentCount));
+            }
         }
 
         // We will exclude the columns with custom types from filter clause when querying/scanning DDB
@@ -435,7 +457,7 @@ public class DynamoDBMetadataHandler
     }
 
     /**
-     * Generates hash key partitions if possible or generates a single partition with the heuristically
+     * Generates primary key or hash key partitions if possible or generates a single partition with the heuristically
      * determined optimal scan segment count specified inside of it
      *
      * @see GlueMetadataHandler
@@ -488,7 +510,22 @@ public class DynamoDBMetadataHandler
                     : Collections.emptyList();
         }
 
-        if (!hashKeyValues.isEmpty()) {
+        List<Object> rangeKeyValues = getPointLookupRangeKeyValues(table, index, request.getConstraints().getSummary(),
+                useQueryPlan, hashKeyValues.size());
+        if (!rangeKeyValues.isEmpty()) {
+            String rangeKeyName = index.getRangeKey().get();
+            for (Object hashKeyValue : hashKeyValues) {
+                for (Object rangeKeyValue : rangeKeyValues) {
+                    blockWriter.writeRows((Block block, int rowNum) -> {
+                        block.setValue(hashKeyName, rowNum, hashKeyValue);
+                        block.setValue(rangeKeyName, rowNum, rangeKeyValue);
+                        //we added 1 partition per primary key
+                        return 1;
+                    });
+                }
+            }
+        }
+        else if (!hashKeyValues.isEmpty()) {
             for (Object hashKeyValue : hashKeyValues) {
                 blockWriter.writeRows((Block block, int rowNum) -> {
                     block.setValue(hashKeyName, rowNum, hashKeyValue);
@@ -611,9 +648,53 @@ public class DynamoDBMetadataHandler
             }
             return new GetSplitsResponse(request.getCatalogName(), splits, null);
         }
+        else if (POINT_LOOKUP_PARTITION_TYPE.equals(partitionType)) {
+            String hashKeyName = partitionMetadata.get(HASH_KEY_NAME_METADATA);
+            String rangeKeyName = partitionMetadata.get(RANGE_KEY_NAME_METADATA);
+            FieldReader hashKeyValueReader = partitions.getFieldReader(hashKeyName);
+            FieldReader rangeKeyValueReader = partitions.getFieldReader(rangeKeyName);
+            // one split per BatchGetItem call worth of primary keys
+            List<AttributeValue> keys = new ArrayList<>();
+            for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
+                hashKeyValueReader.setPosition(curPartition);
+                rangeKeyValueReader.setPosition(curPartition);
+                Object hashKeyValue = DDBTypeUtils.convertArrowTypeIfNecessary(hashKeyName, hashKeyValueReader.readObject());
+                Object rangeKeyValue = DDBTypeUtils.convertArrowTypeIfNecessary(rangeKeyName, rangeKeyValueReader.readObject());
+                keys.add(AttributeValue.fromM(ImmutableMap.of(
+                        hashKeyName, DDBTypeUtils.toAttributeValue(hashKeyValue),
+                        rangeKeyName, DDBTypeUtils.toAttributeValue(rangeKeyValue))));
+
+                boolean lastPartition = curPartition == partitions.getRowCount() - 1;
+                if (keys.size() < MAX_POINT_LOOKUP_KEYS_PER_SPLIT && !lastPartition) {
+                    continue;
+                }
+
+                //Every split must have a unique location if we wish to spill to avoid failures
+                SpillLocation spillLocation = makeSpillLocation(request);
+
+                // copy all partition metadata to the split
+                Map<String, String> splitMetadata = new HashMap<>(partitionMetadata);
+                splitMetadata.put(POINT_LOOKUP_KEYS_METADATA,
+                        DDBTypeUtils.attributeToJson(AttributeValue.fromL(keys), POINT_LOOKUP_KEYS_METADATA));
+                splits.add(new Split(spillLocation, makeEncryptionKey(overrideConfig), splitMetadata));
+                keys = new ArrayList<>();
+
+                if (splits.size() == MAX_SPLITS_PER_REQUEST && !lastPartition) {
+                    // We've reached max page size and this is not the last partition
+                    // so send the page back
+                    return new GetSplitsResponse(request.getCatalogName(),
+                            splits,
+                            encodeContinuationToken(curPartition));
+                }
+            }
+            return new GetSplitsResponse(request.getCatalogName(), splits, null);
+        }
         else if (SCAN_PARTITION_TYPE.equals(partitionType)) {
             FieldReader segmentCountReader = partitions.getFieldReader(SEGMENT_COUNT_METADATA);
             int segmentCount = segmentCountReader.readInteger();
+            // each split reads subSegmentCount consecutive segments out of segmentCount * subSegmentCount
+            int subSegmentCount = Integer.parseInt(partitionMetadata.getOrDefault(SUB_SEGMENT_COUNT_METADATA, "1"));
+            subSegmentCount = Math.max(1, Math.min(subSegmentCount, DDBTableUtils.MAX_SCAN_SEGMENTS / segmentCount));
             for (int curPartition = partitionContd; curPartition < segmentCount; curPartition++) {
                 //Every split must have a unique location if we wish to spill to avoid failures
                 SpillLocation spillLocation = makeSpillLocation(request);
@@ -621,8 +702,14 @@ public class DynamoDBMetadataHandler
                 // copy all partition metadata to the split
                 Map<String, String> splitMetadata = new HashMap<>(partitionMetadata);
 
-                splitMetadata.put(SEGMENT_ID_PROPERTY, String.valueOf(curPartition));
-                splitMetadata.put(SEGMENT_COUNT_METADATA, String.valueOf(segmentCount));
+                splitMetadata.put(SEGMENT_ID_PROPERTY, String.valueOf(curPartition * subSegmentCount));
+                splitMetadata.put(SEGMENT_COUNT_METADATA, String.valueOf(segmentCount * subSegmentCount));
+                if (subSegmentCount > 1) {
+                    splitMetadata.put(SUB_SEGMENT_COUNT_METADATA, String.valueOf(subSegmentCount));
+                }
+                else {
+                    splitMetadata.remove(SUB_SEGMENT_COUNT_METADATA);
+                }
 
                 splits.add(new Split(spillLocation, makeEncryptionKey(overrideConfig), splitMetadata));
 
@@ -715,6 +802,45 @@ public class DynamoDBMetadataHandler
         }
     }
     
+    /**
+     * Provides the range key values to pair with every hash key value when the predicates pin the primary key of the
+     * table to a bounded set of discrete keys that can be read with BatchGetItem, otherwise an empty list.
+     */
+    private List<Object> getPointLookupRangeKeyValues(DynamoDBTable table, DynamoDBIndex index, Map<String, ValueSet> summary,
+                                                      boolean useQueryPlan, int hashKeyValueCount)
+    {
+        // BatchGetItem can't read from an index, and only the summary is re-applied to the returned items
+        // since BatchGetItem takes no filter expression
+        if (useQueryPlan || hashKeyValueCount == 0 || !table.getName().equals(index.getName()) || index.getRangeKey().isEmpty()) {
+            return Collections.emptyList();
+        }
+        ValueSet rangeKeyValueSet = summary.get(index.getRangeKey().get());
+        if (rangeKeyValueSet == null) {
+            return Collections.emptyList();
+        }
+        List<Object> rangeKeyValues = DDBPredicateUtils.getHashKeyAttributeValues(rangeKeyValueSet);
+        if ((long) hashKeyValueCount * rangeKeyValues.size() > MAX_POINT_LOOKUP_KEYS) {
+            // too many keys to be cheaper than a Query per hash key value
+            return Collections.emptyList();
+        }
+        return rangeKeyValues;
+    }
+
+    /**
+     * Sets up point lookup partition metadata in the schema builder.
+     */
+    private void setupPointLookupPartition(SchemaBuilder partitionSchemaBuilder, String hashKeyName, ArrowType hashKeyType,
+                                           String rangeKeyName, ArrowType rangeKeyType, Set<String> columnsToIgnore)
+    {
+        partitionSchemaBuilder.addField(hashKeyName, hashKeyType);
+        partitionSchemaBuilder.addField(rangeKeyName, rangeKeyType);
+        partitionSchemaBuilder.addMetadata(HASH_KEY_NAME_METADATA, hashKeyName);
+        partitionSchemaBuilder.addMetadata(RANGE_KEY_NAME_METADATA, rangeKeyName);
+        partitionSchemaBuilder.addMetadata(PARTITION_TYPE_METADATA, POINT_LOOKUP_PARTITION_TYPE);
+        columnsToIgnore.add(hashKeyName);
+        columnsToIgnore.add(rangeKeyName);
+    }
+
     /**
      * Sets up range key filter if applicable.
      */
@@ -37,12 +37,15 @@ import com.amazonaws.athena.connector.substrait.model.SubstraitRelModel;
 import com.amazonaws.athena.connectors.dynamodb.credentials.CrossAccountCredentialsProviderV2;
 import com.amazonaws.athena.connectors.dynamodb.qpt.DDBQueryPassthrough;
 import com.amazonaws.athena.connectors.dynamodb.resolver.DynamoDBFieldResolver;
+import com.amazonaws.athena.connectors.dynamodb.util.DDBAsyncScanReader;
 import com.amazonaws.athena.connectors.dynamodb.util.DDBPredicateUtils;
 import com.amazonaws.athena.connectors.dynamodb.util.DDBRecordMetadata;
 import com.amazonaws.athena.connectors.dynamodb.util.DDBTypeUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -57,11 +60,17 @@ import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
 import software.amazon.awssdk.enhanced.dynamodb.document.EnhancedDocument;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.ExecuteStatementRequest;
 import software.amazon.awssdk.services.dynamodb.model.ExecuteStatementResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
@@ -75,6 +84,7 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -85,14 +95,17 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.ASYNC_SCAN_ENABLED_CONFIG;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_NAMES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_VALUES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.HASH_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.INDEX_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.NON_KEY_FILTER_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.POINT_LOOKUP_KEYS_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_FILTER_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_ID_PROPERTY;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SUB_SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.TABLE_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.throttling.DynamoDBExceptionFilter.EXCEPTION_FILTER;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -102,8 +115,8 @@ import static com.google.common.base.Preconditions.checkArgument;
  * <p>
  * For more detail, please see the module's README.md, some notable characteristics of this class include:
  * <p>
- * 1. Reads and maps DynamoDB data for a specific split.  The split can either represent a single hash key
- * or a table scan segment.<br>
+ * 1. Reads and maps DynamoDB data for a specific split.  The split can either represent a batch of primary keys,
+ * a single hash key or a table scan segment.<br>
  * 2. Attempts to push down all predicates into DynamoDB to reduce read cost and bytes over the wire.
  */
 public class DynamoDBRecordHandler
@@ -121,6 +134,8 @@ public class DynamoDBRecordHandler
 
     private final LoadingCache<String, ThrottlingInvoker> invokerCache;
     private final DynamoDbClient ddbClient;
+    // only built when a split is read in async scan mode
+    private final Supplier<DynamoDbAsyncClient> asyncDdbClient;
 
     private final DDBQueryPassthrough queryPassthrough = new DDBQueryPassthrough();
 
@@ -135,6 +150,15 @@ public class DynamoDBRecordHandler
             builder.endpointOverride(URI.create("https://dynamodb." + region + ".amazonaws.eu"));
         }
         this.ddbClient = builder.build();
+        this.asyncDdbClient = Suppliers.memoize(() -> {
+            DynamoDbAsyncClientBuilder asyncBuilder = DynamoDbAsyncClient.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(CrossAccountCredentialsProviderV2.getCrossAccountCredentialsIfPresent(configOptions, "DynamoDBRecordHandler_CrossAccountRoleSession"));
+            if (region != null && region.startsWith("eusc-")) {
+                asyncBuilder.endpointOverride(URI.create("https://dynamodb." + region + ".amazonaws.eu"));
+            }
+            return asyncBuilder.build();
+        });
         this.invokerCache = CacheBuilder.newBuilder().build(
             new CacheLoader<String, ThrottlingInvoker>() {
                 @Override
@@ -149,9 +173,17 @@ public class DynamoDBRecordHandler
 
     @VisibleForTesting
     DynamoDBRecordHandler(DynamoDbClient ddbClient, S3Client amazonS3, SecretsManagerClient secretsManager, AthenaClient athena, String sourceType, java.util.Map<String, String> configOptions)
+    {
+        this(ddbClient, null, amazonS3, secretsManager, athena, sourceType, configOptions);
+    }
+
+    @VisibleForTesting
+    DynamoDBRecordHandler(DynamoDbClient ddbClient, DynamoDbAsyncClient asyncDdbClient, S3Client amazonS3, SecretsManagerClient secretsManager,
+                          AthenaClient athena, String sourceType, java.util.Map<String, String> configOptions)
     {
         super(amazonS3, secretsManager, athena, sourceType, configOptions);
         this.ddbClient = ddbClient;
+        this.asyncDdbClient = () -> asyncDdbClient;
         this.invokerCache = CacheBuilder.newBuilder().build(
             new CacheLoader<String, ThrottlingInvoker>() {
                 @Override
@@ -165,7 +197,7 @@ public class DynamoDBRecordHandler
     }
 
     /**
-     * Reads data from DynamoDB by submitting either a Query or a Scan, depending
+     * Reads data from DynamoDB by submitting either a BatchGetItem, a Query or a Scan, depending
      * on the type of split, and includes any filters specified in the split.
      *
      * @see RecordHandler
@@ -226,12 +258,20 @@ public class DynamoDBRecordHandler
             plan = SubstraitRelUtils.deserializeSubstraitPlan(queryPlan.getSubstraitPlan());
         }
 
+        // Variable to determine limit can be applied or not, If applicable what is the limit value.
+        Pair<Boolean, Integer> limitPair = getLimit(plan, recordsRequest.getConstraints());
+        if (isAsyncScanRequest(split)) {
+            try (DDBAsyncScanReader scanReader = getAsyncScanReader(split, tableName, recordsRequest.getSchema(),
+                    disableProjectionAndCasing, overrideConfig, limitPair)) {
+                writeItemsToBlock(spiller, recordsRequest, queryStatusChecker, recordMetadata, scanReader, disableProjectionAndCasing, limitPair, true);
+            }
+            return;
+        }
+
         Iterator<Map<String, AttributeValue>> itemIterator =
                 getIterator(split, tableName, recordsRequest.getSchema(), recordsRequest.getConstraints(),
                         disableProjectionAndCasing, plan, overrideConfig);
-        // Variable to determine limit can be applied or not, If applicable what is the limit value.
-        Pair<Boolean, Integer> limitPair = getLimit(plan, recordsRequest.getConstraints());
-        writeItemsToBlock(spiller, recordsRequest, queryStatusChecker, recordMetadata, itemIterator, disableProjectionAndCasing, limitPair);
+        writeItemsToBlock(spiller, recordsRequest, queryStatusChecker, recordMetadata, itemIterator, disableProjectionAndCasing, limitPair, false);
     }
 
     private void handleQueryPassthroughPartiQLQuery(BlockSpiller spiller, ReadRecordsRequest recordsRequest, QueryStatusChecker queryStatusChecker)
@@ -253,7 +293,7 @@ public class DynamoDBRecordHandler
 
         Iterator<Map<String, AttributeValue>> itemIterator = response.items().iterator();
 
-        writeItemsToBlock(spiller, recordsRequest, queryStatusChecker, recordMetadata, itemIterator, false, Pair.of(false, -1));
+        writeItemsToBlock(spiller, recordsRequest, queryStatusChecker, recordMetadata, itemIterator, false, Pair.of(false, -1), false);
     }
 
     private void writeItemsToBlock(
@@ -263,7 +303,8 @@ public class DynamoDBRecordHandler
             DDBRecordMetadata recordMetadata,
             Iterator<Map<String, AttributeValue>> itemIterator,
             boolean disableProjectionAndCasing,
-            Pair<Boolean, Integer> limitPair)
+            Pair<Boolean, Integer> limitPair,
+            boolean directConversion)
     {
         DynamoDBFieldResolver resolver = new DynamoDBFieldResolver(recordMetadata);
 
@@ -273,7 +314,12 @@ public class DynamoDBRecordHandler
         GeneratedRowWriter.RowWriterBuilder rowWriterBuilder = GeneratedRowWriter.newBuilder(recordsRequest.getConstraints());
         //register extract and field writer factory for each field.
         for (Field next : recordsRequest.getSchema().getFields()) {
-            Optional<Extractor> extractor = DDBTypeUtils.makeExtractor(next, recordMetadata, disableProjectionAndCasing);
+            Optional<Extractor> extractor = directConversion
+                    ? DDBTypeUtils.makeDirectExtractor(next, recordMetadata, disableProjectionAndCasing)
+                    : Optional.empty();
+            if (extractor.isEmpty()) {
+                extractor = DDBTypeUtils.makeExtractor(next, recordMetadata, disableProjectionAndCasing);
+            }
             //generate extractor for supported data types
             if (extractor.isPresent()) {
                 rowWriterBuilder.withExtractor(next.getName(), extractor.get());
@@ -349,11 +395,45 @@ public class DynamoDBRecordHandler
         return rangeValues;
     }
 
+    private boolean isPointLookupRequest(Split split)
+    {
+        return split.getProperty(POINT_LOOKUP_KEYS_METADATA) != null;
+    }
+
     private boolean isQueryRequest(Split split)
     {
         return split.getProperty(SEGMENT_ID_PROPERTY) == null;
     }
 
+    /*
+    Scan splits spanning several segments can only be read by the async reader
+     */
+    private boolean isAsyncScanRequest(Split split)
+    {
+        return !isQueryRequest(split) && (split.getProperty(SUB_SEGMENT_COUNT_METADATA) != null
+                || Boolean.parseBoolean(configOptions.getOrDefault(ASYNC_SCAN_ENABLED_CONFIG, "false")));
+    }
+
+    /*
+    Creates a reader over every segment of a scan split, see SUB_SEGMENT_COUNT_METADATA
+     */
+    private DDBAsyncScanReader getAsyncScanReader(Split split, String tableName, Schema schema,
+                                                  boolean disableProjectionAndCasing,
+                                                  AwsRequestOverrideConfiguration requestOverrideConfiguration,
+                                                  Pair<Boolean, Integer> limitPair)
+    {
+        ScanRequest firstSegmentRequest = buildScanRequest(split, tableName, schema, disableProjectionAndCasing,
+                null, requestOverrideConfiguration, limitPair);
+        int subSegmentCount = Integer.parseInt(split.getProperties().getOrDefault(SUB_SEGMENT_COUNT_METADATA, "1"));
+        List<ScanRequest> segmentRequests = new ArrayList<>();
+        for (int i = 0; i < subSegmentCount; i++) {
+            segmentRequests.add(firstSegmentRequest.toBuilder().segment(firstSegmentRequest.segment() + i).build());
+        }
+        logger.info("Invoking DDB with async Scan requests for segments {} to {} of {}", firstSegmentRequest.segment(),
+                firstSegmentRequest.segment() + subSegmentCount - 1, firstSegmentRequest.totalSegments());
+        return new DDBAsyncScanReader(asyncDdbClient.get(), segmentRequests);
+    }
+
     /*
     Converts a split into a Query
      */
@@ -486,12 +566,122 @@ public class DynamoDBRecordHandler
     }
 
     /*
-    Creates an iterator that can iterate through a Query or Scan, sending paginated requests as necessary
+    Converts the keys of a point lookup split into a BatchGetItem Request
+    */
+    private BatchGetItemRequest buildBatchGetItemRequest(String tableName, Schema schema,
+                                                         boolean disableProjectionAndCasing,
+                                                         List<Map<String, AttributeValue>> keys,
+                                                         AwsRequestOverrideConfiguration overrideConfiguration)
+    {
+        KeysAndAttributes.Builder keysAndAttributesBuilder = KeysAndAttributes.builder().keys(keys);
+
+        // Only read columns that are needed in the query
+        if (!disableProjectionAndCasing && !schema.getFields().isEmpty()) {
+            Map<String, String> expressionAttributeNames = new HashMap<>();
+            String projectionExpression = schema.getFields()
+                    .stream()
+                    .map(field -> {
+                        String aliasedName = DDBPredicateUtils.aliasColumn(field.getName());
+                        expressionAttributeNames.put(aliasedName, field.getName());
+                        return aliasedName;
+                    })
+                    .collect(Collectors.joining(","));
+            keysAndAttributesBuilder.projectionExpression(projectionExpression)
+                    .expressionAttributeNames(expressionAttributeNames);
+        }
+
+        return BatchGetItemRequest.builder()
+                .requestItems(Collections.singletonMap(tableName, keysAndAttributesBuilder.build()))
+                .overrideConfiguration(overrideConfiguration)
+                .build();
+    }
+
+    /*
+    Submits a BatchGetItem, reporting a response that made no progress at all as throttling so the invoker backs off
+    before the unprocessed keys are retried
+     */
+    private BatchGetItemResponse batchGetItem(BatchGetItemRequest request, String tableName)
+    {
+        BatchGetItemResponse response = ddbClient.batchGetItem(request);
+        KeysAndAttributes unprocessed = response.unprocessedKeys().get(tableName);
+        if (unprocessed != null && !unprocessed.keys().isEmpty()
+                && response.responses().getOrDefault(tableName, Collections.emptyList()).isEmpty()) {
+            throw ProvisionedThroughputExceededException.builder()
+                    .message("BatchGetItem returned all " + unprocessed.keys().size() + " keys unprocessed")
+                    .build();
+        }
+        return response;
+    }
+
+    /*
+    Creates an iterator that can iterate through the items of a point lookup split, resubmitting unprocessed keys as necessary
+     */
+    private Iterator<Map<String, AttributeValue>> getPointLookupIterator(Split split, String tableName, Schema schema,
+                                                                         boolean disableProjectionAndCasing,
+                                                                         AwsRequestOverrideConfiguration requestOverrideConfiguration)
+    {
+        validateExpectedMetadata(split.getProperties());
+        List<Map<String, AttributeValue>> keys = DDBTypeUtils.jsonToAttributeValue(split.getProperty(POINT_LOOKUP_KEYS_METADATA), POINT_LOOKUP_KEYS_METADATA)
+                .l()
+                .stream()
+                .map(AttributeValue::m)
+                .collect(Collectors.toList());
+
+        return new Iterator<Map<String, AttributeValue>>() {
+            AtomicReference<List<Map<String, AttributeValue>>> pendingKeys = new AtomicReference<>(keys);
+            AtomicReference<Iterator<Map<String, AttributeValue>>> currentPageIterator = new AtomicReference<>();
+
+            @Override
+            public boolean hasNext()
+            {
+                return currentPageIterator.get() == null
+                        || currentPageIterator.get().hasNext()
+                        || !pendingKeys.get().isEmpty();
+            }
+
+            @Override
+            public Map<String, AttributeValue> next()
+            {
+                if (currentPageIterator.get() != null && currentPageIterator.get().hasNext()) {
+                    return currentPageIterator.get().next();
+                }
+                Iterator<Map<String, AttributeValue>> iterator;
+                try {
+                    BatchGetItemRequest request = buildBatchGetItemRequest(tableName, schema, disableProjectionAndCasing,
+                            pendingKeys.get(), requestOverrideConfiguration);
+                    logger.info("Invoking DDB with BatchGetItem request for {} keys", pendingKeys.get().size());
+                    BatchGetItemResponse response = invokerCache.get(tableName).invoke(() -> batchGetItem(request, tableName));
+                    KeysAndAttributes unprocessed = response.unprocessedKeys().get(tableName);
+                    pendingKeys.set(unprocessed == null ? Collections.emptyList() : unprocessed.keys());
+                    iterator = response.responses().getOrDefault(tableName, Collections.emptyList()).iterator();
+                }
+                catch (TimeoutException | ExecutionException e) {
+                    throw new AthenaConnectorException(e.getMessage(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.OPERATION_TIMEOUT_EXCEPTION.toString()).build());
+                }
+                catch (ResourceNotFoundException e) {
+                    throw new AthenaConnectorException(e.getMessage(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.ENTITY_NOT_FOUND_EXCEPTION.toString()).build());
+                }
+                currentPageIterator.set(iterator);
+                if (iterator.hasNext()) {
+                    return iterator.next();
+                }
+                else {
+                    return null;
+                }
+            }
+        };
+    }
+
+    /*
+    Creates an iterator that can iterate through a BatchGetItem, Query or Scan, sending paginated requests as necessary
      */
     private Iterator<Map<String, AttributeValue>> getIterator(Split split, String tableName, Schema schema,
                                                               Constraints constraints, boolean disableProjectionAndCasing,
                                                               Plan plan, AwsRequestOverrideConfiguration requestOverrideConfiguration)
     {
+        if (isPointLookupRequest(split)) {
+            return getPointLookupIterator(split, tableName, schema, disableProjectionAndCasing, requestOverrideConfiguration);
+        }
         return new Iterator<Map<String, AttributeValue>>() {
             AtomicReference<Map<String, AttributeValue>> lastKeyEvaluated = new AtomicReference<>();
             AtomicReference<Iterator<Map<String, AttributeValue>>> currentPageIterator = new AtomicReference<>();
@@ -27,8 +27,17 @@ public final class DynamoDBConstants
     public static final String PARTITION_TYPE_METADATA = "partitionType";
     public static final String QUERY_PARTITION_TYPE = "query";
     public static final String SCAN_PARTITION_TYPE = "scan";
+    public static final String POINT_LOOKUP_PARTITION_TYPE = "pointLookup";
+    // Split property whose value is the json encoded list of primary keys a point lookup split reads via BatchGetItem
+    public static final String POINT_LOOKUP_KEYS_METADATA = "pointLookupKeys";
+    // Max number of keys a single BatchGetItem call accepts, also the max number of keys per point lookup split
+    public static final int MAX_POINT_LOOKUP_KEYS_PER_SPLIT = 100;
+    // Point lookups are only planned when the cross product of hash and range key values is at most this many keys
+    public static final int MAX_POINT_LOOKUP_KEYS = 10_000;
     public static final String SEGMENT_COUNT_METADATA = "segmentCount";
     public static final String SEGMENT_ID_PROPERTY = "segmentId";
+    // Metadata key whose value is the number of consecutive scan segments, starting at the segment id, a scan split reads
+    public static final String SUB_SEGMENT_COUNT_METADATA = "subSegmentCount";
     public static final String TABLE_METADATA = "sourceTable";
     public static final String INDEX_METADATA = "index";
     public static final String HASH_KEY_NAME_METADATA = "hashKeyName";
@@ -48,4 +57,11 @@ public final class DynamoDBConstants
     public static final String UTC = "UTC";
     // Metadata key whose value is a string that represents the maping from glue column name to ddb column name
     public static final String COLUMN_NAME_MAPPING_PROPERTY = "columnMapping";
+
+    // Config option that switches scan splits to the async client reader, which prefetches pages while the current one
+    // is written and reads the sub-segments of a split concurrently
+    public static final String ASYNC_SCAN_ENABLED_CONFIG = "enable_async_scan";
+    // Config option with the number of segments each scan split of an on-demand table reads concurrently in async scan mode
+    public static final String SCAN_SUB_SEGMENTS_CONFIG = "scan_sub_segments";
+    public static final int DEFAULT_SCAN_SUB_SEGMENTS = 4;
 }
@@ -0,0 +1,149 @@
+/*-
+ * #%L
+ * athena-dynamodb
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.dynamodb.util;
+
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.amazonaws.athena.connectors.dynamodb.throttling.DynamoDBExceptionFilter.EXCEPTION_FILTER;
+
+/**
+ * Iterates the items of one or more scan segments read through the async DynamoDB client.
+ * <p>
+ * Every segment keeps exactly one page request in flight. As soon as a page is handed to the caller the request for
+ * the next page of that segment is submitted, so DynamoDB serves it while the caller converts the current page, and
+ * segments are read concurrently. At most one unconsumed page per segment is held in memory.
+ * <p>
+ * Closing the reader cancels any outstanding page request, callers that stop early (e.g. a satisfied limit) must close it.
+ */
+public class DDBAsyncScanReader
+        implements Iterator<Map<String, AttributeValue>>, AutoCloseable
+{
+    private static final Logger logger = LoggerFactory.getLogger(DDBAsyncScanReader.class);
+
+    private final DynamoDbAsyncClient ddbClient;
+    private final List<ScanRequest> segmentRequests;
+    // in flight page request per segment, keyed by the position of the segment in segmentRequests
+    private final Map<Integer, CompletableFuture<ScanResponse>> inFlight = new LinkedHashMap<>();
+    private Iterator<Map<String, AttributeValue>> currentPage = Collections.emptyIterator();
+    private long pagesRead = 0;
+
+    /**
+     * Starts reading the first page of every segment.
+     *
+     * @param ddbClient the async DDB client to scan with
+     * @param segmentRequests one ScanRequest per segment to read, without an exclusive start key
+     */
+    public DDBAsyncScanReader(DynamoDbAsyncClient ddbClient, List<ScanRequest> segmentRequests)
+    {
+        this.ddbClient = ddbClient;
+        this.segmentRequests = segmentRequests;
+        for (int i = 0; i < segmentRequests.size(); i++) {
+            inFlight.put(i, ddbClient.scan(segmentRequests.get(i)));
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (!currentPage.hasNext() && !inFlight.isEmpty()) {
+            currentPage = nextPage().iterator();
+        }
+        return currentPage.hasNext();
+    }
+
+    @Override
+    public Map<String, AttributeValue> next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    /*
+    Waits for the first segment to return a page and submits the request for the following page of that segment
+     */
+    private List<Map<String, AttributeValue>> nextPage()
+    {
+        ScanResponse response;
+        int segment;
+        try {
+            CompletableFuture.anyOf(inFlight.values().toArray(new CompletableFuture[0])).join();
+            segment = inFlight.entrySet().stream()
+                    .filter(next -> next.getValue().isDone())
+                    .findFirst()
+                    .map(Map.Entry::getKey)
+                    .orElseThrow(IllegalStateException::new);
+            response = inFlight.remove(segment).join();
+        }
+        catch (CompletionException e) {
+            throw toConnectorException(e.getCause() != null ? e.getCause() : e);
+        }
+
+        pagesRead++;
+        if (response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()) {
+            ScanRequest request = segmentRequests.get(segment).toBuilder()
+                    .exclusiveStartKey(response.lastEvaluatedKey())
+                    .build();
+            inFlight.put(segment, ddbClient.scan(request));
+        }
+        return response.items();
+    }
+
+    private static AthenaConnectorException toConnectorException(Throwable cause)
+    {
+        if (cause instanceof ResourceNotFoundException) {
+            return new AthenaConnectorException(cause.getMessage(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.ENTITY_NOT_FOUND_EXCEPTION.toString()).build());
+        }
+        if (cause instanceof Exception && EXCEPTION_FILTER.isMatch((Exception) cause)) {
+            // the client already retried with backoff, let Athena slow the query down
+            return new AthenaConnectorException(cause.getMessage(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.THROTTLING_EXCEPTION.toString()).build());
+        }
+        return new AthenaConnectorException(cause.getMessage(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.INTERNAL_SERVICE_EXCEPTION.toString()).build());
+    }
+
+    @Override
+    public void close()
+    {
+        logger.info("close: read {} pages from {} segments", pagesRead, segmentRequests.size());
+        for (CompletableFuture<ScanResponse> next : inFlight.values()) {
+            next.cancel(true);
+        }
+        inFlight.clear();
+    }
+}
@@ -33,6 +33,7 @@ import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
 import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
 import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
 import software.amazon.awssdk.services.dynamodb.model.IndexStatus;
@@ -66,7 +67,7 @@ public final class DDBTableUtils
 
     // for scan segmentation calculation
     private static final long PSUEDO_CAPACITY_FOR_ON_DEMAND = 40_000;
-    private static final int MAX_SCAN_SEGMENTS = 1000000;
+    public static final int MAX_SCAN_SEGMENTS = 1000000;
     private static final int MIN_SCAN_SEGMENTS = 1;
     private static final long MAX_BYTES_PER_SEGMENT = 1024L * 1024L * 1024L;
     private static final double MIN_IO_PER_SEGMENT = 100.0;
@@ -103,6 +104,7 @@ public final class DDBTableUtils
         ProvisionedThroughputDescription provisionedThroughputDescription = table.provisionedThroughput();
         // #todo: from the Documentation; this doesn't seem to be returning null from the looks of it; but test;
         final long provisionedReadCapacity =  provisionedThroughputDescription != null ? provisionedThroughputDescription.readCapacityUnits() : PSUEDO_CAPACITY_FOR_ON_DEMAND;
+        final boolean onDemand = table.billingModeSummary() != null && BillingMode.PAY_PER_REQUEST.equals(table.billingModeSummary().billingMode());
 
         // get secondary indexes
         List<LocalSecondaryIndexDescription> localSecondaryIndexes = table.hasLocalSecondaryIndexes() ? table.localSecondaryIndexes() : ImmutableList.of();
@@ -122,7 +124,7 @@ public final class DDBTableUtils
                         i.projection().nonKeyAttributes() == null ? ImmutableList.of() : i.projection().nonKeyAttributes()));
               });
 
-        return new DynamoDBTable(tableName, keys.getHashKey(), keys.getRangeKey(), table.attributeDefinitions(), indices.build(), approxTableSizeInBytes, approxItemCount, provisionedReadCapacity);
+        return new DynamoDBTable(tableName, keys.getHashKey(), keys.getRangeKey(), table.attributeDefinitions(), indices.build(), approxTableSizeInBytes, approxItemCount, provisionedReadCapacity, onDemand);
     }
 
     /*
@@ -21,19 +21,33 @@ package com.amazonaws.athena.connectors.dynamodb.util;
 
 import com.amazonaws.athena.connector.lambda.data.BlockUtils;
 import com.amazonaws.athena.connector.lambda.data.DateTimeFormatterUtil;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.BigIntExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.BitExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.DecimalExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float4Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float8Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.IntExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.SmallIntExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.TinyIntExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarBinaryExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarCharExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.FieldWriter;
 import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.FieldWriterFactory;
 import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableDecimalHolder;
 import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableVarBinaryHolder;
+import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableVarCharHolder;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import com.amazonaws.athena.connectors.dynamodb.resolver.DynamoDBFieldResolver;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.holders.NullableBigIntHolder;
 import org.apache.arrow.vector.holders.NullableBitHolder;
+import org.apache.arrow.vector.holders.NullableFloat4Holder;
+import org.apache.arrow.vector.holders.NullableFloat8Holder;
+import org.apache.arrow.vector.holders.NullableIntHolder;
+import org.apache.arrow.vector.holders.NullableSmallIntHolder;
+import org.apache.arrow.vector.holders.NullableTinyIntHolder;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -471,6 +485,125 @@ public final class DDBTypeUtils
         }
     }
 
+    /**
+     * Create an extractor that converts the DDB attribute of a scalar field straight into the Arrow holder, parsing the
+     * wire representation of the attribute instead of materializing it through {@link #toSimpleValue(AttributeValue)}.
+     * Attributes whose DDB type doesn't match the field type go through the same coercion as {@link #makeFactory}.
+     * @param field
+     * @param recordMetadata
+     * @return the extractor, or empty for types that need the generic conversion (dates, complex types..etc)
+     */
+    public static Optional<Extractor> makeDirectExtractor(Field field, DDBRecordMetadata recordMetadata, boolean caseInsensitive)
+    {
+        String fieldName = field.getName();
+        Types.MinorType fieldType = Types.getMinorTypeForArrowType(field.getType());
+
+        switch (fieldType) {
+            case VARCHAR:
+                return Optional.of((VarCharExtractor) (Object context, NullableVarCharHolder dst) ->
+                {
+                    AttributeValue attributeValue = contextAsMap(context, caseInsensitive).get(fieldName);
+                    Object value = (attributeValue != null && attributeValue.s() != null) ? attributeValue.s()
+                            : coerceAttributeToExpectedType(attributeValue, field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.toString() : null;
+                });
+            case BIGINT:
+                return Optional.of((BigIntExtractor) (Object context, NullableBigIntHolder dst) ->
+                {
+                    Number value = directNumber(contextAsMap(context, caseInsensitive).get(fieldName), field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.longValue() : 0;
+                });
+            case INT:
+                return Optional.of((IntExtractor) (Object context, NullableIntHolder dst) ->
+                {
+                    Number value = directNumber(contextAsMap(context, caseInsensitive).get(fieldName), field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.intValue() : 0;
+                });
+            case SMALLINT:
+                return Optional.of((SmallIntExtractor) (Object context, NullableSmallIntHolder dst) ->
+                {
+                    Number value = directNumber(contextAsMap(context, caseInsensitive).get(fieldName), field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.shortValue() : 0;
+                });
+            case TINYINT:
+                return Optional.of((TinyIntExtractor) (Object context, NullableTinyIntHolder dst) ->
+                {
+                    Number value = directNumber(contextAsMap(context, caseInsensitive).get(fieldName), field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.byteValue() : 0;
+                });
+            case FLOAT8:
+                return Optional.of((Float8Extractor) (Object context, NullableFloat8Holder dst) ->
+                {
+                    Number value = directNumber(contextAsMap(context, caseInsensitive).get(fieldName), field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.doubleValue() : 0;
+                });
+            case FLOAT4:
+                return Optional.of((Float4Extractor) (Object context, NullableFloat4Holder dst) ->
+                {
+                    Number value = directNumber(contextAsMap(context, caseInsensitive).get(fieldName), field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = value != null ? value.floatValue() : 0;
+                });
+            case DECIMAL:
+                return Optional.of((DecimalExtractor) (Object context, NullableDecimalHolder dst) ->
+                {
+                    AttributeValue attributeValue = contextAsMap(context, caseInsensitive).get(fieldName);
+                    Object value = (attributeValue != null && attributeValue.n() != null) ? new BigDecimal(attributeValue.n())
+                            : toSimpleValue(attributeValue);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = (BigDecimal) value;
+                });
+            case BIT:
+                return Optional.of((BitExtractor) (Object context, NullableBitHolder dst) ->
+                {
+                    AttributeValue attributeValue = contextAsMap(context, caseInsensitive).get(fieldName);
+                    Object value = (attributeValue != null && attributeValue.bool() != null) ? attributeValue.bool()
+                            : coerceAttributeToExpectedType(attributeValue, field, fieldType, recordMetadata);
+                    dst.isSet = value != null ? 1 : 0;
+                    dst.value = Boolean.TRUE.equals(value) ? 1 : 0;
+                });
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /*
+    Parses a N attribute without going through BigDecimal for the common integral and floating point cases
+     */
+    private static Number directNumber(AttributeValue attributeValue, Field field, Types.MinorType fieldType, DDBRecordMetadata recordMetadata)
+    {
+        String number = attributeValue != null ? attributeValue.n() : null;
+        if (number == null) {
+            return (Number) coerceAttributeToExpectedType(attributeValue, field, fieldType, recordMetadata);
+        }
+        switch (fieldType) {
+            case FLOAT8:
+                return Double.parseDouble(number);
+            case FLOAT4:
+                return Float.parseFloat(number);
+            default:
+                try {
+                    return Long.parseLong(number);
+                }
+                catch (NumberFormatException e) {
+                    // fractional or exponent notation, truncate like the BigDecimal based coercion does
+                    return new BigDecimal(number).longValue();
+                }
+        }
+    }
+
+    private static Object coerceAttributeToExpectedType(AttributeValue attributeValue, Field field,
+                                                        Types.MinorType fieldType, DDBRecordMetadata recordMetadata)
+    {
+        return coerceValueToExpectedType(toSimpleValue(attributeValue), field, fieldType, recordMetadata);
+    }
+
     /**
      * Since GeneratedRowWriter doesn't yet support complex types (STRUCT, LIST..etc) we use this to create our own
      * FieldWriters via a custom FieldWriterFactory.
@@ -20,9 +20,12 @@
 package com.amazonaws.athena.connectors.dynamodb;
 
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.BigIntExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.BitExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.DecimalExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float8Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.IntExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarBinaryExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarCharExtractor;
 import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableDecimalHolder;
@@ -32,7 +35,10 @@ import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException
 import com.amazonaws.athena.connectors.dynamodb.util.DDBRecordMetadata;
 import com.amazonaws.athena.connectors.dynamodb.util.DDBTypeUtils;
 import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.holders.NullableBigIntHolder;
 import org.apache.arrow.vector.holders.NullableBitHolder;
+import org.apache.arrow.vector.holders.NullableFloat8Holder;
+import org.apache.arrow.vector.holders.NullableIntHolder;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -134,6 +140,64 @@ public class DDBTypeUtilsTest
         logger.info("makeExtractor_withDecimalFields_returnsDecimalExtractor - exit");
     }
 
+    @Test
+    public void makeDirectExtractor_withScalarFields_parsesAttributesDirectly()
+            throws Exception
+    {
+        Map<String, AttributeValue> item = ImmutableMap.<String, AttributeValue>builder()
+                .put("str", AttributeValue.fromS(TEST_STRING))
+                .put("num_str", AttributeValue.fromN("12"))
+                .put("big", AttributeValue.fromN("9007199254740993"))
+                .put("frac", AttributeValue.fromN("7.9"))
+                .put("dbl", AttributeValue.fromN("1.5"))
+                .put("dec", AttributeValue.fromN("789.1234"))
+                .put("flag", AttributeValue.fromBool(true))
+                .put("nul", AttributeValue.fromNul(true))
+                .build();
+
+        NullableVarCharHolder varCharHolder = new NullableVarCharHolder();
+        ((VarCharExtractor) directExtractor("str", Types.MinorType.VARCHAR)).extract(item, varCharHolder);
+        assertEquals(TEST_STRING, varCharHolder.value);
+        // not a S attribute, falls back to the generic conversion
+        ((VarCharExtractor) directExtractor("num_str", Types.MinorType.VARCHAR)).extract(item, varCharHolder);
+        assertEquals("12", varCharHolder.value);
+
+        NullableBigIntHolder bigIntHolder = new NullableBigIntHolder();
+        ((BigIntExtractor) directExtractor("big", Types.MinorType.BIGINT)).extract(item, bigIntHolder);
+        assertEquals(1, bigIntHolder.isSet);
+        assertEquals(9007199254740993L, bigIntHolder.value);
+        ((BigIntExtractor) directExtractor("missing", Types.MinorType.BIGINT)).extract(item, bigIntHolder);
+        assertEquals(0, bigIntHolder.isSet);
+        ((BigIntExtractor) directExtractor("nul", Types.MinorType.BIGINT)).extract(item, bigIntHolder);
+        assertEquals(0, bigIntHolder.isSet);
+
+        NullableIntHolder intHolder = new NullableIntHolder();
+        ((IntExtractor) directExtractor("frac", Types.MinorType.INT)).extract(item, intHolder);
+        assertEquals(7, intHolder.value);
+
+        NullableFloat8Holder float8Holder = new NullableFloat8Holder();
+        ((Float8Extractor) directExtractor("dbl", Types.MinorType.FLOAT8)).extract(item, float8Holder);
+        assertEquals(1.5D, float8Holder.value, 0.0D);
+
+        NullableDecimalHolder decimalHolder = new NullableDecimalHolder();
+        ((DecimalExtractor) DDBTypeUtils.makeDirectExtractor(new Field("dec", FieldType.nullable(ArrowType.Decimal.createDecimal(38, 9, 128)), null),
+                ddbRecordMetadata, false).get()).extract(item, decimalHolder);
+        assertEquals(new BigDecimal("789.1234"), decimalHolder.value);
+
+        NullableBitHolder bitHolder = new NullableBitHolder();
+        ((BitExtractor) directExtractor("flag", Types.MinorType.BIT)).extract(item, bitHolder);
+        assertEquals(1, bitHolder.isSet);
+        assertEquals(1, bitHolder.value);
+
+        assertFalse(DDBTypeUtils.makeDirectExtractor(new Field("date", FieldType.nullable(Types.MinorType.DATEMILLI.getType()), null),
+                ddbRecordMetadata, false).isPresent());
+    }
+
+    private Extractor directExtractor(String fieldName, Types.MinorType type)
+    {
+        return DDBTypeUtils.makeDirectExtractor(new Field(fieldName, FieldType.nullable(type.getType()), null), ddbRecordMetadata, false).get();
+    }
+
     @Test
     public void makeExtractor_withVarBinaryFields_createsVarBinaryExtractor()
             throws Exception
@@ -55,6 +55,7 @@ import com.amazonaws.util.json.Jackson;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import org.apache.arrow.vector.complex.reader.FieldReader;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -71,7 +72,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.enhanced.dynamodb.document.EnhancedDocument;
 import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
 import software.amazon.awssdk.services.glue.GlueClient;
 import software.amazon.awssdk.services.glue.model.Column;
 import software.amazon.awssdk.services.glue.model.Database;
@@ -84,6 +93,7 @@ import software.amazon.awssdk.services.glue.model.Table;
 import software.amazon.awssdk.services.glue.paginators.GetDatabasesIterable;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -94,6 +104,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.stream.Collectors;
 
@@ -105,19 +116,25 @@ import static com.amazonaws.athena.connector.lambda.handlers.GlueMetadataHandler
 import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.UNLIMITED_PAGE_SIZE_VALUE;
 import static com.amazonaws.athena.connectors.dynamodb.DynamoDBMetadataHandler.DYNAMO_DB_FLAG;
 import static com.amazonaws.athena.connectors.dynamodb.DynamoDBMetadataHandler.MAX_SPLITS_PER_REQUEST;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.ASYNC_SCAN_ENABLED_CONFIG;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.DEFAULT_SCHEMA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_NAMES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_VALUES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.HASH_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.INDEX_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.MAX_POINT_LOOKUP_KEYS_PER_SPLIT;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.NON_KEY_FILTER_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.PARTITION_TYPE_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.POINT_LOOKUP_KEYS_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.POINT_LOOKUP_PARTITION_TYPE;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.QUERY_PARTITION_TYPE;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_FILTER_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SCAN_PARTITION_TYPE;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SCAN_SUB_SEGMENTS_CONFIG;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_ID_PROPERTY;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SUB_SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.TABLE_METADATA;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -693,6 +710,64 @@ public class DynamoDBMetadataHandlerTest
         logger.info("doGetSplitsScan: exit");
     }
 
+    @Test
+    public void doGetSplits_withOnDemandTableAndAsyncScan_createsSubSegmentedScanSplits()
+            throws Exception
+    {
+        String onDemandTable = "on_demand_table";
+        ddbClient.createTable(CreateTableRequest.builder()
+                .tableName(onDemandTable)
+                .keySchema(KeySchemaElement.builder().attributeName("pk").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder().attributeName("pk").attributeType(ScalarAttributeType.S).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build());
+        try {
+            ddbClient.putItem(PutItemRequest.builder()
+                    .tableName(onDemandTable)
+                    .item(ImmutableMap.of("pk", AttributeValue.fromS("key_0"), "val", AttributeValue.fromN("0")))
+                    .build());
+            DynamoDBMetadataHandler asyncScanHandler = new DynamoDBMetadataHandler(new LocalKeyFactory(), secretsManager, athena, "spillBucket", "spillPrefix",
+                    ddbClient, glueClient, ImmutableMap.of(ASYNC_SCAN_ENABLED_CONFIG, "true", SCAN_SUB_SEGMENTS_CONFIG, "3"));
+
+            GetTableLayoutResponse layoutResponse = asyncScanHandler.doGetTableLayout(allocator, new GetTableLayoutRequest(TEST_IDENTITY,
+                    TEST_QUERY_ID,
+                    TEST_CATALOG_NAME,
+                    new TableName(DEFAULT_SCHEMA, onDemandTable),
+                    getConstraints(ImmutableMap.of(), Collections.emptyMap(), null),
+                    SchemaBuilder.newBuilder().build(),
+                    Collections.EMPTY_SET));
+            Map<String, String> partitionMetadata = layoutResponse.getPartitions().getSchema().getCustomMetadata();
+            assertThat(partitionMetadata.get(PARTITION_TYPE_METADATA), equalTo(SCAN_PARTITION_TYPE));
+            assertThat(partitionMetadata.get(SUB_SEGMENT_COUNT_METADATA), equalTo("3"));
+            FieldReader segmentCountReader = layoutResponse.getPartitions().getFieldReader(SEGMENT_COUNT_METADATA);
+            segmentCountReader.setPosition(0);
+            int segmentCount = segmentCountReader.readInteger();
+
+            GetSplitsResponse response = asyncScanHandler.doGetSplits(allocator, new GetSplitsRequest(TEST_IDENTITY,
+                    TEST_QUERY_ID,
+                    TEST_CATALOG_NAME,
+                    new TableName(DEFAULT_SCHEMA, onDemandTable),
+                    layoutResponse.getPartitions(),
+                    ImmutableList.of(),
+                    getConstraints(ImmutableMap.of(), Collections.emptyMap(), null),
+                    null));
+
+            assertEquals(segmentCount, response.getSplits().size());
+            Set<Integer> segmentIds = new HashSet<>();
+            for (Split split : response.getSplits()) {
+                assertThat(split.getProperty(SEGMENT_COUNT_METADATA), equalTo(String.valueOf(segmentCount * 3)));
+                assertThat(split.getProperty(SUB_SEGMENT_COUNT_METADATA), equalTo("3"));
+                segmentIds.add(Integer.parseInt(split.getProperty(SEGMENT_ID_PROPERTY)));
+            }
+            for (int i = 0; i < segmentCount; i++) {
+                assertTrue(segmentIds.contains(i * 3));
+            }
+        }
+        finally {
+            ddbClient.deleteTable(DeleteTableRequest.builder().tableName(onDemandTable).build());
+        }
+    }
+
     @Test
     public void doGetSplits_withQueryPartition_createsQuerySplits()
             throws Exception
@@ -737,6 +812,79 @@ public class DynamoDBMetadataHandlerTest
         assertThat(response.getSplits().stream().map(split -> split.getProperty("col_0")).distinct().count(), equalTo((long) MAX_SPLITS_PER_REQUEST));
     }
 
+    @Test
+    public void doGetSplits_withPointLookupPartition_batchesPrimaryKeys()
+            throws Exception
+    {
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        EquatableValueSet.Builder hashKeyValueSet = EquatableValueSet.newBuilder(allocator, Types.MinorType.VARCHAR.getType(), true, false);
+        for (int i = 0; i < 3; i++) {
+            hashKeyValueSet.add("test_str_" + i);
+        }
+        SortedRangeSet.Builder rangeKeyValueSet = SortedRangeSet.newBuilder(Types.MinorType.BIGINT.getType(), false);
+        for (long i = 0; i < 150; i++) {
+            rangeKeyValueSet.add(Range.equal(allocator, Types.MinorType.BIGINT.getType(), i));
+        }
+        constraintsMap.put("col_0", hashKeyValueSet.build());
+        constraintsMap.put("col_1", rangeKeyValueSet.build());
+
+        GetTableLayoutResponse layoutResponse = handler.doGetTableLayout(allocator, new GetTableLayoutRequest(TEST_IDENTITY,
+                TEST_QUERY_ID,
+                TEST_CATALOG_NAME,
+                TEST_TABLE_NAME,
+                getConstraints(constraintsMap, Collections.emptyMap(), null),
+                SchemaBuilder.newBuilder().build(),
+                Collections.EMPTY_SET));
+
+        Map<String, String> partitionMetadata = layoutResponse.getPartitions().getSchema().getCustomMetadata();
+        assertThat(partitionMetadata.get(PARTITION_TYPE_METADATA), equalTo(POINT_LOOKUP_PARTITION_TYPE));
+        assertThat(partitionMetadata.get(HASH_KEY_NAME_METADATA), equalTo("col_0"));
+        assertThat(partitionMetadata.get(RANGE_KEY_NAME_METADATA), equalTo("col_1"));
+        assertThat(partitionMetadata.containsKey(RANGE_KEY_FILTER_METADATA), is(false));
+        assertThat(layoutResponse.getPartitions().getRowCount(), equalTo(450));
+
+        GetSplitsRequest req = getSplitsRequest(
+                layoutResponse.getPartitions(),
+                ImmutableList.of("col_0", "col_1"),
+                getConstraints(constraintsMap, Collections.emptyMap(), null));
+        GetSplitsResponse response = handler.doGetSplits(allocator, req);
+
+        assertThat(response.getContinuationToken() == null, is(true));
+        assertThat(response.getSplits().size(), equalTo(5));
+        Set<String> keys = new HashSet<>();
+        for (Split split : response.getSplits()) {
+            List<AttributeValue> splitKeys = DDBTypeUtils.jsonToAttributeValue(split.getProperty(POINT_LOOKUP_KEYS_METADATA), POINT_LOOKUP_KEYS_METADATA).l();
+            assertTrue(splitKeys.size() <= MAX_POINT_LOOKUP_KEYS_PER_SPLIT);
+            for (AttributeValue key : splitKeys) {
+                keys.add(key.m().get("col_0").s() + "/" + new BigDecimal(key.m().get("col_1").n()).intValueExact());
+            }
+        }
+        assertThat(keys.size(), equalTo(450));
+        assertTrue(keys.contains("test_str_2/149"));
+    }
+
+    @Test
+    public void doGetTableLayout_withRangeKeyRange_createsQueryPartitionType()
+            throws Exception
+    {
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put("col_0", EquatableValueSet.newBuilder(allocator, Types.MinorType.VARCHAR.getType(), true, false)
+                .add("test_str_0").build());
+        constraintsMap.put("col_1", SortedRangeSet.of(Range.range(allocator, Types.MinorType.BIGINT.getType(), 0L, true, 10L, true)));
+
+        GetTableLayoutResponse res = handler.doGetTableLayout(allocator, new GetTableLayoutRequest(TEST_IDENTITY,
+                TEST_QUERY_ID,
+                TEST_CATALOG_NAME,
+                TEST_TABLE_NAME,
+                getConstraints(constraintsMap, Collections.emptyMap(), null),
+                SchemaBuilder.newBuilder().build(),
+                Collections.EMPTY_SET));
+
+        // a range on the range key can't be expressed as primary keys, so it stays a Query with a key condition
+        assertThat(res.getPartitions().getSchema().getCustomMetadata().get(PARTITION_TYPE_METADATA), equalTo(QUERY_PARTITION_TYPE));
+        assertThat(res.getPartitions().getSchema().getCustomMetadata().get(RANGE_KEY_FILTER_METADATA), equalTo("(#col_1 BETWEEN :v0 AND :v1)"));
+    }
+
     @Test
     public void doGetTable_withGlueTable_propagatesSourceTableName()
             throws Exception
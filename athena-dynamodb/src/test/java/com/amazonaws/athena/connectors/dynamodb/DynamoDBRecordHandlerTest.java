@@ -41,6 +41,7 @@ import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.athena.connectors.dynamodb.qpt.DDBQueryPassthrough;
 import com.amazonaws.athena.connectors.dynamodb.util.DDBTypeUtils;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.arrow.vector.complex.impl.UnionListReader;
 import org.apache.arrow.vector.complex.reader.FieldReader;
@@ -55,13 +56,22 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.enhanced.dynamodb.document.EnhancedDocument;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.glue.GlueClient;
 import software.amazon.awssdk.services.glue.model.Column;
 import software.amazon.awssdk.services.glue.model.EntityNotFoundException;
@@ -71,6 +81,7 @@ import software.amazon.awssdk.services.glue.model.Table;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
@@ -90,9 +101,12 @@ import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstan
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.EXPRESSION_VALUES_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.HASH_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.NON_KEY_FILTER_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.POINT_LOOKUP_KEYS_METADATA;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_NAME_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.RANGE_KEY_FILTER_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SEGMENT_ID_PROPERTY;
+import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.SUB_SEGMENT_COUNT_METADATA;
 import static com.amazonaws.athena.connectors.dynamodb.constants.DynamoDBConstants.TABLE_METADATA;
 import static com.amazonaws.util.json.Jackson.toJsonString;
 import static org.junit.Assert.assertEquals;
@@ -102,6 +116,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -411,6 +427,131 @@ public class DynamoDBRecordHandlerTest
         assertEquals(0, response.getRecords().getRowCount());
     }
 
+    @Test
+    public void doReadRecords_withPointLookupSplit_readsRequestedKeys()
+            throws Exception
+    {
+        // test_str_0 only has range key values 0 to 2, the lookup of 99 finds nothing
+        Split split = createPointLookupSplit(ImmutableList.of(
+                pointLookupKey(TEST_STR_0, 0),
+                pointLookupKey(TEST_STR_0, 2),
+                pointLookupKey(TEST_STR_0, 99),
+                pointLookupKey("test_str_3", 4)));
+
+        ReadRecordsRequest request = createReadRecordsRequest(
+                TEST_TABLE_NAME,
+                schema,
+                split,
+                getConstraints(DEFAULT_NO_LIMIT, Collections.emptyMap(), null));
+
+        RecordResponse rawResponse = handler.doReadRecords(allocator, request);
+
+        ReadRecordsResponse response = assertAndCastToReadRecordsResponse(rawResponse);
+        logger.info("testReadPointLookupSplit: rows[{}]", response.getRecordCount());
+
+        assertEquals(3, response.getRecords().getRowCount());
+    }
+
+    @Test
+    public void doReadRecords_withSubSegmentedScanSplits_readsAllRecordsAsync()
+            throws Exception
+    {
+        DynamoDbAsyncClient asyncClient = DynamoDbAsyncClient.builder()
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .region(Region.US_WEST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummyKey", "dummySecret")))
+                .build();
+        try {
+            DynamoDBRecordHandler asyncHandler = new DynamoDBRecordHandler(ddbClient, asyncClient, mock(S3Client.class), mock(SecretsManagerClient.class),
+                    mock(AthenaClient.class), "source_type", ImmutableMap.of());
+
+            // two splits of two sub segments each cover the 4 segments of the table
+            int rowCount = 0;
+            for (String segmentId : ImmutableList.of("0", "2")) {
+                Split split = Split.newBuilder(SPILL_LOCATION, keyFactory.create())
+                        .add(TABLE_METADATA, TEST_TABLE)
+                        .add(SEGMENT_ID_PROPERTY, segmentId)
+                        .add(SEGMENT_COUNT_METADATA, "4")
+                        .add(SUB_SEGMENT_COUNT_METADATA, "2")
+                        .build();
+
+                ReadRecordsRequest request = createReadRecordsRequest(
+                        TEST_TABLE_NAME,
+                        schema,
+                        split,
+                        getConstraints(DEFAULT_NO_LIMIT, Collections.emptyMap(), null));
+
+                ReadRecordsResponse response = assertAndCastToReadRecordsResponse(asyncHandler.doReadRecords(allocator, request));
+                logger.info("testReadSubSegmentedScanSplit: segment[{}] rows[{}]", segmentId, response.getRecordCount());
+                rowCount += response.getRecords().getRowCount();
+            }
+
+            assertEquals(1000, rowCount);
+        }
+        finally {
+            asyncClient.close();
+        }
+    }
+
+    @Test
+    public void doReadRecords_withPointLookupSplitAndUnprocessedKeys_retriesUnprocessedKeys()
+            throws Exception
+    {
+        DynamoDbClient mockDdbClient = mock(DynamoDbClient.class);
+        Map<String, AttributeValue> firstKey = pointLookupKey(TEST_STR_0, 0);
+        Map<String, AttributeValue> secondKey = pointLookupKey(TEST_STR_0, 1);
+        when(mockDdbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder()
+                        .responses(ImmutableMap.of(TEST_TABLE, ImmutableList.of(firstKey)))
+                        .unprocessedKeys(ImmutableMap.of(TEST_TABLE, KeysAndAttributes.builder().keys(secondKey).build()))
+                        .build())
+                .thenReturn(BatchGetItemResponse.builder()
+                        .responses(ImmutableMap.of(TEST_TABLE, ImmutableList.of(secondKey)))
+                        .build());
+        DynamoDBRecordHandler mockedHandler = new DynamoDBRecordHandler(mockDdbClient, mock(S3Client.class), mock(SecretsManagerClient.class),
+                mock(AthenaClient.class), "source_type", ImmutableMap.of());
+
+        Schema keySchema = new Schema(ImmutableList.of(schema.findField(COL_0), schema.findField(COL_1)));
+        ReadRecordsRequest request = createReadRecordsRequest(
+                TEST_TABLE_NAME,
+                keySchema,
+                createPointLookupSplit(ImmutableList.of(firstKey, secondKey)),
+                getConstraints(DEFAULT_NO_LIMIT, Collections.emptyMap(), null));
+
+        ReadRecordsResponse response = assertAndCastToReadRecordsResponse(mockedHandler.doReadRecords(allocator, request));
+
+        assertEquals(2, response.getRecords().getRowCount());
+        ArgumentCaptor<BatchGetItemRequest> captor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(mockDdbClient, times(2)).batchGetItem(captor.capture());
+        KeysAndAttributes firstRequest = captor.getAllValues().get(0).requestItems().get(TEST_TABLE);
+        assertEquals(2, firstRequest.keys().size());
+        assertEquals("#col_0,#col_1", firstRequest.projectionExpression());
+        assertEquals(ImmutableList.of(secondKey), captor.getAllValues().get(1).requestItems().get(TEST_TABLE).keys());
+    }
+
+    @Test
+    public void doReadRecords_withPointLookupSplitAndAllKeysUnprocessed_throwsThrottlingException()
+    {
+        DynamoDbClient mockDdbClient = mock(DynamoDbClient.class);
+        Map<String, AttributeValue> key = pointLookupKey(TEST_STR_0, 0);
+        when(mockDdbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder()
+                        .unprocessedKeys(ImmutableMap.of(TEST_TABLE, KeysAndAttributes.builder().keys(key).build()))
+                        .build());
+        DynamoDBRecordHandler mockedHandler = new DynamoDBRecordHandler(mockDdbClient, mock(S3Client.class), mock(SecretsManagerClient.class),
+                mock(AthenaClient.class), "source_type", ImmutableMap.of());
+
+        ReadRecordsRequest request = createReadRecordsRequest(
+                TEST_TABLE_NAME,
+                schema,
+                createPointLookupSplit(ImmutableList.of(key)),
+                getConstraints(DEFAULT_NO_LIMIT, Collections.emptyMap(), null));
+
+        // nothing was spilled yet, so the invoker hands the congestion back to Athena
+        AthenaConnectorException ex = assertThrows(AthenaConnectorException.class, () -> mockedHandler.doReadRecords(allocator, request));
+        assertEquals(FederationSourceErrorCode.THROTTLING_EXCEPTION.toString(), ex.getErrorDetails().errorCode());
+    }
+
     @Test
     public void doReadRecords_withDateTimeSupportFromGlueTable_formatsDates() throws Exception
     {
@@ -1003,6 +1144,25 @@ public class DynamoDBRecordHandlerTest
                 .build();
     }
 
+    private Split createPointLookupSplit(List<Map<String, AttributeValue>> keys)
+    {
+        List<AttributeValue> keyValues = new ArrayList<>();
+        for (Map<String, AttributeValue> key : keys) {
+            keyValues.add(AttributeValue.fromM(key));
+        }
+        return Split.newBuilder(SPILL_LOCATION, keyFactory.create())
+                .add(TABLE_METADATA, TEST_TABLE)
+                .add(HASH_KEY_NAME_METADATA, COL_0)
+                .add(RANGE_KEY_NAME_METADATA, COL_1)
+                .add(POINT_LOOKUP_KEYS_METADATA, DDBTypeUtils.attributeToJson(AttributeValue.fromL(keyValues), POINT_LOOKUP_KEYS_METADATA))
+                .build();
+    }
+
+    private Map<String, AttributeValue> pointLookupKey(String hashKeyValue, int rangeKeyValue)
+    {
+        return ImmutableMap.of(COL_0, DDBTypeUtils.toAttributeValue(hashKeyValue), COL_1, DDBTypeUtils.toAttributeValue(rangeKeyValue));
+    }
+
     private Split createQuerySplitWithoutRangeFilter()
     {
         return Split.newBuilder(SPILL_LOCATION, keyFactory.create())
@@ -0,0 +1,267 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Tools
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.validation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the AWS services a connector calls while Athena runs a query, so that connectors can be driven
+ * in-process without an AWS account:
+ * <p>
+ * 1. S3, as in-memory buckets for spilled Blocks (path-style HeadBucket, PutObject, GetObject, HeadObject and
+ * DeleteObject), every bucket exists.
+ * 2. Athena, whose GetQueryExecution always reports the query as RUNNING, for the QueryStatusChecker.
+ * <p>
+ * Any other call is answered with an error. Clients reach the server through its endpoint, see {@link #getEndpoint()},
+ * which is an IP address so that the S3 client addresses buckets path-style.
+ */
+public class LocalAwsServer
+        implements AutoCloseable
+{
+  private static final Logger log = LoggerFactory.getLogger(LocalAwsServer.class);
+
+  private static final String ATHENA_TARGET_PREFIX = "AmazonAthena.";
+  private static final String GET_QUERY_EXECUTION_RESPONSE =
+          "{\"QueryExecution\":{\"QueryExecutionId\":\"%s\",\"Status\":{\"State\":\"RUNNING\"}}}";
+
+  private final HttpServer server;
+  private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+  private final AtomicLong bytesPut = new AtomicLong();
+  private final AtomicLong objectsPut = new AtomicLong();
+  private final AtomicLong bytesGot = new AtomicLong();
+
+  /**
+   * Starts the server on an ephemeral port of the loopback address.
+   *
+   * @param threads the number of threads serving requests
+   */
+  public LocalAwsServer(int threads)
+          throws IOException
+  {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "local-aws-server");
+      thread.setDaemon(true);
+      return thread;
+    }));
+    server.createContext("/", this::handle);
+    server.start();
+    log.info("Serving local S3 and Athena at {}", getEndpoint());
+  }
+
+  public URI getEndpoint()
+  {
+    return URI.create("http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort());
+  }
+
+  /**
+   * @return the bytes of the objects put so far, after removing any aws-chunked encoding
+   */
+  public long getBytesPut()
+  {
+    return bytesPut.get();
+  }
+
+  public long getObjectsPut()
+  {
+    return objectsPut.get();
+  }
+
+  public long getBytesGot()
+  {
+    return bytesGot.get();
+  }
+
+  @Override
+  public void close()
+  {
+    server.stop(0);
+    objects.clear();
+  }
+
+  private void handle(HttpExchange exchange)
+          throws IOException
+  {
+    try {
+      String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+      if (target != null) {
+        handleJsonService(exchange, target);
+      }
+      else {
+        handleS3(exchange);
+      }
+    }
+    catch (RuntimeException ex) {
+      log.warn("Failed to serve {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), ex);
+      respond(exchange, 500, "application/json", "{\"__type\":\"InternalServerException\",\"message\":\"" + ex.getMessage() + "\"}");
+    }
+    finally {
+      exchange.close();
+    }
+  }
+
+  private void handleJsonService(HttpExchange exchange, String target)
+          throws IOException
+  {
+    readBody(exchange.getRequestBody());
+    if ((ATHENA_TARGET_PREFIX + "GetQueryExecution").equals(target)) {
+      respond(exchange, 200, "application/x-amz-json-1.1", String.format(GET_QUERY_EXECUTION_RESPONSE, "local"));
+      return;
+    }
+    log.warn("Unsupported call to the local AWS server: {}", target);
+    respond(exchange, 400, "application/x-amz-json-1.1",
+            "{\"__type\":\"InvalidRequestException\",\"message\":\"" + target + " is not supported locally\"}");
+  }
+
+  private void handleS3(HttpExchange exchange)
+          throws IOException
+  {
+    //Path-style addressing, the path is /bucket/key.
+    String path = exchange.getRequestURI().getPath();
+    byte[] body = readBody(exchange.getRequestBody());
+    if (path.indexOf('/', 1) < 0) {
+      //Any bucket exists, e.g. for the HeadBucket the SpillLocationVerifier checks the spill bucket with.
+      exchange.sendResponseHeaders(200, -1);
+      return;
+    }
+    switch (exchange.getRequestMethod()) {
+      case "PUT":
+        if (isAwsChunked(exchange)) {
+          body = decodeAwsChunked(body);
+        }
+        objects.put(path, body);
+        bytesPut.addAndGet(body.length);
+        objectsPut.incrementAndGet();
+        exchange.getResponseHeaders().add("ETag", "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"");
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      case "GET":
+      case "HEAD":
+        byte[] object = objects.get(path);
+        if (object == null) {
+          respond(exchange, 404, "application/xml",
+                  "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>");
+          return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+          exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        exchange.sendResponseHeaders(200, object.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(object);
+        }
+        bytesGot.addAndGet(object.length);
+        return;
+      case "DELETE":
+        objects.remove(path);
+        exchange.sendResponseHeaders(204, -1);
+        return;
+      default:
+        respond(exchange, 405, "application/xml",
+                "<Error><Code>MethodNotAllowed</Code><Message>Not supported locally.</Message></Error>");
+    }
+  }
+
+  /**
+   * The S3 client streams uploads with aws-chunked encoding so that it can append a trailing checksum.
+   */
+  private static boolean isAwsChunked(HttpExchange exchange)
+  {
+    String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+    String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+    return (contentEncoding != null && contentEncoding.contains("aws-chunked"))
+            || (contentSha256 != null && contentSha256.startsWith("STREAMING-"));
+  }
+
+  /**
+   * Strips the aws-chunked framing, each chunk is "hex-size[;chunk-signature=...]\r\n" followed by the data and
+   * "\r\n", the last chunk has a size of 0 and is followed by the trailing headers, which are ignored.
+   */
+  static byte[] decodeAwsChunked(byte[] body)
+  {
+    ByteArrayOutputStream decoded = new ByteArrayOutputStream(body.length);
+    int position = 0;
+    while (position < body.length) {
+      int lineEnd = indexOfCrlf(body, position);
+      String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+      int separator = header.indexOf(';');
+      int size = Integer.parseInt((separator < 0) ? header.trim() : header.substring(0, separator).trim(), 16);
+      if (size == 0) {
+        break;
+      }
+      decoded.write(body, lineEnd + 2, size);
+      position = lineEnd + 2 + size + 2;
+    }
+    return decoded.toByteArray();
+  }
+
+  private static int indexOfCrlf(byte[] bytes, int from)
+  {
+    for (int i = from; i < bytes.length - 1; i++) {
+      if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Malformed aws-chunked body");
+  }
+
+  private static byte[] readBody(InputStream in)
+          throws IOException
+  {
+    try (InputStream body = in) {
+      return body.readAllBytes();
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String contentType, String body)
+          throws IOException
+  {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", contentType);
+    if ("HEAD".equals(exchange.getRequestMethod())) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
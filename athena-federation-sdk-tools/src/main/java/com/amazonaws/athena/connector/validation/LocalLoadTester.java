@@ -0,0 +1,511 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Tools
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.validation;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.S3BlockSpillReader;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.handlers.CompositeHandler;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableResponse;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.records.RemoteReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationRequest;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.request.PingRequest;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.amazonaws.athena.connector.validation.ConstraintParser.parseConstraints;
+import static com.amazonaws.athena.connector.validation.FederationServiceProvider.generateQueryId;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * This class load tests a connector locally: it runs the connector's CompositeHandler in-process and drives it through
+ * the calls Athena makes to run a select * from <schema>.<table> where <optional constraint>, that is Ping, GetTable,
+ * GetTableLayout, GetSplits and ReadRecords for every split, with a configurable number of splits read concurrently.
+ * <p>
+ * Requests and responses go through the same serialization as they do over Lambda. The AWS clients the connector
+ * creates are pointed at a {@link LocalAwsServer}, which keeps spilled Blocks in memory and answers Athena's
+ * GetQueryExecution, so no AWS account is needed. Data sources other than self-contained ones such as the TPC-DS
+ * connector have to be reachable locally, e.g. a JDBC connector can be pointed at an embedded H2 or Derby database
+ * through its usual connection string environment variable, with the database's driver on the classpath.
+ * <p>
+ * At the end, the tool reports per phase the number of calls, their p50/p99/max latencies, the rows read and the
+ * rows/sec, the bytes spilled and the peak of the Apache Arrow memory held by the connector.
+ * <p>
+ * You can run this tool with the connector's jar on the classpath using the helper script in the tools directory
+ * under the package root:
+ * tools/load_test_connector.sh connector.jar [args]
+ */
+public class LocalLoadTester
+        implements AutoCloseable
+{
+  private static final Logger log = LoggerFactory.getLogger(LocalLoadTester.class);
+
+  private static final String LOCAL_REGION = "us-east-1";
+  private static final String LOCAL_CREDENTIAL = "local";
+
+  private final LoadTestConfig config;
+  private final LocalAwsServer server;
+  //Each thread gets its own handler, the way each concurrent call to Lambda gets its own instance of the function.
+  private final ThreadLocal<CompositeHandler> handlers;
+  private final BlockAllocatorImpl allocator = new BlockAllocatorImpl("local-load-tester");
+  private final ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
+  private final S3Client s3;
+  private final S3BlockSpillReader spillReader;
+  private final ExecutorService readPool;
+
+  private final PhaseStats ping = new PhaseStats("Ping");
+  private final PhaseStats getTable = new PhaseStats("GetTable");
+  private final PhaseStats getTableLayout = new PhaseStats("GetTableLayout");
+  private final PhaseStats getSplits = new PhaseStats("GetSplits");
+  private final PhaseStats readRecords = new PhaseStats("ReadRecords");
+
+  private LocalLoadTester(LoadTestConfig config, LocalAwsServer server)
+  {
+    this.config = config;
+    this.server = server;
+    this.handlers = ThreadLocal.withInitial(() -> newHandler(config.getHandlerClass()));
+    this.s3 = S3Client.builder()
+            .endpointOverride(server.getEndpoint())
+            .region(Region.of(LOCAL_REGION))
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(LOCAL_CREDENTIAL, LOCAL_CREDENTIAL)))
+            .forcePathStyle(true)
+            .build();
+    this.spillReader = new S3BlockSpillReader(s3, allocator);
+    this.readPool = Executors.newFixedThreadPool(config.getConcurrency(), runnable -> {
+      Thread thread = new Thread(runnable, "local-load-tester");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * The main method of this class allows the following argument pattern:
+   * --handler handler_class --schema schema --table table [--catalog catalog] [--constraints constraints]
+   * [--queries queries] [--concurrency concurrency] [--max-block-size bytes] [--max-inline-block-size bytes] [--help]
+   * <p>
+   * Run with the -h or --help options to see full argument descriptions, or see {@link LoadTestConfig} below.
+   */
+  public static void main(String[] args)
+  {
+    try {
+      LoadTestConfig config = LoadTestConfig.fromArgs(args);
+      try (LocalAwsServer server = new LocalAwsServer(config.getConcurrency() + 1)) {
+        useLocalAws(server.getEndpoint());
+        try (LocalLoadTester tester = new LocalLoadTester(config, server)) {
+          for (int query = 0; query < config.getQueries(); query++) {
+            log.info("Running query {} of {}", query + 1, config.getQueries());
+            tester.runQuery();
+          }
+          System.out.println(tester.report());
+        }
+      }
+    }
+    catch (Exception ex) {
+      log.error("Error encountered during the load test!", ex);
+      System.exit(1);
+    }
+
+    //Connectors may leave non-daemon threads behind, e.g. thread pools of their clients.
+    System.exit(0);
+  }
+
+  /**
+   * Runs one query through all its phases, the splits are read concurrently.
+   */
+  void runQuery()
+          throws Exception
+  {
+    String queryId = generateQueryId();
+    FederatedIdentity identity = config.getIdentity();
+    String catalog = config.getCatalogId();
+    TableName tableName = new TableName(config.getSchemaId(), config.getTableId());
+
+    run(ping, () -> {
+      invoke(ping, new PingRequest(identity, catalog, queryId)).close();
+      return null;
+    });
+
+    GetTableResponse table = run(getTable, () ->
+            (GetTableResponse) invoke(getTable, new GetTableRequest(identity, queryId, catalog, tableName, Collections.emptyMap())));
+    Schema schema = table.getSchema();
+    Set<String> partitionCols = table.getPartitionColumns();
+
+    try (Constraints constraints = parseConstraints(schema, config.getConstraints());
+            GetTableLayoutResponse tableLayout = run(getTableLayout, () -> (GetTableLayoutResponse) invoke(getTableLayout,
+                    new GetTableLayoutRequest(identity, queryId, catalog, tableName, constraints, schema, partitionCols)))) {
+      List<Split> splits = run(getSplits, () -> {
+        List<Split> allSplits = new ArrayList<>();
+        String continuationToken = null;
+        do {
+          GetSplitsResponse splitsResponse = (GetSplitsResponse) invoke(getSplits, new GetSplitsRequest(identity, queryId,
+                  catalog, tableName, tableLayout.getPartitions(), new ArrayList<>(partitionCols), constraints, continuationToken));
+          allSplits.addAll(splitsResponse.getSplits());
+          continuationToken = splitsResponse.getContinuationToken();
+        }
+        while (continuationToken != null);
+        return allSplits;
+      });
+      log.info("Reading {} splits of {}.{}", splits.size(), tableName.getSchemaName(), tableName.getTableName());
+
+      run(readRecords, () -> {
+        List<Future<Long>> reads = new ArrayList<>();
+        for (Split split : splits) {
+          //The requests are not closed, that would close the constraints they share.
+          ReadRecordsRequest request = new ReadRecordsRequest(identity, catalog, queryId, tableName, schema, split,
+                  constraints, config.getMaxBlockSize(), config.getMaxInlineBlockSize());
+          reads.add(readPool.submit(() -> readSplit(request)));
+        }
+        for (Future<Long> read : reads) {
+          readRecords.addRows(read.get());
+        }
+        return null;
+      });
+    }
+  }
+
+  /**
+   * @return the report of all the phases run so far
+   */
+  String report()
+  {
+    StringBuilder report = new StringBuilder(PhaseStats.header());
+    for (PhaseStats phase : Arrays.asList(ping, getTable, getTableLayout, getSplits, readRecords)) {
+      report.append(System.lineSeparator()).append(phase.report());
+    }
+    return report.toString();
+  }
+
+  @Override
+  public void close()
+  {
+    readPool.shutdownNow();
+    s3.close();
+    allocator.close();
+    for (PhaseStats phase : Arrays.asList(ping, getTable, getTableLayout, getSplits, readRecords)) {
+      phase.close();
+    }
+  }
+
+  /**
+   * Reads a split and the Blocks it spilled, if any.
+   *
+   * @return the number of rows of the split
+   */
+  private long readSplit(ReadRecordsRequest request)
+          throws Exception
+  {
+    FederationResponse response = invoke(readRecords, request);
+    if (response instanceof ReadRecordsResponse) {
+      try (ReadRecordsResponse records = (ReadRecordsResponse) response) {
+        return records.getRecordCount();
+      }
+    }
+
+    long rows = 0;
+    try (RemoteReadRecordsResponse remoteRecords = (RemoteReadRecordsResponse) response) {
+      for (SpillLocation spillLocation : remoteRecords.getRemoteBlocks()) {
+        try (Block block = spillReader.read((S3SpillLocation) spillLocation, remoteRecords.getEncryptionKey(), remoteRecords.getSchema())) {
+          rows += block.getRowCount();
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Runs a phase of a query and records its wall clock time and the bytes it spilled.
+   */
+  private <T> T run(PhaseStats phase, Callable<T> work)
+          throws Exception
+  {
+    long spilledBefore = server.getBytesPut();
+    long start = System.nanoTime();
+    T result = work.call();
+    phase.recordRun(System.nanoTime() - start, server.getBytesPut() - spilledBefore);
+    return result;
+  }
+
+  /**
+   * Calls the handler the way Lambda would: the request is serialized, deserialized by the handler's side with a
+   * BlockAllocator of its own and the response is deserialized from what the handler wrote.
+   */
+  private FederationResponse invoke(PhaseStats phase, FederationRequest request)
+          throws Exception
+  {
+    long start = System.nanoTime();
+    byte[] requestBytes = objectMapper.writeValueAsBytes(request);
+    ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+    try (BlockAllocatorImpl handlerAllocator = new BlockAllocatorImpl(phase.getName(), phase.getRootAllocator())) {
+      ObjectMapper handlerObjectMapper = VersionedObjectMapperFactory.create(handlerAllocator);
+      try (FederationRequest handlerRequest = handlerObjectMapper.readValue(requestBytes, FederationRequest.class)) {
+        handlers.get().handleRequest(handlerAllocator, handlerRequest, responseBytes, handlerObjectMapper);
+      }
+    }
+    FederationResponse response = objectMapper.readValue(responseBytes.toByteArray(), FederationResponse.class);
+    phase.recordCall(System.nanoTime() - start);
+    return response;
+  }
+
+  /**
+   * Points the AWS clients the connector creates at the local server, unless the caller configured an endpoint.
+   */
+  private static void useLocalAws(URI endpoint)
+  {
+    setIfAbsent("aws.endpointUrl", endpoint.toString());
+    setIfAbsent("aws.region", LOCAL_REGION);
+    System.setProperty("aws.accessKeyId", LOCAL_CREDENTIAL);
+    System.setProperty("aws.secretAccessKey", LOCAL_CREDENTIAL);
+    if (System.getenv("spill_bucket") == null) {
+      log.warn("The spill_bucket environment variable is not set, connectors that spill need it to be set to any name.");
+    }
+  }
+
+  private static void setIfAbsent(String property, String value)
+  {
+    if (System.getProperty(property) == null) {
+      System.setProperty(property, value);
+    }
+  }
+
+  private static CompositeHandler newHandler(String handlerClass)
+  {
+    try {
+      return Class.forName(handlerClass).asSubclass(CompositeHandler.class).getDeclaredConstructor().newInstance();
+    }
+    catch (ReflectiveOperationException ex) {
+      throw new RuntimeException("Failed to create handler " + handlerClass, ex);
+    }
+  }
+
+  private static class LoadTestConfig
+  {
+    private static final String HANDLER_ARG = "handler";
+    private static final String CATALOG_ID_ARG = "catalog";
+    private static final String SCHEMA_ID_ARG = "schema";
+    private static final String TABLE_ID_ARG = "table";
+    private static final String CONSTRAINTS_ARG = "constraints";
+    private static final String QUERIES_ARG = "queries";
+    private static final String CONCURRENCY_ARG = "concurrency";
+    private static final String MAX_BLOCK_SIZE_ARG = "max-block-size";
+    private static final String MAX_INLINE_BLOCK_SIZE_ARG = "max-inline-block-size";
+    private static final String HELP_ARG = "help";
+
+    private static final String DEFAULT_CATALOG = "local";
+    private static final int DEFAULT_QUERIES = 1;
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final long DEFAULT_MAX_BLOCK_SIZE = 16000000;
+    private static final long DEFAULT_MAX_INLINE_BLOCK_SIZE = 5242880;
+
+    private final FederatedIdentity identity;
+    private final String handlerClass;
+    private final String catalogId;
+    private final String schemaId;
+    private final String tableId;
+    private final Optional<String> constraints;
+    private final int queries;
+    private final int concurrency;
+    private final long maxBlockSize;
+    private final long maxInlineBlockSize;
+
+    private LoadTestConfig(String handlerClass,
+                           String catalogId,
+                           String schemaId,
+                           String tableId,
+                           Optional<String> constraints,
+                           int queries,
+                           int concurrency,
+                           long maxBlockSize,
+                           long maxInlineBlockSize)
+    {
+      this.handlerClass = handlerClass;
+      this.catalogId = catalogId;
+      this.schemaId = schemaId;
+      this.tableId = tableId;
+      this.constraints = constraints;
+      this.queries = queries;
+      this.concurrency = concurrency;
+      this.maxBlockSize = maxBlockSize;
+      this.maxInlineBlockSize = maxInlineBlockSize;
+      this.identity = new FederatedIdentity("LOAD_TEST_ARN",
+                                            "LOAD_TEST_ACCOUNT",
+                                            Collections.emptyMap(),
+                                            Collections.emptyList(),
+                                            Collections.emptyMap());
+    }
+
+    FederatedIdentity getIdentity()
+    {
+      return identity;
+    }
+
+    String getHandlerClass()
+    {
+      return handlerClass;
+    }
+
+    String getCatalogId()
+    {
+      return catalogId;
+    }
+
+    String getSchemaId()
+    {
+      return schemaId;
+    }
+
+    String getTableId()
+    {
+      return tableId;
+    }
+
+    Optional<String> getConstraints()
+    {
+      return constraints;
+    }
+
+    int getQueries()
+    {
+      return queries;
+    }
+
+    int getConcurrency()
+    {
+      return concurrency;
+    }
+
+    long getMaxBlockSize()
+    {
+      return maxBlockSize;
+    }
+
+    long getMaxInlineBlockSize()
+    {
+      return maxInlineBlockSize;
+    }
+
+    static LoadTestConfig fromArgs(String[] args) throws ParseException
+    {
+      log.info("Received arguments: {}", (Object) args);
+
+      requireNonNull(args);
+
+      Options options = new Options();
+      options.addOption("H", HANDLER_ARG, true,
+                        "The fully qualified name of the connector's CompositeHandler class, which must be on the classpath"
+                                + " and have a no-argument constructor.");
+      options.addOption("c", CATALOG_ID_ARG, true,
+                        "The catalog name to pass to the connector. Defaults to " + DEFAULT_CATALOG + ".");
+      options.addOption("s", SCHEMA_ID_ARG, true, "The schema of the table to read.");
+      options.addOption("t", TABLE_ID_ARG, true, "The table to read.");
+      options.addOption("w", CONSTRAINTS_ARG, true,
+                        "A comma-separated list of field/value pair constraints to be applied "
+                                + "when reading metadata and records from the connector.");
+      options.addOption("n", QUERIES_ARG, true,
+                        "The number of queries to run one after the other. Defaults to " + DEFAULT_QUERIES + ".");
+      options.addOption("p", CONCURRENCY_ARG, true,
+                        "The number of splits of a query read concurrently. Defaults to " + DEFAULT_CONCURRENCY + ".");
+      options.addOption(null, MAX_BLOCK_SIZE_ARG, true,
+                        "The max size of the Blocks the connector spills, in bytes. Defaults to " + DEFAULT_MAX_BLOCK_SIZE + ".");
+      options.addOption(null, MAX_INLINE_BLOCK_SIZE_ARG, true,
+                        "The max size of a Block the connector returns inline rather than spilling it, in bytes. Defaults to "
+                                + DEFAULT_MAX_INLINE_BLOCK_SIZE + ".");
+      options.addOption("h", HELP_ARG, false, "Prints usage information.");
+      DefaultParser argParser = new DefaultParser();
+      CommandLine parsedArgs = argParser.parse(options, args);
+
+      if (parsedArgs.hasOption(HELP_ARG)) {
+        new HelpFormatter().printHelp(150, "./load_test_connector.sh connector.jar --" + HANDLER_ARG
+                                                   + " handler_class --" + SCHEMA_ID_ARG
+                                                   + " schema --" + TABLE_ID_ARG
+                                                   + " table [--" + CATALOG_ID_ARG
+                                                   + " catalog] [--" + CONSTRAINTS_ARG
+                                                   + " constraints] [--" + QUERIES_ARG
+                                                   + " queries] [--" + CONCURRENCY_ARG
+                                                   + " concurrency] [--" + MAX_BLOCK_SIZE_ARG
+                                                   + " bytes] [--" + MAX_INLINE_BLOCK_SIZE_ARG + " bytes]"
+                                                   + " [--" + HELP_ARG + "]",
+                                      null,
+                                      options,
+                                      null);
+        System.exit(0);
+      }
+
+      checkArgument(parsedArgs.hasOption(HANDLER_ARG), "The handler class must be provided via the --handler or -H args!");
+      checkArgument(parsedArgs.hasOption(SCHEMA_ID_ARG) && parsedArgs.hasOption(TABLE_ID_ARG),
+                    "The --schema and --table arguments must be provided.");
+
+      int queries = Integer.parseInt(parsedArgs.getOptionValue(QUERIES_ARG, String.valueOf(DEFAULT_QUERIES)));
+      int concurrency = Integer.parseInt(parsedArgs.getOptionValue(CONCURRENCY_ARG, String.valueOf(DEFAULT_CONCURRENCY)));
+      checkArgument(queries > 0, "The number of queries must be positive.");
+      checkArgument(concurrency > 0, "The concurrency must be positive.");
+
+      return new LoadTestConfig(parsedArgs.getOptionValue(HANDLER_ARG),
+                                parsedArgs.getOptionValue(CATALOG_ID_ARG, DEFAULT_CATALOG),
+                                parsedArgs.getOptionValue(SCHEMA_ID_ARG),
+                                parsedArgs.getOptionValue(TABLE_ID_ARG),
+                                Optional.ofNullable(parsedArgs.getOptionValue(CONSTRAINTS_ARG)),
+                                queries,
+                                concurrency,
+                                Long.parseLong(parsedArgs.getOptionValue(MAX_BLOCK_SIZE_ARG, String.valueOf(DEFAULT_MAX_BLOCK_SIZE))),
+                                Long.parseLong(parsedArgs.getOptionValue(MAX_INLINE_BLOCK_SIZE_ARG,
+                                        String.valueOf(DEFAULT_MAX_INLINE_BLOCK_SIZE))));
+    }
+  }
+}
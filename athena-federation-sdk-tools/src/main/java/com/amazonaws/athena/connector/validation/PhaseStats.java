@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Tools
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.validation;
+
+import org.apache.arrow.memory.RootAllocator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the measurements of one phase of a query, e.g. GetSplits, over all the calls the LocalLoadTester makes.
+ * <p>
+ * The BlockAllocators of all the calls of a phase share the phase's RootAllocator, so its peak is the most Apache
+ * Arrow memory the connector held at once during the phase, across concurrent calls.
+ */
+class PhaseStats
+        implements AutoCloseable
+{
+  private final String name;
+  private final RootAllocator rootAllocator = new RootAllocator(Long.MAX_VALUE);
+  private final List<Long> latencyNanos = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicLong wallNanos = new AtomicLong();
+  private final AtomicLong rows = new AtomicLong();
+  private final AtomicLong spillBytes = new AtomicLong();
+
+  PhaseStats(String name)
+  {
+    this.name = name;
+  }
+
+  String getName()
+  {
+    return name;
+  }
+
+  /**
+   * @return the RootAllocator the BlockAllocators of the calls of this phase should be created from
+   */
+  RootAllocator getRootAllocator()
+  {
+    return rootAllocator;
+  }
+
+  void recordCall(long nanos)
+  {
+    latencyNanos.add(nanos);
+  }
+
+  /**
+   * Records one run of the phase, which may be made of many concurrent calls.
+   *
+   * @param nanos the wall clock time of the run
+   * @param spilledBytes the bytes spilled to S3 during the run
+   */
+  void recordRun(long nanos, long spilledBytes)
+  {
+    wallNanos.addAndGet(nanos);
+    spillBytes.addAndGet(spilledBytes);
+  }
+
+  void addRows(long count)
+  {
+    rows.addAndGet(count);
+  }
+
+  static String header()
+  {
+    return String.format("%-16s %8s %10s %10s %10s %14s %14s %14s %16s",
+            "phase", "calls", "p50 ms", "p99 ms", "max ms", "rows", "rows/sec", "spill bytes", "allocator peak");
+  }
+
+  String report()
+  {
+    List<Long> sorted;
+    synchronized (latencyNanos) {
+      sorted = new ArrayList<>(latencyNanos);
+    }
+    Collections.sort(sorted);
+    double seconds = wallNanos.get() / 1_000_000_000.0;
+    return String.format("%-16s %8d %10.1f %10.1f %10.1f %14d %14.0f %14d %16d",
+            name,
+            sorted.size(),
+            percentileMillis(sorted, 50),
+            percentileMillis(sorted, 99),
+            percentileMillis(sorted, 100),
+            rows.get(),
+            (seconds > 0) ? rows.get() / seconds : 0,
+            spillBytes.get(),
+            rootAllocator.getPeakMemoryAllocation());
+  }
+
+  @Override
+  public void close()
+  {
+    rootAllocator.close();
+  }
+
+  /**
+   * @return the nearest-rank percentile of the sorted latencies, in milliseconds
+   */
+  private static double percentileMillis(List<Long> sorted, int percentile)
+  {
+    if (sorted.isEmpty()) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+    return sorted.get(Math.max(0, rank - 1)) / 1_000_000.0;
+  }
+}
@@ -75,6 +75,8 @@ public class Block
     //The VectorSchemaRoot which can be used to read/write values to/from the underlying Apache Arrow buffers that
     //for the Arrow Batch of rows.
     private final VectorSchemaRoot vectorSchema;
+    //Resources derived from the values of the block, e.g. lookup structures over them, that are closed along with it.
+    private final List<AutoCloseable> attachedResources = new ArrayList<>();
     //Used to constrain writes to the block, be default we use an emptyEvaluator that allows all writes.
     //Note that we will _NOT_ close this ConstraintEvaluator because we may not own it and the emptyEvaluator
     //has no resources that could leak.
@@ -360,9 +362,28 @@ public class Block
     public void close()
             throws Exception
     {
+        synchronized (attachedResources) {
+            for (AutoCloseable next : attachedResources) {
+                next.close();
+            }
+            attachedResources.clear();
+        }
         this.vectorSchema.close();
     }
 
+    /**
+     * Ties the lifecycle of a resource derived from the values of this Block, for example a lookup structure built
+     * over them, to this Block such that closing the Block also closes the resource.
+     *
+     * @param resource The resource to close when this Block is closed.
+     */
+    public void attach(AutoCloseable resource)
+    {
+        synchronized (attachedResources) {
+            attachedResources.add(resource);
+        }
+    }
+
     @Override
     protected Schema internalGetSchema()
     {
@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.data.writers;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.util.TransferPair;
+import org.apache.arrow.vector.util.VectorAppender;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes Apache Arrow record batches produced by a columnar source (e.g. a Parquet scan) into the Blocks managed by
+ * a BlockWriter without going through per-cell setters. Each batch is:
+ * 1. Filtered one column at a time against the BlockWriter's ConstraintEvaluator, producing a selection of the rows
+ * that passed every constraint.
+ * 2. Sliced so that each call to writeRows(...) only adds as many rows as fit in the remaining block budget, this lets
+ * the BlockWriter spill at the configured size instead of overshooting it by a whole batch.
+ * 3. Appended to the Block a whole column slice at a time.
+ *
+ * @note Fields of the Block that are missing from the batch are left null. The types of the remaining fields must
+ * match the Block's schema exactly, conversions (e.g. TimeStampMilliTZ to DateMilli) are the caller's responsibility.
+ */
+public class ArrowBatchWriter
+{
+    private final BlockWriter blockWriter;
+    private final long maxBlockBytes;
+    //Lazily built per field name, a null value means the field has no constraint.
+    private final Map<String, ConstraintProjector> projectors = new HashMap<>();
+
+    /**
+     * @param blockWriter The BlockWriter (typically a BlockSpiller) to write batches into.
+     * @param maxBlockBytes The size, in bytes, at which the BlockWriter will close the current Block.
+     */
+    public ArrowBatchWriter(BlockWriter blockWriter, long maxBlockBytes)
+    {
+        this.blockWriter = requireNonNull(blockWriter, "blockWriter was null");
+        this.maxBlockBytes = maxBlockBytes;
+    }
+
+    /**
+     * Writes the rows of the given batch that pass the BlockWriter's constraints.
+     *
+     * @param batch The batch to write, it is not modified or closed by this method.
+     * @return The number of rows that passed the constraints and were written.
+     */
+    public int write(VectorSchemaRoot batch)
+    {
+        int rowCount = batch.getRowCount();
+        if (rowCount == 0) {
+            return 0;
+        }
+
+        //null means every row in the batch was selected
+        int[] selection = select(batch);
+        int selected = (selection == null) ? rowCount : selection.length;
+        long bytesPerRow = estimateBytesPerRow(batch);
+
+        int offset = 0;
+        while (offset < selected) {
+            final int start = offset;
+            final int[] written = new int[1];
+            blockWriter.writeRows((Block block, int rowNum) -> {
+                int rows = rowsThatFit(block, bytesPerRow, selected - start);
+                for (FieldVector target : block.getFieldVectors()) {
+                    FieldVector source = batch.getVector(target.getField().getName());
+                    if (source == null) {
+                        continue;
+                    }
+                    if (selection == null) {
+                        appendRange(source, start, rows, target);
+                    }
+                    else {
+                        for (int i = 0; i < rows; i++) {
+                            target.copyFromSafe(selection[start + i], rowNum + i, source);
+                        }
+                    }
+                }
+                written[0] = rows;
+                return rows;
+            });
+
+            if (written[0] == 0) {
+                //The BlockWriter did not invoke our RowWriter, there is no progress to be made.
+                break;
+            }
+            offset += written[0];
+        }
+        return selected;
+    }
+
+    /**
+     * Evaluates the constraints column at a time, narrowing the selection with each constrained column.
+     *
+     * @return The ordinals of the selected rows or null if no rows were filtered out.
+     */
+    private int[] select(VectorSchemaRoot batch)
+    {
+        ConstraintEvaluator evaluator = blockWriter.getConstraintEvaluator();
+        if (evaluator == null) {
+            return null;
+        }
+
+        int rowCount = batch.getRowCount();
+        int[] selection = null;
+        int count = rowCount;
+        for (FieldVector vector : batch.getFieldVectors()) {
+            ConstraintProjector projector = getProjector(evaluator, vector.getField().getName());
+            if (projector == null) {
+                continue;
+            }
+
+            if (selection == null) {
+                selection = new int[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    selection[i] = i;
+                }
+            }
+
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                if (projector.apply(vector.getObject(row))) {
+                    selection[kept++] = row;
+                }
+            }
+            count = kept;
+        }
+
+        if (selection == null || count == rowCount) {
+            return null;
+        }
+        return Arrays.copyOf(selection, count);
+    }
+
+    private ConstraintProjector getProjector(ConstraintEvaluator evaluator, String fieldName)
+    {
+        if (!projectors.containsKey(fieldName)) {
+            projectors.put(fieldName, evaluator.makeConstraintProjector(fieldName).orElse(null));
+        }
+        return projectors.get(fieldName);
+    }
+
+    private int rowsThatFit(Block block, long bytesPerRow, int remainingRows)
+    {
+        long budget = maxBlockBytes - block.getSize();
+        long rows = Math.min(budget / bytesPerRow, remainingRows);
+        //Always make progress, the BlockWriter will close the Block once it is over the limit.
+        return (int) Math.max(1, rows);
+    }
+
+    private static long estimateBytesPerRow(VectorSchemaRoot batch)
+    {
+        long bytes = 0;
+        for (FieldVector next : batch.getFieldVectors()) {
+            bytes += next.getBufferSize();
+        }
+        return Math.max(1, (bytes + batch.getRowCount() - 1) / batch.getRowCount());
+    }
+
+    private static void appendRange(FieldVector source, int start, int length, FieldVector target)
+    {
+        if (start == 0 && length == source.getValueCount()) {
+            source.accept(new VectorAppender(target), null);
+            return;
+        }
+
+        TransferPair slice = source.getTransferPair(source.getAllocator());
+        slice.splitAndTransfer(start, length);
+        try (ValueVector sliced = slice.getTo()) {
+            sliced.accept(new VectorAppender(target), null);
+        }
+    }
+}
@@ -20,7 +20,6 @@ package com.amazonaws.athena.connector.lambda.domain.predicate;
  * #L%
  */
 
-import com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockUtils;
@@ -40,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
@@ -56,8 +56,13 @@ public class EquatableValueSet
     //The name of the single column used to represent values in the valueBlock.
     private static final String DEFAULT_COLUMN = "col1";
     private final boolean whiteList;
-    private final Block valueBlock;
     public final boolean nullAllowed;
+    //Either the values, or how to load them on first use when the ValueSet was deserialized lazily.
+    private volatile Block valueBlock;
+    private Supplier<Block> valueBlockLoader;
+    //Answers containsValue without scanning the valueBlock, built on first use since most ValueSets are never
+    //evaluated in the process that creates them. Shared with the complement, which has the same valueBlock.
+    private volatile ValueLookup lookup;
 
     /**
      * Constructs a new EquatableValueSet.
@@ -71,11 +76,34 @@ public class EquatableValueSet
             @JsonProperty("valueBlock") Block valueBlock,
             @JsonProperty("whiteList") boolean whiteList,
             @JsonProperty("nullAllowed") boolean nullAllowed)
+    {
+        this(valueBlock, whiteList, nullAllowed, null);
+    }
+
+    /**
+     * Constructs a new EquatableValueSet whose values are only loaded once they are needed, which lets a deserializer
+     * skip decoding the values of the constraints that a connector never looks at. The loader is called at most once,
+     * while the resources it loads the values into (e.g. the BlockAllocator of the request) are still open.
+     *
+     * @param valueBlockLoader Loads the values that are in this ValueSet as a Block of Apache Arrow records.
+     * @param whiteList True if this ValueSet is a white list (only these values), False if these are excluded values.
+     * @param nullAllowed True if null values should be considered part of this ValueSet, False otherwise.
+     */
+    public EquatableValueSet(Supplier<Block> valueBlockLoader, boolean whiteList, boolean nullAllowed)
+    {
+        requireNonNull(valueBlockLoader, "valueBlockLoader is null");
+        this.valueBlockLoader = valueBlockLoader;
+        this.whiteList = whiteList;
+        this.nullAllowed = nullAllowed;
+    }
+
+    private EquatableValueSet(Block valueBlock, boolean whiteList, boolean nullAllowed, ValueLookup lookup)
     {
         requireNonNull(valueBlock, "valueBlock is null");
         this.valueBlock = valueBlock;
         this.whiteList = whiteList;
         this.nullAllowed = nullAllowed;
+        this.lookup = lookup;
     }
 
     /**
@@ -138,7 +166,7 @@ public class EquatableValueSet
     @Transient
     protected Schema getSchema()
     {
-        return valueBlock.getSchema();
+        return getValueBlock().getSchema();
     }
 
     /**
@@ -149,7 +177,18 @@ public class EquatableValueSet
     @JsonProperty
     public Block getValueBlock()
     {
-        return valueBlock;
+        Block result = valueBlock;
+        if (result == null) {
+            synchronized (this) {
+                result = valueBlock;
+                if (result == null) {
+                    result = requireNonNull(valueBlockLoader.get(), "valueBlock is null");
+                    valueBlockLoader = null;
+                    valueBlock = result;
+                }
+            }
+        }
+        return result;
     }
 
     /**
@@ -162,7 +201,7 @@ public class EquatableValueSet
     @Override
     public ArrowType getType()
     {
-        return valueBlock.getFieldReader(DEFAULT_COLUMN).getField().getType();
+        return getValueBlock().getFieldReader(DEFAULT_COLUMN).getField().getType();
     }
 
     /**
@@ -184,7 +223,7 @@ public class EquatableValueSet
      */
     public Block getValues()
     {
-        return valueBlock;
+        return getValueBlock();
     }
 
     /**
@@ -195,7 +234,7 @@ public class EquatableValueSet
      */
     public Object getValue(int pos)
     {
-        FieldReader reader = valueBlock.getFieldReader(DEFAULT_COLUMN);
+        FieldReader reader = getValueBlock().getFieldReader(DEFAULT_COLUMN);
         reader.setPosition(pos);
         return reader.readObject();
     }
@@ -209,7 +248,7 @@ public class EquatableValueSet
     @Override
     public boolean isNone()
     {
-        return whiteList && valueBlock.getRowCount() == 0 && !nullAllowed;
+        return whiteList && getValueBlock().getRowCount() == 0 && !nullAllowed;
     }
 
     /**
@@ -221,7 +260,7 @@ public class EquatableValueSet
     @Override
     public boolean isAll()
     {
-        return !whiteList && valueBlock.getRowCount() == 0 && nullAllowed;
+        return !whiteList && getValueBlock().getRowCount() == 0 && nullAllowed;
     }
 
     /**
@@ -232,8 +271,8 @@ public class EquatableValueSet
     @Override
     public boolean isSingleValue()
     {
-        return (whiteList && valueBlock.getRowCount() == 1 && !nullAllowed) ||
-                (whiteList && valueBlock.getRowCount() == 0 && nullAllowed);
+        return (whiteList && getValueBlock().getRowCount() == 1 && !nullAllowed) ||
+                (whiteList && getValueBlock().getRowCount() == 0 && nullAllowed);
     }
 
     /**
@@ -249,11 +288,11 @@ public class EquatableValueSet
             throw new AthenaConnectorException("EquatableValueSet does not have just a single value", ErrorDetails.builder().errorCode(FederationSourceErrorCode.INVALID_INPUT_EXCEPTION.toString()).build());
         }
 
-        if (nullAllowed && valueBlock.getRowCount() == 0) {
+        if (nullAllowed && getValueBlock().getRowCount() == 0) {
             return null;
         }
 
-        FieldReader reader = valueBlock.getFieldReader(DEFAULT_COLUMN);
+        FieldReader reader = getValueBlock().getFieldReader(DEFAULT_COLUMN);
         reader.setPosition(0);
         return reader.readObject();
     }
@@ -276,12 +315,7 @@ public class EquatableValueSet
         }
 
         Object value = marker.getValue();
-        boolean result = false;
-        FieldReader reader = valueBlock.getFieldReader(DEFAULT_COLUMN);
-        for (int i = 0; i < valueBlock.getRowCount() && !result; i++) {
-            reader.setPosition(i);
-            result = ArrowTypeComparator.compare(reader, value, reader.readObject()) == 0;
-        }
+        boolean result = value != null && getLookup().contains(value);
         return whiteList == result;
     }
 
@@ -299,15 +333,25 @@ public class EquatableValueSet
             return true;
         }
 
-        boolean result = false;
-        FieldReader reader = valueBlock.getFieldReader(DEFAULT_COLUMN);
-        for (int i = 0; i < valueBlock.getRowCount() && !result; i++) {
-            reader.setPosition(i);
-            result = ArrowTypeComparator.compare(reader, value, reader.readObject()) == 0;
-        }
+        boolean result = value != null && getLookup().contains(value);
         return whiteList == result;
     }
 
+    private ValueLookup getLookup()
+    {
+        ValueLookup result = lookup;
+        if (result == null) {
+            synchronized (this) {
+                result = lookup;
+                if (result == null) {
+                    result = ValueLookup.of(getValueBlock(), DEFAULT_COLUMN);
+                    lookup = result;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public EquatableValueSet intersect(BlockAllocator allocator, ValueSet other)
     {
@@ -351,7 +395,7 @@ public class EquatableValueSet
     @Override
     public EquatableValueSet complement(BlockAllocator allocator)
     {
-        return new EquatableValueSet(valueBlock, !whiteList, !nullAllowed);
+        return new EquatableValueSet(getValueBlock(), !whiteList, !nullAllowed, lookup);
     }
 
     @Override
@@ -360,7 +404,7 @@ public class EquatableValueSet
         return "EquatableValueSet{" +
                 "whiteList=" + whiteList +
                 "nullAllowed=" + nullAllowed +
-                ", valueBlock=" + valueBlock +
+                ", valueBlock=" + getValueBlock() +
                 '}';
     }
 
@@ -376,8 +420,9 @@ public class EquatableValueSet
         int count = 0;
         for (int i = 0; i < lhsBlock.getRowCount(); i++) {
             lhs.setPosition(i);
-            if (isPresent(lhs.readObject(), right.valueBlock)) {
-                BlockUtils.setValue(result, count++, lhs.readObject());
+            Object value = lhs.readObject();
+            if (right.isPresent(value)) {
+                BlockUtils.setValue(result, count++, value);
             }
         }
         resultBlock.setRowCount(count);
@@ -402,8 +447,9 @@ public class EquatableValueSet
         FieldReader rhs = rhsBlock.getFieldReader(DEFAULT_COLUMN);
         for (int i = 0; i < rhsBlock.getRowCount(); i++) {
             rhs.setPosition(i);
-            if (!isPresent(rhs.readObject(), left.valueBlock)) {
-                BlockUtils.setValue(result, count++, rhs.readObject());
+            Object value = rhs.readObject();
+            if (!left.isPresent(value)) {
+                BlockUtils.setValue(result, count++, value);
             }
         }
 
@@ -423,21 +469,24 @@ public class EquatableValueSet
         int count = 0;
         for (int i = 0; i < lhsBlock.getRowCount(); i++) {
             lhs.setPosition(i);
-            if (!isPresent(lhs.readObject(), right.valueBlock)) {
-                BlockUtils.setValue(result, count++, lhs.readObject());
+            Object value = lhs.readObject();
+            if (!right.isPresent(value)) {
+                BlockUtils.setValue(result, count++, value);
             }
         }
         resultBlock.setRowCount(count);
         return resultBlock;
     }
 
-    private static boolean isPresent(Object lhs, Block right)
+    private boolean isPresent(Object value)
     {
-        FieldReader rhs = right.getFieldReader(DEFAULT_COLUMN);
-        Types.MinorType type = rhs.getMinorType();
-        for (int j = 0; j < right.getRowCount(); j++) {
-            rhs.setPosition(j);
-            if (ArrowTypeComparator.compare(rhs, lhs, rhs.readObject()) == 0) {
+        if (value != null) {
+            return getLookup().contains(value);
+        }
+        FieldReader reader = getValueBlock().getFieldReader(DEFAULT_COLUMN);
+        for (int i = 0; i < getValueBlock().getRowCount(); i++) {
+            reader.setPosition(i);
+            if (reader.readObject() == null) {
                 return true;
             }
         }
@@ -459,7 +508,7 @@ public class EquatableValueSet
     @Override
     public int hashCode()
     {
-        return Objects.hash(getType(), whiteList, valueBlock, nullAllowed);
+        return Objects.hash(getType(), whiteList, getValueBlock(), nullAllowed);
     }
 
     @Override
@@ -489,11 +538,11 @@ public class EquatableValueSet
             return false;
         }
 
-        if (this.valueBlock == null && other.valueBlock != null) {
+        if (this.getValueBlock() == null && other.getValueBlock() != null) {
             return false;
         }
 
-        if (this.valueBlock != null && !this.valueBlock.equalsAsSet(other.valueBlock)) {
+        if (this.getValueBlock() != null && !this.getValueBlock().equalsAsSet(other.getValueBlock())) {
             return false;
         }
 
@@ -501,10 +550,19 @@ public class EquatableValueSet
     }
 
     @Override
-    public void close()
+    public synchronized void close()
             throws Exception
     {
-        valueBlock.close();
+        //Values that were never loaded have nothing to release but the means to load them.
+        if (valueBlock != null) {
+            valueBlock.close();
+        }
+        else {
+            valueBlockLoader = () -> {
+                throw new AthenaConnectorException("EquatableValueSet is closed",
+                        ErrorDetails.builder().errorCode(FederationSourceErrorCode.INTERNAL_SERVICE_EXCEPTION.toString()).build());
+            };
+        }
     }
 
     public static class Builder
@@ -0,0 +1,103 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.types.Types;
+
+/**
+ * Maps the values of the primitive Apache Arrow types to long keys that compare, as signed longs, the way
+ * ArrowTypeComparator compares the values. Lets ValueLookup and SortedRangeLookup compare primitives instead of
+ * boxed values.
+ */
+final class OrderedKeys
+{
+    private OrderedKeys() {}
+
+    /**
+     * @param type The type of the values.
+     * @return True if the values of the type have a long key.
+     */
+    static boolean hasKey(Types.MinorType type)
+    {
+        switch (type) {
+            case INT:
+            case UINT4:
+            case DATEDAY:
+            case TINYINT:
+            case UINT1:
+            case SMALLINT:
+            case UINT2:
+            case BIGINT:
+            case UINT8:
+            case FLOAT8:
+            case FLOAT4:
+            case BIT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Casts the value the way ArrowTypeComparator does, so a value of the wrong type fails the same way.
+     *
+     * @param type The type of the value, one for which hasKey is true.
+     * @param value The value, not null.
+     * @return The key of the value.
+     */
+    static long keyOf(Types.MinorType type, Object value)
+    {
+        switch (type) {
+            case INT:
+            case UINT4:
+            case DATEDAY:
+                return (Integer) value;
+            case TINYINT:
+            case UINT1:
+                return (Byte) value;
+            case SMALLINT:
+                return (Short) value;
+            case UINT2:
+                return (Character) value;
+            case BIGINT:
+            case UINT8:
+                return (Long) value;
+            case FLOAT8:
+                return sortableBits(Double.doubleToLongBits((Double) value));
+            case FLOAT4:
+                return sortableBits(Float.floatToIntBits((Float) value));
+            case BIT:
+                return ((Boolean) value) ? 1 : 0;
+            default:
+                throw new IllegalStateException("No key for type " + type);
+        }
+    }
+
+    /**
+     * Double.compare and Float.compare order values by their bits, with all NaNs equal and above positive infinity and
+     * -0.0 below 0.0, except that negative values are in sign-magnitude. Flipping all but the sign bit of negative values
+     * makes the bits compare the same way as signed integers.
+     */
+    private static long sortableBits(long bits)
+    {
+        return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+    }
+}
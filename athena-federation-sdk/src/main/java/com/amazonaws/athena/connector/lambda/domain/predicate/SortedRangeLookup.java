@@ -0,0 +1,219 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Answers if a value is in one of the ranges of a SortedRangeSet, with the same notion of order as ArrowTypeComparator.
+ * <p>
+ * The ranges of a SortedRangeSet are disjoint and sorted, so their bounds are compiled into sorted arrays, together with
+ * whether each bound is open or closed, and the range that could hold a value is found with a binary search. The bounds
+ * of the primitive types are the long keys of OrderedKeys, so looking up one of their values neither allocates nor
+ * compares boxed values. The bounds of VARCHAR, VARBINARY, DECIMAL and the date and time types are compared through
+ * ArrowTypeComparator. Other types, and ranges with a null bound, use the ValueMarkers of the SortedRangeSet.
+ */
+abstract class SortedRangeLookup
+{
+    /**
+     * @param type The type of the values of the ranges.
+     * @param lowIndexedRanges The ranges of the SortedRangeSet, by their low bound.
+     * @return A lookup over the ranges.
+     */
+    static SortedRangeLookup of(ArrowType type, NavigableMap<ValueMarker, Range> lowIndexedRanges)
+    {
+        List<Range> ranges = new ArrayList<>(lowIndexedRanges.values());
+        for (Range next : ranges) {
+            if (isNullBound(next.getLow()) || isNullBound(next.getHigh())) {
+                return new FloorEntryLookup(type, lowIndexedRanges);
+            }
+        }
+
+        Types.MinorType minorType = Types.getMinorTypeForArrowType(type);
+        if (OrderedKeys.hasKey(minorType)) {
+            return new LongRangeLookup(minorType, ranges);
+        }
+        switch (minorType) {
+            case VARCHAR:
+            case VARBINARY:
+            case DECIMAL:
+            case DATEMILLI:
+            case TIMESTAMPMILLITZ:
+            case TIMESTAMPMICROTZ:
+                return new ObjectRangeLookup(type, ranges);
+            default:
+                return new FloorEntryLookup(type, lowIndexedRanges);
+        }
+    }
+
+    /**
+     * @param value The value to look up, not null.
+     * @return True if the value is in one of the ranges.
+     */
+    abstract boolean contains(Object value);
+
+    private static boolean isNullBound(Marker marker)
+    {
+        return marker.isNullValue() && !marker.isLowerUnbounded() && !marker.isUpperUnbounded();
+    }
+
+    /**
+     * The bounds as long keys. An unbounded low is the smallest and an unbounded high the largest key, both closed,
+     * which includes every key.
+     */
+    private static class LongRangeLookup
+            extends SortedRangeLookup
+    {
+        private final Types.MinorType type;
+        private final long[] lows;
+        private final long[] highs;
+        private final boolean[] lowClosed;
+        private final boolean[] highClosed;
+
+        LongRangeLookup(Types.MinorType type, List<Range> ranges)
+        {
+            this.type = type;
+            int count = ranges.size();
+            lows = new long[count];
+            highs = new long[count];
+            lowClosed = new boolean[count];
+            highClosed = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                Marker low = ranges.get(i).getLow();
+                Marker high = ranges.get(i).getHigh();
+                lows[i] = low.isLowerUnbounded() ? Long.MIN_VALUE : OrderedKeys.keyOf(type, low.getValue());
+                lowClosed[i] = low.isLowerUnbounded() || low.getBound() == Marker.Bound.EXACTLY;
+                highs[i] = high.isUpperUnbounded() ? Long.MAX_VALUE : OrderedKeys.keyOf(type, high.getValue());
+                highClosed[i] = high.isUpperUnbounded() || high.getBound() == Marker.Bound.EXACTLY;
+            }
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            long key = OrderedKeys.keyOf(type, value);
+
+            //The last range whose low bound is at or below the value is the only one that can hold it.
+            int range = -1;
+            int from = 0;
+            int to = lows.length - 1;
+            while (from <= to) {
+                int mid = (from + to) >>> 1;
+                if (lows[mid] < key || (lows[mid] == key && lowClosed[mid])) {
+                    range = mid;
+                    from = mid + 1;
+                }
+                else {
+                    to = mid - 1;
+                }
+            }
+            return range >= 0 && (key < highs[range] || (key == highs[range] && highClosed[range]));
+        }
+    }
+
+    /**
+     * The bounds as the values ArrowTypeComparator compares, read once from their Markers. A null bound is unbounded.
+     */
+    private static class ObjectRangeLookup
+            extends SortedRangeLookup
+    {
+        private final ArrowType type;
+        private final Object[] lows;
+        private final Object[] highs;
+        private final boolean[] lowClosed;
+        private final boolean[] highClosed;
+
+        ObjectRangeLookup(ArrowType type, List<Range> ranges)
+        {
+            this.type = type;
+            boolean isVarChar = Types.getMinorTypeForArrowType(type) == Types.MinorType.VARCHAR;
+            int count = ranges.size();
+            lows = new Object[count];
+            highs = new Object[count];
+            lowClosed = new boolean[count];
+            highClosed = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                Marker low = ranges.get(i).getLow();
+                Marker high = ranges.get(i).getHigh();
+                //ArrowTypeComparator compares VARCHAR values as Strings, so we only convert the bounds once.
+                lows[i] = low.isLowerUnbounded() ? null : isVarChar ? low.getValue().toString() : low.getValue();
+                lowClosed[i] = low.getBound() == Marker.Bound.EXACTLY;
+                highs[i] = high.isUpperUnbounded() ? null : isVarChar ? high.getValue().toString() : high.getValue();
+                highClosed[i] = high.getBound() == Marker.Bound.EXACTLY;
+            }
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            int range = -1;
+            int from = 0;
+            int to = lows.length - 1;
+            while (from <= to) {
+                int mid = (from + to) >>> 1;
+                int compare = (lows[mid] == null) ? 1 : ArrowTypeComparator.compare(type, value, lows[mid]);
+                if (compare > 0 || (compare == 0 && lowClosed[mid])) {
+                    range = mid;
+                    from = mid + 1;
+                }
+                else {
+                    to = mid - 1;
+                }
+            }
+            if (range < 0) {
+                return false;
+            }
+            int compare = (highs[range] == null) ? -1 : ArrowTypeComparator.compare(type, value, highs[range]);
+            return compare < 0 || (compare == 0 && highClosed[range]);
+        }
+    }
+
+    /**
+     * Looks the value up the way SortedRangeSet did before it had a SortedRangeLookup.
+     */
+    private static class FloorEntryLookup
+            extends SortedRangeLookup
+    {
+        private final ArrowType type;
+        private final NavigableMap<ValueMarker, Range> lowIndexedRanges;
+
+        FloorEntryLookup(ArrowType type, NavigableMap<ValueMarker, Range> lowIndexedRanges)
+        {
+            this.type = type;
+            this.lowIndexedRanges = lowIndexedRanges;
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            LiteralValueMarker marker = new LiteralValueMarker(value, type);
+            Map.Entry<ValueMarker, Range> floorEntry = lowIndexedRanges.floorEntry(marker);
+            return floorEntry != null && floorEntry.getValue().includes(marker);
+        }
+    }
+}
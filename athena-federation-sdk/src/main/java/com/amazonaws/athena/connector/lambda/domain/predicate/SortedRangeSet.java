@@ -55,6 +55,9 @@ public class SortedRangeSet
     private final boolean nullAllowed;
     private final ArrowType type;
     private final NavigableMap<ValueMarker, Range> lowIndexedRanges;
+    //Answers containsValue with a binary search over primitive bounds, built on first use since most ValueSets are
+    //never evaluated in the process that creates them.
+    private volatile SortedRangeLookup lookup;
 
     private SortedRangeSet(ArrowType type, NavigableMap<ValueMarker, Range> lowIndexedRanges, boolean nullAllowed)
     {
@@ -272,8 +275,7 @@ public class SortedRangeSet
             throw new AthenaConnectorException("Expected Bound.EXACTLY but found " + marker.getBound(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.INVALID_INPUT_EXCEPTION.toString()).build());
         }
 
-        Map.Entry<ValueMarker, Range> floorEntry = lowIndexedRanges.floorEntry(marker);
-        return floorEntry != null && floorEntry.getValue().includes(marker);
+        return getLookup().contains(marker.getValue());
     }
 
     /**
@@ -292,9 +294,22 @@ public class SortedRangeSet
         else if (value == null && !nullAllowed) {
             return false;
         }
-        LiteralValueMarker marker = new LiteralValueMarker(value, type);
-        Map.Entry<ValueMarker, Range> floorEntry = lowIndexedRanges.floorEntry(marker);
-        return floorEntry != null && floorEntry.getValue().includes(marker);
+        return getLookup().contains(value);
+    }
+
+    private SortedRangeLookup getLookup()
+    {
+        SortedRangeLookup result = lookup;
+        if (result == null) {
+            synchronized (this) {
+                result = lookup;
+                if (result == null) {
+                    result = SortedRangeLookup.of(type, lowIndexedRanges);
+                    lookup = result;
+                }
+            }
+        }
+        return result;
     }
 
     boolean includesMarker(Marker marker)
@@ -0,0 +1,402 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.util.Text;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+
+/**
+ * Answers if a value is one of the values of an EquatableValueSet, with the same notion of equality as
+ * ArrowTypeComparator, without comparing the value to each of the values in turn.
+ * <p>
+ * Integral, floating point, boolean and small decimal values are kept as long keys and VARCHAR and VARBINARY values
+ * as their bytes, in open addressing hash tables. The tables are Apache Arrow buffers from the allocator of the values'
+ * Block, so they count against the memory of its BlockAllocator, and they are closed along with the Block. The bytes
+ * of VARCHAR and VARBINARY values are not copied, the table points into the Block's vector. Other types are scanned.
+ */
+abstract class ValueLookup
+        implements AutoCloseable
+{
+    //Keeps the tables at most half full so that probes stay short.
+    private static final int SLOTS_PER_VALUE = 2;
+    //The most values we build a table for, beyond it the table would not fit in an ArrowBuf we can index with an int.
+    private static final int MAX_VALUES = 1 << 28;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * @param valueBlock The Block with the values of the set, the table of the lookup is closed along with it.
+     * @param column The column of the Block with the values.
+     * @return A lookup over the values of the column.
+     */
+    static ValueLookup of(Block valueBlock, String column)
+    {
+        FieldVector vector = valueBlock.getFieldVector(column);
+        int rowCount = valueBlock.getRowCount();
+        ArrowType type = vector.getField().getType();
+        if (rowCount == 0) {
+            return new EmptyLookup();
+        }
+        if (rowCount > MAX_VALUES) {
+            return new ScanLookup(valueBlock, column);
+        }
+
+        ValueLookup lookup;
+        Types.MinorType minorType = Types.getMinorTypeForArrowType(type);
+        switch (minorType) {
+            case DECIMAL:
+                if (((ArrowType.Decimal) type).getPrecision() > LongLookup.MAX_DECIMAL_PRECISION) {
+                    return new ScanLookup(valueBlock, column);
+                }
+                lookup = new LongLookup(vector, rowCount);
+                break;
+            case VARCHAR:
+            case VARBINARY:
+                lookup = new BytesLookup((BaseVariableWidthVector) vector, rowCount);
+                break;
+            default:
+                if (!OrderedKeys.hasKey(minorType)) {
+                    return new ScanLookup(valueBlock, column);
+                }
+                lookup = new LongLookup(vector, rowCount);
+        }
+        valueBlock.attach(lookup);
+        return lookup;
+    }
+
+    /**
+     * @param value The value to look up, not null.
+     * @return True if the value is one of the values of the set.
+     */
+    abstract boolean contains(Object value);
+
+    @Override
+    public void close()
+    {
+        //Only lookups with a table hold resources.
+    }
+
+    private static int tableSize(int rowCount)
+    {
+        return Math.max(2, Integer.highestOneBit(rowCount * SLOTS_PER_VALUE - 1) << 1);
+    }
+
+    private static int hash(long key)
+    {
+        long hash = key * HASH_MULTIPLIER;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static class EmptyLookup
+            extends ValueLookup
+    {
+        @Override
+        boolean contains(Object value)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Compares the value to each of the values of the Block, for the types we have no table for.
+     */
+    private static class ScanLookup
+            extends ValueLookup
+    {
+        private final Block valueBlock;
+        private final String column;
+
+        ScanLookup(Block valueBlock, String column)
+        {
+            this.valueBlock = valueBlock;
+            this.column = column;
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            FieldReader reader = valueBlock.getFieldReader(column);
+            for (int i = 0; i < valueBlock.getRowCount(); i++) {
+                reader.setPosition(i);
+                if (ArrowTypeComparator.compare(reader, value, reader.readObject()) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A hash set of long keys. Zero marks an empty slot, so whether zero is in the set is kept on the side.
+     */
+    private static class LongLookup
+            extends ValueLookup
+    {
+        //The most digits of a decimal whose unscaled value always fits a long.
+        private static final int MAX_DECIMAL_PRECISION = 18;
+
+        private final Types.MinorType type;
+        private final int scale;
+        private final ArrowBuf table;
+        private final int mask;
+        private boolean containsZero;
+
+        LongLookup(FieldVector vector, int rowCount)
+        {
+            ArrowType arrowType = vector.getField().getType();
+            this.type = Types.getMinorTypeForArrowType(arrowType);
+            this.scale = (type == Types.MinorType.DECIMAL) ? ((ArrowType.Decimal) arrowType).getScale() : 0;
+            int slots = tableSize(rowCount);
+            this.mask = slots - 1;
+            this.table = vector.getAllocator().buffer((long) slots * Long.BYTES);
+            table.setZero(0, table.capacity());
+
+            for (int i = 0; i < rowCount; i++) {
+                Object value = vector.getObject(i);
+                if (value != null) {
+                    add(key(value));
+                }
+            }
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            long key;
+            if (type == Types.MinorType.DECIMAL) {
+                //The values of the set all have the scale of the vector, a value that does not have an exact
+                //representation at that scale, or whose unscaled value does not fit a long, is not one of them.
+                try {
+                    key = ((BigDecimal) value).setScale(scale).unscaledValue().longValueExact();
+                }
+                catch (ArithmeticException ex) {
+                    return false;
+                }
+            }
+            else {
+                key = key(value);
+            }
+
+            if (key == 0) {
+                return containsZero;
+            }
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                long next = table.getLong((long) slot * Long.BYTES);
+                if (next == key) {
+                    return true;
+                }
+                else if (next == 0) {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            table.close();
+        }
+
+        private void add(long key)
+        {
+            if (key == 0) {
+                containsZero = true;
+                return;
+            }
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                long next = table.getLong((long) slot * Long.BYTES);
+                if (next == key) {
+                    return;
+                }
+                else if (next == 0) {
+                    table.setLong((long) slot * Long.BYTES, key);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Maps the value to a key that is equal for two values if, and only if, ArrowTypeComparator finds them equal.
+         */
+        private long key(Object value)
+        {
+            if (type == Types.MinorType.DECIMAL) {
+                return ((BigDecimal) value).setScale(scale).unscaledValue().longValueExact();
+            }
+            return OrderedKeys.keyOf(type, value);
+        }
+    }
+
+    /**
+     * A hash set of the byte values of a VARCHAR or VARBINARY vector. Each slot holds the hash of a value in its
+     * upper and the value's row plus one in its lower 32 bits, zero marks an empty slot.
+     */
+    private static class BytesLookup
+            extends ValueLookup
+    {
+        private final BaseVariableWidthVector vector;
+        private final boolean isVarChar;
+        private final ArrowBuf table;
+        private final int mask;
+
+        BytesLookup(BaseVariableWidthVector vector, int rowCount)
+        {
+            this.vector = vector;
+            this.isVarChar = Types.getMinorTypeForArrowType(vector.getField().getType()) == Types.MinorType.VARCHAR;
+            int slots = tableSize(rowCount);
+            this.mask = slots - 1;
+            this.table = vector.getAllocator().buffer((long) slots * Long.BYTES);
+            table.setZero(0, table.capacity());
+
+            ArrowBuf data = vector.getDataBuffer();
+            for (int row = 0; row < rowCount; row++) {
+                if (vector.isNull(row)) {
+                    continue;
+                }
+                int start = vector.getStartOffset(row);
+                int length = vector.getValueLength(row);
+                int hash = hash(data, start, length);
+                int slot = find(hash, data, start, length);
+                if (table.getLong((long) slot * Long.BYTES) == 0) {
+                    table.setLong((long) slot * Long.BYTES, ((long) hash << 32) | (row + 1));
+                }
+            }
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            byte[] bytes;
+            int length;
+            if (!isVarChar) {
+                bytes = (byte[]) value;
+                length = bytes.length;
+            }
+            else if (value instanceof Text) {
+                bytes = ((Text) value).getBytes();
+                length = (int) ((Text) value).getLength();
+            }
+            else {
+                //ArrowTypeComparator compares VARCHAR values as Strings, a String that has no UTF-8 encoding,
+                //e.g. one with an unpaired surrogate, is not equal to any String decoded from the vector.
+                try {
+                    ByteBuffer encoded = Text.encode(value.toString(), false);
+                    bytes = encoded.array();
+                    length = encoded.limit();
+                }
+                catch (CharacterCodingException ex) {
+                    return false;
+                }
+            }
+
+            int hash = hash(bytes, length);
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long next = table.getLong((long) slot * Long.BYTES);
+                if (next == 0) {
+                    return false;
+                }
+                else if ((int) (next >>> 32) == hash && equals(bytes, length, (int) next - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            table.close();
+        }
+
+        /**
+         * @return The slot that holds the value, or the empty slot it belongs in.
+         */
+        private int find(int hash, ArrowBuf data, int start, int length)
+        {
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long next = table.getLong((long) slot * Long.BYTES);
+                if (next == 0) {
+                    return slot;
+                }
+                int row = (int) next - 1;
+                if ((int) (next >>> 32) == hash && equals(data, start, length, row)) {
+                    return slot;
+                }
+            }
+        }
+
+        private boolean equals(ArrowBuf data, int start, int length, int row)
+        {
+            if (vector.getValueLength(row) != length) {
+                return false;
+            }
+            long rowStart = vector.getStartOffset(row);
+            for (int i = 0; i < length; i++) {
+                if (data.getByte(rowStart + i) != data.getByte(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean equals(byte[] bytes, int length, int row)
+        {
+            if (vector.getValueLength(row) != length) {
+                return false;
+            }
+            ArrowBuf data = vector.getDataBuffer();
+            long start = vector.getStartOffset(row);
+            for (int i = 0; i < length; i++) {
+                if (data.getByte(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(ArrowBuf data, long start, int length)
+        {
+            long hash = length;
+            for (int i = 0; i < length; i++) {
+                hash = hash * 31 + data.getByte(start + i);
+            }
+            return ValueLookup.hash(hash);
+        }
+
+        private static int hash(byte[] bytes, int length)
+        {
+            long hash = length;
+            for (int i = 0; i < length; i++) {
+                hash = hash * 31 + bytes[i];
+            }
+            return ValueLookup.hash(hash);
+        }
+    }
+}
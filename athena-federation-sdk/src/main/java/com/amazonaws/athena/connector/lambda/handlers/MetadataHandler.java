@@ -47,6 +47,7 @@ import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
+import com.amazonaws.athena.connector.lambda.metadata.MetadataCache;
 import com.amazonaws.athena.connector.lambda.metadata.MetadataRequest;
 import com.amazonaws.athena.connector.lambda.metadata.MetadataRequestType;
 import com.amazonaws.athena.connector.lambda.request.FederationRequest;
@@ -137,6 +138,7 @@ public abstract class MetadataHandler
     private final String sourceType;
     private SpillLocationVerifier verifier;
     private final KmsEncryptionProvider kmsEncryptionProvider;
+    private final MetadataCache metadataCache;
 
     /**
      * When MetadataHandler is used as a Lambda, the "Main" class will pass in System.getenv() as the configOptions.
@@ -168,6 +170,7 @@ public abstract class MetadataHandler
         this.verifier = new SpillLocationVerifier(s3Client);
         this.athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER, configOptions).build();
         this.kmsEncryptionProvider = new KmsEncryptionProvider(KmsClient.create());
+        this.metadataCache = (configOptions != null) ? MetadataCache.fromConfig(configOptions) : null;
     }
 
     /**
@@ -193,6 +196,7 @@ public abstract class MetadataHandler
         this.verifier = new SpillLocationVerifier(s3Client);
         this.athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER, configOptions).build();
         this.kmsEncryptionProvider = new KmsEncryptionProvider(KmsClient.create());
+        this.metadataCache = (configOptions != null) ? MetadataCache.fromConfig(configOptions) : null;
     }
 
     /**
@@ -298,7 +302,7 @@ public abstract class MetadataHandler
                 }
                 return;
             case LIST_TABLES:
-                try (ListTablesResponse response = doListTables(allocator, (ListTablesRequest) req)) {
+                try (ListTablesResponse response = resolveDoListTablesImplementation(allocator, (ListTablesRequest) req)) {
                     logger.info("doHandleRequest: response[{}]", response);
                     assertNotNull(response);
                     objectMapper.writeValue(outputStream, response);
@@ -367,6 +371,15 @@ public abstract class MetadataHandler
     public abstract ListTablesResponse doListTables(final BlockAllocator allocator, final ListTablesRequest request)
             throws Exception;
 
+    private ListTablesResponse resolveDoListTablesImplementation(final BlockAllocator allocator, final ListTablesRequest request)
+            throws Exception
+    {
+        if (metadataCache != null && isMetadataCacheable(request)) {
+            return metadataCache.listTables(request, () -> doListTables(allocator, request));
+        }
+        return doListTables(allocator, request);
+    }
+
     private GetTableResponse resolveDoGetTableImplementation(final BlockAllocator allocator, final GetTableRequest request)
             throws Exception
     {
@@ -374,9 +387,35 @@ public abstract class MetadataHandler
         if (request.isQueryPassthrough()) {
             return doGetQueryPassthroughSchema(allocator, request);
         }
+        if (metadataCache != null && isMetadataCacheable(request)) {
+            return metadataCache.getTable(request, () -> doGetTable(allocator, request));
+        }
         return doGetTable(allocator, request);
     }
 
+    /**
+     * The cache of GetTable and ListTables responses, enabled with metadata_cache_ttl_seconds. Connectors that change
+     * tables through the connector can use it to invalidate the tables they changed.
+     *
+     * @return The metadata cache or null if metadata caching isn't enabled.
+     */
+    protected MetadataCache getMetadataCache()
+    {
+        return metadataCache;
+    }
+
+    /**
+     * Lets a connector keep some requests out of the metadata cache, e.g. for tables whose schema is generated per
+     * request. Only called when metadata caching is enabled.
+     *
+     * @param request A GetTableRequest or ListTablesRequest.
+     * @return True if the response to the request may be served from and stored in the metadata cache.
+     */
+    protected boolean isMetadataCacheable(MetadataRequest request)
+    {
+        return true;
+    }
+
     /**
      * Used to get definition (field names, types, descriptions, etc...) of a Query PassThrough.
      *
@@ -0,0 +1,280 @@
+package com.amazonaws.athena.connector.lambda.metadata;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.glue.model.EntityNotFoundException;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Caches the responses of <code>GetTable</code> and <code>ListTables</code> across the requests a warm Lambda serves,
+ * so that the source catalog isn't queried again for a table Athena already asked about.
+ * <p>
+ * The cache is opt-in, it is enabled by setting metadata_cache_ttl_seconds. Entries are keyed by catalog, caller
+ * and table (or schema and page for <code>ListTables</code>) and expire after the TTL. Tables that don't exist are
+ * cached for metadata_cache_negative_ttl_seconds, so that a missing table doesn't cost a catalog call on every
+ * request either. Connectors whose metadata changes through the connector itself can drop entries with the
+ * invalidate methods.
+ */
+public class MetadataCache
+{
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    public static final String METADATA_CACHE_TTL_SECONDS = "metadata_cache_ttl_seconds";
+    public static final String METADATA_CACHE_NEGATIVE_TTL_SECONDS = "metadata_cache_negative_ttl_seconds";
+    public static final String METADATA_CACHE_MAX_ENTRIES = "metadata_cache_max_entries";
+
+    private static final long DEFAULT_NEGATIVE_TTL_SECONDS = 30;
+    private static final long DEFAULT_MAX_ENTRIES = 1_000;
+
+    private final Cache<Key, Object> responses;
+    private final Cache<Key, RuntimeException> notFound;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Loads a response from the source on a cache miss.
+     */
+    public interface Loader<T>
+    {
+        T load()
+                throws Exception;
+    }
+
+    /**
+     * @param configOptions The configuration of the connector.
+     * @return A cache configured from metadata_cache_* options or null if metadata caching isn't enabled.
+     */
+    public static MetadataCache fromConfig(Map<String, String> configOptions)
+    {
+        long ttlSeconds = Long.parseLong(configOptions.getOrDefault(METADATA_CACHE_TTL_SECONDS, "0"));
+        if (ttlSeconds <= 0) {
+            return null;
+        }
+        long negativeTtlSeconds = Long.parseLong(configOptions.getOrDefault(METADATA_CACHE_NEGATIVE_TTL_SECONDS,
+                String.valueOf(Math.min(ttlSeconds, DEFAULT_NEGATIVE_TTL_SECONDS))));
+        long maxEntries = Long.parseLong(configOptions.getOrDefault(METADATA_CACHE_MAX_ENTRIES, String.valueOf(DEFAULT_MAX_ENTRIES)));
+        logger.info("fromConfig: metadata cache enabled, ttl {}s, negative ttl {}s, max entries {}", ttlSeconds, negativeTtlSeconds, maxEntries);
+        return new MetadataCache(ttlSeconds, negativeTtlSeconds, maxEntries, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    MetadataCache(long ttlSeconds, long negativeTtlSeconds, long maxEntries, Ticker ticker)
+    {
+        this.responses = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .build();
+        this.notFound = CacheBuilder.newBuilder()
+                .expireAfterWrite(Math.max(negativeTtlSeconds, 0), TimeUnit.SECONDS)
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * @param request The request to answer.
+     * @param loader Gets the table from the source on a cache miss.
+     * @return The cached response or the loaded one.
+     */
+    public GetTableResponse getTable(GetTableRequest request, Loader<GetTableResponse> loader)
+            throws Exception
+    {
+        TableName tableName = request.getTableName();
+        return get(new Key(MetadataRequestType.GET_TABLE, request.getCatalogName(), callerOf(request.getIdentity()),
+                tableName.getSchemaName(), tableName.getTableName(), 0), loader);
+    }
+
+    /**
+     * @param request The request to answer.
+     * @param loader Lists the tables from the source on a cache miss.
+     * @return The cached response or the loaded one.
+     */
+    public ListTablesResponse listTables(ListTablesRequest request, Loader<ListTablesResponse> loader)
+            throws Exception
+    {
+        return get(new Key(MetadataRequestType.LIST_TABLES, request.getCatalogName(), callerOf(request.getIdentity()),
+                request.getSchemaName(), request.getNextToken(), request.getPageSize()), loader);
+    }
+
+    /**
+     * Drops the cached table and the cached listings of its schema, in every catalog and for every caller.
+     */
+    public void invalidate(String schemaName, String tableName)
+    {
+        invalidateIf(key -> Objects.equal(key.schemaName, schemaName)
+                && (key.type == MetadataRequestType.LIST_TABLES || Objects.equal(key.name, tableName)));
+    }
+
+    /**
+     * Drops the cached tables and listings of a schema, in every catalog and for every caller.
+     */
+    public void invalidateSchema(String schemaName)
+    {
+        invalidateIf(key -> Objects.equal(key.schemaName, schemaName));
+    }
+
+    public void invalidateAll()
+    {
+        responses.invalidateAll();
+        notFound.invalidateAll();
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return The share of lookups answered from the cache, including the ones for missing tables, 1.0 before any lookup.
+     */
+    public double getHitRate()
+    {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return (total == 0) ? 1.0 : (double) hitCount / total;
+    }
+
+    private <T> T get(Key key, Loader<T> loader)
+            throws Exception
+    {
+        RuntimeException missing = notFound.getIfPresent(key);
+        if (missing != null) {
+            hits.increment();
+            throw missing;
+        }
+        @SuppressWarnings("unchecked")
+        T response = (T) responses.getIfPresent(key);
+        if (response != null) {
+            hits.increment();
+            logger.debug("get: hit for {}, hit rate {}", key, getHitRate());
+            return response;
+        }
+
+        misses.increment();
+        try {
+            response = loader.load();
+        }
+        catch (RuntimeException ex) {
+            if (isNotFound(ex)) {
+                notFound.put(key, ex);
+            }
+            throw ex;
+        }
+        if (response != null) {
+            responses.put(key, response);
+        }
+        logger.debug("get: miss for {}, hit rate {}", key, getHitRate());
+        return response;
+    }
+
+    private void invalidateIf(Predicate<Key> predicate)
+    {
+        responses.asMap().keySet().removeIf(predicate);
+        notFound.asMap().keySet().removeIf(predicate);
+    }
+
+    private static boolean isNotFound(RuntimeException ex)
+    {
+        if (ex instanceof EntityNotFoundException) {
+            return true;
+        }
+        return ex instanceof AthenaConnectorException
+                && ((AthenaConnectorException) ex).getErrorDetails() != null
+                && FederationSourceErrorCode.ENTITY_NOT_FOUND_EXCEPTION.toString().equals(((AthenaConnectorException) ex).getErrorDetails().errorCode());
+    }
+
+    private static String callerOf(FederatedIdentity identity)
+    {
+        return (identity == null) ? null : identity.getArn();
+    }
+
+    private static final class Key
+    {
+        private final MetadataRequestType type;
+        private final String catalogName;
+        private final String caller;
+        private final String schemaName;
+        // The table name for GetTable, the page token for ListTables.
+        private final String name;
+        private final int pageSize;
+
+        private Key(MetadataRequestType type, String catalogName, String caller, String schemaName, String name, int pageSize)
+        {
+            this.type = type;
+            this.catalogName = catalogName;
+            this.caller = caller;
+            this.schemaName = schemaName;
+            this.name = name;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return type == that.type
+                    && pageSize == that.pageSize
+                    && Objects.equal(catalogName, that.catalogName)
+                    && Objects.equal(caller, that.caller)
+                    && Objects.equal(schemaName, that.schemaName)
+                    && Objects.equal(name, that.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(type, catalogName, caller, schemaName, name, pageSize);
+        }
+
+        @Override
+        public String toString()
+        {
+            return type + " " + catalogName + "." + schemaName + "." + name;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.amazonaws.athena.connector.lambda.metadata;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pages through the splits of a table for <code>doGetSplits</code>, one unit of work (a partition, a log stream, a
+ * topic partition...) at a time.
+ * <p>
+ * The continuation token is the index of the next unit to plan, so a page only plans the units it returns instead of
+ * re-planning the whole table. When planning a unit needs a call to the source, e.g. to list the files of a
+ * partition, up to <code>parallelism</code> units are planned concurrently, in order, and the page is returned as soon
+ * as it is full. The first page can be made smaller than the following ones so that Athena starts reading while the
+ * rest of the splits are planned.
+ *
+ * @param <T> The type of the units of work.
+ */
+public class SplitPlanner<T>
+{
+    private static final Logger logger = LoggerFactory.getLogger(SplitPlanner.class);
+
+    private final List<T> units;
+    private final UnitPlanner<T> unitPlanner;
+    private final int maxSplitsPerPage;
+    private final int firstPageMaxSplits;
+    private final int parallelism;
+
+    /**
+     * Plans the splits of one unit of work. Called concurrently when the planner's parallelism is above 1.
+     */
+    public interface UnitPlanner<T>
+    {
+        List<Split> plan(T unit)
+                throws Exception;
+    }
+
+    private SplitPlanner(Builder<T> builder)
+    {
+        this.units = requireNonNull(builder.units, "units");
+        this.unitPlanner = requireNonNull(builder.unitPlanner, "unitPlanner");
+        this.maxSplitsPerPage = builder.maxSplitsPerPage;
+        this.firstPageMaxSplits = (builder.firstPageMaxSplits > 0) ? builder.firstPageMaxSplits : builder.maxSplitsPerPage;
+        this.parallelism = builder.parallelism;
+    }
+
+    /**
+     * @param units The units of work, in an order that is the same for every page of the request.
+     * @param unitPlanner Plans the splits of a unit of work.
+     * @return A builder for a planner over the units.
+     */
+    public static <T> Builder<T> newBuilder(List<T> units, UnitPlanner<T> unitPlanner)
+    {
+        return new Builder<>(units, unitPlanner);
+    }
+
+    /**
+     * Plans the page of splits requested by the continuation token of the request.
+     *
+     * @param request The request to plan splits for.
+     * @return The splits of the page and, if units are left, the continuation token for the next page.
+     */
+    public GetSplitsResponse plan(GetSplitsRequest request)
+            throws Exception
+    {
+        int start = decodeContinuationToken(request);
+        int maxSplits = request.hasContinuationToken() ? maxSplitsPerPage : firstPageMaxSplits;
+        Set<Split> splits = new HashSet<>();
+
+        ExecutorService executor = (parallelism > 1 && units.size() - start > 1)
+                ? Executors.newFixedThreadPool(Math.min(parallelism, units.size() - start), runnable -> {
+                    Thread thread = new Thread(runnable, "split-planner");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        Deque<Future<List<Split>>> inFlight = new ArrayDeque<>();
+        int submitted = start;
+        try {
+            for (int planned = start; planned < units.size(); planned++) {
+                List<Split> unitSplits;
+                if (executor == null) {
+                    unitSplits = unitPlanner.plan(units.get(planned));
+                }
+                else {
+                    while (submitted < units.size() && inFlight.size() < parallelism) {
+                        T unit = units.get(submitted++);
+                        inFlight.add(executor.submit(() -> unitPlanner.plan(unit)));
+                    }
+                    unitSplits = await(inFlight.poll());
+                }
+                splits.addAll(unitSplits);
+
+                if (splits.size() >= maxSplits && planned < units.size() - 1) {
+                    logger.info("plan: returning {} splits of units [{}, {}) out of {}", splits.size(), start, planned + 1, units.size());
+                    return new GetSplitsResponse(request.getCatalogName(), splits, String.valueOf(planned + 1));
+                }
+            }
+        }
+        finally {
+            if (executor != null) {
+                inFlight.forEach(next -> next.cancel(true));
+                executor.shutdownNow();
+            }
+        }
+        logger.info("plan: returning {} splits of units [{}, {})", splits.size(), start, units.size());
+        return new GetSplitsResponse(request.getCatalogName(), splits);
+    }
+
+    private static List<Split> await(Future<List<Split>> future)
+            throws Exception
+    {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private int decodeContinuationToken(GetSplitsRequest request)
+    {
+        if (!request.hasContinuationToken()) {
+            return 0;
+        }
+        try {
+            int start = Integer.parseInt(request.getContinuationToken());
+            if (start >= 0 && start <= units.size()) {
+                return start;
+            }
+        }
+        catch (NumberFormatException ex) {
+            // reported below
+        }
+        throw new AthenaConnectorException("Invalid continuation token: " + request.getContinuationToken(),
+                ErrorDetails.builder().errorCode(FederationSourceErrorCode.INVALID_INPUT_EXCEPTION.toString()).build());
+    }
+
+    public static class Builder<T>
+    {
+        private final List<T> units;
+        private final UnitPlanner<T> unitPlanner;
+        private int maxSplitsPerPage = 1000;
+        private int firstPageMaxSplits = 0;
+        private int parallelism = 1;
+
+        private Builder(List<T> units, UnitPlanner<T> unitPlanner)
+        {
+            this.units = units;
+            this.unitPlanner = unitPlanner;
+        }
+
+        /**
+         * @param maxSplitsPerPage The number of splits after which a page is returned, 1000 by default. A page can
+         * exceed it by the splits of its last unit.
+         */
+        public Builder<T> withMaxSplitsPerPage(int maxSplitsPerPage)
+        {
+            this.maxSplitsPerPage = maxSplitsPerPage;
+            return this;
+        }
+
+        /**
+         * @param firstPageMaxSplits The number of splits after which the first page is returned, maxSplitsPerPage by
+         * default.
+         */
+        public Builder<T> withFirstPageMaxSplits(int firstPageMaxSplits)
+        {
+            this.firstPageMaxSplits = firstPageMaxSplits;
+            return this;
+        }
+
+        /**
+         * @param parallelism The number of units planned concurrently, 1 (on the calling thread) by default.
+         */
+        public Builder<T> withParallelism(int parallelism)
+        {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public SplitPlanner<T> build()
+        {
+            return new SplitPlanner<>(this);
+        }
+    }
+}
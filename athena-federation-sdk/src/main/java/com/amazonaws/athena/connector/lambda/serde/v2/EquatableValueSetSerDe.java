@@ -22,6 +22,7 @@ package com.amazonaws.athena.connector.lambda.serde.v2;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import com.amazonaws.athena.connector.lambda.serde.TypedDeserializer;
 import com.amazonaws.athena.connector.lambda.serde.TypedSerializer;
 import com.amazonaws.athena.connector.lambda.serde.VersionedSerDe;
@@ -29,6 +30,9 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
 
 import java.io.IOException;
 
@@ -81,12 +85,29 @@ public final class EquatableValueSetSerDe
                 throws IOException
         {
             assertFieldName(jparser, VALUE_BLOCK_FIELD);
-            Block valueBlock = blockDeserializer.deserialize(jparser, ctxt);
+            //Decoding the values of every constraint costs more than keeping their json around, so the Block is only
+            //decoded if, and when, the ValueSet is used.
+            jparser.nextToken();
+            TokenBuffer valueBlockTokens = new TokenBuffer(jparser);
+            valueBlockTokens.copyCurrentStructure(jparser);
 
             boolean whiteList = getNextBoolField(jparser, WHITELIST_FIELD);
             boolean nullAllowed = getNextBoolField(jparser, NULL_ALLOWED_FIELD);
 
-            return new EquatableValueSet(valueBlock, whiteList, nullAllowed);
+            return new EquatableValueSet(() -> loadValueBlock(valueBlockTokens), whiteList, nullAllowed);
+        }
+
+        private Block loadValueBlock(TokenBuffer valueBlockTokens)
+        {
+            //The Block deserializers do not use the DeserializationContext, which is not kept past the request's
+            //deserialization since it holds on to the request's json.
+            try (JsonParser tokens = valueBlockTokens.asParser()) {
+                return blockDeserializer.deserialize(tokens, null);
+            }
+            catch (IOException ex) {
+                throw new AthenaConnectorException("Unable to deserialize the values of the EquatableValueSet: " + ex.getMessage(),
+                        ErrorDetails.builder().errorCode(FederationSourceErrorCode.INVALID_INPUT_EXCEPTION.toString()).build());
+            }
         }
     }
 }
@@ -0,0 +1,139 @@
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+/**
+ * Remembers the Schemas this sandbox decoded and encoded, since every request of a query carries the same Schemas
+ * (the table's, and that of each Block of its constraints) and decoding a wide Schema from the base64 Apache Arrow IPC
+ * bytes of the request costs far more than recognizing it.
+ * <p>
+ * A decoded Schema is found by a fingerprint of its encoded text and then compared to the text in full, so a Schema is
+ * only ever returned for exactly the text it was decoded from. Schemas are immutable, so a cached Schema can be shared
+ * by any number of requests. Encoded Schemas are found by identity, which is how Blocks created from the same Schema
+ * share it.
+ */
+final class SchemaCache
+{
+    //The most characters of encoded Schemas we keep decoded, a little more than the text of a hundred 1,000 column tables.
+    private static final long MAX_DECODED_CHARS = 16L * 1024 * 1024;
+    //The most bytes of encoded Schemas we keep.
+    private static final long MAX_ENCODED_BYTES = 16L * 1024 * 1024;
+
+    private static final Cache<Long, Decoded> DECODED = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_DECODED_CHARS)
+            .weigher((Long fingerprint, Decoded decoded) -> decoded.text.length)
+            .build();
+
+    private static final Cache<Schema, byte[]> ENCODED = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumWeight(MAX_ENCODED_BYTES)
+            .weigher((Schema schema, byte[] bytes) -> bytes.length)
+            .build();
+
+    private SchemaCache() {}
+
+    /**
+     * @param jparser A parser whose current token is the base64 text of an encoded Schema.
+     * @return The Schema, decoded from the text only if it was not decoded before.
+     * @throws IOException If the text is not an encoded Schema.
+     */
+    static Schema decode(JsonParser jparser)
+            throws IOException
+    {
+        char[] chars = jparser.getTextCharacters();
+        int offset = jparser.getTextOffset();
+        int length = jparser.getTextLength();
+        long fingerprint = fingerprint(chars, offset, length);
+
+        Decoded decoded = DECODED.getIfPresent(fingerprint);
+        if (decoded != null && Arrays.equals(decoded.text, 0, decoded.text.length, chars, offset, offset + length)) {
+            return decoded.schema;
+        }
+
+        byte[] schemaBytes = jparser.getBinaryValue();
+        ByteArrayInputStream in = new ByteArrayInputStream(schemaBytes);
+        Schema schema = MessageSerializer.deserializeSchema(new ReadChannel(Channels.newChannel(in)));
+        DECODED.put(fingerprint, new Decoded(Arrays.copyOfRange(chars, offset, offset + length), schema));
+        return schema;
+    }
+
+    /**
+     * @param schema The Schema to encode.
+     * @return The Apache Arrow IPC bytes of the Schema, which the caller must not modify.
+     * @throws IOException If the Schema can not be encoded.
+     */
+    static byte[] encode(Schema schema)
+            throws IOException
+    {
+        byte[] bytes = ENCODED.getIfPresent(schema);
+        if (bytes == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MessageSerializer.serialize(new WriteChannel(Channels.newChannel(out)), schema);
+            bytes = out.toByteArray();
+            ENCODED.put(schema, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Empties the caches, for tests and benchmarks that measure decoding.
+     */
+    static void clear()
+    {
+        DECODED.invalidateAll();
+        ENCODED.invalidateAll();
+    }
+
+    private static long fingerprint(char[] chars, int offset, int length)
+    {
+        long hash = length;
+        for (int i = offset; i < offset + length; i++) {
+            hash = hash * 31 + chars[i];
+        }
+        return hash ^ (hash >>> 29);
+    }
+
+    private static class Decoded
+    {
+        private final char[] text;
+        private final Schema schema;
+
+        Decoded(char[] text, Schema schema)
+        {
+            this.text = text;
+            this.schema = schema;
+        }
+    }
+}
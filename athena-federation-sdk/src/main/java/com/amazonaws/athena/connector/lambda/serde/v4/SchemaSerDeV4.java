@@ -28,17 +28,11 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import org.apache.arrow.vector.ipc.ReadChannel;
-import org.apache.arrow.vector.ipc.WriteChannel;
-import org.apache.arrow.vector.ipc.message.MessageSerializer;
 import org.apache.arrow.vector.types.pojo.Schema;
 import software.amazon.awssdk.services.glue.model.ErrorDetails;
 import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.channels.Channels;
 
 public final class SchemaSerDeV4 implements VersionedSerDe
 {
@@ -63,9 +57,7 @@ public final class SchemaSerDeV4 implements VersionedSerDe
         public void doSerialize(Schema schema, JsonGenerator jgen, SerializerProvider provider)
                 throws IOException
         {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            MessageSerializer.serialize(new WriteChannel(Channels.newChannel(out)), schema);
-            jgen.writeBinary(out.toByteArray());
+            jgen.writeBinary(SchemaCache.encode(schema));
         }
     }
 
@@ -91,9 +83,7 @@ public final class SchemaSerDeV4 implements VersionedSerDe
             if (!JsonToken.VALUE_STRING.equals(jparser.nextToken())) {
                 throw new AthenaConnectorException("Expected " + JsonToken.VALUE_STRING + " found " + jparser.getText(), ErrorDetails.builder().errorCode(FederationSourceErrorCode.INVALID_INPUT_EXCEPTION.toString()).build());
             }
-            byte[] schemaBytes = jparser.getBinaryValue();
-            ByteArrayInputStream in = new ByteArrayInputStream(schemaBytes);
-            return MessageSerializer.deserializeSchema(new ReadChannel(Channels.newChannel(in)));
+            return SchemaCache.decode(jparser);
         }
     }
 }
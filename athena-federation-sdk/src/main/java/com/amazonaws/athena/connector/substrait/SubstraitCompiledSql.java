@@ -0,0 +1,78 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.substrait;
+
+import org.apache.calcite.rel.type.RelDataType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a SQL based connector derives from a Substrait plan for a given SqlDialect: the parameterized SQL
+ * statement, the values to bind to its parameters, the schema of the base table and the column renames introduced by
+ * Calcite. Instances are immutable and can be shared by every split of a query.
+ */
+public class SubstraitCompiledSql
+{
+    private final String sql;
+    private final List<SubstraitTypeAndValue> parameters;
+    private final RelDataType tableSchema;
+    private final Map<String, String> columnRemapping;
+
+    /**
+     * @param sql The parameterized SQL statement.
+     * @param parameters The values of the statement's parameters, in ordinal order.
+     * @param tableSchema The schema of the base table read by the plan.
+     * @param columnRemapping Renamed column name to original base table column name, null for computed expressions.
+     */
+    public SubstraitCompiledSql(final String sql,
+            final List<SubstraitTypeAndValue> parameters,
+            final RelDataType tableSchema,
+            final Map<String, String> columnRemapping)
+    {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+        this.tableSchema = tableSchema;
+        this.columnRemapping = Collections.unmodifiableMap(new LinkedHashMap<>(columnRemapping));
+    }
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    public List<SubstraitTypeAndValue> getParameters()
+    {
+        return parameters;
+    }
+
+    public RelDataType getTableSchema()
+    {
+        return tableSchema;
+    }
+
+    public Map<String, String> getColumnRemapping()
+    {
+        return columnRemapping;
+    }
+}
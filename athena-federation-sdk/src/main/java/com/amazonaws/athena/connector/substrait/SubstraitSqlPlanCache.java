@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.substrait;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.calcite.sql.SqlDialect;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide cache of compiled Substrait plans. Every split of a query carries the same plan, compiling it once
+ * per dialect saves decoding the plan, converting it to Calcite and unparsing it to SQL for every split, and the cache
+ * survives across warm invocations of the same Lambda.
+ * <p>
+ * Entries are keyed by the serialized plan, then by a dialect key chosen by the caller. The dialect key must identify
+ * the SqlDialect passed along with it, e.g. the class of the query builder plus any setting the dialect depends on.
+ */
+public final class SubstraitSqlPlanCache
+{
+    //Max number of distinct plans to keep compiled artifacts for.
+    private static final int MAX_CACHED_PLANS = 100;
+    private static final long CACHE_DURATION_MINUTES = 60;
+
+    private static final Cache<String, Map<String, SubstraitCompiledSql>> PLANS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_PLANS)
+            .expireAfterAccess(CACHE_DURATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    private SubstraitSqlPlanCache()
+    {
+    }
+
+    /**
+     * Provides the compiled form of the plan for the given dialect, compiling it on first use.
+     *
+     * @param planString The base64 encoded Substrait plan.
+     * @param dialectKey Identifies sqlDialect among the dialects the plan is compiled for.
+     * @param sqlDialect The dialect to generate SQL for.
+     * @return The compiled plan.
+     */
+    public static SubstraitCompiledSql get(final String planString, final String dialectKey, final SqlDialect sqlDialect)
+    {
+        Map<String, SubstraitCompiledSql> byDialect = PLANS.asMap().computeIfAbsent(planString, key -> new ConcurrentHashMap<>());
+        return byDialect.computeIfAbsent(dialectKey, key -> SubstraitSqlUtils.compileSubstraitPlan(planString, sqlDialect));
+    }
+
+    /**
+     * Provides the column renames of the plan. The renames do not depend on the dialect so the artifact compiled for
+     * any dialect is used when there is one, the plan is only compiled for sqlDialect otherwise.
+     *
+     * @param planString The base64 encoded Substrait plan.
+     * @param dialectKey Identifies sqlDialect among the dialects the plan is compiled for.
+     * @param sqlDialect The dialect to compile the plan with if it has not been compiled yet.
+     * @return Renamed column name to original base table column name, null for computed expressions.
+     */
+    public static Map<String, String> getColumnRemapping(final String planString, final String dialectKey, final SqlDialect sqlDialect)
+    {
+        Map<String, SubstraitCompiledSql> byDialect = PLANS.getIfPresent(planString);
+        Optional<SubstraitCompiledSql> compiled = (byDialect == null) ? Optional.empty() : byDialect.values().stream().findFirst();
+        return compiled.orElseGet(() -> get(planString, dialectKey, sqlDialect)).getColumnRemapping();
+    }
+
+    @VisibleForTesting
+    static void invalidateAll()
+    {
+        PLANS.invalidateAll();
+    }
+
+    @VisibleForTesting
+    static long size()
+    {
+        return PLANS.size();
+    }
+}
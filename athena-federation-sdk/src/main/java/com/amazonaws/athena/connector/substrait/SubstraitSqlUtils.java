@@ -36,10 +36,12 @@ import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.sql.SqlDialect;
 import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlSelect;
 import org.apache.calcite.sql.type.SqlTypeFactoryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +108,40 @@ public final class SubstraitSqlUtils
         return columnRemapping;
     }
 
+    /**
+     * Compiles the plan to a parameterized SQL statement for the given dialect. Unlike calling
+     * getSqlNodeFromSubstraitPlan, getTableSchemaFromSubstraitPlan and getColumnRemapping one after the other, the plan
+     * is only decoded and converted to Calcite once. Callers that see the same plan repeatedly should go through
+     * {@link SubstraitSqlPlanCache}.
+     *
+     * @param planString The base64 encoded Substrait plan.
+     * @param sqlDialect The dialect to generate SQL for.
+     * @return The compiled plan.
+     */
+    public static SubstraitCompiledSql compileSubstraitPlan(final String planString, final SqlDialect sqlDialect)
+    {
+        final Plan protoPlan = SubstraitRelUtils.deserializeSubstraitPlan(planString);
+        final ReadRel readRel = SubstraitRelUtils.getReadRel(protoPlan.getRelations(0).getRoot().getInput());
+        if (readRel == null || !readRel.hasBaseSchema()) {
+            throw new RuntimeException("Unable to extract base table schema from Substrait plan");
+        }
+
+        final RelNode relNode = getRelNodeFromSubstraitPlan(protoPlan, sqlDialect);
+        final SqlNode sqlNode = new RelToSqlConverter(sqlDialect).visitRoot(relNode).asStatement();
+        if (!(sqlNode instanceof SqlSelect)) {
+            throw new RuntimeException("Unsupported Query Type. Only SELECT Query is supported.");
+        }
+
+        final RelDataTypeFactory.Builder builder = relNode.getCluster().getTypeFactory().builder();
+        final Map<String, String> columnRemapping = new LinkedHashMap<>();
+        traverse(relNode, builder, columnRemapping);
+        final RelDataType tableSchema = builder.build();
+
+        final List<SubstraitTypeAndValue> parameters = new ArrayList<>();
+        final SqlNode parameterizedNode = new SubstraitAccumulatorVisitor(parameters, tableSchema).visit((SqlSelect) sqlNode);
+        return new SubstraitCompiledSql(parameterizedNode.toSqlString(sqlDialect).getSql(), parameters, tableSchema, columnRemapping);
+    }
+
     private static RelDataType getTableSchemaFromSubstraitPlan(final Plan protoPlan, final SqlDialect sqlDialect)
     {
         final Rel rel = protoPlan.getRelations(0).getRoot().getInput();
@@ -0,0 +1,199 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.data.writers;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.google.common.collect.ImmutableList;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArrowBatchWriterTest
+{
+    private static final int ROWS = 10_000;
+
+    private BlockAllocatorImpl blockAllocator;
+    private BufferAllocator sourceAllocator;
+    private Schema schema;
+    private VectorSchemaRoot batch;
+
+    @Before
+    public void setup()
+    {
+        blockAllocator = new BlockAllocatorImpl();
+        sourceAllocator = new RootAllocator();
+        schema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name")
+                .build();
+
+        batch = VectorSchemaRoot.create(schema, sourceAllocator);
+        BigIntVector id = (BigIntVector) batch.getVector("id");
+        VarCharVector name = (VarCharVector) batch.getVector("name");
+        for (int i = 0; i < ROWS; i++) {
+            id.setSafe(i, i);
+            name.setSafe(i, ("name-" + i).getBytes());
+        }
+        batch.setRowCount(ROWS);
+    }
+
+    @After
+    public void tearDown()
+    {
+        batch.close();
+        sourceAllocator.close();
+        blockAllocator.close();
+    }
+
+    @Test
+    public void writeSlicesBatchToBlockSize()
+    {
+        long maxBlockBytes = 16 * 1024;
+        CollectingBlockWriter blockWriter = new CollectingBlockWriter(maxBlockBytes, ConstraintEvaluator.emptyEvaluator());
+
+        int written = new ArrowBatchWriter(blockWriter, maxBlockBytes).write(batch);
+
+        assertEquals(ROWS, written);
+        assertTrue(blockWriter.blocks.size() > 1);
+        long nextId = 0;
+        for (Block block : blockWriter.blocks) {
+            //a single slice may overshoot by the size estimate of a row, never by a whole batch
+            assertTrue(block.getSize() < maxBlockBytes * 2);
+            for (int i = 0; i < block.getRowCount(); i++) {
+                assertEquals(nextId, block.getFieldVector("id").getObject(i));
+                assertEquals("name-" + nextId, block.getFieldVector("name").getObject(i).toString());
+                nextId++;
+            }
+        }
+        assertEquals(ROWS, nextId);
+    }
+
+    @Test
+    public void writeFiltersRows()
+            throws Exception
+    {
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put("id", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
+                ImmutableList.of(Range.range(blockAllocator, Types.MinorType.BIGINT.getType(), 100L, true, 199L, true),
+                        Range.equal(blockAllocator, Types.MinorType.BIGINT.getType(), 5000L)), false));
+        Constraints constraints = new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+        try (ConstraintEvaluator evaluator = new ConstraintEvaluator(blockAllocator, schema, constraints)) {
+            CollectingBlockWriter blockWriter = new CollectingBlockWriter(Long.MAX_VALUE, evaluator);
+
+            int written = new ArrowBatchWriter(blockWriter, Long.MAX_VALUE).write(batch);
+
+            assertEquals(101, written);
+            Block block = blockWriter.blocks.get(0);
+            assertEquals(101, block.getRowCount());
+            assertEquals(100L, block.getFieldVector("id").getObject(0));
+            assertEquals("name-199", block.getFieldVector("name").getObject(99).toString());
+            assertEquals(5000L, block.getFieldVector("id").getObject(100));
+        }
+    }
+
+    @Test
+    public void writeAppendsWholeBatchIntoEmptyBlock()
+    {
+        try (VectorSchemaRoot sparseBatch = VectorSchemaRoot.create(schema, sourceAllocator)) {
+            BigIntVector id = (BigIntVector) sparseBatch.getVector("id");
+            id.allocateNew(3);
+            id.set(0, 1);
+            id.set(1, 2);
+            id.set(2, 3);
+            sparseBatch.setRowCount(3);
+
+            CollectingBlockWriter blockWriter = new CollectingBlockWriter(Long.MAX_VALUE, null);
+            assertEquals(3, new ArrowBatchWriter(blockWriter, Long.MAX_VALUE).write(sparseBatch));
+
+            Block block = blockWriter.blocks.get(0);
+            assertEquals(3, block.getRowCount());
+            assertEquals(3L, block.getFieldVector("id").getObject(2));
+            //the source is left as it was
+            assertEquals(3L, id.get(2));
+            assertTrue(block.getFieldVector("name").isNull(0));
+        }
+    }
+
+    /**
+     * Mimics the S3BlockSpiller, starting a new Block once the current one is over the limit.
+     */
+    private class CollectingBlockWriter
+            implements BlockWriter
+    {
+        private final long maxBlockBytes;
+        private final ConstraintEvaluator constraintEvaluator;
+        private final List<Block> blocks = new ArrayList<>();
+
+        CollectingBlockWriter(long maxBlockBytes, ConstraintEvaluator constraintEvaluator)
+        {
+            this.maxBlockBytes = maxBlockBytes;
+            this.constraintEvaluator = constraintEvaluator;
+            blocks.add(blockAllocator.createBlock(schema));
+        }
+
+        @Override
+        public void writeRows(RowWriter rowWriter)
+        {
+            Block block = blocks.get(blocks.size() - 1);
+            try {
+                int rows = rowWriter.writeRows(block, block.getRowCount());
+                block.setRowCount(block.getRowCount() + rows);
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+            if (block.getSize() > maxBlockBytes) {
+                blocks.add(blockAllocator.createBlock(schema));
+            }
+        }
+
+        @Override
+        public ConstraintEvaluator getConstraintEvaluator()
+        {
+            return constraintEvaluator;
+        }
+    }
+}
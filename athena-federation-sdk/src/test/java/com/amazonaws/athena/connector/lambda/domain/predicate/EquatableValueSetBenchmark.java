@@ -0,0 +1,150 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+
+/**
+ * Measures the ns per value of filtering values with the ConstraintProjector of an IN list of a growing number of
+ * BIGINT and VARCHAR values, half of the values being in the list, next to comparing each value to the values of the
+ * list in turn. Not part of the test suite, run the main method with the test classpath:
+ * <p>
+ * mvn -pl athena-federation-sdk test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSetBenchmark
+ */
+public class EquatableValueSetBenchmark
+{
+    private static final String COLUMN = "col1";
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final int PROBES = 1_000_000;
+    //Scanning compares each value to every value of the list, so it gets a budget of comparisons instead of values.
+    private static final long SCAN_COMPARISONS = 200_000_000L;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 5;
+
+    private EquatableValueSetBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        for (int size : SIZES) {
+            run(Types.MinorType.BIGINT.getType(), size, (long value) -> value);
+            run(Types.MinorType.VARCHAR.getType(), size, (long value) -> "customer-" + value);
+        }
+    }
+
+    private static void run(ArrowType type, int size, LongFunction<Object> valueOf)
+            throws Exception
+    {
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            //Even values are in the list, odd ones are not.
+            List<Object> values = new ArrayList<>();
+            for (long i = 0; i < size; i++) {
+                values.add(valueOf.apply(i * 2));
+            }
+            Object[] probes = new Object[PROBES];
+            for (int i = 0; i < PROBES; i++) {
+                probes[i] = valueOf.apply((i * 7919L) % (size * 2L));
+            }
+
+            EquatableValueSet valueSet = EquatableValueSet.newBuilder(allocator, type, true, false).addAll(values).build();
+            Constraints constraints = new Constraints(Collections.singletonMap(COLUMN, valueSet), Collections.emptyList(),
+                    Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+            try (ConstraintEvaluator evaluator = new ConstraintEvaluator(allocator,
+                    SchemaBuilder.newBuilder().addField(COLUMN, type).build(), constraints)) {
+                ConstraintProjector projector = evaluator.makeConstraintProjector(COLUMN).get();
+
+                long usage = allocator.getUsage();
+                long start = System.nanoTime();
+                projector.apply(probes[0]);
+                double buildMillis = (System.nanoTime() - start) / 1_000_000.0;
+                long lookupBytes = allocator.getUsage() - usage;
+
+                for (int i = 0; i < WARMUP_RUNS; i++) {
+                    lookup(projector, probes, PROBES);
+                }
+                start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    lookup(projector, probes, PROBES);
+                }
+                double lookupNanos = (System.nanoTime() - start) / (double) RUNS / PROBES;
+
+                int scanProbes = (int) Math.max(10, Math.min(PROBES, SCAN_COMPARISONS / size));
+                scan(valueSet.getValueBlock(), probes, scanProbes);
+                start = System.nanoTime();
+                long scanMatches = scan(valueSet.getValueBlock(), probes, scanProbes);
+                double scanNanos = (System.nanoTime() - start) / (double) scanProbes;
+
+                if (scanMatches != lookup(projector, probes, scanProbes)) {
+                    throw new IllegalStateException("The lookup and the scan disagree");
+                }
+                System.out.printf("%-7s %,9d values: lookup %,8.1f ns/value, scan %,13.1f ns/value, build %,8.2f ms, %,11d bytes%n",
+                        Types.getMinorTypeForArrowType(type), size, lookupNanos, scanNanos, buildMillis, lookupBytes);
+            }
+        }
+    }
+
+    private static long lookup(ConstraintProjector projector, Object[] probes, int count)
+    {
+        long matches = 0;
+        for (int i = 0; i < count; i++) {
+            if (projector.apply(probes[i])) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * How EquatableValueSet looked values up before it had a ValueLookup.
+     */
+    private static long scan(Block valueBlock, Object[] probes, int count)
+    {
+        long matches = 0;
+        FieldReader reader = valueBlock.getFieldReader(COLUMN);
+        for (int i = 0; i < count; i++) {
+            boolean result = false;
+            for (int j = 0; j < valueBlock.getRowCount() && !result; j++) {
+                reader.setPosition(j);
+                result = ArrowTypeComparator.compare(reader, probes[i], reader.readObject()) == 0;
+            }
+            if (result) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -21,14 +21,20 @@ package com.amazonaws.athena.connector.lambda.domain.predicate;
  */
 
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.util.Text;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -329,4 +335,120 @@ public class EquatableValueSetTest
         assertEquals(EquatableValueSet.of(allocator, INT, 0).complement(allocator).subtract(allocator, EquatableValueSet.of(allocator, INT, 0, 1)), EquatableValueSet.of(allocator, INT, 0, 1).complement(allocator));
         assertEquals(EquatableValueSet.of(allocator, INT, 0).complement(allocator).subtract(allocator, EquatableValueSet.of(allocator, INT, 0, 1).complement(allocator)), EquatableValueSet.of(allocator, INT, 1));
     }
+
+    @Test
+    public void testLargeSet()
+            throws Exception
+    {
+        ArrowType bigInt = Types.MinorType.BIGINT.getType();
+        List<Object> values = new ArrayList<>();
+        for (long i = 0; i < 10_000; i++) {
+            values.add(i * 3);
+        }
+        EquatableValueSet equatables = EquatableValueSet.of(allocator, bigInt, false, values);
+        EquatableValueSet complement = equatables.complement(allocator);
+
+        assertTrue(equatables.containsValue(0L));
+        assertTrue(equatables.containsValue(29_997L));
+        assertFalse(equatables.containsValue(1L));
+        assertFalse(equatables.containsValue(30_000L));
+        assertFalse(equatables.containsValue(-3L));
+        assertFalse(equatables.containsValue((Object) null));
+        assertFalse(complement.containsValue(0L));
+        assertTrue(complement.containsValue(1L));
+
+        EquatableValueSet others = EquatableValueSet.of(allocator, bigInt, 3L, 4L, 5L, 30_000L);
+        assertEquals(EquatableValueSet.of(allocator, bigInt, 3L), others.intersect(allocator, equatables));
+        assertEquals(EquatableValueSet.of(allocator, bigInt, 4L, 5L, 30_000L), others.subtract(allocator, equatables));
+        assertEquals(equatables.getValues().getRowCount() + 3, others.union(allocator, equatables).getValues().getRowCount());
+    }
+
+    @Test
+    public void testLookupMemory()
+            throws Exception
+    {
+        try (BlockAllocatorImpl lookupAllocator = new BlockAllocatorImpl()) {
+            EquatableValueSet equatables = EquatableValueSet.of(lookupAllocator, Types.MinorType.VARCHAR.getType(), "a", "b", "c");
+            long usage = lookupAllocator.getUsage();
+            assertTrue(equatables.containsValue("a"));
+            assertTrue(lookupAllocator.getUsage() > usage);
+
+            equatables.close();
+            assertEquals(0, lookupAllocator.getUsage());
+        }
+    }
+
+    @Test
+    public void testVarCharLookup()
+            throws Exception
+    {
+        EquatableValueSet equatables = EquatableValueSet.of(allocator, Types.MinorType.VARCHAR.getType(), "", "abc", "\u00e9t\u00e9", "abc");
+        assertTrue(equatables.containsValue(""));
+        assertTrue(equatables.containsValue("abc"));
+        assertTrue(equatables.containsValue(new Text("abc")));
+        assertTrue(equatables.containsValue("\u00e9t\u00e9"));
+        assertFalse(equatables.containsValue("ab"));
+        assertFalse(equatables.containsValue("abcd"));
+        //An unpaired surrogate has no UTF-8 encoding.
+        assertFalse(equatables.containsValue("\ud800"));
+
+        EquatableValueSet binary = EquatableValueSet.of(allocator, Types.MinorType.VARBINARY.getType(), new byte[] {1, 2}, new byte[] {});
+        assertTrue(binary.containsValue(new byte[] {1, 2}));
+        assertTrue(binary.containsValue(new byte[] {}));
+        assertFalse(binary.containsValue(new byte[] {1}));
+    }
+
+    @Test
+    public void testFloatingPointAndDecimalLookup()
+            throws Exception
+    {
+        EquatableValueSet doubles = EquatableValueSet.of(allocator, Types.MinorType.FLOAT8.getType(), 0.0D, 1.5D, Double.NaN);
+        assertTrue(doubles.containsValue(0.0D));
+        assertTrue(doubles.containsValue(1.5D));
+        assertTrue(doubles.containsValue(Double.NaN));
+        assertFalse(doubles.containsValue(-0.0D));
+
+        EquatableValueSet decimals = EquatableValueSet.of(allocator, new ArrowType.Decimal(10, 2, 128), new BigDecimal("1.10"), new BigDecimal("-2.50"));
+        assertTrue(decimals.containsValue(new BigDecimal("1.1")));
+        assertTrue(decimals.containsValue(new BigDecimal("-2.500")));
+        assertFalse(decimals.containsValue(new BigDecimal("1.105")));
+        assertFalse(decimals.containsValue(new BigDecimal("1E+30")));
+
+        EquatableValueSet dates = EquatableValueSet.of(allocator, Types.MinorType.DATEDAY.getType(), 18_000, 0);
+        assertTrue(dates.containsValue(0));
+        assertTrue(dates.containsValue(18_000));
+        assertFalse(dates.containsValue(18_001));
+    }
+
+    @Test
+    public void testLazyValueBlock()
+            throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        EquatableValueSet equatables = new EquatableValueSet(() -> {
+            loads.incrementAndGet();
+            return BlockUtils.newBlock(allocator, "col1", INT, 1, 2, 3);
+        }, true, false);
+        assertEquals(0, loads.get());
+
+        assertTrue(equatables.containsValue(2));
+        assertFalse(equatables.containsValue(4));
+        assertEquals(INT, equatables.getType());
+        assertEquals(EquatableValueSet.of(allocator, INT, 1, 2, 3), equatables);
+        assertEquals(1, loads.get());
+
+        EquatableValueSet unused = new EquatableValueSet(() -> {
+            loads.incrementAndGet();
+            return BlockUtils.newBlock(allocator, "col1", INT, 1);
+        }, true, false);
+        unused.close();
+        assertEquals(1, loads.get());
+        try {
+            unused.getValueBlock();
+            fail("Should not load the values of a closed EquatableValueSet");
+        }
+        catch (AthenaConnectorException ex) {
+            assertEquals(1, loads.get());
+        }
+    }
 }
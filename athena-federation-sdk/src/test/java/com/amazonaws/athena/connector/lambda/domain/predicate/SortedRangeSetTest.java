@@ -24,13 +24,19 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.util.Text;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.apache.arrow.vector.types.Types.MinorType.BIGINT;
+import static org.apache.arrow.vector.types.Types.MinorType.FLOAT8;
+import static org.apache.arrow.vector.types.Types.MinorType.VARCHAR;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -452,6 +458,75 @@ public class SortedRangeSetTest
                 SortedRangeSet.none(BIGINT.getType()));
     }
 
+    @Test
+    public void testContainsValueManyRanges()
+            throws Exception
+    {
+        ArrowType type = BIGINT.getType();
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(Range.lessThan(allocator, type, -100L));
+        for (long i = 0; i < 200; i++) {
+            ranges.add(Range.range(allocator, type, i * 10, i % 2 == 1, i * 10 + 5, i % 2 == 0));
+        }
+        ranges.add(Range.greaterThanOrEqual(allocator, type, 5_000L));
+        SortedRangeSet rangeSet = SortedRangeSet.copyOf(type, ranges, false);
+
+        for (long value = -110; value < 5_010; value++) {
+            assertContainsValue(rangeSet, type, value);
+        }
+        assertContainsValue(rangeSet, type, Long.MIN_VALUE);
+        assertContainsValue(rangeSet, type, Long.MAX_VALUE);
+        assertTrue(rangeSet.containsValue(Marker.exactly(allocator, type, 10L)));
+        assertFalse(rangeSet.containsValue(Marker.exactly(allocator, type, 15L)));
+        assertFalse(rangeSet.containsValue((Object) null));
+    }
+
+    @Test
+    public void testContainsValueFloatingPoint()
+            throws Exception
+    {
+        ArrowType type = FLOAT8.getType();
+        SortedRangeSet rangeSet = SortedRangeSet.copyOf(type, ImmutableList.of(
+                Range.lessThan(allocator, type, -1.5D),
+                Range.equal(allocator, type, 0.0D),
+                Range.range(allocator, type, 1.0D, false, 2.0D, true),
+                Range.greaterThan(allocator, type, 1e300D)), false);
+
+        for (double value : new double[] {Double.NEGATIVE_INFINITY, -2.0D, -1.5D, -1.0D, -0.0D, 0.0D, Double.MIN_VALUE, 1.0D,
+                1.5D, 2.0D, 2.5D, 1e300D, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN}) {
+            assertContainsValue(rangeSet, type, value);
+        }
+        assertTrue(rangeSet.containsValue(0.0D));
+        assertFalse(rangeSet.containsValue(-0.0D));
+        assertTrue(rangeSet.containsValue(Double.NaN));
+    }
+
+    @Test
+    public void testContainsValueVarChar()
+            throws Exception
+    {
+        ArrowType type = VARCHAR.getType();
+        SortedRangeSet rangeSet = SortedRangeSet.copyOf(type, ImmutableList.of(
+                Range.lessThanOrEqual(allocator, type, "apple"),
+                Range.range(allocator, type, "banana", false, "cherry", false),
+                Range.equal(allocator, type, "kiwi")), false);
+
+        for (String value : new String[] {"", "a", "apple", "apples", "banana", "bananas", "c", "cherry", "kiwi", "kiwis", "z"}) {
+            assertContainsValue(rangeSet, type, value);
+        }
+        assertTrue(rangeSet.containsValue(new Text("kiwi")));
+        assertFalse(rangeSet.containsValue(new Text("cherry")));
+    }
+
+    /**
+     * Checks containsValue against looking the value up in the ranges through their Markers.
+     */
+    private void assertContainsValue(SortedRangeSet rangeSet, ArrowType type, Object value)
+    {
+        boolean expected = rangeSet.includesMarker(Marker.exactly(allocator, type, value));
+        assertEquals(String.valueOf(value), expected, rangeSet.containsValue(value));
+    }
+
     private void assertUnion(SortedRangeSet first, SortedRangeSet second, SortedRangeSet expected)
     {
         assertEquals(first.union(allocator, second), expected);
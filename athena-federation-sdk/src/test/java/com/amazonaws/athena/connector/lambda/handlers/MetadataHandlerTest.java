@@ -40,6 +40,7 @@ import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
+import com.amazonaws.athena.connector.lambda.metadata.MetadataCache;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connector.lambda.request.FederationRequest;
 import com.amazonaws.athena.connector.lambda.request.FederationResponse;
@@ -67,6 +68,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -255,6 +257,59 @@ public class MetadataHandlerTest
         assertNotNull(response);
     }
 
+    @Test
+    public void testGetTableRequestWithMetadataCache() throws Exception
+    {
+        Map<String, String> configOptions = new HashMap<>();
+        configOptions.put(MetadataCache.METADATA_CACHE_TTL_SECONDS, "300");
+        AtomicInteger getTableCalls = new AtomicInteger();
+        MetadataHandler cachingHandler = new MetadataHandler(new LocalKeyFactory(), mock(SecretsManagerClient.class), mock(AthenaClient.class),
+                "test", "bucket", "prefix", configOptions) {
+            @Override
+            public ListSchemasResponse doListSchemaNames(BlockAllocator allocator, ListSchemasRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ListTablesResponse doListTables(BlockAllocator allocator, ListTablesRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public GetTableResponse doGetTable(BlockAllocator allocator, GetTableRequest request)
+            {
+                getTableCalls.incrementAndGet();
+                return new GetTableResponse(request.getCatalogName(), request.getTableName(), SchemaBuilder.newBuilder().addIntField("id").build());
+            }
+
+            @Override
+            public void getPartitions(BlockWriter blockWriter, GetTableLayoutRequest request, QueryStatusChecker queryStatusChecker)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public GetSplitsResponse doGetSplits(BlockAllocator allocator, GetSplitsRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        ObjectMapper objectMapper = VersionedObjectMapperFactory.create(blockAllocator);
+        GetTableRequest request = new GetTableRequest(identity, QUERY_ID, CATALOG, new TableName(SCHEMA_NAME, TABLE_NAME), Map.of());
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            cachingHandler.doHandleRequest(blockAllocator, objectMapper, request, outputStream);
+            GetTableResponse response = (GetTableResponse) objectMapper.readValue(outputStream.toByteArray(), FederationResponse.class);
+            assertEquals(new TableName(SCHEMA_NAME, TABLE_NAME), response.getTableName());
+        }
+
+        assertEquals(1, getTableCalls.get());
+        assertEquals(2, cachingHandler.getMetadataCache().getHitCount());
+    }
+
     @Test
     public void testGetCapabilitiesRequest() throws Exception
     {
@@ -0,0 +1,191 @@
+package com.amazonaws.athena.connector.lambda.metadata;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class MetadataCacheTest
+{
+    private static final String CATALOG = "catalog";
+    private static final FederatedIdentity IDENTITY = newIdentity("arn:aws:iam::123456789012:user/a");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private MetadataCache cache;
+
+    @Before
+    public void setUp()
+    {
+        Ticker ticker = new Ticker()
+        {
+            @Override
+            public long read()
+            {
+                return nanos.get();
+            }
+        };
+        cache = new MetadataCache(60, 5, 100, ticker);
+    }
+
+    @Test
+    public void getTable_CachedUntilExpired()
+            throws Exception
+    {
+        GetTableRequest request = newGetTableRequest(IDENTITY, "schema1", "table1");
+        GetTableResponse first = cache.getTable(request, () -> load(request));
+        assertSame(first, cache.getTable(request, () -> load(request)));
+        assertEquals(1, loads.get());
+
+        // other tables and other callers are loaded on their own
+        cache.getTable(newGetTableRequest(IDENTITY, "schema1", "table2"), () -> load(request));
+        cache.getTable(newGetTableRequest(newIdentity("arn:aws:iam::123456789012:user/b"), "schema1", "table1"), () -> load(request));
+        assertEquals(3, loads.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        cache.getTable(request, () -> load(request));
+        assertEquals(4, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(0.2, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void getTable_NotFoundCachedForNegativeTtl()
+            throws Exception
+    {
+        GetTableRequest request = newGetTableRequest(IDENTITY, "schema1", "missing");
+        MetadataCache.Loader<GetTableResponse> loader = () -> {
+            loads.incrementAndGet();
+            throw new AthenaConnectorException("No matching table found", ErrorDetails.builder()
+                    .errorCode(FederationSourceErrorCode.ENTITY_NOT_FOUND_EXCEPTION.toString()).build());
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertNotFound(request, loader);
+        }
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertNotFound(request, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getTable_OtherErrorsNotCached()
+            throws Exception
+    {
+        GetTableRequest request = newGetTableRequest(IDENTITY, "schema1", "table1");
+        try {
+            cache.getTable(request, () -> {
+                loads.incrementAndGet();
+                throw new IllegalStateException("throttled");
+            });
+            fail("Expected the load to fail");
+        }
+        catch (IllegalStateException ex) {
+            // expected
+        }
+        cache.getTable(request, () -> load(request));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidate_DropsTableAndListingsOfItsSchema()
+            throws Exception
+    {
+        GetTableRequest table1 = newGetTableRequest(IDENTITY, "schema1", "table1");
+        GetTableRequest table2 = newGetTableRequest(IDENTITY, "schema1", "table2");
+        ListTablesRequest listing = new ListTablesRequest(IDENTITY, "queryId", CATALOG, "schema1", null, 50);
+        MetadataCache.Loader<ListTablesResponse> listLoader = () -> {
+            loads.incrementAndGet();
+            return new ListTablesResponse(CATALOG, List.of(new TableName("schema1", "table1")), null);
+        };
+        cache.getTable(table1, () -> load(table1));
+        cache.getTable(table2, () -> load(table2));
+        cache.listTables(listing, listLoader);
+        assertEquals(3, loads.get());
+
+        cache.invalidate("schema1", "table1");
+        cache.getTable(table1, () -> load(table1));
+        cache.getTable(table2, () -> load(table2));
+        cache.listTables(listing, listLoader);
+        assertEquals(5, loads.get());
+
+        cache.invalidateAll();
+        cache.getTable(table2, () -> load(table2));
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    public void fromConfig_DisabledByDefault()
+    {
+        assertNull(MetadataCache.fromConfig(Collections.emptyMap()));
+        assertNull(MetadataCache.fromConfig(Map.of(MetadataCache.METADATA_CACHE_TTL_SECONDS, "0")));
+    }
+
+    private void assertNotFound(GetTableRequest request, MetadataCache.Loader<GetTableResponse> loader)
+            throws Exception
+    {
+        try {
+            cache.getTable(request, loader);
+            fail("Expected the table not to be found");
+        }
+        catch (AthenaConnectorException ex) {
+            // expected
+        }
+    }
+
+    private GetTableResponse load(GetTableRequest request)
+    {
+        loads.incrementAndGet();
+        return new GetTableResponse(request.getCatalogName(), request.getTableName(), SchemaBuilder.newBuilder().addIntField("id").build());
+    }
+
+    private static GetTableRequest newGetTableRequest(FederatedIdentity identity, String schemaName, String tableName)
+    {
+        return new GetTableRequest(identity, "queryId", CATALOG, new TableName(schemaName, tableName), Collections.emptyMap());
+    }
+
+    private static FederatedIdentity newIdentity(String arn)
+    {
+        return new FederatedIdentity(arn, "123456789012", Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap());
+    }
+}
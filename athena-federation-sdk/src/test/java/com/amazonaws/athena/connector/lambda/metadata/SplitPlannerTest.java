@@ -0,0 +1,171 @@
+package com.amazonaws.athena.connector.lambda.metadata;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SplitPlannerTest
+{
+    private static final List<Integer> UNITS = IntStream.range(0, 25).boxed().collect(Collectors.toList());
+
+    private BlockAllocatorImpl allocator;
+    private Block partitions;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        partitions = allocator.createBlock(SchemaBuilder.newBuilder().addIntField("partition").build());
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void plan_PagesThroughAllUnits()
+            throws Exception
+    {
+        for (int parallelism : new int[] {1, 4}) {
+            AtomicInteger planned = new AtomicInteger();
+            SplitPlanner<Integer> planner = SplitPlanner.newBuilder(UNITS, (Integer unit) -> {
+                planned.incrementAndGet();
+                return splitsOf(unit, 2);
+            }).withMaxSplitsPerPage(10).withFirstPageMaxSplits(4).withParallelism(parallelism).build();
+
+            GetSplitsResponse page = planner.plan(newRequest(null));
+            assertEquals(4, page.getSplits().size());
+            assertEquals("2", page.getContinuationToken());
+            // a page plans at most the units in flight beyond the ones it returns
+            assertTrue(planned.get() <= 2 + parallelism);
+
+            Set<String> units = new HashSet<>(unitsOf(page));
+            int pages = 1;
+            while (page.getContinuationToken() != null) {
+                page = planner.plan(newRequest(page.getContinuationToken()));
+                units.addAll(unitsOf(page));
+                pages++;
+                assertTrue(page.getSplits().size() <= 10);
+            }
+            assertEquals(UNITS.size(), units.size());
+            assertEquals(6, pages);
+        }
+    }
+
+    @Test
+    public void plan_RunsUnitsConcurrently()
+            throws Exception
+    {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        SplitPlanner<Integer> planner = SplitPlanner.newBuilder(UNITS, (Integer unit) -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return splitsOf(unit, 1);
+        }).withParallelism(8).build();
+
+        GetSplitsResponse page = planner.plan(newRequest(null));
+
+        assertEquals(UNITS.size(), page.getSplits().size());
+        assertNull(page.getContinuationToken());
+        assertTrue(maxActive.get() > 1);
+        assertTrue(maxActive.get() <= 8);
+    }
+
+    @Test
+    public void plan_PropagatesUnitFailure()
+            throws Exception
+    {
+        SplitPlanner<Integer> planner = SplitPlanner.newBuilder(UNITS, (Integer unit) -> {
+            if (unit == 7) {
+                throw new IllegalStateException("listing failed");
+            }
+            return splitsOf(unit, 1);
+        }).withParallelism(4).build();
+
+        try {
+            planner.plan(newRequest(null));
+            fail("Expected the failure of unit 7");
+        }
+        catch (IllegalStateException ex) {
+            assertEquals("listing failed", ex.getMessage());
+        }
+    }
+
+    @Test(expected = AthenaConnectorException.class)
+    public void plan_InvalidContinuationToken()
+            throws Exception
+    {
+        SplitPlanner.newBuilder(UNITS, (Integer unit) -> splitsOf(unit, 1)).build().plan(newRequest("26"));
+    }
+
+    private GetSplitsRequest newRequest(String continuationToken)
+    {
+        Constraints constraints = new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+        return new GetSplitsRequest(new FederatedIdentity("arn", "account", Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap()),
+                "queryId", "catalog", new TableName("schema", "table"), partitions, Collections.singletonList("partition"), constraints, continuationToken);
+    }
+
+    private static List<Split> splitsOf(int unit, int count)
+    {
+        List<Split> splits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            S3SpillLocation spillLocation = S3SpillLocation.newBuilder().withBucket("bucket").withPrefix("prefix")
+                    .withQueryId("queryId").withSplitId(unit + "-" + i).withIsDirectory(true).build();
+            splits.add(Split.newBuilder(spillLocation, null).add("unit", String.valueOf(unit)).add("piece", String.valueOf(i)).build());
+        }
+        return splits;
+    }
+
+    private static List<String> unitsOf(GetSplitsResponse page)
+    {
+        return page.getSplits().stream().map(split -> split.getProperty("unit")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,105 @@
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class SchemaCacheTest
+{
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Before
+    public void setup()
+    {
+        SchemaCache.clear();
+    }
+
+    @Test
+    public void testDecodeReturnsCachedSchema()
+            throws IOException
+    {
+        Schema expected = wideSchema("col", 1_000);
+        String text = Base64.getEncoder().encodeToString(SchemaCache.encode(expected));
+
+        Schema first = decode(text);
+        Schema second = decode(text);
+        assertEquals(expected, first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testDecodeDistinguishesSchemas()
+            throws IOException
+    {
+        Schema left = wideSchema("left", 10);
+        Schema right = wideSchema("right", 10);
+
+        assertEquals(left, decode(Base64.getEncoder().encodeToString(SchemaCache.encode(left))));
+        assertEquals(right, decode(Base64.getEncoder().encodeToString(SchemaCache.encode(right))));
+        assertNotEquals(decode(Base64.getEncoder().encodeToString(SchemaCache.encode(left))),
+                decode(Base64.getEncoder().encodeToString(SchemaCache.encode(right))));
+    }
+
+    @Test
+    public void testEncodeReturnsCachedBytes()
+            throws IOException
+    {
+        Schema schema = wideSchema("col", 100);
+        byte[] first = SchemaCache.encode(schema);
+        assertSame(first, SchemaCache.encode(schema));
+
+        //An equal Schema that is not the same instance is encoded on its own, to the same bytes.
+        byte[] equal = SchemaCache.encode(wideSchema("col", 100));
+        assertArrayEquals(first, equal);
+    }
+
+    private Schema decode(String text)
+            throws IOException
+    {
+        try (JsonParser jparser = jsonFactory.createParser("\"" + text + "\"")) {
+            jparser.nextToken();
+            return SchemaCache.decode(jparser);
+        }
+    }
+
+    private static Schema wideSchema(String prefix, int columns)
+    {
+        SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
+        for (int i = 0; i < columns; i++) {
+            schemaBuilder.addField(prefix + i, (i % 2 == 0) ? Types.MinorType.BIGINT.getType() : Types.MinorType.VARCHAR.getType());
+        }
+        return schemaBuilder.addMetadata("prefix", prefix).build();
+    }
+}
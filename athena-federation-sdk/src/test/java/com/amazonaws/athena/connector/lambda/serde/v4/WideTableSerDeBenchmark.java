@@ -0,0 +1,174 @@
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.request.FederationRequest;
+import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.serde.v6.ObjectMapperFactoryV6;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+
+/**
+ * Measures the ms it takes to deserialize a ReadRecordsRequest of a growing number of columns, with an IN list on every
+ * tenth and a few ranges on every twentieth column, when the Schemas were not decoded before, when they were, and when
+ * the connector also loads the values of every IN list. Not part of the test suite, run the main method with the test
+ * classpath:
+ * <p>
+ * mvn -pl athena-federation-sdk test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.amazonaws.athena.connector.lambda.serde.v4.WideTableSerDeBenchmark
+ */
+public class WideTableSerDeBenchmark
+{
+    private static final int[] COLUMNS = {100, 1_000, 5_000};
+    private static final int IN_LIST_VALUES = 1_000;
+    private static final int RANGES = 10;
+    private static final int WARMUP_RUNS = 20;
+    private static final int RUNS = 50;
+
+    private WideTableSerDeBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        for (int columns : COLUMNS) {
+            run(columns);
+        }
+    }
+
+    private static void run(int columns)
+            throws Exception
+    {
+        byte[] payload;
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl();
+                ReadRecordsRequest request = newRequest(allocator, columns)) {
+            payload = ObjectMapperFactoryV6.create(allocator).writeValueAsBytes(request);
+        }
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            SchemaCache.clear();
+            deserialize(payload, true);
+            deserialize(payload, false);
+        }
+
+        long uncached = 0;
+        long cached = 0;
+        long cachedAndLoaded = 0;
+        for (int i = 0; i < RUNS; i++) {
+            SchemaCache.clear();
+            uncached += deserialize(payload, true);
+            cachedAndLoaded += deserialize(payload, true);
+            cached += deserialize(payload, false);
+        }
+        System.out.printf("%,6d columns, %,10d bytes: uncached schemas %,8.3f ms, cached schemas %,8.3f ms, "
+                        + "cached schemas and loaded values %,8.3f ms%n",
+                columns, payload.length, uncached / 1_000_000.0 / RUNS, cached / 1_000_000.0 / RUNS,
+                cachedAndLoaded / 1_000_000.0 / RUNS);
+    }
+
+    /**
+     * Deserializes the request with an allocator of its own, as a handler would.
+     *
+     * @return The ns it took to deserialize the request and, if asked to, load the values of its IN lists.
+     */
+    private static long deserialize(byte[] payload, boolean loadValues)
+            throws Exception
+    {
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            ObjectMapper mapper = ObjectMapperFactoryV6.create(allocator);
+            long start = System.nanoTime();
+            try (ReadRecordsRequest request = (ReadRecordsRequest) mapper.readValue(payload, FederationRequest.class)) {
+                if (loadValues) {
+                    for (ValueSet valueSet : request.getConstraints().getSummary().values()) {
+                        if (valueSet instanceof EquatableValueSet) {
+                            ((EquatableValueSet) valueSet).getValueBlock();
+                        }
+                    }
+                }
+                return System.nanoTime() - start;
+            }
+        }
+    }
+
+    private static ReadRecordsRequest newRequest(BlockAllocatorImpl allocator, int columns)
+    {
+        ArrowType bigInt = Types.MinorType.BIGINT.getType();
+        SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
+        Map<String, ValueSet> summary = new HashMap<>();
+        for (int i = 0; i < columns; i++) {
+            String column = "column_with_a_long_name_" + i;
+            schemaBuilder.addField(column, (i % 2 == 0) ? bigInt : Types.MinorType.VARCHAR.getType());
+            if (i % 20 == 0) {
+                List<Range> ranges = new ArrayList<>();
+                for (long j = 0; j < RANGES; j++) {
+                    ranges.add(Range.range(allocator, bigInt, j * 100, true, j * 100 + 50, false));
+                }
+                summary.put(column, SortedRangeSet.copyOf(bigInt, ranges, false));
+            }
+            else if (i % 10 == 0) {
+                EquatableValueSet.Builder values = EquatableValueSet.newBuilder(allocator, bigInt, true, false);
+                for (long j = 0; j < IN_LIST_VALUES; j++) {
+                    values.add(j * 7);
+                }
+                summary.put(column, values.build());
+            }
+        }
+        Schema schema = schemaBuilder.build();
+
+        Split split = Split.newBuilder(S3SpillLocation.newBuilder()
+                        .withBucket("bucket")
+                        .withPrefix("prefix")
+                        .withQueryId("query-id")
+                        .withSplitId("split-id")
+                        .withIsDirectory(true)
+                        .build(),
+                new EncryptionKey("key".getBytes(), "nonce".getBytes())).build();
+        Constraints constraints = new Constraints(summary, Collections.emptyList(), Collections.emptyList(),
+                DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+        return new ReadRecordsRequest(new FederatedIdentity("arn", "account", Collections.emptyMap(),
+                Collections.emptyList(), Collections.emptyMap()),
+                "catalog", "query-id", new TableName("schema", "table"), schema, split, constraints,
+                100_000_000L, 100_000_000L);
+    }
+}
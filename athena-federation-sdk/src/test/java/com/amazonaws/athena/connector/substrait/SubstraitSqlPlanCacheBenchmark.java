@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.substrait;
+
+import com.amazonaws.athena.connector.util.EncodedSubstraitPlanStringGenerator;
+import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlSelect;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Compares the per split cost of compiling a Substrait plan the way JDBC connectors did before the plan cache (decode
+ * the plan for the SQL, again for the table schema and again for the column renames) with a lookup in
+ * SubstraitSqlPlanCache. Not part of the test suite, run the main method with the test classpath:
+ * <p>
+ * mvn -pl athena-federation-sdk test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.amazonaws.athena.connector.substrait.SubstraitSqlPlanCacheBenchmark
+ */
+public class SubstraitSqlPlanCacheBenchmark
+{
+    private static final String[] QUERIES = {
+            "SELECT varchar_col, int_col FROM test_table WHERE int_col > 100 AND varchar_col = 'abc'",
+            "SELECT * FROM test_table WHERE varchar_col LIKE 'A%' AND int_col BETWEEN 10 AND 1000 ORDER BY varchar_col LIMIT 25",
+            "SELECT varchar_col, COUNT(*), SUM(int_col) FROM test_table WHERE varchar_col NOT IN ('a', 'b', 'c') "
+                    + "GROUP BY varchar_col HAVING COUNT(*) > 5 ORDER BY COUNT(*) DESC LIMIT 50"
+    };
+    private static final int WARMUP_SPLITS = 20;
+    private static final int SPLITS = 200;
+
+    private SubstraitSqlPlanCacheBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        SqlDialect dialect = EncodedSubstraitPlanStringGenerator.DIALECT;
+        for (String query : QUERIES) {
+            String plan = Base64.getEncoder().encodeToString(
+                    EncodedSubstraitPlanStringGenerator.convertSqlToSubstraitPlan(query).toByteArray());
+
+            run(WARMUP_SPLITS, () -> uncached(plan, dialect));
+            long uncachedNanos = run(SPLITS, () -> uncached(plan, dialect));
+
+            SubstraitSqlPlanCache.invalidateAll();
+            run(WARMUP_SPLITS, () -> cached(plan, dialect));
+            long cachedNanos = run(SPLITS, () -> cached(plan, dialect));
+
+            System.out.printf("plan of %d bytes: uncached %.1f us/split, cached %.3f us/split%n",
+                    plan.length(), uncachedNanos / 1_000.0 / SPLITS, cachedNanos / 1_000.0 / SPLITS);
+        }
+    }
+
+    private static long run(int splits, Runnable split)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < splits; i++) {
+            split.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void uncached(String plan, SqlDialect dialect)
+    {
+        SqlNode sqlNode = SubstraitSqlUtils.getSqlNodeFromSubstraitPlan(plan, dialect);
+        List<SubstraitTypeAndValue> accumulator = new ArrayList<>();
+        SqlNode parameterized = new SubstraitAccumulatorVisitor(accumulator,
+                SubstraitSqlUtils.getTableSchemaFromSubstraitPlan(plan, dialect)).visit((SqlSelect) sqlNode);
+        parameterized.toSqlString(dialect).getSql();
+        SubstraitSqlUtils.getColumnRemapping(plan, dialect);
+    }
+
+    private static void cached(String plan, SqlDialect dialect)
+    {
+        SubstraitSqlPlanCache.get(plan, "benchmark", dialect).getSql();
+        SubstraitSqlPlanCache.getColumnRemapping(plan, "benchmark", dialect);
+    }
+}
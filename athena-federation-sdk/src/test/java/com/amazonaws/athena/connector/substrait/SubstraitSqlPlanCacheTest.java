@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.substrait;
+
+import com.amazonaws.athena.connector.util.EncodedSubstraitPlanStringGenerator;
+import io.substrait.proto.Plan;
+import org.apache.calcite.sql.dialect.PostgresqlSqlDialect;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Map;
+
+public class SubstraitSqlPlanCacheTest {
+    private static final String DIALECT_KEY = "ansi";
+
+    @BeforeEach
+    void setUp() {
+        SubstraitSqlPlanCache.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SubstraitSqlPlanCache.invalidateAll();
+    }
+
+    @Test
+    void testGet_SamePlanAndDialect_CompilesOnce() throws SqlParseException {
+        String encodedPlan = encode("SELECT varchar_col, int_col FROM test_table WHERE int_col > 100");
+
+        SubstraitCompiledSql first = SubstraitSqlPlanCache.get(encodedPlan, DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+        SubstraitCompiledSql second = SubstraitSqlPlanCache.get(encodedPlan, DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, SubstraitSqlPlanCache.size());
+        Assertions.assertEquals(1, first.getParameters().size());
+        Assertions.assertFalse(first.getSql().contains("100"));
+    }
+
+    @Test
+    void testGet_DifferentDialect_CompilesSeparately() throws SqlParseException {
+        String encodedPlan = encode("SELECT varchar_col FROM test_table WHERE varchar_col = 'abc'");
+
+        SubstraitCompiledSql ansi = SubstraitSqlPlanCache.get(encodedPlan, DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+        SubstraitCompiledSql postgres = SubstraitSqlPlanCache.get(encodedPlan, "postgres",
+                PostgresqlSqlDialect.DEFAULT);
+
+        Assertions.assertNotSame(ansi, postgres);
+        Assertions.assertTrue(ansi.getSql().contains("`varchar_col`"));
+        Assertions.assertTrue(postgres.getSql().contains("\"varchar_col\""));
+        // both dialects are entries of the same plan
+        Assertions.assertEquals(1, SubstraitSqlPlanCache.size());
+    }
+
+    @Test
+    void testGet_DifferentPlans_CachedSeparately() throws SqlParseException {
+        SubstraitSqlPlanCache.get(encode("SELECT * FROM test_table WHERE int_col > 1"), DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+        SubstraitSqlPlanCache.get(encode("SELECT * FROM test_table WHERE int_col > 2"), DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+
+        Assertions.assertEquals(2, SubstraitSqlPlanCache.size());
+    }
+
+    @Test
+    void testGetColumnRemapping_ReusesCompiledPlan() throws SqlParseException {
+        String encodedPlan = encode("SELECT varchar_col, COUNT(*) FROM test_table GROUP BY varchar_col");
+        SubstraitCompiledSql compiled = SubstraitSqlPlanCache.get(encodedPlan, DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+
+        // a different dialect key still reuses the renames compiled for the ansi dialect
+        Map<String, String> remapping = SubstraitSqlPlanCache.getColumnRemapping(encodedPlan, "other",
+                PostgresqlSqlDialect.DEFAULT);
+
+        Assertions.assertSame(compiled.getColumnRemapping(), remapping);
+        Assertions.assertEquals(SubstraitSqlUtils.getColumnRemapping(encodedPlan,
+                EncodedSubstraitPlanStringGenerator.DIALECT), remapping);
+    }
+
+    @Test
+    void testGetColumnRemapping_NotCached_CompilesPlan() throws SqlParseException {
+        String encodedPlan = encode("SELECT varchar_col, int_col FROM test_table");
+
+        Map<String, String> remapping = SubstraitSqlPlanCache.getColumnRemapping(encodedPlan, DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+
+        Assertions.assertEquals(SubstraitSqlUtils.getColumnRemapping(encodedPlan,
+                EncodedSubstraitPlanStringGenerator.DIALECT), remapping);
+        Assertions.assertSame(remapping, SubstraitSqlPlanCache.get(encodedPlan, DIALECT_KEY,
+                EncodedSubstraitPlanStringGenerator.DIALECT).getColumnRemapping());
+    }
+
+    @Test
+    void testGet_InvalidPlan_NotCached() {
+        Assertions.assertThrows(RuntimeException.class, () -> SubstraitSqlPlanCache.get("invalid_base64_plan!",
+                DIALECT_KEY, EncodedSubstraitPlanStringGenerator.DIALECT));
+        Assertions.assertThrows(RuntimeException.class, () -> SubstraitSqlPlanCache.get("invalid_base64_plan!",
+                DIALECT_KEY, EncodedSubstraitPlanStringGenerator.DIALECT));
+    }
+
+    private static String encode(String query) throws SqlParseException {
+        Plan plan = EncodedSubstraitPlanStringGenerator.convertSqlToSubstraitPlan(query);
+        return Base64.getEncoder().encodeToString(plan.toByteArray());
+    }
+}
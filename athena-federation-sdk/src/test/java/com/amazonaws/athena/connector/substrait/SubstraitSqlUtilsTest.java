@@ -175,6 +175,24 @@ public class SubstraitSqlUtilsTest {
                 .contains("Failed to extract table schema from Substrait plan"));
     }
 
+    @Test
+    void testCompileSubstraitPlan_MatchesIndividualConversions() throws SqlParseException {
+        String query = "SELECT varchar_col, COUNT(*) FROM test_table WHERE int_col > 100 GROUP BY varchar_col";
+        Plan plan = EncodedSubstraitPlanStringGenerator.convertSqlToSubstraitPlan(query);
+        String encodedPlan = Base64.getEncoder().encodeToString(plan.toByteArray());
+
+        SubstraitCompiledSql compiled = SubstraitSqlUtils.compileSubstraitPlan(encodedPlan,
+                EncodedSubstraitPlanStringGenerator.DIALECT);
+
+        Assertions.assertEquals(SubstraitSqlUtils.getTableSchemaFromSubstraitPlan(encodedPlan,
+                EncodedSubstraitPlanStringGenerator.DIALECT), compiled.getTableSchema());
+        Assertions.assertEquals(SubstraitSqlUtils.getColumnRemapping(encodedPlan,
+                EncodedSubstraitPlanStringGenerator.DIALECT), compiled.getColumnRemapping());
+        Assertions.assertEquals(1, compiled.getParameters().size());
+        Assertions.assertTrue(compiled.getSql().contains("?"));
+        Assertions.assertFalse(compiled.getSql().contains("100"));
+    }
+
     @Test
     void testSqlConversion_IsNotNull() throws SqlParseException {
         String query = "SELECT * FROM test_table WHERE varchar_col IS NOT NULL";
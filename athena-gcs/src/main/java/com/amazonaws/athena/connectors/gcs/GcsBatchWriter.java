@@ -0,0 +1,313 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.FieldResolver;
+import com.amazonaws.athena.connector.lambda.data.writers.ArrowBatchWriter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.TransferPair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the record batches read from the files of a split into the Blocks of a BlockWriter.
+ * <p>
+ * Batches are lined up with the request's schema a column at a time: columns that already have the type of the
+ * request's field are moved as is, timestamp and time columns are converted to the millisecond types the metadata
+ * handler maps them to, and every partition column is materialized once per batch as a vector holding the split's
+ * partition value. The resulting batch is filtered, sliced to the block size and moved into the Block by
+ * ArrowBatchWriter. Batches with columns that can't be converted that way, e.g. complex or fixed size binary columns,
+ * are written row by row.
+ */
+class GcsBatchWriter
+{
+    private final BlockWriter blockWriter;
+    private final ArrowBatchWriter batchWriter;
+    private final BufferAllocator allocator;
+    private final List<Field> partitionColumns;
+    private final Map<String, Object> partitionValues = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    // Fields of the request's schema, by case-insensitive name since files may not be lower cased.
+    private final Map<String, Field> requestFields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * @param blockWriter      The BlockWriter (typically a BlockSpiller) to write batches into.
+     * @param maxBlockBytes    The size, in bytes, at which the BlockWriter will close the current Block.
+     * @param allocator        The allocator the partition and converted vectors are allocated from.
+     * @param schema           The schema of the request.
+     * @param partitionColumns The fields of the schema whose value comes from the split rather than from the files.
+     * @param partitionValues  Partition column name to the partition value of the split.
+     */
+    GcsBatchWriter(BlockWriter blockWriter, long maxBlockBytes, BufferAllocator allocator, Schema schema,
+                   List<Field> partitionColumns, Map<String, String> partitionValues)
+    {
+        this.blockWriter = blockWriter;
+        this.batchWriter = new ArrowBatchWriter(blockWriter, maxBlockBytes);
+        this.allocator = allocator;
+        this.partitionColumns = partitionColumns;
+        for (Field field : partitionColumns) {
+            this.partitionValues.put(field.getName(), partitionValues.get(field.getName().toLowerCase()));
+        }
+        for (Field field : schema.getFields()) {
+            requestFields.put(field.getName(), field);
+        }
+    }
+
+    /**
+     * Writes the rows of the batch that pass the BlockWriter's constraints.
+     *
+     * @param batch The batch to write, it is not modified or closed by this method.
+     */
+    void write(VectorSchemaRoot batch)
+    {
+        // vectors allocated for this batch only, the vectors of batch belong to the caller
+        List<FieldVector> allocated = new ArrayList<>();
+        try {
+            VectorSchemaRoot blockBatch = toBlockTypes(batch, allocated);
+            if (blockBatch == null) {
+                writeRows(batch);
+            }
+            else {
+                batchWriter.write(blockBatch);
+            }
+        }
+        finally {
+            for (FieldVector next : allocated) {
+                next.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch one row, and one cell, at a time.
+     *
+     * @param batch The batch to write, it is not modified or closed by this method.
+     */
+    void writeRows(VectorSchemaRoot batch)
+    {
+        List<FieldVector> gcsFieldVectors = batch.getFieldVectors();
+        for (int rowIndex = 0; rowIndex < batch.getRowCount(); rowIndex++) {
+            // we are passing record to spiller to be written.
+            writeRow(gcsFieldVectors, rowIndex);
+        }
+    }
+
+    /**
+     * We are writing data to spiller. This function received the whole batch
+     * along with row index. We will access into batch using the row index and
+     * get the record to write into spiller.
+     *
+     * @param gcsFieldVectors - the batch
+     * @param rowIndex        - row index
+     */
+    private void writeRow(List<FieldVector> gcsFieldVectors, int rowIndex)
+    {
+        blockWriter.writeRows((Block block, int rowNum) -> {
+            boolean isMatched = true;
+            // offer value for partition column
+            for (Field field : partitionColumns) {
+                isMatched &= block.offerValue(field.getName().toLowerCase(), rowNum, partitionValues.get(field.getName()));
+            }
+
+            for (FieldVector vector : gcsFieldVectors) {
+                Object value = vector.getObject(rowIndex);
+                // Writing data in spiller for each field.
+                Field nextField = vector.getField();
+                Types.MinorType fieldType = Types.getMinorTypeForArrowType(vector.getField().getType());
+                try {
+                    switch (fieldType) {
+                        case LIST:
+                        case STRUCT:
+                        case MAP:
+                            isMatched &= block.offerComplexValue(nextField.getName().toLowerCase(), rowNum, FieldResolver.DEFAULT, value);
+                            break;
+                        default:
+                            isMatched &= block.offerValue(nextField.getName().toLowerCase(), rowNum, GcsUtil.coerce(vector, value));
+                            break;
+                    }
+                    if (!isMatched) {
+                        return 0;
+                    }
+                }
+                catch (Exception ex) {
+                    throw new RuntimeException("Error while processing field " + nextField.getName().toLowerCase(), ex);
+                }
+            }
+            return 1;
+        });
+    }
+
+    /**
+     * Lines the vectors of a batch up with the fields of the request's schema.
+     *
+     * @param batch     The batch read from a file.
+     * @param allocated Collects the vectors allocated by the conversions, the caller must close them.
+     * @return A batch with the names and types of the request's schema or null if the batch has to be written row by row.
+     */
+    private VectorSchemaRoot toBlockTypes(VectorSchemaRoot batch, List<FieldVector> allocated)
+    {
+        int rowCount = batch.getRowCount();
+        List<FieldVector> vectors = new ArrayList<>();
+        Map<String, Field> missingPartitions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Field field : partitionColumns) {
+            missingPartitions.put(field.getName(), field);
+        }
+        for (FieldVector vector : batch.getFieldVectors()) {
+            Field target = requestFields.get(vector.getField().getName());
+            if (target == null) {
+                // not requested, e.g. the unprojected columns of a CSV file
+                continue;
+            }
+            if (!target.getChildren().isEmpty()) {
+                return null;
+            }
+            ArrowType sourceType = vector.getField().getType();
+            FieldVector converted;
+            if (sourceType.equals(target.getType())) {
+                converted = target.getName().equals(vector.getField().getName()) ? vector : rename(vector, target, allocated);
+            }
+            else if (isMillisConvertible(sourceType, target.getType())) {
+                converted = toMillis(vector, target);
+                allocated.add(converted);
+            }
+            else {
+                return null;
+            }
+            // a column of the file wins over the partition value, as it does when writing rows
+            missingPartitions.remove(target.getName());
+            vectors.add(converted);
+        }
+        for (Field field : missingPartitions.values()) {
+            FieldVector partition = constant(field, partitionValues.get(field.getName()), rowCount);
+            allocated.add(partition);
+            vectors.add(partition);
+        }
+
+        List<Field> fields = new ArrayList<>(vectors.size());
+        for (FieldVector next : vectors) {
+            fields.add(next.getField());
+        }
+        return new VectorSchemaRoot(fields, vectors, rowCount);
+    }
+
+    private static FieldVector rename(FieldVector vector, Field target, List<FieldVector> allocated)
+    {
+        TransferPair transferPair = vector.getTransferPair(target, vector.getAllocator());
+        transferPair.transfer();
+        FieldVector renamed = (FieldVector) transferPair.getTo();
+        allocated.add(renamed);
+        return renamed;
+    }
+
+    private FieldVector constant(Field field, Object value, int rowCount)
+    {
+        FieldVector vector = field.createVector(allocator);
+        vector.setInitialCapacity(rowCount);
+        vector.allocateNew();
+        if (value != null) {
+            for (int i = 0; i < rowCount; i++) {
+                BlockUtils.setValue(vector, i, value);
+            }
+        }
+        vector.setValueCount(rowCount);
+        return vector;
+    }
+
+    /**
+     * Whether the source column holds the raw values of a timestamp or time that GcsUtil.coerce would convert to the
+     * millisecond target type, see StorageMetadata for how file types are mapped.
+     */
+    private static boolean isMillisConvertible(ArrowType sourceType, ArrowType targetType)
+    {
+        if (sourceType instanceof ArrowType.Timestamp) {
+            String timezone = ((ArrowType.Timestamp) sourceType).getTimezone();
+            if (timezone == null) {
+                return targetType.equals(Types.MinorType.DATEMILLI.getType());
+            }
+            return targetType.equals(new ArrowType.Timestamp(TimeUnit.MILLISECOND, timezone));
+        }
+        if (sourceType instanceof ArrowType.Time) {
+            TimeUnit unit = ((ArrowType.Time) sourceType).getUnit();
+            return (unit == TimeUnit.MICROSECOND || unit == TimeUnit.NANOSECOND)
+                    && targetType.equals(Types.MinorType.DATEMILLI.getType());
+        }
+        return false;
+    }
+
+    private FieldVector toMillis(FieldVector source, Field target)
+    {
+        ArrowType sourceType = source.getField().getType();
+        TimeUnit unit = (sourceType instanceof ArrowType.Timestamp)
+                ? ((ArrowType.Timestamp) sourceType).getUnit()
+                : ((ArrowType.Time) sourceType).getUnit();
+        long divisor;
+        long multiplier = 1;
+        switch (unit) {
+            case SECOND:
+                divisor = 1;
+                multiplier = 1000;
+                break;
+            case MILLISECOND:
+                divisor = 1;
+                break;
+            case MICROSECOND:
+                divisor = 1000;
+                break;
+            default:
+                divisor = 1_000_000;
+                break;
+        }
+
+        int valueCount = source.getValueCount();
+        BaseFixedWidthVector result = (BaseFixedWidthVector) target.createVector(allocator);
+        result.allocateNew(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            if (source.isNull(i)) {
+                result.setNull(i);
+                continue;
+            }
+            // timestamps and 64 bit times are stored as longs in their unit
+            long millis = Math.floorDiv(source.getDataBuffer().getLong((long) i * Long.BYTES), divisor) * multiplier;
+            if (result instanceof DateMilliVector) {
+                ((DateMilliVector) result).set(i, millis);
+            }
+            else {
+                ((TimeStampVector) result).set(i, millis);
+            }
+        }
+        result.setValueCount(valueCount);
+        return result;
+    }
+}
@@ -90,6 +90,18 @@ public class GcsConstants
      */
     public static final String FILE_FORMAT = "gcs_file_format";
 
+    /**
+     * The max number of files of a split the record handler reads at the same time.
+     */
+    public static final String CONCURRENT_FILE_READS = "concurrent_file_reads";
+    static final int DEFAULT_CONCURRENT_FILE_READS = 4;
+
+    /**
+     * The max number of partition folders listed at the same time while planning splits.
+     */
+    public static final String SPLIT_PLANNING_PARALLELISM = "split_planning_parallelism";
+    static final int DEFAULT_SPLIT_PLANNING_PARALLELISM = 8;
+
     /**
      * default private constructor to prevent code-coverage util to consider a constructor for covering
      */
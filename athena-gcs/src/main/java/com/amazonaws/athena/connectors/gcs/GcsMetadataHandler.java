@@ -25,7 +25,6 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
-import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.handlers.GlueMetadataHandler;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
@@ -36,6 +35,7 @@ import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
+import com.amazonaws.athena.connector.lambda.metadata.SplitPlanner;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connectors.gcs.common.PartitionUtil;
 import com.amazonaws.athena.connectors.gcs.storage.StorageMetadata;
@@ -56,16 +56,20 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connectors.gcs.GcsConstants.CLASSIFICATION_GLUE_TABLE_PARAM;
+import static com.amazonaws.athena.connectors.gcs.GcsConstants.DEFAULT_SPLIT_PLANNING_PARALLELISM;
 import static com.amazonaws.athena.connectors.gcs.GcsConstants.FILE_FORMAT;
 import static com.amazonaws.athena.connectors.gcs.GcsConstants.GCS_LOCATION_PREFIX;
 import static com.amazonaws.athena.connectors.gcs.GcsConstants.GCS_SECRET_KEY_ENV_VAR;
+import static com.amazonaws.athena.connectors.gcs.GcsConstants.SPLIT_PLANNING_PARALLELISM;
 import static com.amazonaws.athena.connectors.gcs.GcsConstants.STORAGE_SPLIT_JSON;
 import static java.util.Objects.requireNonNull;
 
@@ -227,57 +231,64 @@ public class GcsMetadataHandler
     public GetSplitsResponse doGetSplits(BlockAllocator allocator, GetSplitsRequest request) throws Exception
     {
         LOGGER.info("MetadataHandler=GcsMetadataHandler|Method=doGetSplits|Message=queryId {}", request.getQueryId());
-        int partitionContd = decodeContinuationToken(request);
 
         Table table = GcsUtil.getGlueTable(request.getTableName(), glueClient);
-        String catalogName = request.getCatalogName();
-        Set<Split> splits = new HashSet<>();
         Block partitions = request.getPartitions();
 
-        for (int curPartition = partitionContd; curPartition < partitions.getRowCount(); curPartition++) {
+        // Partition values are read here, Block readers can't be shared by the threads listing the partition folders.
+        List<StoragePartition> storagePartitions = new ArrayList<>(partitions.getRowCount());
+        for (int curPartition = 0; curPartition < partitions.getRowCount(); curPartition++) {
             //getting the partition folder name with bucket and file type
             URI locationUri = PartitionUtil.getPartitionsFolderLocationUri(table, partitions.getFieldVectors(), curPartition);
-            LOGGER.info("Partition location {} ", locationUri);
+            Map<String, String> partitionValues = new LinkedHashMap<>();
+            for (FieldVector fieldVector : partitions.getFieldVectors()) {
+                fieldVector.getReader().setPosition(curPartition);
+                if (fieldVector.getName().equalsIgnoreCase(FILE_FORMAT) || fieldVector.getName().equalsIgnoreCase(STORAGE_SPLIT_JSON)) {
+                    throw new RuntimeException("column name is same as metadata");
+                }
+                partitionValues.put(fieldVector.getName(), fieldVector.getReader().readObject().toString());
+            }
+            storagePartitions.add(new StoragePartition(locationUri, partitionValues));
+        }
+
+        int parallelism = Integer.parseInt(configOptions.getOrDefault(SPLIT_PLANNING_PARALLELISM, String.valueOf(DEFAULT_SPLIT_PLANNING_PARALLELISM)));
+        GetSplitsResponse response = SplitPlanner.newBuilder(storagePartitions, (StoragePartition partition) -> {
+            LOGGER.info("Partition location {} ", partition.locationUri);
 
             //getting storage file list
-            List<String> fileList = datasource.getStorageSplits(locationUri);
-            SpillLocation spillLocation = makeSpillLocation(request);
+            List<String> fileList = datasource.getStorageSplits(partition.locationUri);
             LOGGER.info("Split list for {}.{} is \n{}", table.databaseName(), table.name(), fileList);
 
             //creating splits based folder
             String storageSplitJson = new ObjectMapper().writeValueAsString(fileList);
-            LOGGER.info("MetadataHandler=GcsMetadataHandler|Method=doGetSplits|Message=StorageSplit JSON\n{}",
-                    storageSplitJson);
-            Split.Builder splitBuilder = Split.newBuilder(spillLocation, makeEncryptionKey())
+            Split.Builder splitBuilder = Split.newBuilder(makeSpillLocation(request), makeEncryptionKey())
                     .add(FILE_FORMAT, table.parameters().get(CLASSIFICATION_GLUE_TABLE_PARAM))
                     .add(STORAGE_SPLIT_JSON, storageSplitJson);
 
             // set partition column name and value in split
-            for (FieldVector fieldVector : partitions.getFieldVectors()) {
-                fieldVector.getReader().setPosition(curPartition);
-                if (fieldVector.getName().equalsIgnoreCase(FILE_FORMAT) || fieldVector.getName().equalsIgnoreCase(STORAGE_SPLIT_JSON)) {
-                    throw new RuntimeException("column name is same as metadata");
-                }
-                splitBuilder.add(fieldVector.getName(), fieldVector.getReader().readObject().toString());
-            }
-            splits.add(splitBuilder.build());
-
-            if (splits.size() >= GcsConstants.MAX_SPLITS_PER_REQUEST) {
-                //We exceeded the number of split we want to return in a single request, return and provide a continuation token.
-                return new GetSplitsResponse(request.getCatalogName(), splits, String.valueOf(curPartition + 1));
-            }
-            LOGGER.info("Splits created {}", splits);
-        }
-        LOGGER.info("doGetSplits: exit - {}", splits.size());
-        return new GetSplitsResponse(catalogName, splits);
+            partition.values.forEach(splitBuilder::add);
+            return Collections.singletonList(splitBuilder.build());
+        })
+                .withMaxSplitsPerPage(GcsConstants.MAX_SPLITS_PER_REQUEST)
+                .withParallelism(parallelism)
+                .build()
+                .plan(request);
+        LOGGER.info("doGetSplits: exit - {}", response.getSplits().size());
+        return response;
     }
 
-    private int decodeContinuationToken(GetSplitsRequest request)
+    /**
+     * A partition of the table, the folder its files are listed from and the values of its partition columns.
+     */
+    private static final class StoragePartition
     {
-        if (request.hasContinuationToken()) {
-            return Integer.parseInt(request.getContinuationToken());
+        private final URI locationUri;
+        private final Map<String, String> values;
+
+        private StoragePartition(URI locationUri, Map<String, String> values)
+        {
+            this.locationUri = locationUri;
+            this.values = values;
         }
-        //No continuation token present
-        return 0;
     }
 }
@@ -21,28 +21,19 @@ package com.amazonaws.athena.connectors.gcs;
 
 import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
-import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
-import com.amazonaws.athena.connector.lambda.data.FieldResolver;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connectors.gcs.filter.DatasetFilterBuilder;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.arrow.dataset.file.FileFormat;
-import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
-import org.apache.arrow.dataset.jni.NativeMemoryPool;
 import org.apache.arrow.dataset.scanner.ScanOptions;
-import org.apache.arrow.dataset.scanner.Scanner;
-import org.apache.arrow.dataset.source.Dataset;
-import org.apache.arrow.dataset.source.DatasetFactory;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.VisibleForTesting;
-import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.ipc.ArrowReader;
-import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
@@ -56,9 +47,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.amazonaws.athena.connectors.gcs.GcsConstants.CONCURRENT_FILE_READS;
+import static com.amazonaws.athena.connectors.gcs.GcsConstants.DEFAULT_CONCURRENT_FILE_READS;
 import static com.amazonaws.athena.connectors.gcs.GcsConstants.FILE_FORMAT;
 import static com.amazonaws.athena.connectors.gcs.GcsThrottlingExceptionFilter.EXCEPTION_FILTER;
-import static com.amazonaws.athena.connectors.gcs.GcsUtil.createUri;
 
 public class GcsRecordHandler
         extends RecordHandler
@@ -67,7 +59,10 @@ public class GcsRecordHandler
 
     private static final String SOURCE_TYPE = "gcs";
     public static final int BATCH_SIZE = 32768;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> FILE_LIST_TYPE = new TypeReference<List<String>>() {};
     private BufferAllocator allocator;
+    private final int concurrentFileReads;
 
     // to handle back-pressure during API invocation to GCS
     private final ThrottlingInvoker invoker;
@@ -92,6 +87,7 @@ public class GcsRecordHandler
     {
         super(amazonS3, secretsManager, amazonAthena, SOURCE_TYPE, configOptions);
         this.invoker = ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions).build();
+        this.concurrentFileReads = Integer.parseInt(configOptions.getOrDefault(CONCURRENT_FILE_READS, String.valueOf(DEFAULT_CONCURRENT_FILE_READS)));
     }
 
     /**
@@ -115,100 +111,56 @@ public class GcsRecordHandler
         Schema schema = recordsRequest.getSchema();
         LOGGER.info("Reading records from the table {} under the schema {}", tableInfo.getTableName(), tableInfo.getSchemaName());
         Split split = recordsRequest.getSplit();
-        List<String> fileList = new ObjectMapper()
-            .readValue(split.getProperty(GcsConstants.STORAGE_SPLIT_JSON).getBytes(StandardCharsets.UTF_8), new TypeReference<List<String>>(){});
+        List<String> fileList = OBJECT_MAPPER.readValue(split.getProperty(GcsConstants.STORAGE_SPLIT_JSON).getBytes(StandardCharsets.UTF_8), FILE_LIST_TYPE);
+        if (fileList.isEmpty()) {
+            return;
+        }
         String classification = split.getProperty(FILE_FORMAT);
         FileFormat format = FileFormat.valueOf(classification.toUpperCase());
         List<Field> partitionColumns = schema.getFields().stream().filter(field -> split.getProperties().containsKey(field.getName().toLowerCase())).collect(Collectors.toList());
-        for (String file : fileList) {
-            String uri = createUri(file);
-            LOGGER.info("Retrieving records from the URL {} for the table {}.{}", uri, tableInfo.getSchemaName(), tableInfo.getTableName());
-            Optional<String[]> selectedColumns =
-                getSchemaFromSource(uri, classification).map(schemaFromSource -> getSelectedColumnNames(schemaFromSource, recordsRequest.getSchema()));
-            ScanOptions options = new ScanOptions(BATCH_SIZE, selectedColumns);
-            try (
-                    // DatasetFactory provides a way to inspect a Dataset potential schema before materializing it.
-                    // Thus, we can peek the schema for data sources and decide on a unified schema.
-                    DatasetFactory datasetFactory = new FileSystemDatasetFactory(
-                            allocator, NativeMemoryPool.getDefault(), format, uri
-                    );
-
-                    // Creates a Dataset with auto-inferred schema
-                    Dataset dataset = datasetFactory.finish();
-
-                    // Create a new Scanner using the provided scan options.
-                    // This scanner also contains the arrow schema for the dataset.
-                    Scanner scanner = dataset.newScan(options);
+        List<String> uris = fileList.stream().map(GcsUtil::createUri).collect(Collectors.toList());
+        LOGGER.info("Retrieving records from {} file(s) for the table {}.{}", uris.size(), tableInfo.getSchemaName(), tableInfo.getTableName());
 
-                    // To read Schema and ArrowRecordBatches we need a reader.
-                    // This reader reads the dataset as a stream of record batches.
-                    ArrowReader reader = scanner.scanBatches()
-            ) {
-                // We are loading records batch by batch until we reached at the end.
-                while (reader.loadNextBatch()) {
-                    try (
-                            // Returns the vector schema root.
-                            // This will be loaded with new values on every call to loadNextBatch on the reader.
-                            VectorSchemaRoot root = reader.getVectorSchemaRoot()
-                    ) {
-                        // We will loop on batch records and consider each records to write in spiller.
-                        for (int rowIndex = 0; rowIndex < root.getRowCount(); rowIndex++) {
-                            // we are passing record to spiller to be written.
-                            execute(spiller, invoker.invoke(root::getFieldVectors), rowIndex, partitionColumns, split);
-                        }
-                    }
+        switch (format) {
+            case PARQUET:
+            case ORC:
+            case CSV:
+                break;
+            default:
+                throw new IllegalArgumentException("Table classification " + format + " is not supported by the connector");
+        }
+        GcsBatchWriter batchWriter = new GcsBatchWriter(spiller, getSpillConfig(recordsRequest).getMaxBlockBytes(), allocator,
+                schema, partitionColumns, split.getProperties());
+        try (GcsSplitReader splitReader = new GcsSplitReader(allocator, format, uris,
+                fileSchema -> getScanOptions(fileSchema, format, recordsRequest), concurrentFileReads)) {
+            // We are loading records batch by batch, from whichever file is ready first, until every file is read.
+            VectorSchemaRoot batch;
+            while ((batch = splitReader.nextBatch()) != null) {
+                try (VectorSchemaRoot root = batch) {
+                    batchWriter.write(root);
+                }
+                if (!queryStatusChecker.isQueryRunning()) {
+                    return;
                 }
             }
         }
     }
 
     /**
-     * We are writing data to spiller. This function received the whole batch
-     * along with row index. We will access into batch using the row index and
-     * get the record to write into spiller.
-     *  @param spiller         - block spiller
-     * @param gcsFieldVectors - the batch
-     * @param rowIndex        - row index
-     * @param partitionColumns   - partition column
-     * @param split           - split
+     * Provides the projection and filter to scan a file with, built from the file's own schema so that the filter
+     * matches the types the file was written with.
      */
-    private void execute(
-            BlockSpiller spiller,
-            List<FieldVector> gcsFieldVectors, int rowIndex, List<Field> partitionColumns, Split split)
+    private ScanOptions getScanOptions(Schema fileSchema, FileFormat format, ReadRecordsRequest recordsRequest)
     {
-        spiller.writeRows((Block block, int rowNum) -> {
-            boolean isMatched = true;
-            // offer value for partition column
-            for (Field field : partitionColumns) {
-                isMatched &= block.offerValue(field.getName().toLowerCase(), rowNum, split.getProperty(field.getName().toLowerCase()));
-            }
-
-            for (FieldVector vector : gcsFieldVectors) {
-                Object value = vector.getObject(rowIndex);
-                // Writing data in spiller for each field.
-                Field nextField = vector.getField();
-                Types.MinorType fieldType = Types.getMinorTypeForArrowType(vector.getField().getType());
-                try {
-                    switch (fieldType) {
-                        case LIST:
-                        case STRUCT:
-                        case MAP:
-                            isMatched &= block.offerComplexValue(nextField.getName().toLowerCase(), rowNum, FieldResolver.DEFAULT, value);
-                            break;
-                        default:
-                            isMatched &= block.offerValue(nextField.getName().toLowerCase(), rowNum, GcsUtil.coerce(vector, value));
-                            break;
-                    }
-                    if (!isMatched) {
-                        return 0;
-                    }
-                }
-                catch (Exception ex) {
-                    throw new RuntimeException("Error while processing field " + nextField.getName().toLowerCase(), ex);
-                }
-            }
-            return 1;
-        });
+        if (format == FileFormat.CSV) {
+            return new ScanOptions(BATCH_SIZE, Optional.empty());
+        }
+        ScanOptions.Builder optionsBuilder = new ScanOptions.Builder(BATCH_SIZE)
+                .columns(Optional.of(getSelectedColumnNames(fileSchema, recordsRequest.getSchema())));
+        // Row groups are pruned by their statistics and rows filtered natively, the spiller still evaluates the constraints.
+        DatasetFilterBuilder.buildSubstraitFilter(fileSchema, recordsRequest.getConstraints())
+                .ifPresent(optionsBuilder::substraitFilter);
+        return optionsBuilder.build();
     }
 
     private String[] getSelectedColumnNames(Schema sourceSchema, Schema requestSchema)
@@ -231,18 +183,4 @@ public class GcsRecordHandler
             .map(field -> field.getName())
             .collect(Collectors.toCollection(() -> new java.util.TreeSet<>(String.CASE_INSENSITIVE_ORDER)));
     }
-
-    private Optional<Schema> getSchemaFromSource(String uri, String tableClassification) throws Exception
-    {
-        FileFormat format = FileFormat.valueOf(tableClassification.toUpperCase());
-        switch (format) {
-            case PARQUET:
-                LOGGER.info("Source is PARQUET");
-                return Optional.of(new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), format, uri).inspect());
-            case CSV:
-                // for CSV, it won't work, so return none
-                return Optional.empty();
-        }
-        throw new IllegalArgumentException("Table classification " + tableClassification + " is not supported by the connector");
-    }
 }
@@ -0,0 +1,222 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
+import org.apache.arrow.dataset.jni.NativeMemoryPool;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.dataset.scanner.Scanner;
+import org.apache.arrow.dataset.source.Dataset;
+import org.apache.arrow.dataset.source.DatasetFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.TransferPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Reads the files of a split concurrently, at most a fixed number of files at a time.
+ * <p>
+ * Every file is read with its own schema, so files written before or after a change of the table's columns are each read
+ * as they are. The projection and filter are only built once per distinct file schema. The record batches of the files
+ * are handed to the caller, in arrival order, through a bounded queue so that a slow consumer applies back
+ * pressure to the scanners and at most a couple of batches per open file are held in memory. Each batch is moved out
+ * of its scanner into a VectorSchemaRoot owned by the caller, who must close it.
+ */
+class GcsSplitReader
+        implements AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(GcsSplitReader.class);
+    //Max number of loaded batches, per concurrently read file, waiting to be consumed.
+    private static final int BATCHES_PER_FILE = 2;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final BufferAllocator allocator;
+    private final FileFormat format;
+    private final Function<Schema, ScanOptions> scanOptions;
+    // Scan options by file schema, the files of a split mostly share one.
+    private final Map<Schema, ScanOptions> scanOptionsBySchema = new ConcurrentHashMap<>();
+    private final int fileCount;
+    private final BlockingQueue<Optional<VectorSchemaRoot>> batches;
+    private final ExecutorService filePool;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private volatile boolean closed = false;
+    private int finishedFiles = 0;
+
+    /**
+     * Starts reading the given files.
+     *
+     * @param allocator     The allocator the batches handed to the caller are allocated from.
+     * @param format        The format of the files.
+     * @param uris          The URIs of the files to read.
+     * @param scanOptions   Provides the projection, filter and batch size to scan a file with given its schema.
+     * @param concurrency   The max number of files read at the same time.
+     */
+    GcsSplitReader(BufferAllocator allocator, FileFormat format, List<String> uris, Function<Schema, ScanOptions> scanOptions,
+                   int concurrency)
+    {
+        this.allocator = allocator;
+        this.format = format;
+        this.scanOptions = scanOptions;
+        this.fileCount = uris.size();
+        int threads = Math.max(1, Math.min(concurrency, fileCount));
+        this.batches = new ArrayBlockingQueue<>(threads * BATCHES_PER_FILE);
+        this.filePool = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("gcs-file-reader-%d")
+                .setDaemon(true)
+                .build());
+        for (String next : uris) {
+            filePool.submit(() -> readFile(next));
+        }
+    }
+
+    /**
+     * Provides the next record batch read from any of the files.
+     *
+     * @return The next batch, to be closed by the caller, or null once every file has been fully read.
+     */
+    VectorSchemaRoot nextBatch()
+            throws InterruptedException
+    {
+        while (finishedFiles < fileCount) {
+            Optional<VectorSchemaRoot> next = batches.take();
+            if (next.isPresent()) {
+                return next.get();
+            }
+            finishedFiles++;
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+        return null;
+    }
+
+    private void readFile(String uri)
+    {
+        long batchCount = 0;
+        if (closed) {
+            return;
+        }
+        try (DatasetFactory datasetFactory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), format, uri)) {
+            Schema schema = datasetFactory.inspect();
+            try (
+                    Dataset dataset = datasetFactory.finish(schema);
+                    Scanner scanner = dataset.newScan(scanOptionsBySchema.computeIfAbsent(schema, scanOptions));
+                    ArrowReader reader = scanner.scanBatches()
+            ) {
+                while (!closed && reader.loadNextBatch()) {
+                    VectorSchemaRoot batch = detach(reader.getVectorSchemaRoot());
+                    if (!offer(Optional.of(batch))) {
+                        batch.close();
+                        break;
+                    }
+                    batchCount++;
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException ex) {
+            failure.compareAndSet(null, ex);
+        }
+        catch (Exception ex) {
+            failure.compareAndSet(null, new RuntimeException("Error while reading " + uri, ex));
+        }
+        finally {
+            LOGGER.debug("readFile: read {} batches from {}", batchCount, uri);
+            try {
+                offer(Optional.empty());
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Moves the buffers of the batch the reader just loaded into a new VectorSchemaRoot so that the reader can load
+     * the next batch while this one is being consumed.
+     */
+    private VectorSchemaRoot detach(VectorSchemaRoot loaded)
+    {
+        List<FieldVector> vectors = new ArrayList<>(loaded.getFieldVectors().size());
+        for (FieldVector next : loaded.getFieldVectors()) {
+            TransferPair transferPair = next.getTransferPair(allocator);
+            transferPair.transfer();
+            vectors.add((FieldVector) transferPair.getTo());
+        }
+        return new VectorSchemaRoot(loaded.getSchema().getFields(), vectors, loaded.getRowCount());
+    }
+
+    private boolean offer(Optional<VectorSchemaRoot> batch)
+            throws InterruptedException
+    {
+        while (!closed) {
+            if (batches.offer(batch, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        filePool.shutdown();
+        try {
+            // scanners only notice closed between batches, wait for them so that no batch is left behind
+            while (!filePool.awaitTermination(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                drain();
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    private void drain()
+    {
+        Optional<VectorSchemaRoot> next;
+        while ((next = batches.poll()) != null) {
+            next.ifPresent(VectorSchemaRoot::close);
+        }
+    }
+}
@@ -0,0 +1,524 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs.filter;
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.QueryPlan;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.substrait.SubstraitLiteralConverter;
+import com.amazonaws.athena.connector.substrait.SubstraitMetadataParser;
+import com.amazonaws.athena.connector.substrait.SubstraitRelUtils;
+import com.amazonaws.athena.connector.substrait.model.SubstraitRelModel;
+import io.substrait.proto.Expression;
+import io.substrait.proto.ExpressionReference;
+import io.substrait.proto.ExtendedExpression;
+import io.substrait.proto.FunctionArgument;
+import io.substrait.proto.NamedStruct;
+import io.substrait.proto.Plan;
+import io.substrait.proto.SimpleExtensionDeclaration;
+import io.substrait.proto.SimpleExtensionURI;
+import io.substrait.proto.Type;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.AND_BOOL;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.EQUAL_ANY_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.GTE_ANY_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.GT_ANY_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.IS_NOT_NULL_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.IS_NULL_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.LTE_ANY_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.LT_ANY_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.NOT_EQUAL_ANY_ANY;
+import static com.amazonaws.athena.connector.substrait.model.SubstraitFunctionNames.OR_BOOL;
+
+/**
+ * This class is used to build the Substrait filter expression handed to the Arrow Dataset scanner, so that row groups
+ * (Parquet) and stripes (ORC) are pruned by their statistics and rows are filtered natively before they reach the
+ * connector.
+ * <p>
+ * The filter is built from the constraints summary and, when present, from the filter of the query plan. Only
+ * predicates on file columns of simple types are translated, everything else is left out of the filter which makes it
+ * a superset of the rows the query needs. Rows returned by the scanner are still checked against the constraints
+ * summary by the BlockSpiller.
+ */
+public class DatasetFilterBuilder
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetFilterBuilder.class);
+
+    // Extension URIs the Arrow Substrait consumer resolves the comparison and boolean functions with.
+    private static final String COMPARISON_FUNCTIONS_URI = "https://github.com/substrait-io/substrait/blob/main/extensions/functions_comparison.yaml";
+    private static final String BOOLEAN_FUNCTIONS_URI = "https://github.com/substrait-io/substrait/blob/main/extensions/functions_boolean.yaml";
+    private static final int COMPARISON_URI_ANCHOR = 1;
+    private static final int BOOLEAN_URI_ANCHOR = 2;
+
+    private static final Type.Nullability NULLABLE = Type.Nullability.NULLABILITY_NULLABLE;
+    // Columns the filter can not reference still need a slot in the base schema, they are declared as binary.
+    private static final Type UNREFERENCED_COLUMN_TYPE = Type.newBuilder()
+            .setBinary(Type.Binary.newBuilder().setNullability(NULLABLE))
+            .build();
+
+    private DatasetFilterBuilder() {}
+
+    /**
+     * Builds the Substrait filter for a file.
+     *
+     * @param fileSchema  The schema of the file as reported by the Dataset, columns are referenced by their position in it.
+     * @param constraints An instance of {@link Constraints} that is a summary of where clauses (if any) and the query plan.
+     * @return The serialized Substrait ExtendedExpression, in a direct buffer as required by the Dataset scanner, or
+     * empty if no predicate could be translated.
+     */
+    public static Optional<ByteBuffer> buildSubstraitFilter(Schema fileSchema, Constraints constraints)
+    {
+        FilterContext context = new FilterContext(fileSchema);
+        List<Expression> conjuncts = new ArrayList<>();
+
+        for (Map.Entry<String, ValueSet> next : constraints.getSummary().entrySet()) {
+            context.fieldIndex(next.getKey())
+                    .flatMap(index -> fromValueSet(context, index, next.getValue()))
+                    .ifPresent(conjuncts::add);
+        }
+
+        QueryPlan queryPlan = constraints.getQueryPlan();
+        if (queryPlan != null && queryPlan.getSubstraitPlan() != null && !queryPlan.getSubstraitPlan().isEmpty()) {
+            fromQueryPlan(context, queryPlan).ifPresent(conjuncts::add);
+        }
+
+        if (conjuncts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ExtendedExpression filter = ExtendedExpression.newBuilder()
+                .addExtensionUris(SimpleExtensionURI.newBuilder().setExtensionUriAnchor(COMPARISON_URI_ANCHOR).setUri(COMPARISON_FUNCTIONS_URI))
+                .addExtensionUris(SimpleExtensionURI.newBuilder().setExtensionUriAnchor(BOOLEAN_URI_ANCHOR).setUri(BOOLEAN_FUNCTIONS_URI))
+                .addAllExtensions(context.functionDeclarations())
+                .setBaseSchema(context.baseSchema())
+                .addReferredExpr(ExpressionReference.newBuilder()
+                        .setExpression(context.and(conjuncts))
+                        .addOutputNames("filter"))
+                .build();
+        LOGGER.info("Pushing down {} predicate(s) to the Dataset scanner", conjuncts.size());
+
+        byte[] bytes = filter.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return Optional.of(buffer);
+    }
+
+    /**
+     * Translates the ValueSet of a column, SortedRangeSets become a disjunction of ranges and EquatableValueSets a
+     * disjunction (white list) or conjunction (black list) of values.
+     */
+    private static Optional<Expression> fromValueSet(FilterContext context, int index, ValueSet valueSet)
+    {
+        if (valueSet.isAll()) {
+            return Optional.empty();
+        }
+
+        List<Expression> disjuncts = new ArrayList<>();
+        if (valueSet instanceof SortedRangeSet) {
+            for (Range range : valueSet.getRanges().getOrderedRanges()) {
+                Optional<Expression> next = fromRange(context, index, range);
+                if (!next.isPresent()) {
+                    return Optional.empty();
+                }
+                disjuncts.add(next.get());
+            }
+        }
+        else if (valueSet instanceof EquatableValueSet) {
+            EquatableValueSet equatableValueSet = (EquatableValueSet) valueSet;
+            List<Expression> values = new ArrayList<>();
+            for (int i = 0; i < equatableValueSet.getValues().getRowCount(); i++) {
+                Optional<Expression> next = context.compare(equatableValueSet.isWhiteList() ? EQUAL_ANY_ANY : NOT_EQUAL_ANY_ANY,
+                        index, equatableValueSet.getValue(i));
+                if (!next.isPresent()) {
+                    return Optional.empty();
+                }
+                values.add(next.get());
+            }
+            if (equatableValueSet.isWhiteList()) {
+                disjuncts.addAll(values);
+            }
+            else {
+                // comparisons with null are not true, the black list also excludes nulls
+                values.add(context.unary(IS_NOT_NULL_ANY, index));
+                disjuncts.add(context.and(values));
+            }
+        }
+        else {
+            return Optional.empty();
+        }
+
+        if (valueSet.isNullAllowed()) {
+            disjuncts.add(context.unary(IS_NULL_ANY, index));
+        }
+        if (disjuncts.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(context.or(disjuncts));
+    }
+
+    private static Optional<Expression> fromRange(FilterContext context, int index, Range range)
+    {
+        if (range.isSingleValue()) {
+            return context.compare(EQUAL_ANY_ANY, index, range.getLow().getValue());
+        }
+
+        List<Expression> bounds = new ArrayList<>();
+        Marker low = range.getLow();
+        if (!low.isLowerUnbounded()) {
+            Optional<Expression> next = context.compare(low.getBound() == Marker.Bound.EXACTLY ? GTE_ANY_ANY : GT_ANY_ANY, index, low.getValue());
+            if (!next.isPresent()) {
+                return Optional.empty();
+            }
+            bounds.add(next.get());
+        }
+        Marker high = range.getHigh();
+        if (!high.isUpperUnbounded()) {
+            Optional<Expression> next = context.compare(high.getBound() == Marker.Bound.EXACTLY ? LTE_ANY_ANY : LT_ANY_ANY, index, high.getValue());
+            if (!next.isPresent()) {
+                return Optional.empty();
+            }
+            bounds.add(next.get());
+        }
+        if (bounds.isEmpty()) {
+            // an unbounded range matches every non null value
+            bounds.add(context.unary(IS_NOT_NULL_ANY, index));
+        }
+        return Optional.of(context.and(bounds));
+    }
+
+    /**
+     * Translates the filter of the query plan. The conjuncts that can not be translated are left out, a disjunction is
+     * only translated if all of its terms are.
+     */
+    private static Optional<Expression> fromQueryPlan(FilterContext context, QueryPlan queryPlan)
+    {
+        try {
+            Plan plan = SubstraitRelUtils.deserializeSubstraitPlan(queryPlan.getSubstraitPlan());
+            SubstraitRelModel relModel = SubstraitRelModel.buildSubstraitRelModel(plan.getRelations(0).getRoot().getInput());
+            if (relModel.getFilterRel() == null || relModel.getReadRel() == null) {
+                return Optional.empty();
+            }
+            Map<Integer, String> functionNames = new HashMap<>();
+            for (SimpleExtensionDeclaration extension : plan.getExtensionsList()) {
+                if (extension.hasExtensionFunction()) {
+                    functionNames.put(extension.getExtensionFunction().getFunctionAnchor(), extension.getExtensionFunction().getName());
+                }
+            }
+            List<String> tableColumns = SubstraitMetadataParser.getTableColumns(relModel);
+            return fromPlanExpression(context, relModel.getFilterRel().getCondition(), functionNames, tableColumns);
+        }
+        catch (RuntimeException ex) {
+            LOGGER.warn("Unable to translate the query plan filter, relying on the constraints summary", ex);
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Expression> fromPlanExpression(FilterContext context, Expression expression,
+                                                           Map<Integer, String> functionNames, List<String> tableColumns)
+    {
+        if (!expression.hasScalarFunction()) {
+            return Optional.empty();
+        }
+        Expression.ScalarFunction function = expression.getScalarFunction();
+        String functionName = functionNames.get(function.getFunctionReference());
+        List<Expression> arguments = new ArrayList<>();
+        for (FunctionArgument argument : function.getArgumentsList()) {
+            arguments.add(argument.getValue());
+        }
+
+        if (AND_BOOL.equals(functionName)) {
+            List<Expression> conjuncts = new ArrayList<>();
+            for (Expression argument : arguments) {
+                fromPlanExpression(context, argument, functionNames, tableColumns).ifPresent(conjuncts::add);
+            }
+            return conjuncts.isEmpty() ? Optional.empty() : Optional.of(context.and(conjuncts));
+        }
+        if (OR_BOOL.equals(functionName)) {
+            List<Expression> disjuncts = new ArrayList<>();
+            for (Expression argument : arguments) {
+                Optional<Expression> next = fromPlanExpression(context, argument, functionNames, tableColumns);
+                if (!next.isPresent()) {
+                    return Optional.empty();
+                }
+                disjuncts.add(next.get());
+            }
+            return disjuncts.isEmpty() ? Optional.empty() : Optional.of(context.or(disjuncts));
+        }
+
+        Optional<Integer> index = (arguments.isEmpty()) ? Optional.empty() : planFieldIndex(context, arguments.get(0), tableColumns);
+        if (!index.isPresent()) {
+            return Optional.empty();
+        }
+        if (arguments.size() == 1 && (IS_NULL_ANY.equals(functionName) || IS_NOT_NULL_ANY.equals(functionName))) {
+            return Optional.of(context.unary(functionName, index.get()));
+        }
+        if (arguments.size() == 2 && arguments.get(1).hasLiteral() && isComparison(functionName)) {
+            Object value;
+            try {
+                value = SubstraitLiteralConverter.extractLiteralValue(arguments.get(1)).getLeft();
+            }
+            catch (RuntimeException ex) {
+                return Optional.empty();
+            }
+            return context.compare(functionName, index.get(), value);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves a direct reference to a column of the plan's table to the position of that column in the file. Casts
+     * and nested references are not resolved since the comparison would no longer be on the stored value.
+     */
+    private static Optional<Integer> planFieldIndex(FilterContext context, Expression expression, List<String> tableColumns)
+    {
+        if (!expression.hasSelection() || !expression.getSelection().hasDirectReference()) {
+            return Optional.empty();
+        }
+        Expression.ReferenceSegment segment = expression.getSelection().getDirectReference();
+        if (!segment.hasStructField() || segment.getStructField().hasChild()) {
+            return Optional.empty();
+        }
+        int field = segment.getStructField().getField();
+        if (field < 0 || field >= tableColumns.size()) {
+            return Optional.empty();
+        }
+        return context.fieldIndex(tableColumns.get(field));
+    }
+
+    private static boolean isComparison(String functionName)
+    {
+        return EQUAL_ANY_ANY.equals(functionName) || NOT_EQUAL_ANY_ANY.equals(functionName)
+                || GT_ANY_ANY.equals(functionName) || GTE_ANY_ANY.equals(functionName)
+                || LT_ANY_ANY.equals(functionName) || LTE_ANY_ANY.equals(functionName);
+    }
+
+    /**
+     * Holds the file schema and the functions referenced while building the filter.
+     */
+    private static class FilterContext
+    {
+        private final Schema fileSchema;
+        private final Map<String, Integer> fieldIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Integer> functionAnchors = new HashMap<>();
+
+        FilterContext(Schema fileSchema)
+        {
+            this.fileSchema = fileSchema;
+            List<Field> fields = fileSchema.getFields();
+            for (int i = 0; i < fields.size(); i++) {
+                if (toSubstraitType(fields.get(i).getType()).isPresent()) {
+                    fieldIndexes.putIfAbsent(fields.get(i).getName(), i);
+                }
+            }
+        }
+
+        /**
+         * @return The position of the column in the file, empty if the file has no such column or if its type can not be filtered on.
+         */
+        Optional<Integer> fieldIndex(String columnName)
+        {
+            return Optional.ofNullable(fieldIndexes.get(columnName));
+        }
+
+        Optional<Expression> compare(String functionName, int index, Object value)
+        {
+            return toLiteral(fileSchema.getFields().get(index).getType(), value)
+                    .map(literal -> call(functionName, fieldReference(index), Expression.newBuilder().setLiteral(literal).build()));
+        }
+
+        Expression unary(String functionName, int index)
+        {
+            return call(functionName, fieldReference(index));
+        }
+
+        Expression and(List<Expression> expressions)
+        {
+            return expressions.size() == 1 ? expressions.get(0) : call(AND_BOOL, expressions.toArray(new Expression[0]));
+        }
+
+        Expression or(List<Expression> expressions)
+        {
+            return expressions.size() == 1 ? expressions.get(0) : call(OR_BOOL, expressions.toArray(new Expression[0]));
+        }
+
+        private Expression call(String functionName, Expression... arguments)
+        {
+            int anchor = functionAnchors.computeIfAbsent(functionName, key -> functionAnchors.size() + 1);
+            Expression.ScalarFunction.Builder function = Expression.ScalarFunction.newBuilder()
+                    .setFunctionReference(anchor)
+                    .setOutputType(Type.newBuilder().setBool(Type.Boolean.newBuilder().setNullability(NULLABLE)));
+            for (Expression argument : arguments) {
+                function.addArguments(FunctionArgument.newBuilder().setValue(argument));
+            }
+            return Expression.newBuilder().setScalarFunction(function).build();
+        }
+
+        private static Expression fieldReference(int index)
+        {
+            return Expression.newBuilder()
+                    .setSelection(Expression.FieldReference.newBuilder()
+                            .setDirectReference(Expression.ReferenceSegment.newBuilder()
+                                    .setStructField(Expression.ReferenceSegment.StructField.newBuilder().setField(index)))
+                            .setRootReference(Expression.FieldReference.RootReference.getDefaultInstance()))
+                    .build();
+        }
+
+        List<SimpleExtensionDeclaration> functionDeclarations()
+        {
+            List<SimpleExtensionDeclaration> declarations = new ArrayList<>();
+            for (Map.Entry<String, Integer> next : functionAnchors.entrySet()) {
+                boolean isBoolean = AND_BOOL.equals(next.getKey()) || OR_BOOL.equals(next.getKey());
+                declarations.add(SimpleExtensionDeclaration.newBuilder()
+                        .setExtensionFunction(SimpleExtensionDeclaration.ExtensionFunction.newBuilder()
+                                .setExtensionUriReference(isBoolean ? BOOLEAN_URI_ANCHOR : COMPARISON_URI_ANCHOR)
+                                .setFunctionAnchor(next.getValue())
+                                .setName(next.getKey()))
+                        .build());
+            }
+            return declarations;
+        }
+
+        NamedStruct baseSchema()
+        {
+            Type.Struct.Builder struct = Type.Struct.newBuilder().setNullability(Type.Nullability.NULLABILITY_REQUIRED);
+            NamedStruct.Builder namedStruct = NamedStruct.newBuilder();
+            for (Field field : fileSchema.getFields()) {
+                namedStruct.addNames(field.getName());
+                struct.addTypes(toSubstraitType(field.getType()).orElse(UNREFERENCED_COLUMN_TYPE));
+            }
+            return namedStruct.setStruct(struct).build();
+        }
+    }
+
+    private static Optional<Type> toSubstraitType(ArrowType arrowType)
+    {
+        Type.Builder type = Type.newBuilder();
+        switch (arrowType.getTypeID()) {
+            case Int:
+                ArrowType.Int intType = (ArrowType.Int) arrowType;
+                if (!intType.getIsSigned()) {
+                    return Optional.empty();
+                }
+                switch (intType.getBitWidth()) {
+                    case 8:
+                        return Optional.of(type.setI8(Type.I8.newBuilder().setNullability(NULLABLE)).build());
+                    case 16:
+                        return Optional.of(type.setI16(Type.I16.newBuilder().setNullability(NULLABLE)).build());
+                    case 32:
+                        return Optional.of(type.setI32(Type.I32.newBuilder().setNullability(NULLABLE)).build());
+                    case 64:
+                        return Optional.of(type.setI64(Type.I64.newBuilder().setNullability(NULLABLE)).build());
+                    default:
+                        return Optional.empty();
+                }
+            case FloatingPoint:
+                FloatingPointPrecision precision = ((ArrowType.FloatingPoint) arrowType).getPrecision();
+                if (precision == FloatingPointPrecision.SINGLE) {
+                    return Optional.of(type.setFp32(Type.FP32.newBuilder().setNullability(NULLABLE)).build());
+                }
+                if (precision == FloatingPointPrecision.DOUBLE) {
+                    return Optional.of(type.setFp64(Type.FP64.newBuilder().setNullability(NULLABLE)).build());
+                }
+                return Optional.empty();
+            case Utf8:
+                return Optional.of(type.setString(Type.String.newBuilder().setNullability(NULLABLE)).build());
+            case Bool:
+                return Optional.of(type.setBool(Type.Boolean.newBuilder().setNullability(NULLABLE)).build());
+            case Date:
+                if (((ArrowType.Date) arrowType).getUnit() == DateUnit.DAY) {
+                    return Optional.of(type.setDate(Type.Date.newBuilder().setNullability(NULLABLE)).build());
+                }
+                return Optional.empty();
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * Converts a constraint value to a literal of the column's type. Values that do not convert exactly, e.g. a
+     * fractional value for an integer column, are not translated.
+     */
+    private static Optional<Expression.Literal> toLiteral(ArrowType arrowType, Object value)
+    {
+        Expression.Literal.Builder literal = Expression.Literal.newBuilder();
+        switch (arrowType.getTypeID()) {
+            case Int:
+                if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                    return Optional.empty();
+                }
+                long longValue = ((Number) value).longValue();
+                switch (((ArrowType.Int) arrowType).getBitWidth()) {
+                    case 8:
+                        return (longValue == (byte) longValue) ? Optional.of(literal.setI8((int) longValue).build()) : Optional.empty();
+                    case 16:
+                        return (longValue == (short) longValue) ? Optional.of(literal.setI16((int) longValue).build()) : Optional.empty();
+                    case 32:
+                        return (longValue == (int) longValue) ? Optional.of(literal.setI32((int) longValue).build()) : Optional.empty();
+                    default:
+                        return Optional.of(literal.setI64(longValue).build());
+                }
+            case FloatingPoint:
+                if (!(value instanceof Number)) {
+                    return Optional.empty();
+                }
+                double doubleValue = ((Number) value).doubleValue();
+                if (((ArrowType.FloatingPoint) arrowType).getPrecision() == FloatingPointPrecision.SINGLE) {
+                    return ((double) (float) doubleValue == doubleValue) ? Optional.of(literal.setFp32((float) doubleValue).build()) : Optional.empty();
+                }
+                return Optional.of(literal.setFp64(doubleValue).build());
+            case Utf8:
+                if (!(value instanceof CharSequence || value instanceof Text)) {
+                    return Optional.empty();
+                }
+                return Optional.of(literal.setString(value.toString()).build());
+            case Bool:
+                return (value instanceof Boolean) ? Optional.of(literal.setBoolean((Boolean) value).build()) : Optional.empty();
+            case Date:
+                if (!(value instanceof Integer || value instanceof Long)) {
+                    return Optional.empty();
+                }
+                long days = ((Number) value).longValue();
+                return (days == (int) days) ? Optional.of(literal.setDate((int) days).build()) : Optional.empty();
+            default:
+                return Optional.empty();
+        }
+    }
+}
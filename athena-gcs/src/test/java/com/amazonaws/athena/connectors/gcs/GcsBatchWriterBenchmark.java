@@ -0,0 +1,227 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import org.apache.arrow.dataset.file.DatasetFileWriter;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the rows/sec of writing the batches of a local Parquet file into Blocks one cell at a time with
+ * writing them through the columnar path of GcsBatchWriter. Not part of the test suite, run the main method with the
+ * test classpath:
+ * <p>
+ * mvn -pl athena-gcs test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.amazonaws.athena.connectors.gcs.GcsBatchWriterBenchmark
+ */
+public class GcsBatchWriterBenchmark
+{
+    private static final int BATCHES = 16;
+    private static final int ROWS_PER_BATCH = 65_536;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 5;
+    private static final long MAX_BLOCK_BYTES = 16L * 1024 * 1024;
+
+    private GcsBatchWriterBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        Path directory = Files.createTempDirectory("gcs-batch-writer-benchmark");
+        try (BufferAllocator allocator = new RootAllocator()) {
+            String uri = writeParquet(allocator, directory);
+            Schema schema = SchemaBuilder.newBuilder()
+                    .addBigIntField("id")
+                    .addStringField("name")
+                    .addFloat8Field("score")
+                    .addDateMilliField("created")
+                    .addStringField("year")
+                    .build();
+            List<Field> partitionColumns = List.of(schema.findField("year"));
+
+            for (boolean columnar : new boolean[] {false, true}) {
+                for (int i = 0; i < WARMUP_RUNS; i++) {
+                    run(allocator, uri, schema, partitionColumns, columnar);
+                }
+                long rows = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    rows += run(allocator, uri, schema, partitionColumns, columnar);
+                }
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.printf("%s: %,.0f rows/sec (%,d rows in %.2f s)%n",
+                        columnar ? "columnar" : "row by row", rows / seconds, rows, seconds);
+            }
+        }
+        finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+            }
+        }
+    }
+
+    private static long run(BufferAllocator allocator, String uri, Schema schema, List<Field> partitionColumns, boolean columnar)
+            throws Exception
+    {
+        try (BlockAllocatorImpl blockAllocator = new BlockAllocatorImpl()) {
+            RollingBlockWriter blockWriter = new RollingBlockWriter(blockAllocator, schema);
+            GcsBatchWriter writer = new GcsBatchWriter(blockWriter, MAX_BLOCK_BYTES, allocator, schema, partitionColumns, Map.of("year", "2024"));
+            try (GcsSplitReader reader = new GcsSplitReader(allocator, FileFormat.PARQUET, List.of(uri),
+                    fileSchema -> new ScanOptions(32768, Optional.of(new String[] {"id", "name", "score", "created"})), 1)) {
+                VectorSchemaRoot batch;
+                while ((batch = reader.nextBatch()) != null) {
+                    try (VectorSchemaRoot root = batch) {
+                        if (columnar) {
+                            writer.write(root);
+                        }
+                        else {
+                            writer.writeRows(root);
+                        }
+                    }
+                }
+            }
+            return blockWriter.close();
+        }
+    }
+
+    private static String writeParquet(BufferAllocator allocator, Path directory)
+            throws Exception
+    {
+        Schema fileSchema = new Schema(Arrays.asList(
+                Field.nullable("id", new ArrowType.Int(64, true)),
+                Field.nullable("name", ArrowType.Utf8.INSTANCE),
+                Field.nullable("score", new ArrowType.FloatingPoint(org.apache.arrow.vector.types.FloatingPointPrecision.DOUBLE)),
+                new Field("created", FieldType.nullable(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)), null)));
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(fileSchema, allocator);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, stream)) {
+            writer.start();
+            long id = 0;
+            for (int batch = 0; batch < BATCHES; batch++) {
+                root.allocateNew();
+                for (int i = 0; i < ROWS_PER_BATCH; i++, id++) {
+                    ((BigIntVector) root.getVector("id")).setSafe(i, id);
+                    ((VarCharVector) root.getVector("name")).setSafe(i, ("name-" + id).getBytes(StandardCharsets.UTF_8));
+                    ((Float8Vector) root.getVector("score")).setSafe(i, id * 0.5);
+                    ((TimeStampMicroVector) root.getVector("created")).setSafe(i, 1_704_067_200_000_000L + id * 1_000L);
+                }
+                root.setRowCount(ROWS_PER_BATCH);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+
+        String directoryUri = directory.toUri().toString();
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream.toByteArray()), allocator)) {
+            DatasetFileWriter.write(allocator, reader, FileFormat.PARQUET, directoryUri);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> written = files.collect(Collectors.toList());
+            return written.get(0).toUri().toString();
+        }
+    }
+
+    /**
+     * Mimics the S3BlockSpiller, releasing each Block once it is over the limit instead of spilling it.
+     */
+    private static class RollingBlockWriter
+            implements BlockWriter
+    {
+        private final BlockAllocatorImpl blockAllocator;
+        private final Schema schema;
+        private Block block;
+        private long rows = 0;
+
+        RollingBlockWriter(BlockAllocatorImpl blockAllocator, Schema schema)
+        {
+            this.blockAllocator = blockAllocator;
+            this.schema = schema;
+            this.block = blockAllocator.createBlock(schema);
+        }
+
+        @Override
+        public void writeRows(RowWriter rowWriter)
+        {
+            try {
+                int written = rowWriter.writeRows(block, block.getRowCount());
+                block.setRowCount(block.getRowCount() + written);
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+            if (block.getSize() > MAX_BLOCK_BYTES) {
+                close();
+                block = blockAllocator.createBlock(schema);
+            }
+        }
+
+        @Override
+        public ConstraintEvaluator getConstraintEvaluator()
+        {
+            return null;
+        }
+
+        long close()
+        {
+            rows += block.getRowCount();
+            try {
+                block.close();
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+            return rows;
+        }
+    }
+}
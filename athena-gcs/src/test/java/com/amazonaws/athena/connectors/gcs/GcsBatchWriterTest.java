@@ -0,0 +1,234 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
+import org.apache.arrow.dataset.jni.NativeMemoryPool;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GcsBatchWriterTest
+{
+    private BlockAllocatorImpl blockAllocator;
+    private BufferAllocator allocator;
+    private Schema schema;
+    private List<Field> partitionColumns;
+
+    @Before
+    public void setUp()
+    {
+        blockAllocator = new BlockAllocatorImpl();
+        allocator = new RootAllocator();
+        schema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name")
+                .addDateMilliField("created")
+                .addStringField("year")
+                .build();
+        partitionColumns = List.of(schema.findField("year"));
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+        blockAllocator.close();
+    }
+
+    @Test
+    public void testWrite_ConvertsColumnsAndMaterializesPartitions()
+    {
+        CollectingBlockWriter blockWriter = new CollectingBlockWriter(schema, null);
+        GcsBatchWriter writer = new GcsBatchWriter(blockWriter, Long.MAX_VALUE, allocator, schema, partitionColumns, Map.of("year", "2024"));
+
+        try (VectorSchemaRoot batch = newBatch(3)) {
+            writer.write(batch);
+        }
+
+        Block block = blockWriter.blocks.get(0);
+        assertEquals(3, block.getRowCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals((long) i, block.getFieldVector("id").getObject(i));
+            assertEquals("name-" + i, block.getFieldVector("name").getObject(i).toString());
+            assertEquals("2024", block.getFieldVector("year").getObject(i).toString());
+        }
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0, 1, 2_000_000), block.getFieldVector("created").getObject(1));
+        assertNull(block.getFieldVector("created").getObject(2));
+        assertEquals(0, allocator.getAllocatedMemory());
+    }
+
+    @Test
+    public void testWrite_FiltersOnPartitionColumn()
+            throws Exception
+    {
+        Map<String, ValueSet> summary = Map.of("year", EquatableValueSet.newBuilder(blockAllocator, Types.MinorType.VARCHAR.getType(), true, false)
+                .add("2023").build());
+        Constraints constraints = new Constraints(summary, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+        try (ConstraintEvaluator evaluator = new ConstraintEvaluator(blockAllocator, schema, constraints);
+                VectorSchemaRoot batch = newBatch(5)) {
+            CollectingBlockWriter matching = new CollectingBlockWriter(schema, evaluator);
+            new GcsBatchWriter(matching, Long.MAX_VALUE, allocator, schema, partitionColumns, Map.of("year", "2023")).write(batch);
+            assertEquals(5, matching.blocks.get(0).getRowCount());
+
+            CollectingBlockWriter pruned = new CollectingBlockWriter(schema, evaluator);
+            new GcsBatchWriter(pruned, Long.MAX_VALUE, allocator, schema, partitionColumns, Map.of("year", "2024")).write(batch);
+            assertEquals(0, pruned.blocks.get(0).getRowCount());
+        }
+    }
+
+    @Test
+    public void testWrite_ComplexColumns_WrittenRowByRow()
+            throws Exception
+    {
+        String uri = "file:" + new File(GcsBatchWriterTest.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath() + "/person-data.parquet";
+        Schema fileSchema;
+        try (FileSystemDatasetFactory factory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), FileFormat.PARQUET, uri)) {
+            fileSchema = factory.inspect();
+        }
+        Schema complexSchema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name")
+                .addField(fileSchema.findField("address"))
+                .build();
+        CollectingBlockWriter blockWriter = new CollectingBlockWriter(complexSchema, null);
+        GcsBatchWriter writer = new GcsBatchWriter(blockWriter, Long.MAX_VALUE, allocator, complexSchema, Collections.emptyList(), Collections.emptyMap());
+
+        try (GcsSplitReader reader = new GcsSplitReader(allocator, FileFormat.PARQUET, List.of(uri),
+                schema -> new ScanOptions(32768, Optional.of(new String[] {"id", "name", "address"})), 1)) {
+            VectorSchemaRoot batch;
+            while ((batch = reader.nextBatch()) != null) {
+                try (VectorSchemaRoot root = batch) {
+                    assertTrue(root.getFieldVectors().stream().anyMatch(vector -> !vector.getField().getChildren().isEmpty()));
+                    writer.write(root);
+                }
+            }
+        }
+
+        Block block = blockWriter.blocks.get(0);
+        assertEquals(2, block.getRowCount());
+        assertEquals(1L, block.getFieldVector("id").getObject(0));
+        assertEquals("Akshay", block.getFieldVector("name").getObject(1).toString());
+    }
+
+    /**
+     * A batch as read from a file: the id column is not lower cased and the timestamp is in microseconds.
+     */
+    private VectorSchemaRoot newBatch(int rows)
+    {
+        BigIntVector id = new BigIntVector("ID", allocator);
+        VarCharVector name = new VarCharVector("name", allocator);
+        TimeStampMicroVector created = new TimeStampMicroVector(new Field("created",
+                FieldType.nullable(new ArrowType.Timestamp(org.apache.arrow.vector.types.TimeUnit.MICROSECOND, null)), null), allocator);
+        id.allocateNew(rows);
+        name.allocateNew(rows);
+        created.allocateNew(rows);
+        long base = 1_704_067_200_000_000L; // 2024-01-01T00:00:00Z
+        for (int i = 0; i < rows; i++) {
+            id.set(i, i);
+            name.setSafe(i, ("name-" + i).getBytes());
+            if (i == 2) {
+                created.setNull(i);
+            }
+            else {
+                created.set(i, base + i * 1_002_345L);
+            }
+        }
+        List<FieldVector> vectors = List.of(id, name, created);
+        List<Field> fields = new ArrayList<>();
+        for (FieldVector next : vectors) {
+            next.setValueCount(rows);
+            fields.add(next.getField());
+        }
+        return new VectorSchemaRoot(fields, vectors, rows);
+    }
+
+    /**
+     * Mimics the S3BlockSpiller, without spilling.
+     */
+    private class CollectingBlockWriter
+            implements BlockWriter
+    {
+        private final Schema blockSchema;
+        private final ConstraintEvaluator constraintEvaluator;
+        private final List<Block> blocks = new ArrayList<>();
+
+        CollectingBlockWriter(Schema blockSchema, ConstraintEvaluator constraintEvaluator)
+        {
+            this.blockSchema = blockSchema;
+            this.constraintEvaluator = constraintEvaluator;
+            blocks.add(blockAllocator.createBlock(blockSchema));
+        }
+
+        @Override
+        public void writeRows(RowWriter rowWriter)
+        {
+            Block block = blocks.get(blocks.size() - 1);
+            try {
+                int rows = rowWriter.writeRows(block, block.getRowCount());
+                block.setRowCount(block.getRowCount() + rows);
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        @Override
+        public ConstraintEvaluator getConstraintEvaluator()
+        {
+            return constraintEvaluator;
+        }
+    }
+}
@@ -23,11 +23,15 @@ import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
 import com.amazonaws.athena.connector.lambda.data.S3BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.data.SpillConfig;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
@@ -37,6 +41,7 @@ import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.google.auth.oauth2.GoogleCredentials;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -154,6 +159,7 @@ public class GcsRecordHandlerTest extends GenericGcsTest
         Split split = mock(Split.class);
         when(split.getProperty(STORAGE_SPLIT_JSON)).thenReturn("[\"data.parquet\"]");
         when(split.getProperty(FILE_FORMAT)).thenReturn("parquet");
+        when(split.getSpillLocation()).thenReturn(s3SpillLocation);
 
         // Test readWithConstraint
         try (ReadRecordsRequest request = new ReadRecordsRequest(
@@ -174,4 +180,48 @@ public class GcsRecordHandlerTest extends GenericGcsTest
         }
     }
 
+    @Test
+    public void testReadWithConstraint_FilterPushedDownToScanner()
+            throws Exception
+    {
+        Split split = mock(Split.class);
+        // every file of the split resolves to the same local file, read concurrently
+        when(split.getProperty(STORAGE_SPLIT_JSON)).thenReturn("[\"data1.parquet\", \"data2.parquet\", \"data3.parquet\"]");
+        when(split.getProperty(FILE_FORMAT)).thenReturn("parquet");
+        when(split.getSpillLocation()).thenReturn(s3SpillLocation);
+        BlockAllocator allocator = new BlockAllocatorImpl();
+        Schema schema = SchemaBuilder.newBuilder().addBigIntField("id").addStringField("name").build();
+        // the spiller does not evaluate the constraints, only the rows matching the pushed down filter are read
+        S3BlockSpiller spiller = new S3BlockSpiller(mock(S3Client.class), SpillConfig.newBuilder()
+                .withEncryptionKey(encryptionKey)
+                .withMaxBlockBytes(100000)
+                .withMaxInlineBlockBytes(100)
+                .withNumSpillThreads(0)
+                .withRequestId(UUID.randomUUID().toString())
+                .withSpillLocation(s3SpillLocation)
+                .build(), allocator, schema, ConstraintEvaluator.emptyEvaluator(), com.google.common.collect.ImmutableMap.of());
+        java.util.Map<String, ValueSet> summary = com.google.common.collect.ImmutableMap.of("id",
+                SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(), java.util.List.of(Range.equal(allocator, Types.MinorType.BIGINT.getType(), 2L)), false));
+
+        try (ReadRecordsRequest request = new ReadRecordsRequest(
+                federatedIdentity,
+                GcsTestUtils.PROJECT_1_NAME,
+                "queryId",
+                new TableName("dataset1", "table1"),
+                schema,
+                split,
+                new Constraints(summary, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                0,
+                0)) {
+            QueryStatusChecker queryStatusChecker = mock(QueryStatusChecker.class);
+            when(queryStatusChecker.isQueryRunning()).thenReturn(true);
+            gcsRecordHandler.readWithConstraint(spiller, request, queryStatusChecker);
+            assertEquals(3, spiller.getBlock().getRowCount(), "Only the record with id 2 of each file should be read");
+        }
+        finally {
+            spiller.close();
+            allocator.close();
+        }
+    }
+
 }
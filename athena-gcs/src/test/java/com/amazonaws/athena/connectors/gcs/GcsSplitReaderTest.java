@@ -0,0 +1,201 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs;
+
+import org.apache.arrow.dataset.file.DatasetFileWriter;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
+import org.apache.arrow.dataset.jni.NativeMemoryPool;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class GcsSplitReaderTest
+{
+    // person-data.parquet holds 2 records
+    private static final String PARQUET_FILE = "person-data.parquet";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BufferAllocator allocator;
+    private String uri;
+    private Schema fileSchema;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new RootAllocator();
+        uri = "file:" + new File(GcsSplitReaderTest.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath() + "/" + PARQUET_FILE;
+        try (FileSystemDatasetFactory factory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), FileFormat.PARQUET, uri)) {
+            fileSchema = factory.inspect();
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void testNextBatch_ReadsEveryFile()
+            throws Exception
+    {
+        List<String> uris = Collections.nCopies(5, uri);
+        AtomicInteger optionsRequests = new AtomicInteger();
+        int rows = 0;
+        try (GcsSplitReader reader = new GcsSplitReader(allocator, FileFormat.PARQUET, uris,
+                schema -> {
+                    optionsRequests.incrementAndGet();
+                    return new ScanOptions(32768, Optional.of(new String[] {"id", "name"}));
+                }, 2)) {
+            VectorSchemaRoot batch;
+            while ((batch = reader.nextBatch()) != null) {
+                try (VectorSchemaRoot root = batch) {
+                    assertEquals(2, root.getFieldVectors().size());
+                    rows += root.getRowCount();
+                }
+            }
+        }
+        assertEquals(10, rows);
+        // the files share their schema, so the options are only built once
+        assertEquals(1, optionsRequests.get());
+        assertEquals(0, allocator.getAllocatedMemory());
+    }
+
+    @Test
+    public void testNextBatch_ReadsEachFileWithItsOwnSchema()
+            throws Exception
+    {
+        // the same table after its id column was narrowed to an int
+        String evolvedUri = writeEvolvedFile();
+        Set<Schema> optionSchemas = ConcurrentHashMap.newKeySet();
+        Set<ArrowType> idTypes = new HashSet<>();
+        int rows = 0;
+        try (GcsSplitReader reader = new GcsSplitReader(allocator, FileFormat.PARQUET, List.of(uri, evolvedUri, uri, evolvedUri),
+                schema -> {
+                    optionSchemas.add(schema);
+                    return new ScanOptions(32768, Optional.of(new String[] {"id"}));
+                }, 4)) {
+            VectorSchemaRoot batch;
+            while ((batch = reader.nextBatch()) != null) {
+                try (VectorSchemaRoot root = batch) {
+                    idTypes.add(root.getVector("id").getField().getType());
+                    rows += root.getRowCount();
+                }
+            }
+        }
+        assertEquals(10, rows);
+        assertEquals(2, optionSchemas.size());
+        assertTrue(optionSchemas.contains(fileSchema));
+        assertEquals(Set.of(new ArrowType.Int(64, true), new ArrowType.Int(32, true)), idTypes);
+        assertEquals(0, allocator.getAllocatedMemory());
+    }
+
+    @Test
+    public void testNextBatch_MissingFile_Throws()
+    {
+        String missing = uri.replace(PARQUET_FILE, "missing.parquet");
+        assertThrows(RuntimeException.class, () -> {
+            try (GcsSplitReader reader = new GcsSplitReader(allocator, FileFormat.PARQUET, List.of(uri, missing),
+                    schema -> new ScanOptions(32768, Optional.empty()), 2)) {
+                VectorSchemaRoot batch;
+                while ((batch = reader.nextBatch()) != null) {
+                    batch.close();
+                }
+            }
+        });
+        assertEquals(0, allocator.getAllocatedMemory());
+    }
+
+    @Test
+    public void testClose_BeforeConsuming_ReleasesBatches()
+            throws Exception
+    {
+        try (GcsSplitReader reader = new GcsSplitReader(allocator, FileFormat.PARQUET, Collections.nCopies(10, uri),
+                schema -> new ScanOptions(32768, Optional.empty()), 2)) {
+            VectorSchemaRoot first = reader.nextBatch();
+            assertTrue(first.getRowCount() > 0);
+            first.close();
+        }
+        assertEquals(0, allocator.getAllocatedMemory());
+    }
+
+    /**
+     * Writes a parquet file of 3 records whose id column is an int, where person-data.parquet has a bigint.
+     */
+    private String writeEvolvedFile()
+            throws Exception
+    {
+        Schema schema = new Schema(List.of(Field.nullable("id", new ArrowType.Int(32, true)),
+                Field.nullable("name", ArrowType.Utf8.INSTANCE)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out)) {
+            IntVector id = (IntVector) root.getVector("id");
+            VarCharVector name = (VarCharVector) root.getVector("name");
+            for (int i = 0; i < 3; i++) {
+                id.setSafe(i, i + 10);
+                name.setSafe(i, ("name" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            root.setRowCount(3);
+            writer.start();
+            writer.writeBatch();
+            writer.end();
+        }
+        String directory = "file:" + folder.getRoot().getPath();
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            DatasetFileWriter.write(allocator, reader, FileFormat.PARQUET, directory, new String[0], 1, "evolved_{i}");
+        }
+        File[] written = folder.getRoot().listFiles((dir, name) -> name.startsWith("evolved_"));
+        assertEquals(1, written.length);
+        return "file:" + written[0].getPath();
+    }
+}
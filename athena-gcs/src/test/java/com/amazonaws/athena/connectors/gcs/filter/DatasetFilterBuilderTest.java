@@ -0,0 +1,265 @@
+/*-
+ * #%L
+ * athena-gcs
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.gcs.filter;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.QueryPlan;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.google.common.collect.ImmutableMap;
+import io.substrait.proto.Expression;
+import io.substrait.proto.FilterRel;
+import io.substrait.proto.FunctionArgument;
+import io.substrait.proto.NamedStruct;
+import io.substrait.proto.Plan;
+import io.substrait.proto.PlanRel;
+import io.substrait.proto.ReadRel;
+import io.substrait.proto.Rel;
+import io.substrait.proto.RelRoot;
+import io.substrait.proto.SimpleExtensionDeclaration;
+import io.substrait.proto.Type;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
+import org.apache.arrow.dataset.jni.NativeMemoryPool;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.dataset.scanner.Scanner;
+import org.apache.arrow.dataset.source.Dataset;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatasetFilterBuilderTest
+{
+    // person-data.parquet holds (id 1, name Azam) and (id 2, name Akshay) along with a struct and a list column.
+    private static final String PARQUET_FILE = "person-data.parquet";
+
+    private BufferAllocator allocator;
+    private BlockAllocator blockAllocator;
+    private String uri;
+    private Schema fileSchema;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new RootAllocator();
+        blockAllocator = new BlockAllocatorImpl();
+        uri = "file:" + new File(DatasetFilterBuilderTest.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath() + "/" + PARQUET_FILE;
+        try (FileSystemDatasetFactory factory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), FileFormat.PARQUET, uri)) {
+            fileSchema = factory.inspect();
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        blockAllocator.close();
+        allocator.close();
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_NoConstraints_Empty()
+    {
+        assertFalse(DatasetFilterBuilder.buildSubstraitFilter(fileSchema, constraints(Collections.emptyMap(), null)).isPresent());
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_SingleValue()
+            throws Exception
+    {
+        Map<String, ValueSet> summary = ImmutableMap.of("ID", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
+                List.of(Range.equal(blockAllocator, Types.MinorType.BIGINT.getType(), 2L)), false));
+
+        assertEquals(List.of(2L), scanIds(summary, null));
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_Ranges()
+            throws Exception
+    {
+        Map<String, ValueSet> greaterThan = ImmutableMap.of("id", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
+                List.of(Range.greaterThan(blockAllocator, Types.MinorType.BIGINT.getType(), 1L)), false));
+        assertEquals(List.of(2L), scanIds(greaterThan, null));
+
+        Map<String, ValueSet> lessThanOrEqual = ImmutableMap.of("id", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
+                List.of(Range.lessThanOrEqual(blockAllocator, Types.MinorType.BIGINT.getType(), 1L)), false));
+        assertEquals(List.of(1L), scanIds(lessThanOrEqual, null));
+
+        Map<String, ValueSet> outside = ImmutableMap.of("id", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
+                List.of(Range.range(blockAllocator, Types.MinorType.BIGINT.getType(), 5L, true, 10L, false)), false));
+        assertEquals(List.of(), scanIds(outside, null));
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_EquatableValueSet()
+            throws Exception
+    {
+        Map<String, ValueSet> whiteList = ImmutableMap.of("name", EquatableValueSet.newBuilder(blockAllocator, Types.MinorType.VARCHAR.getType(), true, false)
+                .add("Azam").add("Nobody").build());
+        assertEquals(List.of(1L), scanIds(whiteList, null));
+
+        Map<String, ValueSet> blackList = ImmutableMap.of("name", EquatableValueSet.newBuilder(blockAllocator, Types.MinorType.VARCHAR.getType(), false, false)
+                .add("Azam").build());
+        assertEquals(List.of(2L), scanIds(blackList, null));
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_UnknownOrNestedColumn_NotTranslated()
+    {
+        Map<String, ValueSet> summary = ImmutableMap.of(
+                "year", SortedRangeSet.copyOf(Types.MinorType.VARCHAR.getType(),
+                        List.of(Range.equal(blockAllocator, Types.MinorType.VARCHAR.getType(), "2000")), false),
+                "address", SortedRangeSet.copyOf(Types.MinorType.VARCHAR.getType(),
+                        List.of(Range.equal(blockAllocator, Types.MinorType.VARCHAR.getType(), "x")), false));
+
+        assertFalse(DatasetFilterBuilder.buildSubstraitFilter(fileSchema, constraints(summary, null)).isPresent());
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_ValueOfOtherType_NotTranslated()
+    {
+        Map<String, ValueSet> summary = ImmutableMap.of("id", SortedRangeSet.copyOf(Types.MinorType.FLOAT8.getType(),
+                List.of(Range.equal(blockAllocator, Types.MinorType.FLOAT8.getType(), 1.5D)), false));
+
+        assertFalse(DatasetFilterBuilder.buildSubstraitFilter(fileSchema, constraints(summary, null)).isPresent());
+    }
+
+    @Test
+    public void testBuildSubstraitFilter_QueryPlan()
+            throws Exception
+    {
+        // name = 'Akshay' OR id < 2, against a table whose columns are ordered differently from the file
+        Expression condition = call(3, call(1, field(1), stringLiteral("Akshay")), call(2, field(0), i64Literal(2)));
+        assertEquals(List.of(1L, 2L), scanIds(Collections.emptyMap(), queryPlan(condition)));
+
+        // id > 1 AND name LIKE 'A%', like is not translated and only the comparison is pushed down
+        Expression partial = call(4, call(5, field(0), i64Literal(1)), call(6, field(1), stringLiteral("A%")));
+        assertEquals(List.of(2L), scanIds(Collections.emptyMap(), queryPlan(partial)));
+
+        // id > 1 OR name LIKE 'A%' can not be pushed down
+        Expression untranslatable = call(3, call(5, field(0), i64Literal(1)), call(6, field(1), stringLiteral("A%")));
+        assertFalse(DatasetFilterBuilder.buildSubstraitFilter(fileSchema, constraints(Collections.emptyMap(), queryPlan(untranslatable))).isPresent());
+    }
+
+    private List<Long> scanIds(Map<String, ValueSet> summary, QueryPlan queryPlan)
+            throws Exception
+    {
+        Optional<ByteBuffer> filter = DatasetFilterBuilder.buildSubstraitFilter(fileSchema, constraints(summary, queryPlan));
+        assertTrue(filter.isPresent());
+        ScanOptions options = new ScanOptions.Builder(32768)
+                .columns(Optional.of(new String[] {"id"}))
+                .substraitFilter(filter.get())
+                .build();
+        List<Long> ids = new ArrayList<>();
+        try (FileSystemDatasetFactory factory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), FileFormat.PARQUET, uri);
+                Dataset dataset = factory.finish();
+                Scanner scanner = dataset.newScan(options);
+                ArrowReader reader = scanner.scanBatches()) {
+            while (reader.loadNextBatch()) {
+                BigIntVector vector = (BigIntVector) reader.getVectorSchemaRoot().getVector("id");
+                for (int i = 0; i < vector.getValueCount(); i++) {
+                    ids.add(vector.get(i));
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static Constraints constraints(Map<String, ValueSet> summary, QueryPlan queryPlan)
+    {
+        return new Constraints(summary, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), queryPlan);
+    }
+
+    /*
+    Plan reading a table of (id bigint, name varchar) with the given filter, functions 1 to 6 are equal, lt, or, and,
+    gt and like.
+     */
+    private static QueryPlan queryPlan(Expression condition)
+    {
+        Type nullableI64 = Type.newBuilder().setI64(Type.I64.newBuilder().setNullability(Type.Nullability.NULLABILITY_NULLABLE)).build();
+        Type nullableString = Type.newBuilder().setString(Type.String.newBuilder().setNullability(Type.Nullability.NULLABILITY_NULLABLE)).build();
+        ReadRel readRel = ReadRel.newBuilder()
+                .setBaseSchema(NamedStruct.newBuilder().addNames("id").addNames("name")
+                        .setStruct(Type.Struct.newBuilder().addTypes(nullableI64).addTypes(nullableString)))
+                .setNamedTable(ReadRel.NamedTable.newBuilder().addNames("table1"))
+                .build();
+        Rel filterRel = Rel.newBuilder().setFilter(FilterRel.newBuilder()
+                .setInput(Rel.newBuilder().setRead(readRel))
+                .setCondition(condition)).build();
+        Plan.Builder plan = Plan.newBuilder()
+                .addRelations(PlanRel.newBuilder().setRoot(RelRoot.newBuilder().setInput(filterRel).addNames("id").addNames("name")));
+        String[] functions = {"equal:any_any", "lt:any_any", "or:bool", "and:bool", "gt:any_any", "like:str_str"};
+        for (int i = 0; i < functions.length; i++) {
+            plan.addExtensions(SimpleExtensionDeclaration.newBuilder().setExtensionFunction(
+                    SimpleExtensionDeclaration.ExtensionFunction.newBuilder().setFunctionAnchor(i + 1).setName(functions[i])));
+        }
+        return new QueryPlan("1.0", Base64.getEncoder().encodeToString(plan.build().toByteArray()));
+    }
+
+    private static Expression call(int functionAnchor, Expression... arguments)
+    {
+        Expression.ScalarFunction.Builder function = Expression.ScalarFunction.newBuilder().setFunctionReference(functionAnchor);
+        for (Expression argument : arguments) {
+            function.addArguments(FunctionArgument.newBuilder().setValue(argument));
+        }
+        return Expression.newBuilder().setScalarFunction(function).build();
+    }
+
+    private static Expression field(int index)
+    {
+        return Expression.newBuilder().setSelection(Expression.FieldReference.newBuilder()
+                .setDirectReference(Expression.ReferenceSegment.newBuilder()
+                        .setStructField(Expression.ReferenceSegment.StructField.newBuilder().setField(index)))).build();
+    }
+
+    private static Expression stringLiteral(String value)
+    {
+        return Expression.newBuilder().setLiteral(Expression.Literal.newBuilder().setString(value)).build();
+    }
+
+    private static Expression i64Literal(long value)
+    {
+        return Expression.newBuilder().setLiteral(Expression.Literal.newBuilder().setI64(value)).build();
+    }
+}
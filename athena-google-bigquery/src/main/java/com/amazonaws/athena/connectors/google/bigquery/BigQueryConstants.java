@@ -60,6 +60,13 @@ public class BigQueryConstants
     public static final String CASING_UPPERCASE_ONLY = "UPPERCASE_ONLY";
     public static final String CASING_LOWERCASE_ONLY = "LOWERCASE_ONLY";
 
+    /**
+     * The max number of streams requested for a Storage API read session, the streams of a split are read concurrently.
+     * BigQuery may create fewer streams than requested, e.g. for small tables.
+     */
+    public static final String MAX_READ_STREAMS = "max_read_streams";
+    public static final int DEFAULT_MAX_READ_STREAMS = 4;
+
     private BigQueryConstants()
     {
     }
@@ -25,6 +25,7 @@ import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.data.FieldResolver;
+import com.amazonaws.athena.connector.lambda.data.writers.ArrowBatchWriter;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.QueryPlan;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
@@ -32,7 +33,6 @@ import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connector.substrait.model.SubstraitRelModel;
 import com.amazonaws.athena.connectors.google.bigquery.qpt.BigQueryQueryPassthrough;
 import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
-import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.BigQueryException;
 import com.google.cloud.bigquery.FieldValue;
@@ -45,12 +45,11 @@ import com.google.cloud.bigquery.QueryParameterValue;
 import com.google.cloud.bigquery.TableDefinition;
 import com.google.cloud.bigquery.TableId;
 import com.google.cloud.bigquery.TableResult;
+import com.google.cloud.bigquery.storage.v1.ArrowRecordBatch;
 import com.google.cloud.bigquery.storage.v1.BigQueryReadClient;
 import com.google.cloud.bigquery.storage.v1.BigQueryReadSettings;
 import com.google.cloud.bigquery.storage.v1.CreateReadSessionRequest;
 import com.google.cloud.bigquery.storage.v1.DataFormat;
-import com.google.cloud.bigquery.storage.v1.ReadRowsRequest;
-import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
 import com.google.cloud.bigquery.storage.v1.ReadSession;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -59,9 +58,14 @@ import io.grpc.internal.PickFirstLoadBalancerProvider;
 import io.substrait.proto.Plan;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.athena.AthenaClient;
@@ -242,7 +246,7 @@ public class BigQueryRecordHandler
         outputResultsView(spiller, recordsRequest, result);
     }
 
-    private void getTableData(BlockSpiller spiller, ReadRecordsRequest recordsRequest, List<QueryParameterValue> parameterValues, String projectName, String datasetName, String tableName) throws IOException
+    private void getTableData(BlockSpiller spiller, ReadRecordsRequest recordsRequest, List<QueryParameterValue> parameterValues, String projectName, String datasetName, String tableName) throws IOException, InterruptedException
     {
         String secret = getSecret(getEnvBigQueryCredsSmId(configOptions), getRequestOverrideConfig(configOptions));
         boolean catalogCasingFilterUpperCase = isCasingFilterUpperCase();
@@ -295,7 +299,7 @@ public class BigQueryRecordHandler
                     CreateReadSessionRequest.newBuilder()
                             .setParent(parent)
                             .setReadSession(sessionBuilder)
-                            .setMaxStreamCount(1);
+                            .setMaxStreamCount(getMaxReadStreams());
 
             ReadSession session = client.createReadSession(builder.build());
             // Setup a simple reader and start a read session.
@@ -312,26 +316,147 @@ public class BigQueryRecordHandler
                     return;
                 }
 
-                // Use the first stream to perform reading.
-                String streamName = session.getStreams(0).getName();
-
-                ReadRowsRequest readRowsRequest =
-                        ReadRowsRequest.newBuilder().setReadStream(streamName).build();
-
-                // Process each block of rows as they arrive and decode using our simple row reader.
-                ServerStream<ReadRowsResponse> stream = client.readRowsCallable().call(readRowsRequest);
-                for (ReadRowsResponse response : stream) {
-                    Preconditions.checkState(response.hasArrowRecordBatch());
-                    VectorSchemaRoot root = reader.processRows(response.getArrowRecordBatch());
-                    long rowLimit = (recordsRequest.getConstraints().getLimit() > 0 && recordsRequest.getConstraints().getLimit() < root.getRowCount()) ? recordsRequest.getConstraints().getLimit() : root.getRowCount();
-                    for (int rowIndex = 0; rowIndex < rowLimit; rowIndex++) {
-                        outputResults(spiller, recordsRequest, root, rowIndex);
+                List<String> streamNames = new ArrayList<>();
+                for (int i = 0; i < session.getStreamsCount(); i++) {
+                    streamNames.add(session.getStreams(i).getName());
+                }
+                logger.info("getTableData: reading {} streams of table {}", streamNames.size(), tableName);
+
+                // Read every stream concurrently and decode the batches, as they arrive, using our simple row reader.
+                ArrowBatchWriter batchWriter = new ArrowBatchWriter(spiller, getSpillConfig(recordsRequest).getMaxBlockBytes());
+                long limit = recordsRequest.getConstraints().getLimit();
+                long remainingRows = limit > 0 ? limit : Long.MAX_VALUE;
+                try (BigQueryStreamReader streamReader = new BigQueryStreamReader(client, streamNames)) {
+                    ArrowRecordBatch batch;
+                    while (remainingRows > 0 && (batch = streamReader.nextBatch()) != null) {
+                        VectorSchemaRoot root = reader.processRows(batch);
+                        remainingRows -= writeBatch(spiller, batchWriter, recordsRequest, root, remainingRows);
                     }
                 }
             }
         }
     }
 
+    /**
+     * Writes up to maxRows rows of a decoded batch. Batches whose columns already have (or can be converted column at a
+     * time to) the types of the request's schema are moved into the Block whole, others are written row by row.
+     *
+     * @return The number of rows written.
+     */
+    private long writeBatch(BlockSpiller spiller, ArrowBatchWriter batchWriter, ReadRecordsRequest recordsRequest, VectorSchemaRoot root, long maxRows)
+    {
+        int rowCount = (int) Math.min(root.getRowCount(), maxRows);
+        // vectors allocated for this batch only, the vectors of root belong to the row reader
+        List<FieldVector> converted = new ArrayList<>();
+        try {
+            VectorSchemaRoot batch = toBlockTypes(recordsRequest.getSchema(), root, converted);
+            if (batch == null) {
+                for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                    outputResults(spiller, recordsRequest, root, rowIndex);
+                }
+                return rowCount;
+            }
+            if (rowCount < batch.getRowCount()) {
+                batch = batch.slice(0, rowCount);
+                converted.addAll(batch.getFieldVectors());
+            }
+            return batchWriter.write(batch);
+        }
+        finally {
+            for (FieldVector next : converted) {
+                next.close();
+            }
+        }
+    }
+
+    /**
+     * Lines the vectors of a decoded batch up with the fields of the request's schema. BigQuery TIMESTAMP and DATETIME
+     * columns arrive as Arrow timestamps and are converted to DateMilli, any other type mismatch returns null.
+     *
+     * @param schema The schema of the request.
+     * @param root The decoded batch.
+     * @param converted Collects the vectors allocated by the conversions, the caller must close them.
+     * @return A batch with the types of the schema or null if the batch has to be written row by row.
+     */
+    private VectorSchemaRoot toBlockTypes(Schema schema, VectorSchemaRoot root, List<FieldVector> converted)
+    {
+        boolean convertible = true;
+        List<FieldVector> vectors = new ArrayList<>();
+        for (FieldVector vector : root.getFieldVectors()) {
+            Field target = schema.findField(matchFieldName(schema, vector));
+            ArrowType sourceType = vector.getField().getType();
+            if (!convertible || !target.getName().equals(vector.getField().getName())) {
+                convertible = false;
+            }
+            else if (sourceType.equals(target.getType()) && target.getChildren().isEmpty()) {
+                vectors.add(vector);
+            }
+            else if (vector instanceof TimeStampVector && target.getType().equals(Types.MinorType.DATEMILLI.getType())) {
+                DateMilliVector dateMilliVector = toDateMilli((TimeStampVector) vector, target);
+                converted.add(dateMilliVector);
+                vectors.add(dateMilliVector);
+            }
+            else {
+                convertible = false;
+            }
+        }
+        return convertible ? new VectorSchemaRoot(vectors) : null;
+    }
+
+    private static DateMilliVector toDateMilli(TimeStampVector source, Field target)
+    {
+        long divisor;
+        long multiplier = 1;
+        switch (((ArrowType.Timestamp) source.getField().getType()).getUnit()) {
+            case SECOND:
+                divisor = 1;
+                multiplier = 1000;
+                break;
+            case MILLISECOND:
+                divisor = 1;
+                break;
+            case MICROSECOND:
+                divisor = 1000;
+                break;
+            default:
+                divisor = 1_000_000;
+                break;
+        }
+        int valueCount = source.getValueCount();
+        DateMilliVector result = new DateMilliVector(target, source.getAllocator());
+        result.allocateNew(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            if (source.isNull(i)) {
+                result.setNull(i);
+            }
+            else {
+                result.set(i, Math.floorDiv(source.get(i), divisor) * multiplier);
+            }
+        }
+        result.setValueCount(valueCount);
+        return result;
+    }
+
+    private static String matchFieldName(Schema schema, FieldVector vector)
+    {
+        return schema.getFields().stream()
+                .map(Field::getName)
+                .filter(name -> name.equalsIgnoreCase(vector.getField().getName()))
+                .findFirst()
+                .orElseThrow(() -> {
+                    List<String> schemaFieldNames = schema.getFields().stream()
+                            .map(Field::getName).collect(java.util.stream.Collectors.toList());
+                    return new IllegalStateException("Field '" + vector.getField().getName()
+                            + "' from BigQuery response not found in schema. Schema fields: " + schemaFieldNames);
+                });
+    }
+
+    private int getMaxReadStreams()
+    {
+        return Integer.parseInt(configOptions.getOrDefault(BigQueryConstants.MAX_READ_STREAMS,
+                String.valueOf(BigQueryConstants.DEFAULT_MAX_READ_STREAMS)));
+    }
+
     /**
      * Iterates through all the results that comes back from BigQuery and saves the result to be read by the Athena Connector.
      *
@@ -346,16 +471,7 @@ public class BigQueryRecordHandler
                 for (FieldVector vector : result.getFieldVectors()) {
                     boolean isMatched = true;
                     Object value = vector.getObject(rowIndex);
-                    String matchedFieldName = recordsRequest.getSchema().getFields().stream()
-                            .map(Field::getName)
-                            .filter(name -> name.equalsIgnoreCase(vector.getField().getName()))
-                            .findFirst()
-                            .orElseThrow(() -> {
-                        List<String> schemaFieldNames = recordsRequest.getSchema().getFields().stream()
-                                .map(Field::getName).collect(java.util.stream.Collectors.toList());
-                        return new IllegalStateException("Field '" + vector.getField().getName()
-                                + "' from BigQuery response not found in schema. Schema fields: " + schemaFieldNames);
-                            });
+                    String matchedFieldName = matchFieldName(recordsRequest.getSchema(), vector);
                     switch (vector.getMinorType()) {
                         case LIST:
                         case STRUCT:
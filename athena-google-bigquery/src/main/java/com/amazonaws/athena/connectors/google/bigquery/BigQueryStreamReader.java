@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * athena-google-bigquery
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.google.bigquery;
+
+import com.google.api.gax.rpc.ServerStream;
+import com.google.cloud.bigquery.storage.v1.ArrowRecordBatch;
+import com.google.cloud.bigquery.storage.v1.BigQueryReadClient;
+import com.google.cloud.bigquery.storage.v1.ReadRowsRequest;
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the streams of a BigQuery Storage API read session concurrently, one thread per stream.
+ * <p>
+ * The serialized Arrow record batches of every stream are handed to the caller, in arrival order, through a bounded
+ * queue so a slow consumer applies back pressure to the streams. Decoding is left to the caller so that a single
+ * BigQueryRowReader can be reused for every batch.
+ */
+class BigQueryStreamReader
+        implements AutoCloseable
+{
+    private static final Logger logger = LoggerFactory.getLogger(BigQueryStreamReader.class);
+    //Max number of undecoded batches, per stream, waiting to be consumed.
+    private static final int BATCHES_PER_STREAM = 2;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final BigQueryReadClient client;
+    private final int streamCount;
+    private final BlockingQueue<Optional<ArrowRecordBatch>> batches;
+    private final ExecutorService streamPool;
+    private final List<ServerStream<ReadRowsResponse>> openStreams = new CopyOnWriteArrayList<>();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private volatile boolean closed = false;
+    private int finishedStreams = 0;
+
+    /**
+     * Starts reading every given stream.
+     *
+     * @param client The client of the read session the streams belong to.
+     * @param streamNames The names of the streams to read.
+     */
+    BigQueryStreamReader(BigQueryReadClient client, List<String> streamNames)
+    {
+        this.client = client;
+        this.streamCount = streamNames.size();
+        this.batches = new ArrayBlockingQueue<>(Math.max(1, streamCount * BATCHES_PER_STREAM));
+        this.streamPool = Executors.newFixedThreadPool(Math.max(1, streamCount), new ThreadFactoryBuilder()
+                .setNameFormat("bigquery-read-stream-%d")
+                .setDaemon(true)
+                .build());
+        for (String next : streamNames) {
+            streamPool.submit(() -> readStream(next));
+        }
+    }
+
+    /**
+     * Provides the next record batch read from any of the streams.
+     *
+     * @return The next batch or null once every stream has been fully read.
+     */
+    ArrowRecordBatch nextBatch()
+            throws InterruptedException
+    {
+        while (finishedStreams < streamCount) {
+            Optional<ArrowRecordBatch> next = batches.take();
+            if (next.isPresent()) {
+                return next.get();
+            }
+            finishedStreams++;
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+        return null;
+    }
+
+    private void readStream(String streamName)
+    {
+        long batchCount = 0;
+        try {
+            ReadRowsRequest readRowsRequest = ReadRowsRequest.newBuilder().setReadStream(streamName).build();
+            ServerStream<ReadRowsResponse> stream = client.readRowsCallable().call(readRowsRequest);
+            openStreams.add(stream);
+            for (ReadRowsResponse response : stream) {
+                Preconditions.checkState(response.hasArrowRecordBatch());
+                if (!offer(Optional.of(response.getArrowRecordBatch()))) {
+                    break;
+                }
+                batchCount++;
+            }
+        }
+        catch (RuntimeException ex) {
+            failure.compareAndSet(null, ex);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            logger.debug("readStream: read {} batches from stream {}", batchCount, streamName);
+            try {
+                offer(Optional.empty());
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean offer(Optional<ArrowRecordBatch> batch)
+            throws InterruptedException
+    {
+        while (!closed) {
+            if (batches.offer(batch, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        for (ServerStream<ReadRowsResponse> next : openStreams) {
+            next.cancel();
+        }
+        streamPool.shutdownNow();
+        batches.clear();
+    }
+}
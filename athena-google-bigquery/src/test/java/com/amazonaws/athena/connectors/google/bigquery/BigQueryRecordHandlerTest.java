@@ -68,6 +68,7 @@ import org.apache.arrow.vector.Float8Vector;
 import org.apache.arrow.vector.IntVector;
 import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.reader.FieldReader;
 import org.apache.arrow.vector.ipc.WriteChannel;
 import org.apache.arrow.vector.ipc.message.MessageSerializer;
 import org.apache.arrow.vector.types.FloatingPointPrecision;
@@ -105,6 +106,7 @@ import java.util.UUID;
 import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static com.amazonaws.athena.connectors.google.bigquery.BigQueryTestUtils.getBlockTestSchema;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -154,6 +156,7 @@ public class BigQueryRecordHandlerTest
             .build();
     private FederatedIdentity federatedIdentity;
     private MockedStatic<BigQueryUtils> mockedStatic;
+    private final List<MockedStatic<BigQueryReadClient>> mockedReadClients = new ArrayList<>();
     @Mock
     private Job queryJob;
 
@@ -216,6 +219,7 @@ public class BigQueryRecordHandlerTest
     @After
     public void close()
     {
+        mockedReadClients.forEach(MockedStatic::close);
         mockedStatic.close();
         allocator.close();
     }
@@ -519,6 +523,91 @@ public class BigQueryRecordHandlerTest
         }
     }
 
+    @Test
+    public void testReadWithConstraint_MultipleStreams_ReadsEveryStream() throws Exception
+    {
+        try (ReadRecordsRequest request = getReadRecordsRequest(Collections.emptyMap());
+                S3BlockSpiller spiller = newInMemorySpiller()) {
+            ArgumentCaptor<CreateReadSessionRequest> sessionRequest = ArgumentCaptor.forClass(CreateReadSessionRequest.class);
+            mockReadSession(3, sessionRequest);
+
+            bigQueryRecordHandler.readWithConstraint(spiller, request, mock(QueryStatusChecker.class));
+
+            assertEquals(BigQueryConstants.DEFAULT_MAX_READ_STREAMS, sessionRequest.getValue().getMaxStreamCount());
+            assertFalse(spiller.spilled());
+            // each stream holds the two rows of the example batch
+            assertEquals(6, spiller.getBlock().getRowCount());
+            FieldReader intReader = spiller.getBlock().getFieldReader("int1");
+            int matched = 0;
+            for (int i = 0; i < 6; i++) {
+                intReader.setPosition(i);
+                if (intReader.readInteger() == 42) {
+                    matched++;
+                }
+            }
+            assertEquals(3, matched);
+        }
+    }
+
+    @Test
+    public void testReadWithConstraint_MultipleStreamsWithLimit_StopsAtLimit() throws Exception
+    {
+        Constraints constraints = new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), 3L, Collections.emptyMap(), null);
+        try (ReadRecordsRequest request = createReadRecordsRequestWithConstraints(constraints);
+                S3BlockSpiller spiller = newInMemorySpiller()) {
+            mockReadSession(3, ArgumentCaptor.forClass(CreateReadSessionRequest.class));
+
+            bigQueryRecordHandler.readWithConstraint(spiller, request, mock(QueryStatusChecker.class));
+
+            assertEquals(3, spiller.getBlock().getRowCount());
+        }
+    }
+
+    private S3BlockSpiller newInMemorySpiller()
+    {
+        SpillConfig inMemorySpillConfig = SpillConfig.newBuilder()
+                .withEncryptionKey(encryptionKey)
+                .withMaxBlockBytes(16_000_000)
+                .withMaxInlineBlockBytes(16_000_000)
+                .withNumSpillThreads(0)
+                .withRequestId(UUID.randomUUID().toString())
+                .withSpillLocation(s3SpillLocation)
+                .build();
+        return new S3BlockSpiller(amazonS3, inMemorySpillConfig, allocator, getBlockTestSchema(), ConstraintEvaluator.emptyEvaluator(), com.google.common.collect.ImmutableMap.of());
+    }
+
+    /**
+     * Stubs a read session with the given number of streams, each stream returns the example batch.
+     */
+    private void mockReadSession(int streamCount, ArgumentCaptor<CreateReadSessionRequest> sessionRequest) throws Exception
+    {
+        Schema schema = new Schema(Arrays.asList(
+                new Field("int1", FieldType.nullable(new ArrowType.Int(32, true)), null),
+                new Field("string1", FieldType.nullable(new ArrowType.Utf8()), null),
+                new Field("bool1", FieldType.nullable(new ArrowType.Bool()), null),
+                new Field("float1", FieldType.nullable(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)), null)
+        ));
+        ByteArrayOutputStream schemaOut = new ByteArrayOutputStream();
+        MessageSerializer.serialize(new WriteChannel(java.nio.channels.Channels.newChannel(schemaOut)), schema);
+
+        ReadSession.Builder session = ReadSession.newBuilder()
+                .setArrowSchema(ArrowSchema.newBuilder().setSerializedSchema(ByteString.copyFrom(schemaOut.toByteArray())));
+        ServerStreamingCallable ssCallable = mock(ServerStreamingCallable.class);
+        for (int i = 0; i < streamCount; i++) {
+            String streamName = "stream" + i;
+            session.addStreams(ReadStream.newBuilder().setName(streamName));
+            ServerStream<ReadRowsResponse> stream = mock(ServerStream.class);
+            when(stream.iterator()).thenReturn(ImmutableList.of(createReadRowsResponseExample()).iterator());
+            when(ssCallable.call(ReadRowsRequest.newBuilder().setReadStream(streamName).build())).thenReturn(stream);
+        }
+
+        MockedStatic<BigQueryReadClient> mockedReadClient = mockStatic(BigQueryReadClient.class);
+        mockedReadClients.add(mockedReadClient);
+        mockedReadClient.when(() -> BigQueryReadClient.create(any(BigQueryReadSettings.class))).thenReturn(bigQueryReadClient);
+        when(bigQueryReadClient.createReadSession(sessionRequest.capture())).thenReturn(session.build());
+        when(bigQueryReadClient.readRowsCallable()).thenReturn(ssCallable);
+    }
+
     private Map<String, String> getPassthroughArgs() {
         return Map.of(
                 "schemaFunctionName", "SYSTEM.QUERY",
@@ -50,7 +50,7 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
-import com.amazonaws.athena.connector.substrait.SubstraitSqlUtils;
+import com.amazonaws.athena.connector.substrait.SubstraitSqlPlanCache;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.qpt.JdbcQueryPassthrough;
@@ -384,9 +384,9 @@ public abstract class JdbcRecordHandler
         if (request.getConstraints() != null 
                 && request.getConstraints().getQueryPlan() != null 
                 && request.getConstraints().getQueryPlan().getSubstraitPlan() != null) {
-            // Get renamed → original mapping from SubstraitSqlUtils
-            Map<String, String> renamedToOriginal = SubstraitSqlUtils.getColumnRemapping(
-                    request.getConstraints().getQueryPlan().getSubstraitPlan(), getSqlDialect());
+            // Get renamed → original mapping from the compiled plan shared with the split query builder
+            Map<String, String> renamedToOriginal = SubstraitSqlPlanCache.getColumnRemapping(
+                    request.getConstraints().getQueryPlan().getSubstraitPlan(), getClass().getName(), getSqlDialect());
             
             // Invert to original → renamed mapping (filtering out null values for computed expressions)
             Map<String, String> originalToRenamed = new java.util.HashMap<>();
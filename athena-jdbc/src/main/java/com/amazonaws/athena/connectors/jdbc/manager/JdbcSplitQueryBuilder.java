@@ -27,8 +27,8 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
-import com.amazonaws.athena.connector.substrait.SubstraitAccumulatorVisitor;
-import com.amazonaws.athena.connector.substrait.SubstraitSqlUtils;
+import com.amazonaws.athena.connector.substrait.SubstraitCompiledSql;
+import com.amazonaws.athena.connector.substrait.SubstraitSqlPlanCache;
 import com.amazonaws.athena.connector.substrait.SubstraitTypeAndValue;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
@@ -39,10 +39,7 @@ import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
-import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.sql.SqlDialect;
-import org.apache.calcite.sql.SqlNode;
-import org.apache.calcite.sql.SqlSelect;
 import org.apache.calcite.sql.dialect.AnsiSqlDialect;
 import org.apache.calcite.util.BitString;
 import org.apache.calcite.util.DateString;
@@ -447,6 +444,15 @@ public abstract class JdbcSplitQueryBuilder
         return AnsiSqlDialect.DEFAULT;
     }
 
+    /**
+     * Identifies the dialect getSqlDialect(...) returns for the given split, the compiled form of a Substrait plan is
+     * cached per dialect key.
+     */
+    private String getDialectKey(final Split split)
+    {
+        return getClass().getName() + ":" + split.getProperty(EnvironmentConstants.CATALOG_CASING_FILTER);
+    }
+
     protected PreparedStatement prepareStatementWithCalciteSql(
             final Connection jdbcConnection,
             final Constraints constraints,
@@ -454,27 +460,17 @@ public abstract class JdbcSplitQueryBuilder
             final Split split)
     {
         try {
-            SqlSelect root;
-            List<SubstraitTypeAndValue> accumulator = new ArrayList<>();
-
             String base64EncodedPlan = constraints.getQueryPlan().getSubstraitPlan();
             LOGGER.debug("CalciteSql substrait plan: {}", base64EncodedPlan);
 
-            SqlNode sqlNode = SubstraitSqlUtils.getSqlNodeFromSubstraitPlan(base64EncodedPlan, sqlDialect);
-            if (!(sqlNode instanceof SqlSelect)) {
-                throw new RuntimeException("Unsupported Query Type. Only SELECT Query is supported.");
-            }
-
-            root = (SqlSelect) sqlNode;
-
-            RelDataType tableSchema = SubstraitSqlUtils.getTableSchemaFromSubstraitPlan(base64EncodedPlan, sqlDialect);
-            SubstraitAccumulatorVisitor visitor = new SubstraitAccumulatorVisitor(accumulator, tableSchema);
-            SqlNode parameterizedNode = visitor.visit(root);
+            // Every split of the query carries the same plan, it is only compiled by the first split.
+            SubstraitCompiledSql compiledSql = SubstraitSqlPlanCache.get(base64EncodedPlan, getDialectKey(split), sqlDialect);
+            List<SubstraitTypeAndValue> accumulator = compiledSql.getParameters();
 
-            LOGGER.debug("CalciteSql parameterized sql with dialect {}: {}", sqlDialect.toString(), parameterizedNode.toSqlString(sqlDialect).getSql());
+            LOGGER.debug("CalciteSql parameterized sql with dialect {}: {}", sqlDialect.toString(), compiledSql.getSql());
             LOGGER.debug("CalciteSql parameters: {}", accumulator.toString());
 
-            String sql = parameterizedNode.toSqlString(sqlDialect).getSql();
+            String sql = compiledSql.getSql();
             List<String> splitClauses = getPartitionWhereClauses(split);
             if (!splitClauses.isEmpty()) {
                 String splitWhere = String.join(" AND ", splitClauses);
@@ -33,6 +33,16 @@ public class Constants
    public static final String CFG_IAM = "iam_enabled";
    public static final String CFG_REGION = "AWS_REGION";
    public static final String CFG_ClUSTER_RES_ID = "neptune_cluster_res_id";
+   // the most splits to read a vertex, edge or class table with, 1 (a single split) by default
+   public static final String CFG_MAX_SPLITS = "neptune_max_splits";
+   // the fewest vertices or edges worth a split of their own
+   public static final long SPLIT_MIN_ELEMENTS = 100_000;
+   // the number of results Neptune streams back per batch of a Gremlin request
+   public static final String CFG_GREMLIN_BATCH_SIZE = "gremlin_batch_size";
+   public static final int DEFAULT_GREMLIN_BATCH_SIZE = 512;
+   // whether constraints on properties, not only on ids, are pushed into Gremlin traversals, false by default since
+   // the row writers convert property values (e.g. a string "30" read as an int) in ways Gremlin can not compare with
+   public static final String CFG_GREMLIN_PROPERTY_PUSHDOWN = "gremlin_property_pushdown";
     
    public static final String SCHEMA_QUERY = "query";
    public static final String SCHEMA_CASE_INSEN = "enable_caseinsensitivematch";
@@ -85,9 +85,11 @@ public class NeptuneConnection
 
         switch (graphType){
             case PROPERTYGRAPH:
+                int batchSize = (configOptions.get(Constants.CFG_GREMLIN_BATCH_SIZE) == null) ? Constants.DEFAULT_GREMLIN_BATCH_SIZE
+                        : Integer.parseInt(configOptions.get(Constants.CFG_GREMLIN_BATCH_SIZE));
                 return new NeptuneGremlinConnection(configOptions.get(Constants.CFG_ENDPOINT),
                         configOptions.get(Constants.CFG_PORT), Boolean.parseBoolean(configOptions.get(Constants.CFG_IAM)),
-                        configOptions.get(Constants.CFG_REGION));
+                        configOptions.get(Constants.CFG_REGION), batchSize);
 
             case RDF:
                 return new NeptuneSparqlConnection(configOptions.get(Constants.CFG_ENDPOINT),
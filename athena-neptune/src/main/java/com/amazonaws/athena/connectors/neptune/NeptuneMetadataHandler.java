@@ -20,8 +20,10 @@
 package com.amazonaws.athena.connectors.neptune;
 
 import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
@@ -41,10 +43,13 @@ import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
 import com.amazonaws.athena.connector.lambda.metadata.glue.GlueFieldLexer;
 import com.amazonaws.athena.connector.lambda.metadata.optimizations.OptimizationSubType;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
+import com.amazonaws.athena.connectors.neptune.Enums.TableSchemaMetaType;
+import com.amazonaws.athena.connectors.neptune.propertygraph.IdRangeSplitter;
 import com.amazonaws.athena.connectors.neptune.propertygraph.PropertyGraphHandler;
 import com.amazonaws.athena.connectors.neptune.qpt.NeptuneGremlinQueryPassthrough;
 import com.amazonaws.athena.connectors.neptune.qpt.NeptuneSparqlQueryPassthrough;
 import com.amazonaws.athena.connectors.neptune.rdf.NeptuneSparqlConnection;
+import com.amazonaws.athena.connectors.neptune.rdf.SubjectBuckets;
 import com.google.common.collect.ImmutableMap;
 import org.apache.arrow.util.VisibleForTesting;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -64,6 +69,7 @@ import software.amazon.awssdk.services.glue.model.Table;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +102,10 @@ public class NeptuneMetadataHandler extends GlueMetadataHandler
     private final Logger logger = LoggerFactory.getLogger(NeptuneMetadataHandler.class);
     private static final String SOURCE_TYPE = "neptune"; // Used to denote the 'type' of this connector for diagnostic
                                                          // purposes.
+    private static final String PARTITION_ID_COL = "partitionId";
+    // The table properties doGetSplits needs to split up the read of a table.
+    private static final List<String> SPLIT_METADATA_KEYS = List.of(Constants.SCHEMA_COMPONENT_TYPE, Constants.SCHEMA_GLABEL,
+            Constants.SCHEMA_QUERY_MODE);
     private final GlueClient glue;
     private final String glueDBName;
 
@@ -230,14 +240,33 @@ public class NeptuneMetadataHandler extends GlueMetadataHandler
     }
 
     /**
-     * Our table doesn't support complex layouts or partitioning so we simply make
-     * this method a NoOp.
+     * When parallel reads are enabled, passes the table properties that doGetSplits needs to split up the read as
+     * metadata of the partitions, along with the single partition of the table.
+     */
+    @Override
+    public void enhancePartitionSchema(SchemaBuilder partitionSchemaBuilder, GetTableLayoutRequest request)
+    {
+        if (getMaxSplits() <= 1 || request.getConstraints().isQueryPassThrough()) {
+            return;
+        }
+        partitionSchemaBuilder.addIntField(PARTITION_ID_COL);
+        Map<String, String> tableMetadata = request.getSchema().getCustomMetadata();
+        for (String key : SPLIT_METADATA_KEYS) {
+            if (tableMetadata.get(key) != null) {
+                partitionSchemaBuilder.addMetadata(key, tableMetadata.get(key));
+            }
+        }
+    }
+
+    /**
+     * Our table doesn't support complex layouts or partitioning so we write at most
+     * the single partition added by enhancePartitionSchema.
      */
     @Override
     public void getPartitions(BlockWriter blockWriter, GetTableLayoutRequest request,
             QueryStatusChecker queryStatusChecker) throws Exception
     {
-        // No implemenation as connector doesn't support partitioning
+        blockWriter.writeRows((Block block, int rowNum) -> block.setValue(PARTITION_ID_COL, rowNum, 0) ? 1 : 0);
     }
 
     /**
@@ -259,19 +288,70 @@ public class NeptuneMetadataHandler extends GlueMetadataHandler
      */
 
     /*
-     * Since our connector does not support parallel scans we generate a single
-     * Split and include the connection details as a property on the split so that
-     * the RecordHandler has easy access to it.
+     * By default we generate a single Split. With neptune_max_splits above 1 the
+     * vertices or edges of a label are split into id ranges and the subjects of a
+     * class table into hash buckets, each read by its own Split.
      */
     @Override
     public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest request)
     {
-        // Every split must have a unique location if we wish to spill to avoid failures
-        SpillLocation spillLocation = makeSpillLocation(request);
+        Set<Split> splits = new HashSet<>();
+        for (Map<String, String> splitProperties : planSplits(request)) {
+            // Every split must have a unique location if we wish to spill to avoid failures
+            SpillLocation spillLocation = makeSpillLocation(request);
+            splits.add(Split.newBuilder(spillLocation, makeEncryptionKey()).applyProperties(splitProperties).build());
+        }
+        return new GetSplitsResponse(request.getCatalogName(), splits);
+    }
+
+    /**
+     * @return The properties of each split to read the table with, a single split without properties when the read
+     * is not split up.
+     */
+    private List<Map<String, String>> planSplits(GetSplitsRequest request)
+    {
+        int maxSplits = getMaxSplits();
+        Map<String, String> tableMetadata = request.getPartitions().getSchema().getCustomMetadata();
+        if (maxSplits <= 1 || request.getConstraints().isQueryPassThrough() || tableMetadata.isEmpty()) {
+            return Collections.singletonList(Collections.emptyMap());
+        }
+
+        switch (getGraphType()) {
+            case PROPERTYGRAPH:
+                String type = tableMetadata.get(Constants.SCHEMA_COMPONENT_TYPE);
+                if (type == null) {
+                    return Collections.singletonList(Collections.emptyMap());
+                }
+                //AWS Glue converts table name to lowercase, 'glabel' stores the Amazon Neptune Vertex/Edge label
+                String glabel = tableMetadata.get(Constants.SCHEMA_GLABEL);
+                String label = (glabel != null && !glabel.trim().isEmpty()) ? glabel : request.getTableName().getTableName();
+                Client client = neptuneConnection.getNeptuneClientConnection();
+                GraphTraversalSource graphTraversalSource = neptuneConnection.getTraversalSource(client);
+                return IdRangeSplitter.split(graphTraversalSource, TableSchemaMetaType.valueOf(type.toUpperCase()), label,
+                        maxSplits, Constants.SPLIT_MIN_ELEMENTS);
+
+            case RDF:
+                if (!Constants.QUERY_MODE_CLASS.equalsIgnoreCase(tableMetadata.get(Constants.SCHEMA_QUERY_MODE))) {
+                    return Collections.singletonList(Collections.emptyMap());
+                }
+                return SubjectBuckets.split(maxSplits);
+
+            default:
+                throw new IllegalArgumentException("Unsupported graphType: " + getGraphType());
+        }
+    }
+
+    private int getMaxSplits()
+    {
+        return Integer.parseInt(configOptions.getOrDefault(Constants.CFG_MAX_SPLITS, "1"));
+    }
 
-        // Since our connector does not support parallel reads we return a fixed split.
-        return new GetSplitsResponse(request.getCatalogName(),
-                Split.newBuilder(spillLocation, makeEncryptionKey()).build());
+    private Enums.GraphType getGraphType()
+    {
+        if (configOptions.get(Constants.CFG_GRAPH_TYPE) != null) {
+            return Enums.GraphType.valueOf(configOptions.get(Constants.CFG_GRAPH_TYPE).toUpperCase());
+        }
+        return Enums.GraphType.PROPERTYGRAPH;
     }
 
     @Override
@@ -20,21 +20,39 @@
 
 package com.amazonaws.athena.connectors.neptune.propertygraph;
 
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Marker.Bound;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connectors.neptune.Enums.SpecialKeys;
+import com.amazonaws.athena.connectors.neptune.Enums.TableSchemaMetaType;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Element;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * This class is a Utility class to general gremlin query equivalents of
  * Contraints being passed via AWS Lambda Handler
  */
 public final class GremlinQueryPreProcessor 
 {
+    //The property types whose constraints Gremlin compares the same way Athena does. Floating point columns are left
+    //out because a FLOAT4 constraint value is not equal to the double Neptune stores for the same decimal, and VARCHAR
+    //columns because the row writers join the values of a multi-valued property with ';'.
+    private static final Set<Types.MinorType> PROPERTY_PUSHDOWN_TYPES = EnumSet.of(Types.MinorType.BIT, Types.MinorType.INT,
+            Types.MinorType.BIGINT);
+
     private GremlinQueryPreProcessor() 
     {
         //Empty private constructor
@@ -44,6 +62,79 @@ public final class GremlinQueryPreProcessor
         LESSTHAN, GREATERTHAN, EQUALTO, NOTEQUALTO
     }
 
+    /**
+     * Adds the constraints of a read that Gremlin can evaluate to the traversal of a vertex or edge table, so that
+     * Neptune only returns the elements that can match them. Only a single value or a single range without nulls is
+     * pushed down, anything else is left to the ConstraintEvaluator, which still filters every row we write.
+     * <p>
+     * The id, in and out columns are written as Neptune returns them and are always pushed down. The row writers
+     * convert other properties to the type of their column, a string "30" is read as the int 30, so the traversal may
+     * only drop an element that no conversion would have matched. Properties are therefore only pushed down on request:
+     * an equality matches the typed value as well as its string, while a range assumes the property is stored with
+     * the type of its column.
+     * @param traversal            Gremlin Traversal of the vertices or edges of the table
+     * @param schema               Schema of the read
+     * @param summary              Constraints of the read, by column
+     * @param type                 Type of the table
+     * @param caseInsensitiveMatch True if columns match property keys case-insensitively, in which case the key of a
+     *                             property is unknown and only the id, in and out columns are pushed down
+     * @param propertyPushdown     True to also push down the constraints of BIT, INT and BIGINT properties
+     * @return The traversal filtered by the constraints that can be pushed down.
+     */
+    public static GraphTraversal<Element, Element> pushDownConstraints(GraphTraversal<Element, Element> traversal, Schema schema,
+            Map<String, ValueSet> summary, TableSchemaMetaType type, boolean caseInsensitiveMatch, boolean propertyPushdown)
+    {
+        for (Field field : schema.getFields()) {
+            String key = field.getName();
+            ValueSet valueSet = summary.get(key);
+            if (!(valueSet instanceof SortedRangeSet) || valueSet.isNullAllowed()) {
+                continue;
+            }
+            List<Range> ranges = ((SortedRangeSet) valueSet).getOrderedRanges();
+            if (ranges.size() != 1) {
+                continue;
+            }
+            Types.MinorType minorType = Types.getMinorTypeForArrowType(field.getType());
+
+            boolean isEdgeVertexKey = key.equals(SpecialKeys.IN.toString().toLowerCase())
+                    || key.equals(SpecialKeys.OUT.toString().toLowerCase());
+            //the templates read in and out as the vertices of an edge, so a vertex property of that name is left alone
+            if (isEdgeVertexKey && type != TableSchemaMetaType.EDGE) {
+                continue;
+            }
+            //ids are strings, and the key of any other property is only known if columns match keys case-sensitively
+            boolean isSpecialKey = isEdgeVertexKey || key.equals(SpecialKeys.ID.toString().toLowerCase());
+            if (isSpecialKey ? minorType != Types.MinorType.VARCHAR
+                    : !propertyPushdown || caseInsensitiveMatch || !PROPERTY_PUSHDOWN_TYPES.contains(minorType)) {
+                continue;
+            }
+
+            Range range = ranges.get(0);
+            if (range.isSingleValue() && !isSpecialKey) {
+                //the Neptune bulk loader stores properties without a declared type as strings
+                Object value = range.getSingleValue();
+                traversal = traversal.has(key, P.within(value, value.toString()));
+                continue;
+            }
+            if (range.isSingleValue()) {
+                traversal = generateGremlinQueryPart(traversal, key, range.getSingleValue().toString(), field.getType(),
+                        Bound.EXACTLY, Operator.EQUALTO);
+                continue;
+            }
+            Marker low = range.getLow();
+            if (!low.isLowerUnbounded()) {
+                traversal = generateGremlinQueryPart(traversal, key, low.getValue().toString(), field.getType(),
+                        low.getBound(), Operator.GREATERTHAN);
+            }
+            Marker high = range.getHigh();
+            if (!high.isUpperUnbounded()) {
+                traversal = generateGremlinQueryPart(traversal, key, high.getValue().toString(), field.getType(),
+                        high.getBound(), Operator.LESSTHAN);
+            }
+        }
+        return traversal;
+    }
+
     /**
      * Pick and Process pre-defined templates based on parameters to generate
      * gremlin query
@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * athena-neptune
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.neptune.propertygraph;
+
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connectors.neptune.Enums.TableSchemaMetaType;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Partitions the vertices or edges of a label into ranges of their ids so that each range can be read by its own split.
+ * <p>
+ * Neptune ids are strings, so the boundaries of the ranges are picked from a sample of the label's ids, sorted as
+ * strings, and each split reads its range with a has(T.id, ...) filter on the traversal of the label.
+ */
+public final class IdRangeSplitter
+{
+    private static final Logger logger = LoggerFactory.getLogger(IdRangeSplitter.class);
+
+    //The split properties with the inclusive lower and exclusive upper bound of the ids a split reads.
+    public static final String SPLIT_ID_LOWER = "id_lower";
+    public static final String SPLIT_ID_UPPER = "id_upper";
+    //The number of ids sampled per split to pick the boundaries of the ranges with.
+    private static final int SAMPLES_PER_SPLIT = 32;
+
+    private IdRangeSplitter() {}
+
+    /**
+     * @param graphTraversalSource The graph to read.
+     * @param type The type of the table, only vertex and edge tables are split.
+     * @param label The label of the table's vertices or edges.
+     * @param maxSplits The most splits to make.
+     * @param minElementsPerSplit The fewest vertices or edges worth a split of their own.
+     * @return The split properties of each id range, a single empty range if the label is not worth splitting.
+     */
+    public static List<Map<String, String>> split(GraphTraversalSource graphTraversalSource, TableSchemaMetaType type,
+            String label, int maxSplits, long minElementsPerSplit)
+    {
+        if (type != TableSchemaMetaType.VERTEX && type != TableSchemaMetaType.EDGE) {
+            return Collections.singletonList(Collections.emptyMap());
+        }
+
+        long count = elements(graphTraversalSource, type, label).count().next();
+        int splits = (int) Math.min(maxSplits, count / Math.max(1, minElementsPerSplit));
+        if (splits <= 1) {
+            return Collections.singletonList(Collections.emptyMap());
+        }
+
+        TreeSet<String> sortedIds = new TreeSet<>();
+        elements(graphTraversalSource, type, label).sample(splits * SAMPLES_PER_SPLIT).id()
+                .forEachRemaining(id -> sortedIds.add(String.valueOf(id)));
+        List<String> sample = new ArrayList<>(sortedIds);
+
+        //The first range starts below the smallest id and the last one ends above the largest id.
+        TreeSet<String> boundaries = new TreeSet<>();
+        for (int i = 1; i < splits; i++) {
+            boundaries.add(sample.get(i * sample.size() / splits));
+        }
+
+        List<Map<String, String>> ranges = new ArrayList<>();
+        String lower = null;
+        for (String upper : boundaries) {
+            ranges.add(newRange(lower, upper));
+            lower = upper;
+        }
+        ranges.add(newRange(lower, null));
+
+        logger.info("split: {} {} elements of label {} in {} id ranges", count, type, label, ranges.size());
+        return ranges;
+    }
+
+    /**
+     * @param traversal The traversal of the vertices or edges of the table.
+     * @param split The split to read.
+     * @return The traversal limited to the id range of the split, if it has one.
+     */
+    public static <S, E> GraphTraversal<S, E> withIdRange(GraphTraversal<S, E> traversal, Split split)
+    {
+        String lower = split.getProperty(SPLIT_ID_LOWER);
+        String upper = split.getProperty(SPLIT_ID_UPPER);
+        if (lower != null && upper != null) {
+            return traversal.hasId(P.gte(lower).and(P.lt(upper)));
+        }
+        if (lower != null) {
+            return traversal.hasId(P.gte(lower));
+        }
+        if (upper != null) {
+            return traversal.hasId(P.lt(upper));
+        }
+        return traversal;
+    }
+
+    private static GraphTraversal<?, ?> elements(GraphTraversalSource graphTraversalSource, TableSchemaMetaType type, String label)
+    {
+        return (type == TableSchemaMetaType.VERTEX)
+                ? graphTraversalSource.V().hasLabel(label)
+                : graphTraversalSource.E().hasLabel(label);
+    }
+
+    private static Map<String, String> newRange(String lower, String upper)
+    {
+        Map<String, String> range = new HashMap<>();
+        if (lower != null) {
+            range.put(SPLIT_ID_LOWER, lower);
+        }
+        if (upper != null) {
+            range.put(SPLIT_ID_UPPER, upper);
+        }
+        return range;
+    }
+}
@@ -19,6 +19,7 @@
  */
 package com.amazonaws.athena.connectors.neptune.propertygraph;
 
+import com.amazonaws.athena.connectors.neptune.Constants;
 import com.amazonaws.athena.connectors.neptune.NeptuneConnection;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
@@ -38,12 +39,22 @@ public class NeptuneGremlinConnection extends NeptuneConnection
     private static Cluster cluster = null;
 
     public NeptuneGremlinConnection(String neptuneEndpoint, String neptunePort, boolean enabledIAM, String region)
+    {
+        this(neptuneEndpoint, neptunePort, enabledIAM, region, Constants.DEFAULT_GREMLIN_BATCH_SIZE);
+    }
+
+    /**
+     * @param resultBatchSize The number of results Neptune streams back per response message of a request, fewer
+     *                        larger batches cut the per-message overhead of reading large vertex and edge tables.
+     */
+    public NeptuneGremlinConnection(String neptuneEndpoint, String neptunePort, boolean enabledIAM, String region, int resultBatchSize)
     {
         super(neptuneEndpoint, neptunePort, enabledIAM, region);
         Cluster.Builder builder = Cluster.build();
         builder.addContactPoint(neptuneEndpoint)
                .port(Integer.parseInt(neptunePort))
-               .enableSsl(true);
+               .enableSsl(true)
+               .resultIterationBatchSize(resultBatchSize);
                
         if (enabledIAM) {
             logger.info("Connecting with IAM auth to https://" + neptuneEndpoint + ":" + neptunePort + " in " + region);
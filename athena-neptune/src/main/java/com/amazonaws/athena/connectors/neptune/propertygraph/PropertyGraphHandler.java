@@ -25,6 +25,7 @@ import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connectors.neptune.Constants;
+import com.amazonaws.athena.connectors.neptune.Enums.SpecialKeys;
 import com.amazonaws.athena.connectors.neptune.Enums.TableSchemaMetaType;
 import com.amazonaws.athena.connectors.neptune.NeptuneConnection;
 import com.amazonaws.athena.connectors.neptune.propertygraph.rowwriters.CustomSchemaRowWriter;
@@ -33,6 +34,7 @@ import com.amazonaws.athena.connectors.neptune.propertygraph.rowwriters.VertexRo
 import com.amazonaws.athena.connectors.neptune.qpt.NeptuneGremlinQueryPassthrough;
 import org.apache.arrow.util.VisibleForTesting;
 import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
 import org.apache.tinkerpop.gremlin.jsr223.GremlinLangScriptEngine;
@@ -46,7 +48,9 @@ import javax.script.Bindings;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -130,6 +134,8 @@ public class PropertyGraphHandler
         String type = recordsRequest.getSchema().getCustomMetadata().get(Constants.SCHEMA_COMPONENT_TYPE);
         String glabel = recordsRequest.getSchema().getCustomMetadata().get(Constants.SCHEMA_GLABEL);
         TableSchemaMetaType tableSchemaMetaType = TableSchemaMetaType.valueOf(type.toUpperCase());
+        boolean caseInsensitiveMatch = (configOptions.get(Constants.SCHEMA_CASE_INSEN) == null) ? true : Boolean.parseBoolean(configOptions.get(Constants.SCHEMA_CASE_INSEN));
+        boolean propertyPushdown = Boolean.parseBoolean(configOptions.get(Constants.CFG_GREMLIN_PROPERTY_PUSHDOWN));
 
         logger.debug("readWithConstraint: schema type is " + tableSchemaMetaType.toString());
         
@@ -143,7 +149,11 @@ public class PropertyGraphHandler
                 case VERTEX:
                     if (!recordsRequest.getConstraints().isQueryPassThrough()) {
                         graphTraversal = graphTraversalSource.V().hasLabel(labelName);
-                        graphTraversal = graphTraversal.valueMap().with(WithOptions.tokens);
+                        graphTraversal = IdRangeSplitter.withIdRange(graphTraversal, recordsRequest.getSplit());
+                        graphTraversal = GremlinQueryPreProcessor.pushDownConstraints(graphTraversal, recordsRequest.getSchema(),
+                                recordsRequest.getConstraints().getSummary(), tableSchemaMetaType, caseInsensitiveMatch, propertyPushdown);
+                        graphTraversal = graphTraversal.valueMap(getPropertyKeys(recordsRequest.getSchema(), tableSchemaMetaType, caseInsensitiveMatch))
+                                .with(WithOptions.tokens);
                     }
 
                     for (final Field nextField : recordsRequest.getSchema().getFields()) {
@@ -157,7 +167,10 @@ public class PropertyGraphHandler
                 case EDGE:
                     if (!recordsRequest.getConstraints().isQueryPassThrough()) {
                         graphTraversal = graphTraversalSource.E().hasLabel(labelName);
-                        graphTraversal = graphTraversal.elementMap();
+                        graphTraversal = IdRangeSplitter.withIdRange(graphTraversal, recordsRequest.getSplit());
+                        graphTraversal = GremlinQueryPreProcessor.pushDownConstraints(graphTraversal, recordsRequest.getSchema(),
+                                recordsRequest.getConstraints().getSummary(), tableSchemaMetaType, caseInsensitiveMatch, propertyPushdown);
+                        graphTraversal = graphTraversal.elementMap(getPropertyKeys(recordsRequest.getSchema(), tableSchemaMetaType, caseInsensitiveMatch));
                     }
 
                     for (final Field nextField : recordsRequest.getSchema().getFields()) {
@@ -208,6 +221,28 @@ public class PropertyGraphHandler
         return engine.eval(gremlinQuery, bindings);
     }
 
+    /**
+     * The property keys to fetch for the columns of the read. The row writers look properties up case-insensitively
+     * by default, in which case the keys are unknown and every property is fetched (no keys). The id column, and the
+     * in and out columns of an edge, are read from the tokens of the element rather than from its properties.
+     */
+    private static String[] getPropertyKeys(Schema schema, TableSchemaMetaType type, boolean caseInsensitiveMatch)
+    {
+        List<String> keys = new ArrayList<>();
+        if (!caseInsensitiveMatch) {
+            for (Field field : schema.getFields()) {
+                String key = field.getName();
+                boolean isToken = key.equals(SpecialKeys.ID.toString().toLowerCase())
+                        || (type == TableSchemaMetaType.EDGE && (key.equals(SpecialKeys.IN.toString().toLowerCase())
+                                || key.equals(SpecialKeys.OUT.toString().toLowerCase())));
+                if (!isToken) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys.toArray(new String[0]);
+    }
+
     private void parseNodeOrEdge(final QueryStatusChecker queryStatusChecker, final BlockSpiller spiller, long numRows,
             GraphTraversal graphTraversal, GeneratedRowWriter.RowWriterBuilder builder) 
     {
@@ -151,6 +151,7 @@ public class RDFHandler
                 }
                 sparql.append(" WHERE {");
                 sparql.append("\n?" + subject + " a " + classURI + " . ");
+                sparql.append(SubjectBuckets.filterFor(subject, recordsRequest.getSplit()));
                 for (Field prop : recordsRequest.getSchema().getFields()) {
                     if (!prop.getName().equals(subject)) {
                         sparql.append("\n?" + subject + " " + predsPrefix + ":" + prop.getName() + " ?" + prop.getName()
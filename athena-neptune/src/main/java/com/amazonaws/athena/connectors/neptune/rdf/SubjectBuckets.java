@@ -0,0 +1,90 @@
+/*-
+ * #%L
+ * athena-neptune
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.neptune.rdf;
+
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitions the subjects of a class table into hash buckets so that each bucket can be read by its own split.
+ * <p>
+ * A subject belongs to the bucket of the first hex digit of the MD5 of its IRI, so each split filters the subjects of
+ * the class with FILTER(SUBSTR(MD5(STR(?subject)), 1, 1) IN (...)) and the splits never page with LIMIT/OFFSET, which
+ * would have Neptune evaluate the query up to the offset for every split.
+ * <p>
+ * STR() of a blank node is an error, which would make the FILTER false in every bucket, so blank node subjects are all
+ * read by the first bucket instead.
+ */
+public final class SubjectBuckets
+{
+    //The split properties with the bucket a split reads and the number of buckets.
+    public static final String SPLIT_SUBJECT_BUCKET = "subject_bucket";
+    public static final String SPLIT_SUBJECT_BUCKETS = "subject_buckets";
+    //The number of values of the first hex digit of an MD5.
+    private static final int MAX_BUCKETS = 16;
+    private static final String HEX_DIGITS = "0123456789abcdef";
+
+    private SubjectBuckets() {}
+
+    /**
+     * @param maxSplits The most splits to make.
+     * @return The split properties of each bucket, a single empty bucket if maxSplits is 1.
+     */
+    public static List<Map<String, String>> split(int maxSplits)
+    {
+        int buckets = Math.min(maxSplits, MAX_BUCKETS);
+        if (buckets <= 1) {
+            return Collections.singletonList(Collections.emptyMap());
+        }
+        List<Map<String, String>> splits = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            splits.add(ImmutableMap.of(SPLIT_SUBJECT_BUCKET, String.valueOf(bucket), SPLIT_SUBJECT_BUCKETS, String.valueOf(buckets)));
+        }
+        return splits;
+    }
+
+    /**
+     * @param subject The name of the subject variable of the query.
+     * @param split The split to read.
+     * @return The FILTER limiting the subjects to the bucket of the split, empty if the split has no bucket.
+     */
+    public static String filterFor(String subject, Split split)
+    {
+        String buckets = split.getProperty(SPLIT_SUBJECT_BUCKETS);
+        if (buckets == null) {
+            return "";
+        }
+        int bucket = Integer.parseInt(split.getProperty(SPLIT_SUBJECT_BUCKET));
+        StringBuilder digits = new StringBuilder();
+        for (int digit = bucket; digit < MAX_BUCKETS; digit += Integer.parseInt(buckets)) {
+            digits.append((digits.length() == 0) ? "" : ", ").append('"').append(HEX_DIGITS.charAt(digit)).append('"');
+        }
+        String inBucket = "SUBSTR(MD5(STR(?" + subject + ")), 1, 1) IN (" + digits + ")";
+        String isBlank = "isBlank(?" + subject + ")";
+        return (bucket == 0)
+                ? "\nFILTER(" + isBlank + " || " + inBucket + ")"
+                : "\nFILTER(!" + isBlank + " && " + inBucket + ")";
+    }
+}
@@ -19,9 +19,16 @@
  */
 package com.amazonaws.athena.connectors.neptune;
 
+import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
@@ -29,6 +36,8 @@ import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.amazonaws.athena.connectors.neptune.rdf.SubjectBuckets;
+import org.apache.arrow.vector.types.pojo.Schema;
 
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -55,11 +64,14 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest.UNLIMITED_PAGE_SIZE_VALUE;
 import static com.amazonaws.athena.connector.lambda.metadata.optimizations.querypassthrough.QueryPassthroughSignature.SCHEMA_FUNCTION_NAME;
 import static com.amazonaws.athena.connectors.neptune.qpt.NeptuneGremlinQueryPassthrough.COLLECTION;
@@ -223,6 +235,60 @@ public class NeptuneMetadataHandlerTest extends TestBase {
         }
     }
 
+    @Test
+    public void doGetSplits_singleSplitByDefault() throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addMetadata(Constants.SCHEMA_COMPONENT_TYPE, "vertex")
+                .addStringField("name")
+                .build();
+
+        GetSplitsResponse response = handler.doGetSplits(allocator, newSplitsRequest(doGetTableLayout(schema)));
+
+        assertEquals(1, response.getSplits().size());
+        assertTrue(response.getSplits().iterator().next().getProperties().isEmpty());
+    }
+
+    @Test
+    public void doGetSplits_withMaxSplits_bucketsSubjectsOfClassTable() throws Exception
+    {
+        handler = new NeptuneMetadataHandler(glue, neptuneConnection,
+                new LocalKeyFactory(), mock(SecretsManagerClient.class), mock(AthenaClient.class), "spill-bucket",
+                "spill-prefix", com.google.common.collect.ImmutableMap.of(Constants.CFG_GRAPH_TYPE, "rdf", Constants.CFG_MAX_SPLITS, "4"));
+        Schema schema = SchemaBuilder.newBuilder()
+                .addMetadata(Constants.SCHEMA_QUERY_MODE, Constants.QUERY_MODE_CLASS)
+                .addMetadata(Constants.SCHEMA_CLASS_URI, "ex:Airport")
+                .addStringField("name")
+                .build();
+
+        GetSplitsResponse response = handler.doGetSplits(allocator, newSplitsRequest(doGetTableLayout(schema)));
+
+        assertEquals(4, response.getSplits().size());
+        Set<String> buckets = new HashSet<>();
+        for (Split split : response.getSplits()) {
+            assertEquals("4", split.getProperty(SubjectBuckets.SPLIT_SUBJECT_BUCKETS));
+            buckets.add(split.getProperty(SubjectBuckets.SPLIT_SUBJECT_BUCKET));
+        }
+        assertEquals(4, buckets.size());
+    }
+
+    private Block doGetTableLayout(Schema schema) throws Exception
+    {
+        GetTableLayoutRequest request = new GetTableLayoutRequest(IDENTITY, QUERY_ID, DEFAULT_CATALOG, TABLE_NAME,
+                new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                schema, Collections.emptySet());
+        Block partitions = handler.doGetTableLayout(allocator, request).getPartitions();
+        assertEquals(1, partitions.getRowCount());
+        return partitions;
+    }
+
+    private GetSplitsRequest newSplitsRequest(Block partitions)
+    {
+        return new GetSplitsRequest(IDENTITY, QUERY_ID, DEFAULT_CATALOG, TABLE_NAME, partitions, Collections.emptyList(),
+                new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                null);
+    }
+
     private GraphTraversalSource buildGremlinTestGraph()
     {
         try (TinkerGraph tinkerGraph = TinkerGraph.open()) {
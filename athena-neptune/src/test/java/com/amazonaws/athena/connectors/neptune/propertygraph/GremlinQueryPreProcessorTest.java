@@ -0,0 +1,180 @@
+/*-
+ * #%L
+ * athena-neptune
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.neptune.propertygraph;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connectors.neptune.Enums.TableSchemaMetaType;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class GremlinQueryPreProcessorTest
+{
+    private BlockAllocatorImpl allocator;
+    private TinkerGraph graph;
+    private GraphTraversalSource g;
+    private Schema schema;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        graph = TinkerGraph.open();
+        Vertex marko = graph.addVertex(T.id, "p1", T.label, "person", "name", "marko", "age", 29, "score", 1.5);
+        Vertex vadas = graph.addVertex(T.id, "p2", T.label, "person", "name", "vadas", "age", 27, "score", 2.5);
+        graph.addVertex(T.id, "p3", T.label, "person", "name", "josh", "age", 32, "score", 3.5);
+        graph.addVertex(T.id, "p4", T.label, "person", "name", "peter", "age", 35, "score", 4.5);
+        g = graph.traversal();
+        g.addE("knows").from(marko).to(vadas).property(T.id, "e1").property("weight", 1).next();
+        g.addE("knows").from(vadas).to(marko).property(T.id, "e2").property("weight", 2).next();
+
+        schema = SchemaBuilder.newBuilder()
+                .addStringField("id")
+                .addStringField("in")
+                .addStringField("out")
+                .addStringField("name")
+                .addIntField("age")
+                .addIntField("weight")
+                .addFloat8Field("score")
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        graph.close();
+        allocator.close();
+    }
+
+    @Test
+    public void pushDownConstraints_RangeAndSingleValue()
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("age", SortedRangeSet.of(Range.range(allocator, Types.MinorType.INT.getType(), 29, true, 35, false)));
+        assertEquals(List.of("p1", "p3"), vertexIds(summary, false, true));
+
+        summary.put("id", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "p3")));
+        assertEquals(List.of("p3"), vertexIds(summary, false, true));
+    }
+
+    @Test
+    public void pushDownConstraints_PropertiesOnlyOnRequest()
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("age", SortedRangeSet.of(Range.greaterThan(allocator, Types.MinorType.INT.getType(), 30)));
+        assertEquals(List.of("p1", "p2", "p3", "p4"), vertexIds(summary, false, false));
+
+        summary.put("id", SortedRangeSet.of(Range.greaterThan(allocator, Types.MinorType.VARCHAR.getType(), "p2")));
+        assertEquals(List.of("p3", "p4"), vertexIds(summary, false, false));
+    }
+
+    @Test
+    public void pushDownConstraints_KeepsConvertedAndMultiValuedProperties()
+    {
+        //the row writers read "30" as the int 30 and write the values of a multi-valued VARCHAR property joined by ';'
+        g.addV("item").property(T.id, "i1").property("count", "30").property("tags", "a").next();
+        g.addV("item").property(T.id, "i2").property("count", 30)
+                .property(VertexProperty.Cardinality.list, "tags", "a")
+                .property(VertexProperty.Cardinality.list, "tags", "b").next();
+        g.addV("item").property(T.id, "i3").property("count", 31).property("tags", "a;b").next();
+        Schema itemSchema = SchemaBuilder.newBuilder()
+                .addStringField("id")
+                .addIntField("count")
+                .addStringField("tags")
+                .build();
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("count", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.INT.getType(), 30)));
+        assertEquals(List.of("i1", "i2"), GremlinQueryPreProcessor.pushDownConstraints((GraphTraversal) g.V().hasLabel("item"),
+                itemSchema, summary, TableSchemaMetaType.VERTEX, false, true).id().order().toList());
+
+        summary.clear();
+        summary.put("tags", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "a;b")));
+        assertEquals(List.of("i1", "i2", "i3"), GremlinQueryPreProcessor.pushDownConstraints((GraphTraversal) g.V().hasLabel("item"),
+                itemSchema, summary, TableSchemaMetaType.VERTEX, false, true).id().order().toList());
+    }
+
+    @Test
+    public void pushDownConstraints_CaseInsensitiveMatchOnlyPushesDownIds()
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("age", SortedRangeSet.of(Range.greaterThan(allocator, Types.MinorType.INT.getType(), 30)));
+        assertEquals(List.of("p1", "p2", "p3", "p4"), vertexIds(summary, true, true));
+
+        summary.put("id", SortedRangeSet.of(Range.lessThanOrEqual(allocator, Types.MinorType.VARCHAR.getType(), "p2")));
+        assertEquals(List.of("p1", "p2"), vertexIds(summary, true, true));
+    }
+
+    @Test
+    public void pushDownConstraints_NotPushedDown()
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        //nulls, several ranges, floating point and VARCHAR properties are left to the ConstraintEvaluator
+        summary.put("age", SortedRangeSet.of(true, Range.equal(allocator, Types.MinorType.INT.getType(), 29)));
+        summary.put("id", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "p1"),
+                Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "p2")));
+        summary.put("name", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "josh")));
+        summary.put("score", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.FLOAT8.getType(), 1.5D)));
+        assertEquals(List.of("p1", "p2", "p3", "p4"), vertexIds(summary, false, true));
+    }
+
+    @Test
+    public void pushDownConstraints_EdgeVertices()
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("in", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "p1")));
+        GraphTraversal<Element, Element> traversal = GremlinQueryPreProcessor.pushDownConstraints(
+                (GraphTraversal) g.E().hasLabel("knows"), schema, summary, TableSchemaMetaType.EDGE, true, true);
+        assertEquals(List.of("e2"), traversal.id().toList());
+
+        summary.put("weight", SortedRangeSet.of(Range.greaterThan(allocator, Types.MinorType.INT.getType(), 1)));
+        summary.put("out", SortedRangeSet.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "p1")));
+        traversal = GremlinQueryPreProcessor.pushDownConstraints(
+                (GraphTraversal) g.E().hasLabel("knows"), schema, summary, TableSchemaMetaType.EDGE, false, true);
+        assertEquals(0, traversal.count().next().longValue());
+    }
+
+    private List<Object> vertexIds(Map<String, ValueSet> summary, boolean caseInsensitiveMatch, boolean propertyPushdown)
+    {
+        GraphTraversal<Element, Element> traversal = GremlinQueryPreProcessor.pushDownConstraints(
+                (GraphTraversal) g.V().hasLabel("person"), schema, summary, TableSchemaMetaType.VERTEX, caseInsensitiveMatch,
+                propertyPushdown);
+        return traversal.id().order().toList();
+    }
+}
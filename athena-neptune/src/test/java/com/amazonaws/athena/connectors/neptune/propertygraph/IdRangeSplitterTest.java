@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * athena-neptune
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.neptune.propertygraph;
+
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connectors.neptune.Enums.TableSchemaMetaType;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdRangeSplitterTest
+{
+    private TinkerGraph graph;
+    private GraphTraversalSource g;
+
+    @Before
+    public void setUp()
+    {
+        graph = TinkerGraph.open();
+        Vertex previous = null;
+        for (int i = 0; i < 50; i++) {
+            Vertex vertex = graph.addVertex(T.id, String.format("airport-%02d", i), T.label, "airport");
+            if (previous != null) {
+                g = graph.traversal();
+                g.addE("route").from(previous).to(vertex).property(T.id, String.format("route-%02d", i)).next();
+            }
+            previous = vertex;
+        }
+        graph.addVertex(T.id, "country-00", T.label, "country");
+        g = graph.traversal();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        graph.close();
+    }
+
+    @Test
+    public void split_RangesCoverEachVertexOnce()
+    {
+        List<Map<String, String>> ranges = IdRangeSplitter.split(g, TableSchemaMetaType.VERTEX, "airport", 4, 10);
+
+        assertEquals(4, ranges.size());
+        Set<Object> ids = new HashSet<>();
+        int read = 0;
+        for (Map<String, String> range : ranges) {
+            List<Object> rangeIds = IdRangeSplitter.withIdRange(g.V().hasLabel("airport"), newSplit(range)).id().toList();
+            assertTrue(rangeIds.size() > 0);
+            ids.addAll(rangeIds);
+            read += rangeIds.size();
+        }
+        assertEquals(50, read);
+        assertEquals(50, ids.size());
+    }
+
+    @Test
+    public void split_Edges()
+    {
+        List<Map<String, String>> ranges = IdRangeSplitter.split(g, TableSchemaMetaType.EDGE, "route", 3, 10);
+
+        assertEquals(3, ranges.size());
+        long read = 0;
+        for (Map<String, String> range : ranges) {
+            read += IdRangeSplitter.withIdRange(g.E().hasLabel("route"), newSplit(range)).count().next();
+        }
+        assertEquals(49, read);
+    }
+
+    @Test
+    public void split_SmallLabelNotSplit()
+    {
+        assertEquals(1, IdRangeSplitter.split(g, TableSchemaMetaType.VERTEX, "airport", 4, 100).size());
+        assertEquals(1, IdRangeSplitter.split(g, TableSchemaMetaType.VIEW, "airport", 4, 10).size());
+        assertEquals(51, IdRangeSplitter.withIdRange(g.V(), newSplit(Map.of())).count().next().longValue());
+    }
+
+    private static Split newSplit(Map<String, String> properties)
+    {
+        S3SpillLocation spillLocation = S3SpillLocation.newBuilder().withBucket("bucket").withPrefix("prefix")
+                .withQueryId("queryId").withSplitId("splitId").withIsDirectory(true).build();
+        return Split.newBuilder(spillLocation, null).applyProperties(properties).build();
+    }
+}
@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * athena-neptune
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.neptune.rdf;
+
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SubjectBucketsTest
+{
+    @Test
+    public void split_AtMostOneBucketPerHexDigit()
+    {
+        assertEquals(1, SubjectBuckets.split(1).size());
+        assertEquals(4, SubjectBuckets.split(4).size());
+        assertEquals(16, SubjectBuckets.split(64).size());
+    }
+
+    @Test
+    public void filterFor()
+    {
+        List<Map<String, String>> buckets = SubjectBuckets.split(4);
+        assertEquals("\nFILTER(!isBlank(?s) && SUBSTR(MD5(STR(?s)), 1, 1) IN (\"1\", \"5\", \"9\", \"d\"))",
+                SubjectBuckets.filterFor("s", newSplit(buckets.get(1))));
+        assertEquals("", SubjectBuckets.filterFor("s", newSplit(Map.of())));
+    }
+
+    @Test
+    public void filterFor_BlankNodesInFirstBucket()
+    {
+        List<Map<String, String>> buckets = SubjectBuckets.split(4);
+        assertEquals("\nFILTER(isBlank(?s) || SUBSTR(MD5(STR(?s)), 1, 1) IN (\"0\", \"4\", \"8\", \"c\"))",
+                SubjectBuckets.filterFor("s", newSplit(buckets.get(0))));
+        for (int bucket = 1; bucket < buckets.size(); bucket++) {
+            assertTrue(SubjectBuckets.filterFor("s", newSplit(buckets.get(bucket))).startsWith("\nFILTER(!isBlank(?s) && "));
+        }
+    }
+
+    private static Split newSplit(Map<String, String> properties)
+    {
+        S3SpillLocation spillLocation = S3SpillLocation.newBuilder().withBucket("bucket").withPrefix("prefix")
+                .withQueryId("queryId").withSplitId("splitId").withIsDirectory(true).build();
+        return Split.newBuilder(spillLocation, null).applyProperties(properties).build();
+    }
+}
@@ -27,6 +27,7 @@ import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.functions.StandardFunctions;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesRequest;
@@ -53,6 +54,8 @@ import com.amazonaws.athena.connectors.jdbc.splits.Splitter;
 import com.amazonaws.athena.connectors.jdbc.splits.SplitterFactory;
 import com.amazonaws.athena.connectors.postgresql.resolver.PostGreSqlJDBCCaseResolver;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.arrow.vector.complex.reader.FieldReader;
@@ -76,6 +79,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRESQL_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRESQL_DRIVER_CLASS;
@@ -94,6 +98,16 @@ public class PostGreSqlMetadataHandler
             "ON pg_inherits.inhparent = parent.oid JOIN pg_class child ON pg_inherits.inhrelid = child.oid JOIN pg_namespace nmsp_parent " +
             "ON nmsp_parent.oid = parent.relnamespace JOIN pg_namespace nmsp_child ON nmsp_child.oid = child.relnamespace where nmsp_parent.nspname = ? " +
             "AND parent.relname = ?";
+    // Also returns the partition key of the table and the bound of each partition, PostgreSQL 10 and later.
+    static final String GET_PARTITION_BOUNDS_QUERY = "SELECT nmsp_child.nspname AS child_schema, child.relname AS child, " +
+            "pg_get_partkeydef(parent.oid) AS partition_key, pg_get_expr(child.relpartbound, child.oid) AS partition_bound FROM pg_inherits JOIN pg_class parent " +
+            "ON pg_inherits.inhparent = parent.oid JOIN pg_class child ON pg_inherits.inhrelid = child.oid JOIN pg_namespace nmsp_parent " +
+            "ON nmsp_parent.oid = parent.relnamespace JOIN pg_namespace nmsp_child ON nmsp_child.oid = child.relnamespace where nmsp_parent.nspname = ? " +
+            "AND parent.relname = ?";
+    // The number and the oids of the partitions of a table, tells if a cached list of partitions is still current.
+    static final String GET_PARTITION_CHILDREN_QUERY = "SELECT count(*)::text || ',' || coalesce(sum(pg_inherits.inhrelid::bigint), 0)::text AS children " +
+            "FROM pg_inherits JOIN pg_class parent ON pg_inherits.inhparent = parent.oid JOIN pg_namespace nmsp_parent " +
+            "ON nmsp_parent.oid = parent.relnamespace where nmsp_parent.nspname = ? AND parent.relname = ?";
     public static final String BLOCK_PARTITION_COLUMN_NAME = "partition_name";
     public static final String BLOCK_PARTITION_SCHEMA_COLUMN_NAME = "partition_schema_name";
     private static final String MATERIALIZED_VIEWS = "Materialized Views";
@@ -101,6 +115,16 @@ public class PostGreSqlMetadataHandler
     private static final Logger LOGGER = LoggerFactory.getLogger(PostGreSqlMetadataHandler.class);
     private static final String PARTITION_SCHEMA_NAME = "child_schema";
     private static final String PARTITION_NAME = "child";
+    private static final String PARTITION_KEY = "partition_key";
+    private static final String PARTITION_BOUND = "partition_bound";
+    private static final String PARTITION_CHILDREN = "children";
+    // Seconds the partition bounds of a table are cached for between queries, 0 (the default) disables the cache.
+    // Before a cached list is used, the number and oids of the table's partitions are checked against the catalog, so
+    // attaching or detaching a partition is seen right away. A partition that is detached and attached again with a
+    // different bound keeps its oid though, and is pruned with its old bound until the entry expires, which can drop
+    // rows. Only enable the cache for tables whose partition bounds don't change that way.
+    static final String PARTITION_CACHE_TTL_SECONDS = "partition_cache_ttl_seconds";
+    private static final long DEFAULT_PARTITION_CACHE_TTL_SECONDS = 0;
     private static final int MAX_SPLITS_PER_REQUEST = 1000_000;
 
     static final String LIST_PAGINATED_TABLES_QUERY = "SELECT a.\"TABLE_NAME\", a.\"TABLE_SCHEM\" FROM ((SELECT table_name as \"TABLE_NAME\", table_schema as \"TABLE_SCHEM\" FROM information_schema.tables WHERE table_schema = ?) UNION (SELECT matviewname as \"TABLE_NAME\", schemaname as \"TABLE_SCHEM\" from pg_catalog.pg_matviews mv where has_table_privilege(format('%I.%I', mv.schemaname, mv.matviewname), 'select') and schemaname = ?)) AS a ORDER BY a.\"TABLE_NAME\" LIMIT ? OFFSET ?";
@@ -113,6 +137,8 @@ public class PostGreSqlMetadataHandler
     protected static final String SQL_SPLITS_STRING = "select min(%s), max(%s) from %s.%s";
     protected static final int DEFAULT_NUM_SPLITS = 20;
 
+    private Cache<TableName, CachedPartitionBounds> partitionBoundsCache;
+
     /**
      * Instantiates handler to be used by Lambda function directly.
      *
@@ -201,6 +227,18 @@ public class PostGreSqlMetadataHandler
     {
         LOGGER.info("{}: Catalog {}, table {}", getTableLayoutRequest.getQueryId(), getTableLayoutRequest.getTableName().getSchemaName(),
                 getTableLayoutRequest.getTableName().getTableName());
+        Map<String, ValueSet> summary = getTableLayoutRequest.getConstraints().getSummary();
+        // Only pruning needs the bounds, which are costly for the catalog to render and are the only thing worth
+        // caching. Without constraints the plain listing below is a single query, as cheap as checking a cached list
+        // is current, so it always reads the catalog.
+        if (supportsPartitionBounds() && summary != null && !summary.isEmpty()) {
+            Optional<List<PartitionBound>> partitionBounds = getPartitionBounds(getTableLayoutRequest);
+            if (partitionBounds.isPresent()) {
+                writePrunedPartitions(blockWriter, getTableLayoutRequest, partitionBounds.get(), summary);
+                return;
+            }
+        }
+
         try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider(getRequestOverrideConfig(getTableLayoutRequest)))) {
             List<String> parameters = Arrays.asList(getTableLayoutRequest.getTableName().getSchemaName(),
                     getTableLayoutRequest.getTableName().getTableName());
@@ -208,26 +246,16 @@ public class PostGreSqlMetadataHandler
                     ResultSet resultSet = preparedStatement.executeQuery()) {
                 // Return a single partition if no partitions defined
                 if (!resultSet.next()) {
-                    blockWriter.writeRows((Block block, int rowNum) -> {
-                        block.setValue(BLOCK_PARTITION_SCHEMA_COLUMN_NAME, rowNum, ALL_PARTITIONS);
-                        block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, ALL_PARTITIONS);
-                        //we wrote 1 row so we return 1
-                        return 1;
-                    });
+                    writeAllPartitions(blockWriter);
                 }
                 else {
                     do {
                         final String partitionSchemaName = resultSet.getString(PARTITION_SCHEMA_NAME);
                         final String partitionName = resultSet.getString(PARTITION_NAME);
 
-                        // 1. Returns all partitions of table, we are not supporting constraints push down to filter partitions.
+                        // 1. Returns all partitions of table, without constraints there is nothing to prune.
                         // 2. This API is not paginated, we could use order by and limit clause with offsets here.
-                        blockWriter.writeRows((Block block, int rowNum) -> {
-                            block.setValue(BLOCK_PARTITION_SCHEMA_COLUMN_NAME, rowNum, partitionSchemaName);
-                            block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionName);
-                            //we wrote 1 row so we return 1
-                            return 1;
-                        });
+                        writePartition(blockWriter, partitionSchemaName, partitionName);
                     }
                     while (resultSet.next());
                 }
@@ -235,6 +263,148 @@ public class PostGreSqlMetadataHandler
         }
     }
 
+    /**
+     * Whether the source exposes the bounds of declarative partitions (pg_get_partkeydef, relpartbound), so that
+     * partitions can be pruned with the constraints of a query.
+     */
+    protected boolean supportsPartitionBounds()
+    {
+        return true;
+    }
+
+    /**
+     * Writes the partitions of the table that may hold rows matching the constraints. Partitions whose bound can't
+     * be evaluated are kept, if no partition is left the query reads nothing.
+     */
+    private void writePrunedPartitions(BlockWriter blockWriter, GetTableLayoutRequest getTableLayoutRequest, List<PartitionBound> partitionBounds,
+            Map<String, ValueSet> summary)
+    {
+        if (partitionBounds.isEmpty()) {
+            writeAllPartitions(blockWriter);
+            return;
+        }
+        Optional<PostGreSqlPartitionPruner> pruner = PostGreSqlPartitionPruner.create(partitionBounds.get(0).partitionKey,
+                getTableLayoutRequest.getSchema(), summary);
+        int pruned = 0;
+        for (PartitionBound next : partitionBounds) {
+            if (pruner.isPresent() && !pruner.get().mayMatch(next.bound)) {
+                pruned++;
+                continue;
+            }
+            writePartition(blockWriter, next.schemaName, next.name);
+        }
+        LOGGER.info("{}: Pruned {} of {} partitions", getTableLayoutRequest.getQueryId(), pruned, partitionBounds.size());
+    }
+
+    /**
+     * @return The partitions of the table with their bounds, possibly cached, or empty if the bounds can't be queried,
+     * e.g. before PostgreSQL 10.
+     */
+    private Optional<List<PartitionBound>> getPartitionBounds(GetTableLayoutRequest getTableLayoutRequest)
+            throws Exception
+    {
+        Cache<TableName, CachedPartitionBounds> cache = getPartitionBoundsCache();
+        TableName tableName = getTableLayoutRequest.getTableName();
+        List<String> parameters = Arrays.asList(tableName.getSchemaName(), tableName.getTableName());
+        try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider(getRequestOverrideConfig(getTableLayoutRequest)))) {
+            String children = null;
+            if (cache != null) {
+                children = getPartitionChildren(connection, parameters);
+                CachedPartitionBounds cached = cache.getIfPresent(tableName);
+                if (cached != null && cached.children.equals(children)) {
+                    return Optional.of(cached.partitionBounds);
+                }
+            }
+
+            List<PartitionBound> partitionBounds = new ArrayList<>();
+            try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_BOUNDS_QUERY).withParameters(parameters).build();
+                    ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitionBounds.add(new PartitionBound(resultSet.getString(PARTITION_SCHEMA_NAME), resultSet.getString(PARTITION_NAME),
+                            resultSet.getString(PARTITION_KEY), resultSet.getString(PARTITION_BOUND)));
+                }
+            }
+            if (cache != null) {
+                cache.put(tableName, new CachedPartitionBounds(children, partitionBounds));
+            }
+            return Optional.of(partitionBounds);
+        }
+        catch (SQLException ex) {
+            LOGGER.warn("{}: Unable to query the partition bounds of {}, partitions won't be pruned", getTableLayoutRequest.getQueryId(), tableName, ex);
+            return Optional.empty();
+        }
+    }
+
+    private static String getPartitionChildren(Connection connection, List<String> parameters)
+            throws SQLException
+    {
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection).withQuery(GET_PARTITION_CHILDREN_QUERY).withParameters(parameters).build();
+                ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(PARTITION_CHILDREN) : "";
+        }
+    }
+
+    private synchronized Cache<TableName, CachedPartitionBounds> getPartitionBoundsCache()
+    {
+        long ttlSeconds = Long.parseLong(configOptions.getOrDefault(PARTITION_CACHE_TTL_SECONDS, String.valueOf(DEFAULT_PARTITION_CACHE_TTL_SECONDS)));
+        if (ttlSeconds <= 0) {
+            return null;
+        }
+        if (partitionBoundsCache == null) {
+            partitionBoundsCache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                    .maximumSize(1_000)
+                    .build();
+        }
+        return partitionBoundsCache;
+    }
+
+    private static void writeAllPartitions(BlockWriter blockWriter)
+    {
+        writePartition(blockWriter, ALL_PARTITIONS, ALL_PARTITIONS);
+    }
+
+    private static void writePartition(BlockWriter blockWriter, String partitionSchemaName, String partitionName)
+    {
+        blockWriter.writeRows((Block block, int rowNum) -> {
+            block.setValue(BLOCK_PARTITION_SCHEMA_COLUMN_NAME, rowNum, partitionSchemaName);
+            block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionName);
+            //we wrote 1 row so we return 1
+            return 1;
+        });
+    }
+
+    /**
+     * A partition of a table, as listed by GET_PARTITION_BOUNDS_QUERY.
+     */
+    private static final class PartitionBound
+    {
+        private final String schemaName;
+        private final String name;
+        private final String partitionKey;
+        private final String bound;
+
+        private PartitionBound(String schemaName, String name, String partitionKey, String bound)
+        {
+            this.schemaName = schemaName;
+            this.name = name;
+            this.partitionKey = partitionKey;
+            this.bound = bound;
+        }
+    }
+
+    private static final class CachedPartitionBounds
+    {
+        private final String children;
+        private final List<PartitionBound> partitionBounds;
+
+        private CachedPartitionBounds(String children, List<PartitionBound> partitionBounds)
+        {
+            this.children = children;
+            this.partitionBounds = partitionBounds;
+        }
+    }
+
     @Override
     public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest getSplitsRequest)
     {
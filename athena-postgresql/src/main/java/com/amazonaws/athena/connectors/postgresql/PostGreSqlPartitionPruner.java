@@ -0,0 +1,279 @@
+/*-
+ * #%L
+ * athena-postgresql
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.postgresql;
+
+import com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides, from the bound of a declarative partition, whether the partition may hold rows matching the constraints
+ * of a query.
+ * <p>
+ * Only tables partitioned by RANGE or LIST on a single column are pruned. The partition key
+ * ({@code pg_get_partkeydef}) must name a column of the table and the bound ({@code pg_get_expr(relpartbound)}) must be
+ * of the form {@code FOR VALUES FROM (x) TO (y)} or {@code FOR VALUES IN (x, y, ...)}. Every other partition, such as
+ * the DEFAULT partition, a HASH partition or one whose bound can't be parsed, is kept. Ranges on text columns are not
+ * pruned since PostgreSQL orders text by the collation of the column.
+ */
+class PostGreSqlPartitionPruner
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostGreSqlPartitionPruner.class);
+
+    private static final Pattern PARTITION_KEY = Pattern.compile("^(RANGE|LIST) \\((\"(?:[^\"]|\"\")+\"|[A-Za-z_][A-Za-z0-9_$]*)\\)$");
+    private static final Pattern RANGE_BOUND = Pattern.compile("^FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)$");
+    private static final Pattern LIST_BOUND = Pattern.compile("^FOR VALUES IN \\((.+)\\)$");
+    private static final String MINVALUE = "MINVALUE";
+    private static final String MAXVALUE = "MAXVALUE";
+    private static final String NULL = "NULL";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .toFormatter();
+
+    private final boolean range;
+    private final ArrowType type;
+    private final ValueSet valueSet;
+
+    private PostGreSqlPartitionPruner(boolean range, ArrowType type, ValueSet valueSet)
+    {
+        this.range = range;
+        this.type = type;
+        this.valueSet = valueSet;
+    }
+
+    /**
+     * @param partitionKey The partition key of the table, as returned by pg_get_partkeydef.
+     * @param tableSchema  The schema of the table.
+     * @param summary      The constraints of the query, by column name.
+     * @return A pruner for the partitions of the table or empty if its partitions can't be pruned for these constraints.
+     */
+    static Optional<PostGreSqlPartitionPruner> create(String partitionKey, Schema tableSchema, Map<String, ValueSet> summary)
+    {
+        if (partitionKey == null || summary == null || summary.isEmpty()) {
+            return Optional.empty();
+        }
+        Matcher matcher = PARTITION_KEY.matcher(partitionKey.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String column = matcher.group(2);
+        if (column.startsWith("\"")) {
+            column = column.substring(1, column.length() - 1).replace("\"\"", "\"");
+        }
+
+        Field field = null;
+        for (Field next : tableSchema.getFields()) {
+            if (next.getName().equalsIgnoreCase(column)) {
+                field = next;
+                break;
+            }
+        }
+        if (field == null) {
+            return Optional.empty();
+        }
+        ValueSet valueSet = null;
+        for (Map.Entry<String, ValueSet> next : summary.entrySet()) {
+            if (next.getKey().equalsIgnoreCase(field.getName())) {
+                valueSet = next.getValue();
+                break;
+            }
+        }
+        if (valueSet == null || !valueSet.getType().equals(field.getType())) {
+            return Optional.empty();
+        }
+        return Optional.of(new PostGreSqlPartitionPruner("RANGE".equals(matcher.group(1)), field.getType(), valueSet));
+    }
+
+    /**
+     * @param bound The bound of a partition, as returned by pg_get_expr(relpartbound).
+     * @return False if no row of the partition can match the constraints, true otherwise.
+     */
+    boolean mayMatch(String bound)
+    {
+        if (bound == null) {
+            return true;
+        }
+        try {
+            return range ? rangeMayMatch(bound.trim()) : listMayMatch(bound.trim());
+        }
+        catch (RuntimeException ex) {
+            LOGGER.warn("Unable to evaluate partition bound [{}], keeping the partition", bound, ex);
+            return true;
+        }
+    }
+
+    private boolean rangeMayMatch(String bound)
+    {
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.matches() || !(valueSet instanceof SortedRangeSet)
+                || Types.getMinorTypeForArrowType(type) == Types.MinorType.VARCHAR) {
+            return true;
+        }
+        List<String> from = splitLiterals(matcher.group(1));
+        List<String> to = splitLiterals(matcher.group(2));
+        if (from.size() != 1 || to.size() != 1) {
+            return true;
+        }
+        // null is the lower bound for MINVALUE, the upper bound for MAXVALUE
+        Object low = MINVALUE.equals(from.get(0)) ? null : toValue(from.get(0)).orElse(null);
+        Object high = MAXVALUE.equals(to.get(0)) ? null : toValue(to.get(0)).orElse(null);
+        if ((low == null && !MINVALUE.equals(from.get(0))) || (high == null && !MAXVALUE.equals(to.get(0)))) {
+            return true;
+        }
+
+        // The partition holds [low, high), never null, which goes to the DEFAULT partition.
+        for (Range next : ((SortedRangeSet) valueSet).getOrderedRanges()) {
+            if (startsBefore(next.getLow(), high) && endsAfter(next.getHigh(), low)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean listMayMatch(String bound)
+    {
+        Matcher matcher = LIST_BOUND.matcher(bound);
+        if (!matcher.matches()) {
+            return true;
+        }
+        for (String literal : splitLiterals(matcher.group(1))) {
+            if (NULL.equals(literal)) {
+                if (valueSet.isNullAllowed()) {
+                    return true;
+                }
+                continue;
+            }
+            Optional<Object> value = toValue(literal);
+            if (!value.isPresent() || valueSet.containsValue(value.get())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if the low marker of a range is below the exclusive upper bound of a partition, null for MAXVALUE.
+     */
+    private boolean startsBefore(Marker low, Object partitionHigh)
+    {
+        if (low.isLowerUnbounded() || partitionHigh == null) {
+            return true;
+        }
+        return ArrowTypeComparator.compare(type, low.getValue(), partitionHigh) < 0;
+    }
+
+    /**
+     * @return True if the high marker of a range is at or above the inclusive lower bound of a partition, null for MINVALUE.
+     */
+    private boolean endsAfter(Marker high, Object partitionLow)
+    {
+        if (high.isUpperUnbounded() || partitionLow == null) {
+            return true;
+        }
+        int compare = ArrowTypeComparator.compare(type, high.getValue(), partitionLow);
+        return (high.getBound() == Marker.Bound.BELOW) ? compare > 0 : compare >= 0;
+    }
+
+    /**
+     * Converts a literal of a partition bound to the value type the constraints use for the partition column.
+     */
+    private Optional<Object> toValue(String literal)
+    {
+        boolean quoted = literal.startsWith("'");
+        String text = quoted ? literal.substring(1, literal.length() - 1).replace("''", "'") : literal;
+        try {
+            switch (Types.getMinorTypeForArrowType(type)) {
+                case VARCHAR:
+                    return quoted ? Optional.of(text) : Optional.empty();
+                case INT:
+                    return Optional.of(Integer.parseInt(text));
+                case BIGINT:
+                    return Optional.of(Long.parseLong(text));
+                case SMALLINT:
+                    return Optional.of(Short.parseShort(text));
+                case FLOAT8:
+                    return Optional.of(Double.parseDouble(text));
+                case DECIMAL:
+                    return Optional.of(new BigDecimal(text));
+                case DATEDAY:
+                    return Optional.of((int) LocalDate.parse(text).toEpochDay());
+                case DATEMILLI:
+                    // timestamps with a time zone are not converted, their offset depends on the session
+                    return Optional.of(LocalDateTime.parse(text, TIMESTAMP_FORMATTER));
+                default:
+                    return Optional.empty();
+            }
+        }
+        catch (NumberFormatException | DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Splits the comma separated literals of a bound, e.g. {@code 'a', 'b,c', NULL}, keeping quoted literals quoted.
+     */
+    private static List<String> splitLiterals(String literals)
+    {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < literals.length(); i++) {
+            char next = literals.charAt(i);
+            if (next == '\'') {
+                inQuotes = !inQuotes;
+            }
+            if (next == ',' && !inQuotes) {
+                result.add(current.toString().trim());
+                current.setLength(0);
+            }
+            else {
+                current.append(next);
+            }
+        }
+        result.add(current.toString().trim());
+        return result;
+    }
+}
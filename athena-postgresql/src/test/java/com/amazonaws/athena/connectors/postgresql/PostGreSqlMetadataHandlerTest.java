@@ -32,6 +32,8 @@ import java.util.UUID;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
@@ -85,6 +87,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -393,6 +396,98 @@ public class PostGreSqlMetadataHandlerTest
         Assert.assertEquals(tableName, getTableLayoutResponse.getTableName());
     }
 
+    @Test
+    public void doGetTableLayoutWithPartitionPruning()
+            throws Exception
+    {
+        TableName tableName = new TableName(TEST_SCHEMA, TEST_TABLE);
+        // the table schema carries the partition columns, as returned by doGetTable
+        Schema tableSchema = SchemaBuilder.newBuilder().addIntField("id").addDateDayField("sale_date")
+                .addStringField(BLOCK_PARTITION_SCHEMA_COLUMN_NAME).addStringField(BLOCK_PARTITION_COLUMN_NAME).build();
+        Set<String> partitionCols = this.postGreSqlMetadataHandler.getPartitionSchema(CATALOG_NAME).getFields().stream().map(Field::getName).collect(Collectors.toSet());
+
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(PostGreSqlMetadataHandler.GET_PARTITION_BOUNDS_QUERY)).thenReturn(preparedStatement);
+        String[] columns = {CHILD_SCHEMA, CHILD, "partition_key", "partition_bound"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        Object[][] values = {
+                {"s0", "sales_2024_01", "RANGE (sale_date)", "FOR VALUES FROM ('2024-01-01') TO ('2024-02-01')"},
+                {"s0", "sales_2024_02", "RANGE (sale_date)", "FOR VALUES FROM ('2024-02-01') TO ('2024-03-01')"},
+                {"s0", "sales_default", "RANGE (sale_date)", "DEFAULT"}};
+        Mockito.when(preparedStatement.executeQuery()).thenAnswer(invocation -> mockResultSet(columns, types, values, new AtomicInteger(-1)));
+        Mockito.when(this.connection.getMetaData().getSearchStringEscape()).thenReturn(null);
+
+        List<List<String>> partitions = new ArrayList<>();
+        for (int day : new int[] {15, 16}) {
+            Constraints constraints = Mockito.mock(Constraints.class);
+            Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("sale_date", SortedRangeSet.of(false,
+                    Range.equal(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.DATEDAY.getType(), LocalDate.of(2024, 2, day)))));
+            GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, TEST_QUERY_ID, CATALOG_NAME, tableName, constraints, tableSchema, partitionCols);
+
+            GetTableLayoutResponse getTableLayoutResponse = this.postGreSqlMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < getTableLayoutResponse.getPartitions().getRowCount(); i++) {
+                rows.add(BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), i));
+            }
+            partitions.add(rows);
+        }
+
+        List<String> expected = Arrays.asList("[partition_schema_name : s0], [partition_name : sales_2024_02]",
+                "[partition_schema_name : s0], [partition_name : sales_default]");
+        Assert.assertEquals(Arrays.asList(expected, expected), partitions);
+        // the partition cache is off by default, every query reads the bounds
+        Mockito.verify(preparedStatement, Mockito.times(2)).executeQuery();
+        Mockito.verify(this.connection, Mockito.never()).prepareStatement(PostGreSqlMetadataHandler.GET_PARTITION_CHILDREN_QUERY);
+        Mockito.verify(this.connection, Mockito.never()).prepareStatement(PostGreSqlMetadataHandler.GET_PARTITIONS_QUERY);
+    }
+
+    @Test
+    public void doGetTableLayoutWithCachedPartitionBounds()
+            throws Exception
+    {
+        PostGreSqlMetadataHandler cachingHandler = new PostGreSqlMetadataHandler(databaseConnectionConfig, this.secretsManager, this.athena,
+                this.jdbcConnectionFactory, com.google.common.collect.ImmutableMap.of(PostGreSqlMetadataHandler.PARTITION_CACHE_TTL_SECONDS, "60"));
+        TableName tableName = new TableName(TEST_SCHEMA, TEST_TABLE);
+        Schema tableSchema = SchemaBuilder.newBuilder().addIntField("id").addDateDayField("sale_date")
+                .addStringField(BLOCK_PARTITION_SCHEMA_COLUMN_NAME).addStringField(BLOCK_PARTITION_COLUMN_NAME).build();
+        Set<String> partitionCols = cachingHandler.getPartitionSchema(CATALOG_NAME).getFields().stream().map(Field::getName).collect(Collectors.toSet());
+
+        String[] columns = {CHILD_SCHEMA, CHILD, "partition_key", "partition_bound"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        Object[][] before = {
+                {"s0", "sales_2024_01", "RANGE (sale_date)", "FOR VALUES FROM ('2024-01-01') TO ('2024-02-01')"}};
+        Object[][] after = {
+                {"s0", "sales_2024_01", "RANGE (sale_date)", "FOR VALUES FROM ('2024-01-01') TO ('2024-02-01')"},
+                {"s0", "sales_2024_02", "RANGE (sale_date)", "FOR VALUES FROM ('2024-02-01') TO ('2024-03-01')"}};
+        PreparedStatement boundsStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(PostGreSqlMetadataHandler.GET_PARTITION_BOUNDS_QUERY)).thenReturn(boundsStatement);
+        Mockito.when(boundsStatement.executeQuery()).thenAnswer(invocation -> mockResultSet(columns, types, before, new AtomicInteger(-1)))
+                .thenAnswer(invocation -> mockResultSet(columns, types, after, new AtomicInteger(-1)));
+        // sales_2024_02 is attached after the second query
+        PreparedStatement childrenStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(PostGreSqlMetadataHandler.GET_PARTITION_CHILDREN_QUERY)).thenReturn(childrenStatement);
+        Mockito.when(childrenStatement.executeQuery())
+                .thenAnswer(invocation -> mockResultSet(new String[] {"children"}, new int[] {Types.VARCHAR}, new Object[][] {{"1,16384"}}, new AtomicInteger(-1)))
+                .thenAnswer(invocation -> mockResultSet(new String[] {"children"}, new int[] {Types.VARCHAR}, new Object[][] {{"1,16384"}}, new AtomicInteger(-1)))
+                .thenAnswer(invocation -> mockResultSet(new String[] {"children"}, new int[] {Types.VARCHAR}, new Object[][] {{"2,32769"}}, new AtomicInteger(-1)));
+        Mockito.when(this.connection.getMetaData().getSearchStringEscape()).thenReturn(null);
+
+        List<Integer> partitionCounts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Constraints constraints = Mockito.mock(Constraints.class);
+            Mockito.when(constraints.getSummary()).thenReturn(Collections.singletonMap("sale_date", SortedRangeSet.of(false,
+                    Range.greaterThanOrEqual(blockAllocator, org.apache.arrow.vector.types.Types.MinorType.DATEDAY.getType(), LocalDate.of(2024, 1, 15)))));
+            GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, TEST_QUERY_ID, CATALOG_NAME, tableName, constraints, tableSchema, partitionCols);
+            partitionCounts.add(cachingHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest).getPartitions().getRowCount());
+        }
+
+        // the second query is served from the cache, the third sees the attached partition
+        Assert.assertEquals(Arrays.asList(1, 1, 2), partitionCounts);
+        Mockito.verify(boundsStatement, Mockito.times(2)).executeQuery();
+        Mockito.verify(childrenStatement, Mockito.times(3)).executeQuery();
+    }
+
     @Test(expected = RuntimeException.class)
     public void doGetTableLayoutWithSQLException()
             throws Exception
@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * athena-postgresql
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.postgresql;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.EquatableValueSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PostGreSqlPartitionPrunerTest
+{
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addIntField("id")
+                .addDateDayField("sale_date")
+                .addStringField("region")
+                .build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void mayMatch_RangePartitions()
+    {
+        // sale_date >= 2024-02-10 AND sale_date < 2024-03-01
+        ValueSet saleDate = SortedRangeSet.of(false, Range.range(allocator, Types.MinorType.DATEDAY.getType(),
+                LocalDate.of(2024, 2, 10), true, LocalDate.of(2024, 3, 1), false));
+        PostGreSqlPartitionPruner pruner = PostGreSqlPartitionPruner.create("RANGE (sale_date)", schema, Map.of("sale_date", saleDate)).get();
+
+        assertFalse(pruner.mayMatch("FOR VALUES FROM ('2024-01-01') TO ('2024-02-01')"));
+        assertTrue(pruner.mayMatch("FOR VALUES FROM ('2024-02-01') TO ('2024-03-01')"));
+        assertFalse(pruner.mayMatch("FOR VALUES FROM ('2024-03-01') TO ('2024-04-01')"));
+        assertTrue(pruner.mayMatch("FOR VALUES FROM (MINVALUE) TO ('2024-02-11')"));
+        assertFalse(pruner.mayMatch("FOR VALUES FROM (MINVALUE) TO ('2024-02-10')"));
+        assertTrue(pruner.mayMatch("FOR VALUES FROM ('2024-02-28') TO (MAXVALUE)"));
+        assertTrue(pruner.mayMatch("DEFAULT"));
+    }
+
+    @Test
+    public void mayMatch_ListPartitions()
+    {
+        ValueSet region = EquatableValueSet.newBuilder(allocator, Types.MinorType.VARCHAR.getType(), true, false)
+                .add("us-east").build();
+        PostGreSqlPartitionPruner pruner = PostGreSqlPartitionPruner.create("LIST (\"REGION\")", schema, Map.of("region", region)).get();
+
+        assertTrue(pruner.mayMatch("FOR VALUES IN ('us-east', 'us-west')"));
+        assertFalse(pruner.mayMatch("FOR VALUES IN ('eu-west', 'eu, central')"));
+        assertFalse(pruner.mayMatch("FOR VALUES IN (NULL)"));
+        assertTrue(pruner.mayMatch("DEFAULT"));
+    }
+
+    @Test
+    public void create_UnsupportedPartitionKeys()
+    {
+        ValueSet id = SortedRangeSet.of(false, Range.equal(allocator, Types.MinorType.INT.getType(), 5));
+        assertTrue(PostGreSqlPartitionPruner.create("RANGE (id)", schema, Map.of("id", id)).isPresent());
+        assertFalse(PostGreSqlPartitionPruner.create("HASH (id)", schema, Map.of("id", id)).isPresent());
+        assertFalse(PostGreSqlPartitionPruner.create("RANGE (id, sale_date)", schema, Map.of("id", id)).isPresent());
+        assertFalse(PostGreSqlPartitionPruner.create("RANGE ((id + 1))", schema, Map.of("id", id)).isPresent());
+        assertFalse(PostGreSqlPartitionPruner.create("RANGE (sale_date)", schema, Map.of("id", id)).isPresent());
+    }
+
+    @Test
+    public void mayMatch_UnparseableBound_Kept()
+    {
+        ValueSet id = SortedRangeSet.of(false, Range.equal(allocator, Types.MinorType.INT.getType(), 5));
+        PostGreSqlPartitionPruner pruner = PostGreSqlPartitionPruner.create("RANGE (id)", schema, Map.of("id", id)).get();
+
+        assertFalse(pruner.mayMatch("FOR VALUES FROM (10) TO (20)"));
+        assertTrue(pruner.mayMatch("FOR VALUES FROM (0) TO (10)"));
+        assertTrue(pruner.mayMatch("FOR VALUES FROM ('x') TO (20)"));
+        assertTrue(pruner.mayMatch("FOR VALUES WITH (modulus 4, remainder 0)"));
+    }
+}
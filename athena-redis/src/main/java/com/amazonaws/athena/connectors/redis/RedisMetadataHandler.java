@@ -65,7 +65,9 @@ import software.amazon.awssdk.services.glue.model.Database;
 import software.amazon.awssdk.services.glue.model.Table;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -98,6 +100,13 @@ public class RedisMetadataHandler
     protected static final String KEY_COLUMN_NAME = "_key_";
     protected static final String SPLIT_START_INDEX = "start-index";
     protected static final String SPLIT_END_INDEX = "end-index";
+    //The id of the cluster node whose keys a split scans, prefix tables on a cluster get a split per upstream node.
+    protected static final String SPLIT_NODE_ID = "node-id";
+    //The shard of the keys a split reads and the number of shards, see ScanKeyShards.
+    protected static final String SPLIT_SCAN_SHARD = "scan-shard";
+    protected static final String SPLIT_SCAN_SHARDS = "scan-shards";
+    //Config option with the most shards to split the keys of a standalone instance's SCAN into, 1 (no sharding) by default.
+    protected static final String SCAN_SHARDS = "scan_shards";
 
     //The name of the column added for Query Passthrough requests
     protected static final String QPT_COLUMN_NAME = "_value_";
@@ -353,15 +362,49 @@ public class RedisMetadataHandler
             keyType = KeyType.ZSET;
         }
 
+        List<Map<String, String>> scanRanges = (keyType == KeyType.PREFIX)
+                ? makeScanRanges(connection, isCluster)
+                : Collections.singletonList(Collections.emptyMap());
+
         Set<Split> splits = new HashSet<>();
         for (String next : splitInputs) {
-            splits.addAll(makeSplits(request, syncCommands, redisEndpoint, next, keyType, redisValueType, sslEnabled,
-                                     isCluster, dbNumber));
+            for (Map<String, String> scanRange : scanRanges) {
+                splits.addAll(makeSplits(request, syncCommands, redisEndpoint, next, keyType, redisValueType, sslEnabled,
+                                         isCluster, dbNumber, scanRange));
+            }
         }
 
         return new GetSplitsResponse(request.getCatalogName(), splits, null);
     }
 
+    /**
+     * Breaks up the SCAN of the keyspace so that each piece can be scanned by its own split: in a cluster each upstream
+     * node is scanned on its own, the keys of a large standalone keyspace can be read in shards of a hash of the key.
+     *
+     * @param connection The Lettuce Client
+     * @param isCluster The value from the REDIS_CLUSTER_FLAG on the table being queried.
+     * @return The split properties of each piece of the SCAN.
+     */
+    private List<Map<String, String>> makeScanRanges(RedisConnectionWrapper<String, String> connection, boolean isCluster)
+    {
+        List<Map<String, String>> scanRanges = new ArrayList<>();
+        if (isCluster) {
+            for (String nodeId : connection.getUpstreamNodeIds()) {
+                scanRanges.add(Collections.singletonMap(SPLIT_NODE_ID, nodeId));
+            }
+            logger.info("makeScanRanges: Scanning {} cluster nodes", scanRanges.size());
+            return scanRanges;
+        }
+
+        int maxShards = Integer.parseInt(configOptions.getOrDefault(SCAN_SHARDS, "1"));
+        int shards = (maxShards > 1) ? ScanKeyShards.shardCount(connection.sync().dbsize(), maxShards) : 1;
+        for (int shard = 0; shard < shards; shard++) {
+            scanRanges.add(ImmutableMap.of(SPLIT_SCAN_SHARD, String.valueOf(shard), SPLIT_SCAN_SHARDS, String.valueOf(shards)));
+        }
+        logger.info("makeScanRanges: Scanning {} key shards", shards);
+        return scanRanges;
+    }
+
     /**
      * For a given key prefix this method attempts to break up all the matching keys into N buckets (aka N splits).
      *
@@ -374,11 +417,12 @@ public class RedisMetadataHandler
      * @param sslEnabled The value from the REDIS_SSL_FLAG on the table being queried.
      * @param isCluster The value from the REDIS_CLUSTER_FLAG on the table being queried.
      * @param dbNumber The value from the REDIS_DB_NUMBER on the table being queried.
+     * @param scanRange The split properties of the piece of the SCAN the splits cover, see makeScanRanges.
      * @return A Set of splits to optionally parallelize reading the values associated with the keyPrefix.
      */
     private Set<Split> makeSplits(GetSplitsRequest request, RedisCommandsWrapper<String, String> syncCommands,
                                   String endpoint, String keyPrefix, KeyType keyType, String valueType,
-                                  boolean sslEnabled, boolean isCluster, String dbNumber)
+                                  boolean sslEnabled, boolean isCluster, String dbNumber, Map<String, String> scanRange)
     {
         Set<Split> splits = new HashSet<>();
         long numberOfKeys = 1;
@@ -409,6 +453,7 @@ public class RedisMetadataHandler
                     .add(REDIS_SSL_FLAG, String.valueOf(sslEnabled))
                     .add(REDIS_CLUSTER_FLAG, String.valueOf(isCluster))
                     .add(REDIS_DB_NUMBER, dbNumber)
+                    .applyProperties(scanRange)
                     .build();
 
             splits.add(split);
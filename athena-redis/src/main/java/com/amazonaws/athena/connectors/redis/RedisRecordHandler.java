@@ -25,11 +25,15 @@ import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connectors.redis.lettuce.RedisAsyncCommandsWrapper;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisCommandsWrapper;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisConnectionFactory;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisConnectionWrapper;
 import com.amazonaws.athena.connectors.redis.qpt.RedisQueryPassthrough;
 import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.ScanArgs;
 import io.lettuce.core.ScanCursor;
 import io.lettuce.core.ScoredValue;
@@ -43,11 +47,18 @@ import software.amazon.awssdk.services.athena.AthenaClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.KEY_COLUMN_NAME;
@@ -59,6 +70,9 @@ import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_D
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_ENDPOINT_PROP;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_SSL_FLAG;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_END_INDEX;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_NODE_ID;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_SCAN_SHARD;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_SCAN_SHARDS;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_START_INDEX;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.VALUE_TYPE_TABLE_PROP;
 import static io.lettuce.core.ScanCursor.FINISHED;
@@ -70,7 +84,8 @@ import static io.lettuce.core.ScanCursor.INITIAL;
  * For more detail, please see the module's README.md, some notable characteristics of this class include:
  * <p>
  * 1. Supporting literal, zset, and hash value types.
- * 2. Attempts to resolve sensitive configuration fields such as redis-endpoint via SecretsManager so that you can
+ * 2. Optionally pipelining the reads of values, see pipeline_depth.
+ * 3. Attempts to resolve sensitive configuration fields such as redis-endpoint via SecretsManager so that you can
  * substitute variables with values from by doing something like hostname:port:password=${my_secret}
  */
 public class RedisRecordHandler
@@ -83,11 +98,17 @@ public class RedisRecordHandler
 
     //The page size for Jedis scans.
     private static final int SCAN_COUNT_SIZE = 100;
+    //Config option with the number of keys whose values are fetched concurrently. 0, the default, fetches the values
+    //one key at a time.
+    protected static final String PIPELINE_DEPTH = "pipeline_depth";
+    //How long we wait on a pipelined command, Lettuce times out each command on its own well before that.
+    private static final long PIPELINE_TIMEOUT_MS = 60_000;
 
     private final RedisConnectionFactory redisConnectionFactory;
     private final S3Client amazonS3;
 
     private final RedisQueryPassthrough queryPassthrough = new RedisQueryPassthrough();
+    private final int pipelineDepth;
 
     public RedisRecordHandler(java.util.Map<String, String> configOptions)
     {
@@ -109,6 +130,7 @@ public class RedisRecordHandler
         super(amazonS3, secretsManager, athena, SOURCE_TYPE, configOptions);
         this.amazonS3 = amazonS3;
         this.redisConnectionFactory = redisConnectionFactory;
+        this.pipelineDepth = Integer.parseInt(configOptions.getOrDefault(PIPELINE_DEPTH, "0"));
     }
 
     /**
@@ -147,17 +169,19 @@ public class RedisRecordHandler
      * @param recordsRequest the recordsRequest to create a connection from
      * @return the resulting connection object
      */
-    private RedisCommandsWrapper<String, String> getSyncCommands(ReadRecordsRequest recordsRequest)
+    private RedisConnectionWrapper<String, String> getConnection(ReadRecordsRequest recordsRequest)
     {
         Split split = recordsRequest.getSplit();
         boolean sslEnabled = Boolean.parseBoolean(split.getProperty(REDIS_SSL_FLAG));
         boolean isCluster = Boolean.parseBoolean(split.getProperty(REDIS_CLUSTER_FLAG));
         String dbNumber = split.getProperty(REDIS_DB_NUMBER);
 
-        RedisConnectionWrapper<String, String> connection = getOrCreateClient(split.getProperty(REDIS_ENDPOINT_PROP),
-                                                                              sslEnabled, isCluster, dbNumber);
-        RedisCommandsWrapper<String, String> syncCommands = connection.sync();
-        return syncCommands;
+        return getOrCreateClient(split.getProperty(REDIS_ENDPOINT_PROP), sslEnabled, isCluster, dbNumber);
+    }
+
+    private RedisCommandsWrapper<String, String> getSyncCommands(ReadRecordsRequest recordsRequest)
+    {
+        return getConnection(recordsRequest).sync();
     }
 
     /**
@@ -202,16 +226,24 @@ public class RedisRecordHandler
                                      ReadRecordsRequest recordsRequest,
                                      QueryStatusChecker queryStatusChecker)
     {
+        if (pipelineDepth > 0) {
+            handlePipelinedQuery(spiller, recordsRequest, queryStatusChecker);
+            return;
+        }
+
         Split split = recordsRequest.getSplit();
         ScanCursor keyCursor = null;
         ValueType valueType = ValueType.fromId(split.getProperty(VALUE_TYPE_TABLE_PROP));
         List<Field> fieldList = recordsRequest.getSchema().getFields().stream()
                 .filter((Field next) -> !KEY_COLUMN_NAME.equals(next.getName())).collect(Collectors.toList());
-        RedisCommandsWrapper<String, String> syncCommands = getSyncCommands(recordsRequest);
+        RedisConnectionWrapper<String, String> connection = getConnection(recordsRequest);
+        RedisCommandsWrapper<String, String> syncCommands = connection.sync();
+        RedisCommandsWrapper<String, String> scanCommands = (split.getProperty(SPLIT_NODE_ID) == null)
+                ? syncCommands : connection.syncNode(split.getProperty(SPLIT_NODE_ID));
         do {
             Set<String> keys = new HashSet<>();
             //Load all the keys associated with this split
-            keyCursor = loadKeys(syncCommands, split, keyCursor, keys);
+            keyCursor = loadKeys(scanCommands, split, keyCursor, keys);
 
             //Scan the data associated with all the keys.
             for (String nextKey : keys) {
@@ -220,10 +252,10 @@ public class RedisRecordHandler
                 }
                 switch (valueType) {
                     case LITERAL:   //The key value is a row with single column
-                        loadLiteralRow(syncCommands, nextKey, spiller, fieldList);
+                        writeLiteralRow(nextKey, syncCommands.get(nextKey), spiller, fieldList);
                         break;
                     case HASH:
-                        loadHashRow(syncCommands, nextKey, spiller, fieldList);
+                        writeHashRow(nextKey, syncCommands.hgetall(nextKey), spiller, fieldList);
                         break;
                     case ZSET:
                         loadZSetRows(syncCommands, nextKey, spiller, fieldList);
@@ -236,6 +268,102 @@ public class RedisRecordHandler
         while (keyCursor != null && !keyCursor.isFinished());
     }
 
+    /**
+     * readWithConstraint case for when the values are fetched with pipelined commands. The next page of keys is
+     * scanned while the values of the current page are fetched, and up to pipelineDepth keys are fetched at once:
+     * with one MGET for literal values and with that many HGETALL or ZSCAN commands in flight for hash and zset values.
+     */
+    private void handlePipelinedQuery(BlockSpiller spiller,
+                                      ReadRecordsRequest recordsRequest,
+                                      QueryStatusChecker queryStatusChecker)
+    {
+        Split split = recordsRequest.getSplit();
+        ValueType valueType = ValueType.fromId(split.getProperty(VALUE_TYPE_TABLE_PROP));
+        List<Field> fieldList = recordsRequest.getSchema().getFields().stream()
+                .filter((Field next) -> !KEY_COLUMN_NAME.equals(next.getName())).collect(Collectors.toList());
+        RedisConnectionWrapper<String, String> connection = getConnection(recordsRequest);
+        RedisAsyncCommandsWrapper<String, String> asyncCommands = connection.async();
+
+        if (KeyType.fromId(split.getProperty(KEY_TYPE)) == KeyType.ZSET) {
+            //The keys of the split are read from the zset with a single command.
+            Set<String> keys = new LinkedHashSet<>();
+            loadKeys(connection.sync(), split, null, keys);
+            loadValues(asyncCommands, new ArrayList<>(keys), valueType, spiller, fieldList, queryStatusChecker);
+            return;
+        }
+
+        RedisAsyncCommandsWrapper<String, String> scanCommands = (split.getProperty(SPLIT_NODE_ID) == null)
+                ? asyncCommands : connection.asyncNode(split.getProperty(SPLIT_NODE_ID));
+        ScanArgs scanArgs = newScanArgs(split);
+        RedisFuture<KeyScanCursor<String>> nextPage = scanCommands.scan(INITIAL, scanArgs);
+        while (nextPage != null) {
+            KeyScanCursor<String> page = await(nextPage);
+            nextPage = page.isFinished() ? null : scanCommands.scan(page, scanArgs);
+            List<String> keys = new ArrayList<>(new LinkedHashSet<>(keysOfSplit(page.getKeys(), split)));
+            if (!loadValues(asyncCommands, keys, valueType, spiller, fieldList, queryStatusChecker)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return False if the query stopped running before all the values were loaded.
+     */
+    private boolean loadValues(RedisAsyncCommandsWrapper<String, String> asyncCommands, List<String> keys, ValueType valueType,
+                               BlockSpiller spiller, List<Field> fieldList, QueryStatusChecker queryStatusChecker)
+    {
+        switch (valueType) {
+            case LITERAL:
+                for (int start = 0; start < keys.size(); start += pipelineDepth) {
+                    if (!queryStatusChecker.isQueryRunning()) {
+                        return false;
+                    }
+                    List<String> batch = keys.subList(start, Math.min(keys.size(), start + pipelineDepth));
+                    for (KeyValue<String, String> next : await(asyncCommands.mget(batch.toArray(new String[0])))) {
+                        writeLiteralRow(next.getKey(), next.getValueOrElse(null), spiller, fieldList);
+                    }
+                }
+                return true;
+            case HASH:
+                return pipeline(keys, asyncCommands::hgetall, queryStatusChecker,
+                        (String key, Map<String, String> value) -> writeHashRow(key, value, spiller, fieldList));
+            case ZSET:
+                return pipeline(keys, (String key) -> asyncCommands.zscan(key, INITIAL), queryStatusChecker,
+                        (String key, ScoredValueScanCursor<String> firstPage) -> loadZSetRows(asyncCommands, key, firstPage, spiller, fieldList));
+            default:
+                throw new RuntimeException("Unsupported value type " + valueType);
+        }
+    }
+
+    /**
+     * Issues the command for each key, keeping up to pipelineDepth of them in flight, and hands their results to the
+     * consumer in the order of the keys.
+     *
+     * @return False if the query stopped running before all the keys were consumed.
+     */
+    private <T> boolean pipeline(List<String> keys, Function<String, RedisFuture<T>> command, QueryStatusChecker queryStatusChecker,
+                                 BiConsumer<String, T> consumer)
+    {
+        Deque<RedisFuture<T>> inFlight = new ArrayDeque<>();
+        int issued = 0;
+        for (int consumed = 0; consumed < keys.size(); consumed++) {
+            while (issued < keys.size() && inFlight.size() < pipelineDepth) {
+                inFlight.add(command.apply(keys.get(issued++)));
+            }
+            if (!queryStatusChecker.isQueryRunning()) {
+                inFlight.forEach(next -> next.cancel(true));
+                return false;
+            }
+            consumer.accept(keys.get(consumed), await(inFlight.poll()));
+        }
+        return true;
+    }
+
+    private static <T> T await(RedisFuture<T> future)
+    {
+        return LettuceFutures.awaitOrCancel(future, PIPELINE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * For the given key prefix, find all actual keys depending on the type of the key.
      *
@@ -258,16 +386,34 @@ public class RedisRecordHandler
         }
         else {
             ScanCursor cursor = (redisCursor == null) ? INITIAL : redisCursor;
-            ScanArgs scanArgs = new ScanArgs();
-            scanArgs.limit(SCAN_COUNT_SIZE);
-            scanArgs.match(split.getProperty(KEY_PREFIX_TABLE_PROP));
-
-            KeyScanCursor<String> newCursor = syncCommands.scan(cursor, scanArgs);
-            keys.addAll(newCursor.getKeys());
+            KeyScanCursor<String> newCursor = syncCommands.scan(cursor, newScanArgs(split));
+            keys.addAll(keysOfSplit(newCursor.getKeys(), split));
             return newCursor;
         }
     }
 
+    /**
+     * @return The keys of a page of the SCAN that belong to the split, all of them unless the SCAN is sharded.
+     */
+    private static List<String> keysOfSplit(List<String> keys, Split split)
+    {
+        String shards = split.getProperty(SPLIT_SCAN_SHARDS);
+        if (shards == null) {
+            return keys;
+        }
+        int shard = Integer.parseInt(split.getProperty(SPLIT_SCAN_SHARD));
+        int shardCount = Integer.parseInt(shards);
+        return keys.stream().filter(key -> ScanKeyShards.isInShard(key, shard, shardCount)).collect(Collectors.toList());
+    }
+
+    private static ScanArgs newScanArgs(Split split)
+    {
+        ScanArgs scanArgs = new ScanArgs();
+        scanArgs.limit(SCAN_COUNT_SIZE);
+        scanArgs.match(split.getProperty(KEY_PREFIX_TABLE_PROP));
+        return scanArgs;
+    }
+
     private void loadSingleColumn(List<Object> values, BlockSpiller spiller, QueryStatusChecker queryStatusChecker)
     {
         values.stream().forEach((Object value) -> {
@@ -303,7 +449,7 @@ public class RedisRecordHandler
         }
     }
 
-    private void loadLiteralRow(RedisCommandsWrapper<String, String> syncCommands, String keyString, BlockSpiller spiller, List<Field> fieldList)
+    private void writeLiteralRow(String keyString, String rawValue, BlockSpiller spiller, List<Field> fieldList)
     {
         spiller.writeRows((Block block, int row) -> {
             if (fieldList.size() != 1) {
@@ -311,24 +457,23 @@ public class RedisRecordHandler
             }
 
             Field field = fieldList.get(0);
-            Object value = ValueConverter.convert(field, syncCommands.get(keyString));
+            Object value = ValueConverter.convert(field, rawValue);
             boolean literalMatched = block.offerValue(KEY_COLUMN_NAME, row, keyString);
             literalMatched &= block.offerValue(field.getName(), row, value);
             return literalMatched ? 1 : 0;
         });
     }
 
-    private void loadHashRow(RedisCommandsWrapper<String, String> syncCommands, String keyString, BlockSpiller spiller,
-                             List<Field> fieldList)
+    private void writeHashRow(String keyString, Map<String, String> hash, BlockSpiller spiller, List<Field> fieldList)
     {
+        Map<String, String> rawValues = new HashMap<>();
+        //Glue only supports lowercase column names / also could do a better job only fetching the columns
+        //that are needed
+        hash.forEach((key, entry) -> rawValues.put(key.toLowerCase(), entry));
+
         spiller.writeRows((Block block, int row) -> {
             boolean hashMatched = block.offerValue(KEY_COLUMN_NAME, row, keyString);
 
-            Map<String, String> rawValues = new HashMap<>();
-            //Glue only supports lowercase column names / also could do a better job only fetching the columns
-            //that are needed
-            syncCommands.hgetall(keyString).forEach((key, entry) -> rawValues.put(key.toLowerCase(), entry));
-
             for (Field hfield : fieldList) {
                 Object hvalue = ValueConverter.convert(hfield, rawValues.get(hfield.getName()));
                 if (hashMatched && !block.offerValue(hfield.getName(), row, hvalue)) {
@@ -342,25 +487,41 @@ public class RedisRecordHandler
 
     private void loadZSetRows(RedisCommandsWrapper<String, String> syncCommands, String keyString, BlockSpiller spiller,
                               List<Field> fieldList)
+    {
+        ScoredValueScanCursor<String> cursor = null;
+        do {
+            cursor = syncCommands.zscan(keyString, cursor == null ? INITIAL : cursor);
+            writeZSetRows(keyString, cursor, spiller, fieldList);
+        }
+        while (!cursor.isFinished());
+    }
+
+    private void loadZSetRows(RedisAsyncCommandsWrapper<String, String> asyncCommands, String keyString,
+                              ScoredValueScanCursor<String> firstPage, BlockSpiller spiller, List<Field> fieldList)
+    {
+        ScoredValueScanCursor<String> cursor = firstPage;
+        writeZSetRows(keyString, cursor, spiller, fieldList);
+        while (!cursor.isFinished()) {
+            cursor = await(asyncCommands.zscan(keyString, cursor));
+            writeZSetRows(keyString, cursor, spiller, fieldList);
+        }
+    }
+
+    private void writeZSetRows(String keyString, ScoredValueScanCursor<String> cursor, BlockSpiller spiller, List<Field> fieldList)
     {
         if (fieldList.size() != 1) {
             throw new RuntimeException("Ambiguous field mapping, more than 1 field for ZSET value type.");
         }
 
         Field zfield = fieldList.get(0);
-        ScoredValueScanCursor<String> cursor = null;
-        do {
-            cursor = syncCommands.zscan(keyString, cursor == null ? INITIAL : cursor);
-            for (ScoredValue<String> nextElement : cursor.getValues()) {
-                spiller.writeRows((Block block, int rowNum) -> {
-                    Object zvalue = ValueConverter.convert(zfield, nextElement.getValue());
-                    boolean zsetMatched = block.offerValue(KEY_COLUMN_NAME, rowNum, keyString);
-                    zsetMatched &= block.offerValue(zfield.getName(), rowNum, zvalue);
-                    return zsetMatched ? 1 : 0;
-                });
-            }
+        for (ScoredValue<String> nextElement : cursor.getValues()) {
+            spiller.writeRows((Block block, int rowNum) -> {
+                Object zvalue = ValueConverter.convert(zfield, nextElement.getValue());
+                boolean zsetMatched = block.offerValue(KEY_COLUMN_NAME, rowNum, keyString);
+                zsetMatched &= block.offerValue(zfield.getName(), rowNum, zvalue);
+                return zsetMatched ? 1 : 0;
+            });
         }
-        while (!cursor.isFinished());
     }
 
     /**
@@ -0,0 +1,63 @@
+/*-
+ * #%L
+ * athena-redis
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redis;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shards the keys a SCAN of a standalone Redis keyspace returns by a hash of the key, so that the values of each shard
+ * can be read by its own split.
+ * <p>
+ * Each shard runs the whole SCAN and keeps the keys that hash to it. The SCAN itself can't be split into ranges of its
+ * cursor: a SCAN call visits buckets until it has COUNT keys, so its last page for a range returns keys of buckets past
+ * the range, and which bucket a key came from is not known to the client. Hashing the key puts every key in exactly one
+ * shard, whichever page returns it. The price is that every shard scans the key names of the whole keyspace, so only
+ * keyspaces with plenty of keys per shard are sharded, where reading the values costs more than the repeated SCANs.
+ */
+final class ScanKeyShards
+{
+    //The fewest keys of the keyspace per shard.
+    static final long MIN_KEYS_PER_SHARD = 10_000;
+
+    private ScanKeyShards() {}
+
+    /**
+     * @param dbSize The number of keys in the keyspace (DBSIZE).
+     * @param maxShards The most shards to use.
+     * @return The number of shards, up to maxShards, with at least MIN_KEYS_PER_SHARD keys each.
+     */
+    static int shardCount(long dbSize, int maxShards)
+    {
+        return (int) Math.max(1, Math.min(maxShards, dbSize / MIN_KEYS_PER_SHARD));
+    }
+
+    /**
+     * @return True if the key belongs to the shard.
+     */
+    static boolean isInShard(String key, int shard, int shards)
+    {
+        if (shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("Invalid shard " + shard + " of " + shards);
+        }
+        return Math.floorMod(Hashing.murmur3_32_fixed().hashString(key, StandardCharsets.UTF_8).asInt(), shards) == shard;
+    }
+}
@@ -64,6 +64,16 @@ public class RedisCommandsWrapper<K, V>
     }
   }
 
+  public Long dbsize()
+  {
+    if (isCluster) {
+      return clusterCommands.dbsize();
+    }
+    else {
+      return standaloneCommands.dbsize();
+    }
+  }
+
   public Long zcount(K var1, Range<? extends Number> var2)
   {
     if (isCluster) {
@@ -21,6 +21,10 @@ package com.amazonaws.athena.connectors.redis.lettuce;
 
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -30,6 +34,7 @@ public class RedisConnectionWrapper<K, V>
   private final StatefulRedisClusterConnection<K, V> clusterConnection;
   private final boolean isCluster;
   private final RedisCommandsWrapper<K, V> redisCommandsWrapper;
+  private final RedisAsyncCommandsWrapper<K, V> redisAsyncCommandsWrapper;
 
   public RedisConnectionWrapper(StatefulRedisConnection<K, V> standaloneConnection,
                                 StatefulRedisClusterConnection<K, V> clusterConnection, boolean isCluster)
@@ -40,10 +45,12 @@ public class RedisConnectionWrapper<K, V>
     if (isCluster) {
       requireNonNull(clusterConnection, "Cluster Connection is required");
       redisCommandsWrapper = new RedisCommandsWrapper<K, V>(null, clusterConnection.sync(), isCluster);
+      redisAsyncCommandsWrapper = new RedisAsyncCommandsWrapper<K, V>(null, clusterConnection.async(), isCluster);
     }
     else {
       requireNonNull(standaloneConnection, "Standalone Connection is required");
       redisCommandsWrapper = new RedisCommandsWrapper<K, V>(standaloneConnection.sync(), null, isCluster);
+      redisAsyncCommandsWrapper = new RedisAsyncCommandsWrapper<K, V>(standaloneConnection.async(), null, isCluster);
     }
   }
 
@@ -52,6 +59,41 @@ public class RedisConnectionWrapper<K, V>
     return this.redisCommandsWrapper;
   }
 
+  public RedisAsyncCommandsWrapper<K, V> async()
+  {
+    return this.redisAsyncCommandsWrapper;
+  }
+
+  /**
+   * @return The ids of the cluster's upstream nodes that serve slots, which between them hold all the keys.
+   */
+  public List<String> getUpstreamNodeIds()
+  {
+    requireNonNull(clusterConnection, "Cluster Connection is required");
+    return clusterConnection.getPartitions().getPartitions().stream()
+        .filter(node -> node.getRole().isUpstream() && !node.hasNoSlots())
+        .map(RedisClusterNode::getNodeId)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return The commands of a single node of the cluster, e.g. to SCAN only the keys of that node.
+   */
+  public RedisCommandsWrapper<K, V> syncNode(String nodeId)
+  {
+    requireNonNull(clusterConnection, "Cluster Connection is required");
+    return new RedisCommandsWrapper<K, V>(clusterConnection.getConnection(nodeId).sync(), null, false);
+  }
+
+  /**
+   * @return The async commands of a single node of the cluster, e.g. to SCAN only the keys of that node.
+   */
+  public RedisAsyncCommandsWrapper<K, V> asyncNode(String nodeId)
+  {
+    requireNonNull(clusterConnection, "Cluster Connection is required");
+    return new RedisAsyncCommandsWrapper<K, V>(clusterConnection.getConnection(nodeId).async(), null, false);
+  }
+
   public void close()
   {
     if (isCluster) {
@@ -24,6 +24,7 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
 import com.amazonaws.athena.connector.lambda.data.BlockUtils;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
@@ -36,6 +37,8 @@ import com.amazonaws.athena.connectors.redis.lettuce.RedisCommandsWrapper;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisConnectionFactory;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisConnectionWrapper;
 import com.amazonaws.athena.connectors.redis.util.MockKeyScanCursor;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.lettuce.core.Range;
 import io.lettuce.core.ScanArgs;
 import io.lettuce.core.ScanCursor;
@@ -63,7 +66,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.KEY_PREFIX_TABLE_PROP;
@@ -71,6 +76,10 @@ import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_C
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_DB_NUMBER;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_ENDPOINT_PROP;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_SSL_FLAG;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SCAN_SHARDS;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_NODE_ID;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_SCAN_SHARD;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_SCAN_SHARDS;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.VALUE_TYPE_TABLE_PROP;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.ZSET_KEYS_TABLE_PROP;
 import static org.junit.Assert.*;
@@ -305,4 +314,68 @@ public class RedisMetadataHandlerTest
         assertTrue("Continuation criteria violated", response.getSplits().size() == 3);
         assertTrue("Continuation criteria violated", response.getContinuationToken() == null);
     }
+
+    @Test
+    public void doGetSplitsPrefixCluster()
+    {
+        when(mockConnection.getUpstreamNodeIds()).thenReturn(ImmutableList.of("node-1", "node-2"));
+
+        GetSplitsResponse response = (GetSplitsResponse) handler.doGetSplits(allocator, newPrefixSplitsRequest("true"));
+
+        //a split per prefix and node
+        assertEquals(6, response.getSplits().size());
+        Set<String> nodeIds = response.getSplits().stream().map(split -> split.getProperty(SPLIT_NODE_ID)).collect(Collectors.toSet());
+        assertEquals(ImmutableSet.of("node-1", "node-2"), nodeIds);
+        assertNull(response.getContinuationToken());
+    }
+
+    @Test
+    public void doGetSplitsPrefixScanShards()
+    {
+        handler = new RedisMetadataHandler(mockGlue, new LocalKeyFactory(), mockSecretsManager, mockAthena, mockFactory, "bucket", "prefix",
+                com.google.common.collect.ImmutableMap.of(SCAN_SHARDS, "8"));
+        //enough keys for 4 shards
+        when(mockSyncCommands.dbsize()).thenReturn(45_000L);
+
+        GetSplitsResponse response = (GetSplitsResponse) handler.doGetSplits(allocator, newPrefixSplitsRequest(null));
+
+        assertEquals(12, response.getSplits().size());
+        for (Split split : response.getSplits()) {
+            assertEquals("4", split.getProperty(SPLIT_SCAN_SHARDS));
+        }
+        assertEquals(4, response.getSplits().stream().map(split -> split.getProperty(SPLIT_SCAN_SHARD)).distinct().count());
+    }
+
+    private GetSplitsRequest newPrefixSplitsRequest(String clusterFlag)
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("partitionId", Types.MinorType.INT.getType())
+                .addStringField(REDIS_ENDPOINT_PROP)
+                .addStringField(VALUE_TYPE_TABLE_PROP)
+                .addStringField(KEY_PREFIX_TABLE_PROP)
+                .addStringField(ZSET_KEYS_TABLE_PROP)
+                .addStringField(REDIS_SSL_FLAG)
+                .addStringField(REDIS_CLUSTER_FLAG)
+                .addStringField(REDIS_DB_NUMBER)
+                .build();
+
+        Block partitions = allocator.createBlock(schema);
+        partitions.setValue(REDIS_ENDPOINT_PROP, 0, endpoint);
+        partitions.setValue(VALUE_TYPE_TABLE_PROP, 0, "literal");
+        partitions.setValue(KEY_PREFIX_TABLE_PROP, 0, "prefix1-*,prefix2-*, prefix3-*");
+        partitions.setValue(ZSET_KEYS_TABLE_PROP, 0, null);
+        partitions.setValue(REDIS_SSL_FLAG, 0, null);
+        partitions.setValue(REDIS_CLUSTER_FLAG, 0, clusterFlag);
+        partitions.setValue(REDIS_DB_NUMBER, 0, null);
+        partitions.setRowCount(1);
+
+        return new GetSplitsRequest(IDENTITY,
+                QUERY_ID,
+                DEFAULT_CATALOG,
+                TABLE_NAME,
+                partitions,
+                new ArrayList<>(),
+                new Constraints(new HashMap<>(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                null);
+    }
 }
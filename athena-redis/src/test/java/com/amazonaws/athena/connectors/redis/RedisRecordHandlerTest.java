@@ -37,10 +37,13 @@ import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisCommandsWrapper;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisConnectionFactory;
+import com.amazonaws.athena.connectors.redis.lettuce.RedisAsyncCommandsWrapper;
 import com.amazonaws.athena.connectors.redis.lettuce.RedisConnectionWrapper;
+import com.amazonaws.athena.connectors.redis.util.InMemoryRedis;
 import com.amazonaws.athena.connectors.redis.util.MockKeyScanCursor;
 import com.amazonaws.athena.connectors.redis.util.MockScoredValueScanCursor;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteStreams;
 import io.lettuce.core.ScanArgs;
 import io.lettuce.core.ScanCursor;
@@ -77,6 +80,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -87,6 +91,9 @@ import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.KEY_COL
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.KEY_PREFIX_TABLE_PROP;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.KEY_TYPE;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.REDIS_ENDPOINT_PROP;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_NODE_ID;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_SCAN_SHARD;
+import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.SPLIT_SCAN_SHARDS;
 import static com.amazonaws.athena.connectors.redis.RedisMetadataHandler.VALUE_TYPE_TABLE_PROP;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -120,6 +127,9 @@ public class RedisRecordHandlerTest
     @Mock
     private RedisCommandsWrapper<String, String> mockSyncCommands;
 
+    @Mock
+    private RedisAsyncCommandsWrapper<String, String> mockAsyncCommands;
+
     @Mock
     private SecretsManagerClient mockSecretsManager;
 
@@ -135,7 +145,8 @@ public class RedisRecordHandlerTest
         logger.info("{}: enter", testName.getMethodName());
 
         when(mockFactory.getOrCreateConn(eq(decodedEndpoint), anyBoolean(), anyBoolean(), any())).thenReturn(mockConnection);
-        when(mockConnection.sync()).thenReturn(mockSyncCommands);
+        Mockito.lenient().when(mockConnection.sync()).thenReturn(mockSyncCommands);
+        Mockito.lenient().when(mockConnection.async()).thenReturn(mockAsyncCommands);
 
         allocator = new BlockAllocatorImpl();
 
@@ -484,6 +495,195 @@ public class RedisRecordHandlerTest
         assertNotNull(intCol.readInteger());
     }
 
+    @Test
+    public void doReadRecordsPipelined()
+            throws Exception
+    {
+        InMemoryRedis redis = new InMemoryRedis();
+        for (int i = 0; i < 10; i++) {
+            redis.set("key-" + i, String.valueOf(i));
+        }
+        redis.bind(mockAsyncCommands);
+        handler = new RedisRecordHandler(amazonS3, mockSecretsManager, mockAthena, mockFactory,
+                com.google.common.collect.ImmutableMap.of(RedisRecordHandler.PIPELINE_DEPTH, "2"));
+
+        Schema schemaForRead = SchemaBuilder.newBuilder()
+                .addField("_key_", Types.MinorType.VARCHAR.getType())
+                .addField("intcol", Types.MinorType.INT.getType())
+                .build();
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put("intcol", SortedRangeSet.copyOf(Types.MinorType.INT.getType(),
+                ImmutableList.of(Range.greaterThan(allocator, Types.MinorType.INT.getType(), 1)), false));
+
+        ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator,
+                newPrefixRequest(ValueType.LITERAL, schemaForRead, constraintsMap, Collections.emptyMap()));
+
+        //10 keys in pages of 3, 3, 3 and 1 keys, fetched by mgets of up to 2 keys, 8 of them above 1
+        assertEquals(8, response.getRecords().getRowCount());
+        assertEquals(7, redis.getMgetCalls());
+        assertEquals(2, redis.getMaxMgetKeys());
+        Mockito.verify(mockSyncCommands, Mockito.never()).get(nullable(String.class));
+    }
+
+    @Test
+    public void doReadRecordsHashAndZsetPipelined()
+            throws Exception
+    {
+        InMemoryRedis redis = new InMemoryRedis();
+        for (int i = 0; i < 7; i++) {
+            redis.hset("key-" + i, ImmutableMap.of("IntCol", String.valueOf(i), "stringcol", "value-" + i));
+        }
+        redis.bind(mockAsyncCommands);
+        handler = new RedisRecordHandler(amazonS3, mockSecretsManager, mockAthena, mockFactory,
+                com.google.common.collect.ImmutableMap.of(RedisRecordHandler.PIPELINE_DEPTH, "4"));
+
+        Schema hashSchema = SchemaBuilder.newBuilder()
+                .addField("_key_", Types.MinorType.VARCHAR.getType())
+                .addField("intcol", Types.MinorType.INT.getType())
+                .addField("stringcol", Types.MinorType.VARCHAR.getType())
+                .build();
+        ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator,
+                newPrefixRequest(ValueType.HASH, hashSchema, new HashMap<>(), Collections.emptyMap()));
+
+        assertEquals(7, response.getRecords().getRowCount());
+        FieldReader intCol = response.getRecords().getFieldReader("intcol");
+        FieldReader stringCol = response.getRecords().getFieldReader("stringcol");
+        for (int row = 0; row < 7; row++) {
+            intCol.setPosition(row);
+            stringCol.setPosition(row);
+            assertEquals("value-" + intCol.readInteger(), stringCol.readText().toString());
+        }
+
+        redis = new InMemoryRedis();
+        redis.zadd("key-a", ImmutableList.of("1", "2", "3", "4", "5"));
+        redis.zadd("key-b", ImmutableList.of("6", "7"));
+        redis.bind(mockAsyncCommands);
+        Schema zsetSchema = SchemaBuilder.newBuilder()
+                .addField("_key_", Types.MinorType.VARCHAR.getType())
+                .addField("intcol", Types.MinorType.INT.getType())
+                .build();
+        response = (ReadRecordsResponse) handler.doReadRecords(allocator,
+                newPrefixRequest(ValueType.ZSET, zsetSchema, new HashMap<>(), Collections.emptyMap()));
+
+        //key-a has two pages of members
+        assertEquals(7, response.getRecords().getRowCount());
+    }
+
+    @Test
+    public void doReadRecordsClusterNode()
+            throws Exception
+    {
+        //The split scans the keys of one node, the values are read through the cluster connection.
+        InMemoryRedis node = new InMemoryRedis();
+        InMemoryRedis cluster = new InMemoryRedis();
+        for (int i = 0; i < 8; i++) {
+            if (i % 2 == 0) {
+                node.set("key-" + i, String.valueOf(i));
+            }
+            cluster.set("key-" + i, String.valueOf(i));
+        }
+        RedisAsyncCommandsWrapper<String, String> mockNodeAsyncCommands = mock(RedisAsyncCommandsWrapper.class);
+        node.bind(mockNodeAsyncCommands);
+        cluster.bind(mockAsyncCommands);
+        when(mockConnection.asyncNode("node-1")).thenReturn(mockNodeAsyncCommands);
+        handler = new RedisRecordHandler(amazonS3, mockSecretsManager, mockAthena, mockFactory,
+                com.google.common.collect.ImmutableMap.of(RedisRecordHandler.PIPELINE_DEPTH, "2"));
+
+        Schema schemaForRead = SchemaBuilder.newBuilder()
+                .addField("_key_", Types.MinorType.VARCHAR.getType())
+                .addField("intcol", Types.MinorType.INT.getType())
+                .build();
+        ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator,
+                newPrefixRequest(ValueType.LITERAL, schemaForRead, new HashMap<>(), ImmutableMap.of(SPLIT_NODE_ID, "node-1")));
+
+        assertEquals(4, response.getRecords().getRowCount());
+        FieldReader intCol = response.getRecords().getFieldReader("intcol");
+        for (int row = 0; row < 4; row++) {
+            intCol.setPosition(row);
+            assertEquals(0, intCol.readInteger() % 2);
+        }
+        //4 keys in pages of 3 and 1 keys, fetched by mgets of up to 2 keys
+        assertEquals(0, node.getMgetCalls());
+        assertEquals(3, cluster.getMgetCalls());
+    }
+
+    @Test
+    public void doReadRecordsScanShards()
+            throws Exception
+    {
+        //Pages of 5 keys, the way a SCAN with COUNT returns keys of buckets past any range of the cursor a shard could
+        //have been bounded by. Each shard runs the whole SCAN and keeps the keys that hash to it.
+        Map<String, String> nextCursors = ImmutableMap.of("0", "1", "1", "3", "3", "0");
+        Map<String, Integer> firstKeys = ImmutableMap.of("0", 0, "1", 5, "3", 10);
+        when(mockSyncCommands.scan(nullable(ScanCursor.class), nullable(ScanArgs.class))).then((InvocationOnMock invocationOnMock) -> {
+            ScanCursor cursor = (ScanCursor) invocationOnMock.getArguments()[0];
+            MockKeyScanCursor<String> scanCursor = new MockKeyScanCursor<>();
+            List<String> keys = new ArrayList<>();
+            for (int i = firstKeys.get(cursor.getCursor()); i < firstKeys.get(cursor.getCursor()) + 5; i++) {
+                keys.add("key-" + i);
+            }
+            scanCursor.setKeys(keys);
+            scanCursor.setCursor(nextCursors.get(cursor.getCursor()));
+            scanCursor.setFinished("0".equals(scanCursor.getCursor()));
+            return scanCursor;
+        });
+        when(mockSyncCommands.get(nullable(String.class)))
+                .thenAnswer((InvocationOnMock invocationOnMock) -> ((String) invocationOnMock.getArgument(0)).substring(4));
+
+        Schema schemaForRead = SchemaBuilder.newBuilder()
+                .addField("_key_", Types.MinorType.VARCHAR.getType())
+                .addField("intcol", Types.MinorType.INT.getType())
+                .build();
+        List<String> readKeys = new ArrayList<>();
+        for (int shard = 0; shard < 2; shard++) {
+            ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator,
+                    newPrefixRequest(ValueType.LITERAL, schemaForRead, new HashMap<>(),
+                            ImmutableMap.of(SPLIT_SCAN_SHARD, String.valueOf(shard), SPLIT_SCAN_SHARDS, "2")));
+            FieldReader keyCol = response.getRecords().getFieldReader("_key_");
+            for (int row = 0; row < response.getRecords().getRowCount(); row++) {
+                keyCol.setPosition(row);
+                String key = keyCol.readText().toString();
+                assertTrue(ScanKeyShards.isInShard(key, shard, 2));
+                readKeys.add(key);
+            }
+        }
+
+        //every key is read once, by one of the shards
+        assertEquals(15, readKeys.size());
+        assertEquals(15, new HashSet<>(readKeys).size());
+        Mockito.verify(mockSyncCommands, Mockito.times(6)).scan(nullable(ScanCursor.class), nullable(ScanArgs.class));
+    }
+
+    private ReadRecordsRequest newPrefixRequest(ValueType valueType, Schema schemaForRead, Map<String, ValueSet> constraintsMap,
+                                                Map<String, String> splitProperties)
+    {
+        S3SpillLocation splitLoc = S3SpillLocation.newBuilder()
+                .withBucket(UUID.randomUUID().toString())
+                .withSplitId(UUID.randomUUID().toString())
+                .withQueryId(UUID.randomUUID().toString())
+                .withIsDirectory(true)
+                .build();
+
+        Split split = Split.newBuilder(splitLoc, keyFactory.create())
+                .add(REDIS_ENDPOINT_PROP, endpoint)
+                .add(KEY_TYPE, KeyType.PREFIX.getId())
+                .add(KEY_PREFIX_TABLE_PROP, "key-*")
+                .add(VALUE_TYPE_TABLE_PROP, valueType.getId())
+                .applyProperties(splitProperties)
+                .build();
+
+        return new ReadRecordsRequest(IDENTITY,
+                DEFAULT_CATALOG,
+                "queryId-" + System.currentTimeMillis(),
+                TABLE_NAME,
+                schemaForRead,
+                split,
+                new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                100_000_000_000L, //100GB don't expect this to spill
+                100_000_000_000L
+        );
+    }
+
     private class ByteHolder
     {
         private byte[] bytes;
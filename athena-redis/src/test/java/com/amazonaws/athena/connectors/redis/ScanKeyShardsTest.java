@@ -0,0 +1,65 @@
+/*-
+ * #%L
+ * athena-redis
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScanKeyShardsTest
+{
+    @Test
+    public void shardCount()
+    {
+        assertEquals(1, ScanKeyShards.shardCount(1_000_000, 1));
+        assertEquals(1, ScanKeyShards.shardCount(15_000, 8));
+        assertEquals(4, ScanKeyShards.shardCount(45_000, 8));
+        assertEquals(10, ScanKeyShards.shardCount(10_000_000, 10));
+    }
+
+    @Test
+    public void everyKeyIsInOneShard()
+    {
+        for (int shards : new int[] {1, 2, 3, 8}) {
+            int[] keysPerShard = new int[shards];
+            for (int key = 0; key < 10_000; key++) {
+                int matches = 0;
+                for (int shard = 0; shard < shards; shard++) {
+                    if (ScanKeyShards.isInShard("key-" + key, shard, shards)) {
+                        keysPerShard[shard]++;
+                        matches++;
+                    }
+                }
+                assertEquals(1, matches);
+            }
+            //the keys are spread evenly enough that every shard gets a fair part of them
+            for (int next : keysPerShard) {
+                assertTrue(next > 10_000 / shards * 0.8);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void isInShardRequiresValidShard()
+    {
+        ScanKeyShards.isInShard("key", 3, 3);
+    }
+}
@@ -0,0 +1,44 @@
+/*-
+ * #%L
+ * athena-redis
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redis.util;
+
+import io.lettuce.core.RedisFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class CompletedRedisFuture<V> extends CompletableFuture<V> implements RedisFuture<V> {
+  public CompletedRedisFuture(V value)
+  {
+    complete(value);
+  }
+
+  @Override
+  public String getError()
+  {
+    return null;
+  }
+
+  @Override
+  public boolean await(long timeout, TimeUnit unit)
+  {
+    return true;
+  }
+}
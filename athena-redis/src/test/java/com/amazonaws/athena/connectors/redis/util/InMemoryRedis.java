@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * athena-redis
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redis.util;
+
+import com.amazonaws.athena.connectors.redis.lettuce.RedisAsyncCommandsWrapper;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScanArgs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * A stand-in for a Redis server that answers the async commands of the connector from in-memory data, a few keys or
+ * members per SCAN or ZSCAN page so that reads have to follow cursors.
+ */
+public class InMemoryRedis {
+  private static final int PAGE_SIZE = 3;
+
+  private final Map<String, Object> data = new TreeMap<>();
+  private final AtomicInteger mgetCalls = new AtomicInteger();
+  private final AtomicInteger maxMgetKeys = new AtomicInteger();
+
+  public void set(String key, String value)
+  {
+    data.put(key, value);
+  }
+
+  public void hset(String key, Map<String, String> hash)
+  {
+    data.put(key, hash);
+  }
+
+  public void zadd(String key, List<String> members)
+  {
+    data.put(key, members);
+  }
+
+  public int getMgetCalls()
+  {
+    return mgetCalls.get();
+  }
+
+  public int getMaxMgetKeys()
+  {
+    return maxMgetKeys.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  public void bind(RedisAsyncCommandsWrapper<String, String> asyncCommands)
+  {
+    lenient().doAnswer(invocation -> {
+      ScanCursor cursor = invocation.getArgument(0);
+      List<String> keys = new ArrayList<>(data.keySet());
+      MockKeyScanCursor<String> page = new MockKeyScanCursor<>();
+      int start = Integer.parseInt(cursor.getCursor());
+      int end = Math.min(keys.size(), start + PAGE_SIZE);
+      page.setKeys(new ArrayList<>(keys.subList(start, end)));
+      page.setCursor(String.valueOf(end));
+      page.setFinished(end == keys.size());
+      return new CompletedRedisFuture<>(page);
+    }).when(asyncCommands).scan(nullable(ScanCursor.class), nullable(ScanArgs.class));
+
+    lenient().doAnswer(invocation -> {
+      Object[] keys = invocation.getArguments();
+      if (keys.length == 1 && keys[0] instanceof String[]) {
+        keys = (Object[]) keys[0];
+      }
+      mgetCalls.incrementAndGet();
+      maxMgetKeys.accumulateAndGet(keys.length, Math::max);
+      List<KeyValue<String, String>> values = new ArrayList<>();
+      for (Object key : keys) {
+        Object value = data.get(key);
+        values.add(value instanceof String ? KeyValue.just((String) key, (String) value) : KeyValue.empty((String) key));
+      }
+      return new CompletedRedisFuture<>(values);
+    }).when(asyncCommands).mget(any());
+
+    lenient().doAnswer(invocation -> new CompletedRedisFuture<>(data.get(invocation.getArgument(0))))
+        .when(asyncCommands).hgetall(anyString());
+
+    lenient().doAnswer(invocation -> {
+      List<String> members = (List<String>) data.get(invocation.getArgument(0));
+      ScanCursor cursor = invocation.getArgument(1);
+      int start = Integer.parseInt(cursor.getCursor());
+      int end = Math.min(members.size(), start + PAGE_SIZE);
+      List<ScoredValue<String>> values = new ArrayList<>();
+      for (int i = start; i < end; i++) {
+        values.add(ScoredValue.just(i, members.get(i)));
+      }
+      MockScoredValueScanCursor<String> page = new MockScoredValueScanCursor<>();
+      page.setValues(values);
+      page.setCursor(String.valueOf(end));
+      page.setFinished(end == members.size());
+      return new CompletedRedisFuture<>(page);
+    }).when(asyncCommands).zscan(anyString(), any(ScanCursor.class));
+  }
+}
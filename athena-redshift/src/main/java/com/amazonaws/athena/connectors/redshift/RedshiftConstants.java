@@ -19,11 +19,33 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import java.util.Map;
+
 public class RedshiftConstants
 {
     public static final String REDSHIFT_NAME = "redshift";
     public static final String REDSHIFT_DRIVER_CLASS = "com.amazon.redshift.jdbc.Driver";
     public static final int REDSHIFT_DEFAULT_PORT = 5439;
 
+    /**
+     * S3 export (UNLOAD) related constants.
+     */
+    public static final String REDSHIFT_ENABLE_S3_EXPORT = "redshift_enable_s3_export";
+    //s3://bucket[/prefix] the UNLOAD results are written under
+    public static final String REDSHIFT_EXPORT_BUCKET = "export_bucket";
+    //IAM role attached to the cluster that is allowed to write into the export bucket
+    public static final String REDSHIFT_UNLOAD_IAM_ROLE = "redshift_unload_iam_role";
+    public static final String S3_ENHANCED_PARTITION_COLUMN_NAME = "s3_column_name_list";
+    public static final String REDSHIFT_SPLIT_QUERY_ID = "query_id";
+    public static final String REDSHIFT_SPLIT_EXPORT_BUCKET = "exportBucket";
+    public static final String REDSHIFT_SPLIT_OBJECT_KEY = "s3ObjectKey";
+    //Each slice writes its own files in parallel, MAXFILESIZE bounds the amount of data read by a single split.
+    public static final String UNLOAD_QUERY_TEMPLATE = "UNLOAD (%s) TO '%s' IAM_ROLE '%s' FORMAT AS PARQUET PARALLEL ON MAXFILESIZE 64 MB";
+
     private RedshiftConstants() {}
+
+    public static boolean isS3ExportEnabled(Map<String, String> configOptions)
+    {
+        return Boolean.parseBoolean(configOptions.getOrDefault(REDSHIFT_ENABLE_S3_EXPORT, "false"));
+    }
 }
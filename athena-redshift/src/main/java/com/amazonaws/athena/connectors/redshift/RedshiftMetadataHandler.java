@@ -19,12 +19,20 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.functions.StandardFunctions;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
 import com.amazonaws.athena.connector.lambda.metadata.optimizations.DataSourceOptimizations;
 import com.amazonaws.athena.connector.lambda.metadata.optimizations.OptimizationSubType;
 import com.amazonaws.athena.connector.lambda.metadata.optimizations.pushdown.ComplexExpressionPushdownSubType;
@@ -38,26 +46,52 @@ import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.splits.Splitter;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
+import com.amazonaws.athena.connectors.postgresql.PostgreSqlFederationExpressionParser;
 import com.amazonaws.athena.connectors.redshift.resolver.RedshiftJDBCCaseResolver;
 import com.google.common.collect.ImmutableMap;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Uri;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.net.URI;
+import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
+import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRES_QUOTE_CHARACTER;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DRIVER_CLASS;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_EXPORT_BUCKET;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_EXPORT_BUCKET;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_OBJECT_KEY;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_QUERY_ID;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_UNLOAD_IAM_ROLE;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.S3_ENHANCED_PARTITION_COLUMN_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.UNLOAD_QUERY_TEMPLATE;
 
 /**
  * Handles metadata for PostGreSql. User must have access to `schemata`, `tables`, `columns`, `partitions` tables in
@@ -68,6 +102,11 @@ public class RedshiftMetadataHandler
 {
     static final String LIST_PAGINATED_TABLES_QUERY = "SELECT a.\"TABLE_NAME\", a.\"TABLE_SCHEM\" FROM (( SELECT table_name as \"TABLE_NAME\", table_schema as \"TABLE_SCHEM\" FROM information_schema.tables WHERE table_schema = ?) UNION (SELECT tablename as \"TABLE_NAME\", schemaname as \"TABLE_SCHEM\" FROM svv_external_tables where schemaname = ?)) AS a ORDER BY a.\"TABLE_NAME\" LIMIT ? OFFSET ?";
     private static final Logger LOGGER = LoggerFactory.getLogger(RedshiftMetadataHandler.class);
+    private static final String S3_SCHEME = "s3://";
+
+    //Only used when the S3 export (UNLOAD) mode is enabled.
+    private final S3Client amazonS3;
+    private final RedshiftSqlQueryStringBuilder exportQueryBuilder = new RedshiftSqlQueryStringBuilder(POSTGRES_QUOTE_CHARACTER, new PostgreSqlFederationExpressionParser(POSTGRES_QUOTE_CHARACTER));
 
     /**
      * Instantiates handler to be used by Lambda function directly.
@@ -85,12 +124,20 @@ public class RedshiftMetadataHandler
                 new GenericJdbcConnectionFactory(databaseConnectionConfig, JDBC_PROPERTIES, new DatabaseConnectionInfo(REDSHIFT_DRIVER_CLASS, REDSHIFT_DEFAULT_PORT)),
                 configOptions,
                 new RedshiftJDBCCaseResolver(REDSHIFT_NAME));
+        this.amazonS3 = RedshiftConstants.isS3ExportEnabled(configOptions) ? S3Client.create() : null;
     }
 
     @VisibleForTesting
     RedshiftMetadataHandler(DatabaseConnectionConfig databaseConnectionConfig, SecretsManagerClient secretsManager, AthenaClient athena, JdbcConnectionFactory jdbcConnectionFactory, java.util.Map<String, String> configOptions)
+    {
+        this(databaseConnectionConfig, null, secretsManager, athena, jdbcConnectionFactory, configOptions);
+    }
+
+    @VisibleForTesting
+    RedshiftMetadataHandler(DatabaseConnectionConfig databaseConnectionConfig, S3Client amazonS3, SecretsManagerClient secretsManager, AthenaClient athena, JdbcConnectionFactory jdbcConnectionFactory, java.util.Map<String, String> configOptions)
     {
         super(databaseConnectionConfig, secretsManager, athena, jdbcConnectionFactory, configOptions, new RedshiftJDBCCaseResolver(REDSHIFT_NAME));
+        this.amazonS3 = amazonS3;
     }
 
     @Override
@@ -192,4 +239,176 @@ public class RedshiftMetadataHandler
 
         return splitClauses;
     }
+
+    /**
+     * In S3 export mode we inject an additional column holding the schema of the table, the splits are generated by
+     * an UNLOAD of the whole table and GetSplitsRequest does not carry the table schema.
+     *
+     * @param partitionSchemaBuilder The SchemaBuilder you can use to add additional columns and metadata to the
+     *                               partitions response.
+     * @param request                The GetTableLayoutResquest that triggered this call.
+     */
+    @Override
+    public void enhancePartitionSchema(SchemaBuilder partitionSchemaBuilder, GetTableLayoutRequest request)
+    {
+        if (isS3Export(request.getConstraints().isQueryPassThrough()) && partitionSchemaBuilder.getField(S3_ENHANCED_PARTITION_COLUMN_NAME) == null) {
+            LOGGER.info("enhancePartitionSchema for S3 export {}: Schema {}, table {}", request.getQueryId(), request.getTableName().getSchemaName(), request.getTableName().getTableName());
+            partitionSchemaBuilder.addField(S3_ENHANCED_PARTITION_COLUMN_NAME, Types.MinorType.VARBINARY.getType());
+        }
+    }
+
+    /**
+     * Redshift has no declarative partitions, pg_get_partkeydef and relpartbound don't exist.
+     */
+    @Override
+    protected boolean supportsPartitionBounds()
+    {
+        return false;
+    }
+
+    @Override
+    public void getPartitions(BlockWriter blockWriter, GetTableLayoutRequest getTableLayoutRequest, QueryStatusChecker queryStatusChecker)
+            throws Exception
+    {
+        if (!isS3Export(getTableLayoutRequest.getConstraints().isQueryPassThrough())) {
+            super.getPartitions(blockWriter, getTableLayoutRequest, queryStatusChecker);
+            return;
+        }
+
+        // The UNLOAD covers the whole table, Redshift slices take care of the parallelism.
+        LOGGER.info("getPartitions for S3 export {}: Schema {}, table {}", getTableLayoutRequest.getQueryId(),
+                getTableLayoutRequest.getTableName().getSchemaName(), getTableLayoutRequest.getTableName().getTableName());
+        blockWriter.writeRows((Block block, int rowNum) -> {
+            block.setValue(BLOCK_PARTITION_SCHEMA_COLUMN_NAME, rowNum, ALL_PARTITIONS);
+            block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, ALL_PARTITIONS);
+            block.setValue(S3_ENHANCED_PARTITION_COLUMN_NAME, rowNum, getTableLayoutRequest.getSchema().serializeAsMessage());
+            return 1;
+        });
+    }
+
+    @Override
+    public GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest getSplitsRequest)
+    {
+        if (isS3Export(getSplitsRequest.getConstraints().isQueryPassThrough())) {
+            return handleS3ExportSplits(getSplitsRequest);
+        }
+        return super.doGetSplits(blockAllocator, getSplitsRequest);
+    }
+
+    /**
+     * UNLOADs the result of the query to Parquet files, Redshift slices write their files in parallel. Each exported
+     * file becomes a split.
+     */
+    private GetSplitsResponse handleS3ExportSplits(GetSplitsRequest request)
+    {
+        String queryId = request.getQueryId();
+        S3Uri exportUri = amazonS3.utilities().parseUri(URI.create(String.format("%s/%s/%s/", getS3ExportPath(), queryId, UUID.randomUUID())));
+        String exportBucket = exportUri.bucket().orElseThrow();
+        String exportPrefix = exportUri.key().orElseThrow();
+        String unloadQuery = String.format(UNLOAD_QUERY_TEMPLATE,
+                exportQueryBuilder.toUnloadQueryLiteral(getUnloadBaseSQL(request)),
+                S3_SCHEME + exportBucket + "/" + exportPrefix,
+                getUnloadIamRole());
+        LOGGER.info("Redshift UNLOAD statement: {} for queryId: {}", unloadQuery, queryId);
+
+        try (Connection connection = getJdbcConnectionFactory().getConnection(getCredentialProvider(getRequestOverrideConfig(request)));
+                PreparedStatement statement = connection.prepareStatement(unloadQuery)) {
+            statement.execute();
+        }
+        catch (Exception e) {
+            throw new AthenaConnectorException("Exception in execution of UNLOAD statement: " + e.getMessage(), e,
+                    ErrorDetails.builder().errorCode(FederationSourceErrorCode.INTERNAL_SERVICE_EXCEPTION.toString()).build());
+        }
+
+        List<S3Object> exportedObjects = getExportedObjects(exportBucket, exportPrefix);
+        LOGGER.info("{} objects exported by UNLOAD for queryId {}", exportedObjects.size(), queryId);
+
+        Set<Split> splits = new HashSet<>();
+        for (S3Object exportedObject : exportedObjects) {
+            splits.add(makeExportSplit(request, exportBucket, exportedObject.key()));
+        }
+        if (splits.isEmpty()) {
+            // Nothing matched the query, a single split with an empty key keeps the response valid.
+            splits.add(makeExportSplit(request, exportBucket, ""));
+        }
+        return new GetSplitsResponse(request.getCatalogName(), splits);
+    }
+
+    private Split makeExportSplit(GetSplitsRequest request, String exportBucket, String objectKey)
+    {
+        return Split.newBuilder(makeSpillLocation(request), makeEncryptionKey(getRequestOverrideConfig(request)))
+                .add(REDSHIFT_SPLIT_QUERY_ID, request.getQueryId())
+                .add(REDSHIFT_SPLIT_EXPORT_BUCKET, exportBucket)
+                .add(REDSHIFT_SPLIT_OBJECT_KEY, objectKey)
+                .build();
+    }
+
+    private String getUnloadBaseSQL(GetSplitsRequest request)
+    {
+        // GetSplitsRequest has no table schema, the one written in getPartitions is used instead.
+        FieldReader schemaReader = request.getPartitions().getFieldReader(S3_ENHANCED_PARTITION_COLUMN_NAME);
+        schemaReader.setPosition(0);
+        Schema schema = Schema.deserializeMessage(ByteBuffer.wrap(schemaReader.readByteArray()));
+        return exportQueryBuilder.getBaseExportSQLString(request.getTableName().getSchemaName(), request.getTableName().getTableName(),
+                schema, request.getConstraints());
+    }
+
+    /*
+     * Get the list of all the exported S3 objects, an UNLOAD of a large table easily exceeds a single page.
+     */
+    @VisibleForTesting
+    List<S3Object> getExportedObjects(String exportBucket, String prefix)
+    {
+        List<S3Object> exportedObjects = new ArrayList<>();
+        String continuationToken = null;
+        try {
+            do {
+                ListObjectsV2Response response = amazonS3.listObjectsV2(ListObjectsV2Request.builder()
+                        .bucket(exportBucket)
+                        .prefix(prefix)
+                        .continuationToken(continuationToken)
+                        .build());
+                exportedObjects.addAll(response.contents());
+                continuationToken = response.nextContinuationToken();
+            }
+            while (continuationToken != null);
+        }
+        catch (SdkClientException | S3Exception e) {
+            throw new AthenaConnectorException(String.format("Failed to list objects in bucket %s with prefix %s: %s", exportBucket, prefix, e.getMessage()), e,
+                    ErrorDetails.builder().errorCode(FederationSourceErrorCode.INTERNAL_SERVICE_EXCEPTION.toString()).build());
+        }
+        return exportedObjects;
+    }
+
+    private String getS3ExportPath()
+    {
+        String exportPath = getRequiredConfig(REDSHIFT_EXPORT_BUCKET);
+        if (exportPath.endsWith("/")) {
+            exportPath = exportPath.substring(0, exportPath.length() - 1);
+        }
+        return exportPath.startsWith(S3_SCHEME) ? exportPath : S3_SCHEME + exportPath;
+    }
+
+    private String getUnloadIamRole()
+    {
+        return getRequiredConfig(REDSHIFT_UNLOAD_IAM_ROLE).replace("'", "''");
+    }
+
+    private String getRequiredConfig(String key)
+    {
+        String value = configOptions.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new AthenaConnectorException(key + " must be set when " + RedshiftConstants.REDSHIFT_ENABLE_S3_EXPORT + " is enabled",
+                    ErrorDetails.builder().errorCode(FederationSourceErrorCode.INVALID_INPUT_EXCEPTION.toString()).build());
+        }
+        return value;
+    }
+
+    /**
+     * Query passthrough statements are run as is over JDBC, only table scans are exported.
+     */
+    private boolean isS3Export(boolean queryPassthrough)
+    {
+        return RedshiftConstants.isS3ExportEnabled(configOptions) && !queryPassthrough;
+    }
 }
@@ -19,6 +19,12 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.writers.ArrowBatchWriter;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionInfo;
 import com.amazonaws.athena.connectors.jdbc.connection.GenericJdbcConnectionFactory;
@@ -29,25 +35,40 @@ import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMuxCompositeHandler;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlRecordHandler;
 import com.amazonaws.athena.connectors.postgresql.PostgreSqlFederationExpressionParser;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 
 import static com.amazonaws.athena.connectors.postgresql.PostGreSqlConstants.POSTGRES_QUOTE_CHARACTER;
+import static com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME;
+import static com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DEFAULT_PORT;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_DRIVER_CLASS;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_EXPORT_BUCKET;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_OBJECT_KEY;
 
 public class RedshiftRecordHandler
         extends PostGreSqlRecordHandler
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(RedshiftRecordHandler.class);
+    private static final int EXPORT_READ_BATCH_SIZE = 32768;
+    //Export files are decoded into children of this allocator, one per split.
+    private static final BufferAllocator EXPORT_ROOT_ALLOCATOR = new RootAllocator();
 
     /**
      * Instantiates handler to be used by Lambda function directly.
@@ -73,6 +94,57 @@ public class RedshiftRecordHandler
         super(databaseConnectionConfig, amazonS3, secretsManager, athena, jdbcConnectionFactory, jdbcSplitQueryBuilder, configOptions);
     }
 
+    @Override
+    public void readWithConstraint(BlockSpiller spiller, ReadRecordsRequest recordsRequest, QueryStatusChecker queryStatusChecker)
+            throws Exception
+    {
+        // Splits of an UNLOAD point at the exported file instead of a partition.
+        if (recordsRequest.getSplit().getProperties().containsKey(REDSHIFT_SPLIT_OBJECT_KEY)) {
+            handleS3ExportRead(spiller, recordsRequest);
+        }
+        else {
+            super.readWithConstraint(spiller, recordsRequest, queryStatusChecker);
+        }
+    }
+
+    private void handleS3ExportRead(BlockSpiller spiller, ReadRecordsRequest recordsRequest)
+    {
+        Split split = recordsRequest.getSplit();
+        String s3ObjectKey = split.getProperty(REDSHIFT_SPLIT_OBJECT_KEY);
+        if (s3ObjectKey.isEmpty()) {
+            LOGGER.debug("S3 object key is empty from request, the UNLOAD exported no rows");
+            return;
+        }
+
+        String s3path = "s3://" + split.getProperty(REDSHIFT_SPLIT_EXPORT_BUCKET) + "/" + s3ObjectKey;
+        ArrowBatchWriter batchWriter = new ArrowBatchWriter(spiller, getSpillConfig(recordsRequest).getMaxBlockBytes());
+        long rowsWritten = 0;
+        try (RedshiftS3ExportReader reader = constructExportReader(s3path, recordsRequest.getSchema())) {
+            VectorSchemaRoot batch;
+            while ((batch = reader.nextBatch()) != null) {
+                rowsWritten += batchWriter.write(batch);
+            }
+        }
+        catch (Exception e) {
+            throw new AthenaConnectorException("Error in object content for object : " + s3path + " " + e.getMessage(), e,
+                    ErrorDetails.builder().errorCode(FederationSourceErrorCode.INTERNAL_SERVICE_EXCEPTION.toString()).build());
+        }
+        LOGGER.info("handleS3ExportRead: wrote {} rows from {}", rowsWritten, s3path);
+    }
+
+    @VisibleForTesting
+    protected RedshiftS3ExportReader constructExportReader(String uri, Schema schema)
+            throws IOException
+    {
+        BufferAllocator allocator = EXPORT_ROOT_ALLOCATOR.newChildAllocator(uri, 0, Long.MAX_VALUE);
+        // Partition columns are not part of the export, only the projected table columns are read.
+        String[] columns = schema.getFields().stream()
+                .map(Field::getName)
+                .filter(name -> !name.equals(BLOCK_PARTITION_COLUMN_NAME) && !name.equals(BLOCK_PARTITION_SCHEMA_COLUMN_NAME))
+                .toArray(String[]::new);
+        return RedshiftS3ExportReader.open(allocator, uri, columns, EXPORT_READ_BATCH_SIZE);
+    }
+
     @Override
     protected boolean enableCaseSensitivelyLookUpSession(Connection connection)
     {
@@ -0,0 +1,221 @@
+/*-
+ * #%L
+ * Amazon Athena Redshift Connector
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redshift;
+
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
+import org.apache.arrow.dataset.jni.NativeMemoryPool;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.dataset.scanner.Scanner;
+import org.apache.arrow.dataset.source.Dataset;
+import org.apache.arrow.dataset.source.DatasetFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads a single Parquet file written by a Redshift UNLOAD through the Apache Arrow Dataset scanner.
+ * <p>
+ * UNLOAD writes TIMESTAMP and TIMESTAMPTZ columns as Parquet timestamps (microseconds) while Athena reads them as
+ * DateMilli, batches handed to the caller have those columns converted so they can be written into Blocks as is.
+ * <p>
+ * This reader owns every Apache Arrow resource involved in the scan, closing it closes the scanner, the dataset and
+ * the allocator the file was decoded into.
+ */
+public class RedshiftS3ExportReader
+        implements AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedshiftS3ExportReader.class);
+
+    private final BufferAllocator allocator;
+    private final ArrowReader reader;
+    //Resources backing the reader, closed in order after the reader.
+    private final List<AutoCloseable> resources;
+    //DateMilli vectors converted from the timestamp vectors of the current batch.
+    private final List<FieldVector> converted = new ArrayList<>();
+
+    /**
+     * Wraps an already open ArrowReader.
+     *
+     * @param allocator The allocator the reader decodes into.
+     * @param reader The reader to read batches from.
+     * @param resources Resources backing the reader that should be closed, in order, after the reader.
+     */
+    public RedshiftS3ExportReader(BufferAllocator allocator, ArrowReader reader, AutoCloseable... resources)
+    {
+        this.allocator = allocator;
+        this.reader = reader;
+        this.resources = List.of(resources);
+    }
+
+    /**
+     * Opens the given export file, projecting only the requested columns.
+     *
+     * @param allocator The allocator to decode the file into, it is closed with this reader.
+     * @param uri The uri (s3:// or file://) of the export file.
+     * @param columns The columns to read.
+     * @param batchSize The max number of rows per decoded batch.
+     * @return The opened reader.
+     */
+    public static RedshiftS3ExportReader open(BufferAllocator allocator, String uri, String[] columns, long batchSize)
+            throws IOException
+    {
+        LOGGER.debug("open: URI {}", uri);
+        List<AutoCloseable> opened = new ArrayList<>();
+        opened.add(allocator);
+        try {
+            DatasetFactory datasetFactory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), FileFormat.PARQUET, uri);
+            opened.add(datasetFactory);
+            Dataset dataset = datasetFactory.finish();
+            opened.add(dataset);
+            Scanner scanner = dataset.newScan(new ScanOptions(batchSize, Optional.of(columns)));
+            opened.add(scanner);
+            ArrowReader reader = scanner.scanBatches();
+
+            Collections.reverse(opened);
+            return new RedshiftS3ExportReader(allocator, reader, opened.toArray(new AutoCloseable[0]));
+        }
+        catch (RuntimeException ex) {
+            Collections.reverse(opened);
+            closeAll(opened);
+            throw ex;
+        }
+    }
+
+    /**
+     * Provides the next batch of the file, the returned root is only valid until the next call to this method.
+     *
+     * @return The next batch or null once the file has been fully read.
+     */
+    public VectorSchemaRoot nextBatch()
+            throws IOException
+    {
+        releaseConverted();
+        if (!reader.loadNextBatch()) {
+            return null;
+        }
+        return toAthenaTypes(reader.getVectorSchemaRoot());
+    }
+
+    private VectorSchemaRoot toAthenaTypes(VectorSchemaRoot batch)
+    {
+        List<Field> fields = new ArrayList<>();
+        List<FieldVector> vectors = new ArrayList<>();
+        boolean convertedAny = false;
+        for (FieldVector next : batch.getFieldVectors()) {
+            FieldVector vector = next;
+            if (next instanceof TimeStampVector) {
+                vector = toDateMilli((TimeStampVector) next);
+                converted.add(vector);
+                convertedAny = true;
+            }
+            fields.add(vector.getField());
+            vectors.add(vector);
+        }
+        return convertedAny ? new VectorSchemaRoot(fields, vectors, batch.getRowCount()) : batch;
+    }
+
+    private DateMilliVector toDateMilli(TimeStampVector timestamps)
+    {
+        ArrowType.Timestamp type = (ArrowType.Timestamp) timestamps.getField().getType();
+        int valueCount = timestamps.getValueCount();
+        DateMilliVector dates = new DateMilliVector(Field.nullable(timestamps.getName(), new ArrowType.Date(DateUnit.MILLISECOND)), allocator);
+        dates.allocateNew(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            if (timestamps.isNull(i)) {
+                dates.setNull(i);
+            }
+            else {
+                dates.set(i, toMillis(timestamps.get(i), type.getUnit()));
+            }
+        }
+        dates.setValueCount(valueCount);
+        return dates;
+    }
+
+    private static long toMillis(long value, org.apache.arrow.vector.types.TimeUnit unit)
+    {
+        switch (unit) {
+            case SECOND:
+                return value * 1000;
+            case MILLISECOND:
+                return value;
+            case MICROSECOND:
+                return Math.floorDiv(value, 1000L);
+            case NANOSECOND:
+                return Math.floorDiv(value, 1000_000L);
+            default:
+                throw new IllegalArgumentException("Unsupported timestamp unit " + unit);
+        }
+    }
+
+    private void releaseConverted()
+    {
+        for (FieldVector next : converted) {
+            next.close();
+        }
+        converted.clear();
+    }
+
+    @Override
+    public void close()
+    {
+        releaseConverted();
+        List<AutoCloseable> toClose = new ArrayList<>();
+        toClose.add(reader);
+        toClose.addAll(resources);
+        closeAll(toClose);
+    }
+
+    private static void closeAll(List<AutoCloseable> closeables)
+    {
+        RuntimeException failure = null;
+        for (AutoCloseable next : closeables) {
+            try {
+                next.close();
+            }
+            catch (Exception ex) {
+                if (failure == null) {
+                    failure = new RuntimeException(ex);
+                }
+                else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
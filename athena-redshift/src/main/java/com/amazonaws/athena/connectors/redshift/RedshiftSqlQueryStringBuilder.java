@@ -19,13 +19,37 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.exceptions.AthenaConnectorException;
 import com.amazonaws.athena.connectors.jdbc.manager.FederationExpressionParser;
+import com.amazonaws.athena.connectors.jdbc.manager.TypeAndValue;
+import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlQueryStringBuilder;
+import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.calcite.sql.SqlDialect;
 import org.apache.calcite.sql.dialect.RedshiftSqlDialect;
+import software.amazon.awssdk.services.glue.model.ErrorDetails;
+import software.amazon.awssdk.services.glue.model.FederationSourceErrorCode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME;
+import static com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME;
 
 public class RedshiftSqlQueryStringBuilder extends PostGreSqlQueryStringBuilder
 {
+    private static final char SINGLE_QUOTE = '\'';
+
     public RedshiftSqlQueryStringBuilder(String quoteCharacters, FederationExpressionParser federationExpressionParser)
     {
         super(quoteCharacters, federationExpressionParser);
@@ -36,4 +60,112 @@ public class RedshiftSqlQueryStringBuilder extends PostGreSqlQueryStringBuilder
     {
         return RedshiftSqlDialect.DEFAULT;
     }
+
+    /**
+     * Builds the SELECT statement to UNLOAD for the given table and constraints. UNLOAD does not accept bind
+     * parameters so the constraint values are inlined as literals.
+     *
+     * @param schema The schema (database) the table belongs to.
+     * @param table The table to export.
+     * @param tableSchema The schema of the table, partition columns are not exported.
+     * @param constraints The constraints to push down into the export.
+     * @return The SELECT statement with every parameter inlined.
+     */
+    public String getBaseExportSQLString(
+            final String schema,
+            final String table,
+            final Schema tableSchema,
+            final Constraints constraints)
+    {
+        // The export covers every partition of the table.
+        Split split = new Split(null, null, Map.of(
+                BLOCK_PARTITION_SCHEMA_COLUMN_NAME, PostGreSqlMetadataHandler.ALL_PARTITIONS,
+                BLOCK_PARTITION_COLUMN_NAME, PostGreSqlMetadataHandler.ALL_PARTITIONS));
+        String columnNames = tableSchema.getFields().stream()
+                .map(Field::getName)
+                .filter(name -> !split.getProperties().containsKey(name))
+                .map(this::quote)
+                .collect(Collectors.joining(", "));
+
+        List<TypeAndValue> accumulator = new ArrayList<>();
+        String sql = buildSQLStringLiteral(null, schema, table, tableSchema, constraints, split, columnNames, accumulator);
+        return expandSql(sql, accumulator);
+    }
+
+    /**
+     * Wraps the given statement in a single quoted string literal, the form UNLOAD expects its query in.
+     */
+    public String toUnloadQueryLiteral(String sql)
+    {
+        return singleQuote(sql);
+    }
+
+    /**
+     * Replaces each bind parameter of the statement, in order, with the literal of its value. Question marks that are
+     * part of quoted identifiers or string literals are left as is.
+     */
+    @VisibleForTesting
+    String expandSql(String sql, List<TypeAndValue> accumulator)
+    {
+        StringBuilder expanded = new StringBuilder(sql.length());
+        Iterator<TypeAndValue> values = accumulator.iterator();
+        char openQuote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char next = sql.charAt(i);
+            if (openQuote != 0) {
+                // a doubled quote is an escaped quote and is matched as a close followed by an open
+                if (next == openQuote) {
+                    openQuote = 0;
+                }
+                expanded.append(next);
+            }
+            else if (next == SINGLE_QUOTE || next == '"') {
+                openQuote = next;
+                expanded.append(next);
+            }
+            else if (next == '?' && values.hasNext()) {
+                expanded.append(toLiteral(values.next()));
+            }
+            else {
+                expanded.append(next);
+            }
+        }
+        return expanded.toString();
+    }
+
+    private String toLiteral(TypeAndValue typeAndValue)
+    {
+        Object value = typeAndValue.getValue();
+        Types.MinorType minorType = Types.getMinorTypeForArrowType(typeAndValue.getType());
+        switch (minorType) {
+            case BIGINT:
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+            case DECIMAL:
+                return value.toString();
+            case FLOAT4:
+                // a numeric literal never equals the REAL nearest to it, and NaN and Infinity are only valid quoted
+                return "CAST(" + singleQuote(value.toString()) + " AS REAL)";
+            case FLOAT8:
+                return "CAST(" + singleQuote(value.toString()) + " AS DOUBLE PRECISION)";
+            case BIT:
+                return Boolean.toString((boolean) value);
+            case DATEDAY:
+                return "DATE " + singleQuote(LocalDate.ofEpochDay(((Number) value).longValue()).toString());
+            case DATEMILLI:
+                return "TIMESTAMP " + singleQuote(((LocalDateTime) value).toString().replace('T', ' '));
+            case VARCHAR:
+                return singleQuote(String.valueOf(value));
+            default:
+                throw new AthenaConnectorException(String.format("Can't export with a predicate on type: %s, %s", typeAndValue.getType(), minorType),
+                        ErrorDetails.builder().errorCode(FederationSourceErrorCode.OPERATION_NOT_SUPPORTED_EXCEPTION.toString()).build());
+        }
+    }
+
+    private static String singleQuote(String value)
+    {
+        // Redshift string literals treat the backslash as an escape character, both have to be escaped.
+        return SINGLE_QUOTE + value.replace("\\", "\\\\").replace("'", "''") + SINGLE_QUOTE;
+    }
 }
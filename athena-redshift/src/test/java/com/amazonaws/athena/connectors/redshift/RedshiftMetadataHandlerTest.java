@@ -27,6 +27,8 @@ import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.GetDataSourceCapabilitiesResponse;
 import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
@@ -62,7 +64,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Utilities;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
@@ -83,6 +91,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static org.mockito.ArgumentMatchers.nullable;
 
 public class RedshiftMetadataHandlerTest
@@ -372,6 +381,82 @@ public class RedshiftMetadataHandlerTest
         Assert.assertEquals(expectedSplits, actualSplits);
     }
 
+    @Test
+    public void doGetSplitsWithS3Export()
+            throws Exception
+    {
+        S3Client amazonS3 = Mockito.mock(S3Client.class);
+        Mockito.when(amazonS3.utilities()).thenReturn(S3Utilities.builder().region(Region.US_EAST_1).build());
+        Mockito.when(amazonS3.listObjectsV2(Mockito.any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder().contents(S3Object.builder().key("unload/part_0000.parquet").build()).nextContinuationToken("next").build(),
+                ListObjectsV2Response.builder().contents(S3Object.builder().key("unload/part_0001.parquet").build()).build());
+        RedshiftMetadataHandler handler = newS3ExportHandler(amazonS3);
+
+        GetSplitsResponse getSplitsResponse = handler.doGetSplits(new BlockAllocatorImpl(), makeS3ExportSplitsRequest(handler));
+
+        ArgumentCaptor<String> unloadCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(this.connection).prepareStatement(unloadCaptor.capture());
+        String unloadQuery = unloadCaptor.getValue();
+        Assert.assertTrue(unloadQuery, unloadQuery.startsWith("UNLOAD ('SELECT \"id\", \"name\" FROM \"testSchema\".\"testTable\"  WHERE (\"name\" = ''a''''b'')') TO 's3://export-bucket/unload/testQueryId/"));
+        Assert.assertTrue(unloadQuery, unloadQuery.endsWith("/' IAM_ROLE 'arn:aws:iam::123456789012:role/unload' FORMAT AS PARQUET PARALLEL ON MAXFILESIZE 64 MB"));
+
+        ArgumentCaptor<ListObjectsV2Request> listCaptor = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        Mockito.verify(amazonS3, Mockito.times(2)).listObjectsV2(listCaptor.capture());
+        Assert.assertEquals("export-bucket", listCaptor.getValue().bucket());
+        Assert.assertEquals("next", listCaptor.getValue().continuationToken());
+        Assert.assertTrue(unloadQuery.contains("s3://export-bucket/" + listCaptor.getValue().prefix() + "'"));
+
+        Set<String> objectKeys = getSplitsResponse.getSplits().stream().map(split -> split.getProperty(RedshiftConstants.REDSHIFT_SPLIT_OBJECT_KEY)).collect(Collectors.toSet());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("unload/part_0000.parquet", "unload/part_0001.parquet")), objectKeys);
+        for (Split split : getSplitsResponse.getSplits()) {
+            Assert.assertEquals("export-bucket", split.getProperty(RedshiftConstants.REDSHIFT_SPLIT_EXPORT_BUCKET));
+            Assert.assertEquals(TEST_QUERY_ID, split.getProperty(RedshiftConstants.REDSHIFT_SPLIT_QUERY_ID));
+        }
+    }
+
+    @Test
+    public void doGetSplitsWithS3ExportNoRows()
+            throws Exception
+    {
+        S3Client amazonS3 = Mockito.mock(S3Client.class);
+        Mockito.when(amazonS3.utilities()).thenReturn(S3Utilities.builder().region(Region.US_EAST_1).build());
+        Mockito.when(amazonS3.listObjectsV2(Mockito.any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder().build());
+        RedshiftMetadataHandler handler = newS3ExportHandler(amazonS3);
+
+        GetSplitsResponse getSplitsResponse = handler.doGetSplits(new BlockAllocatorImpl(), makeS3ExportSplitsRequest(handler));
+
+        Assert.assertEquals(1, getSplitsResponse.getSplits().size());
+        Assert.assertEquals("", getSplitsResponse.getSplits().iterator().next().getProperty(RedshiftConstants.REDSHIFT_SPLIT_OBJECT_KEY));
+    }
+
+    private RedshiftMetadataHandler newS3ExportHandler(S3Client amazonS3)
+    {
+        return new RedshiftMetadataHandler(databaseConnectionConfig, amazonS3, this.secretsManager, this.athena, this.jdbcConnectionFactory,
+                ImmutableMap.of(RedshiftConstants.REDSHIFT_ENABLE_S3_EXPORT, "true",
+                        RedshiftConstants.REDSHIFT_EXPORT_BUCKET, "export-bucket/unload/",
+                        RedshiftConstants.REDSHIFT_UNLOAD_IAM_ROLE, "arn:aws:iam::123456789012:role/unload"));
+    }
+
+    private GetSplitsRequest makeS3ExportSplitsRequest(RedshiftMetadataHandler handler)
+            throws Exception
+    {
+        TableName tableName = new TableName(TEST_SCHEMA, TEST_TABLE);
+        Schema partitionSchema = handler.getPartitionSchema(CATALOG_NAME);
+        SchemaBuilder tableSchema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name");
+        partitionSchema.getFields().forEach(tableSchema::addField);
+        Set<String> partitionCols = partitionSchema.getFields().stream().map(Field::getName).collect(Collectors.toSet());
+        Constraints constraints = new Constraints(ImmutableMap.of("name", SortedRangeSet.of(Range.equal(new BlockAllocatorImpl(), ArrowType.Utf8.INSTANCE, "a'b"))),
+                Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, TEST_QUERY_ID, CATALOG_NAME, tableName, constraints, tableSchema.build(), partitionCols);
+        GetTableLayoutResponse getTableLayoutResponse = handler.doGetTableLayout(new BlockAllocatorImpl(), getTableLayoutRequest);
+        Assert.assertEquals(1, getTableLayoutResponse.getPartitions().getRowCount());
+
+        return new GetSplitsRequest(this.federatedIdentity, TEST_QUERY_ID, CATALOG_NAME, tableName, getTableLayoutResponse.getPartitions(), new ArrayList<>(partitionCols), constraints, null);
+    }
+
     @Test
     public void doGetTableWithArrayColumns()
             throws Exception
@@ -20,6 +20,11 @@
 package com.amazonaws.athena.connectors.redshift;
 
 import com.amazonaws.athena.connector.credentials.CredentialsProvider;
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.data.FieldBuilder;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.domain.Split;
@@ -29,6 +34,10 @@ import com.amazonaws.athena.connector.lambda.domain.predicate.Marker;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
 import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.athena.connectors.jdbc.TestBase;
 import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
@@ -39,6 +48,12 @@ import com.amazonaws.athena.connectors.postgresql.PostGreSqlQueryStringBuilder;
 import com.amazonaws.athena.connectors.postgresql.PostgreSqlFederationExpressionParser;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -60,16 +75,23 @@ import java.sql.Statement;
 import java.sql.SQLException;
 import java.sql.PreparedStatement;
 import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_NAME;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_EXPORT_BUCKET;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_OBJECT_KEY;
+import static com.amazonaws.athena.connectors.redshift.RedshiftConstants.REDSHIFT_SPLIT_QUERY_ID;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 
 public class RedshiftRecordHandlerTest
@@ -348,4 +370,89 @@ public class RedshiftRecordHandlerTest
         // Verify the handler was created successfully (constructor didn't throw)
         Assert.assertNotNull("RedshiftRecordHandler should be created successfully", handler);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readWithConstraintS3Export()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addDateMilliField("updated_at")
+                .addStringField(PARTITION_SCHEMA_NAME)
+                .addStringField(PARTITION_NAME)
+                .build();
+
+        try (BufferAllocator allocator = new RootAllocator();
+                BlockAllocatorImpl blockAllocator = new BlockAllocatorImpl();
+                VectorSchemaRoot exported = VectorSchemaRoot.create(new Schema(Arrays.asList(
+                        schema.findField("id"),
+                        FieldBuilder.newBuilder("updated_at", new ArrowType.Timestamp(org.apache.arrow.vector.types.TimeUnit.MICROSECOND, null)).build())), allocator)) {
+            BigIntVector id = (BigIntVector) exported.getVector("id");
+            TimeStampMicroVector updatedAt = (TimeStampMicroVector) exported.getVector("updated_at");
+            exported.allocateNew();
+            id.set(0, 1L);
+            updatedAt.set(0, 1577836800123456L);
+            id.set(1, 2L);
+            updatedAt.setNull(1);
+            exported.setRowCount(2);
+
+            ArrowReader exportReader = Mockito.mock(ArrowReader.class);
+            Mockito.when(exportReader.loadNextBatch()).thenReturn(true, false);
+            Mockito.when(exportReader.getVectorSchemaRoot()).thenReturn(exported);
+            RedshiftRecordHandler handlerSpy = Mockito.spy(redshiftRecordHandler);
+            Mockito.doReturn(new RedshiftS3ExportReader(allocator, exportReader))
+                    .when(handlerSpy).constructExportReader(eq("s3://export-bucket/query/0000_part_00.parquet"), any());
+
+            Block block = blockAllocator.createBlock(schema);
+            BlockSpiller spiller = Mockito.mock(BlockSpiller.class);
+            Mockito.doAnswer(invocation -> {
+                BlockWriter.RowWriter rowWriter = invocation.getArgument(0);
+                block.setRowCount(block.getRowCount() + rowWriter.writeRows(block, block.getRowCount()));
+                return null;
+            }).when(spiller).writeRows(any());
+
+            handlerSpy.readWithConstraint(spiller, makeExportRequest(schema, "0000_part_00.parquet"), Mockito.mock(QueryStatusChecker.class));
+
+            Assert.assertEquals(2, block.getRowCount());
+            Assert.assertEquals(2L, block.getFieldVector("id").getObject(1));
+            Assert.assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0, 0, 123_000_000), block.getFieldVector("updated_at").getObject(0));
+            assertTrue(block.getFieldVector("updated_at").isNull(1));
+            Mockito.verify(exportReader).close();
+            Mockito.verify(jdbcConnectionFactory, Mockito.never()).getConnection(nullable(CredentialsProvider.class));
+        }
+    }
+
+    @Test
+    public void readWithConstraintS3ExportEmptyKey()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder().addBigIntField("id").build();
+        RedshiftRecordHandler handlerSpy = Mockito.spy(redshiftRecordHandler);
+        BlockSpiller spiller = Mockito.mock(BlockSpiller.class);
+
+        handlerSpy.readWithConstraint(spiller, makeExportRequest(schema, ""), Mockito.mock(QueryStatusChecker.class));
+
+        Mockito.verify(handlerSpy, Mockito.never()).constructExportReader(any(), any());
+        Mockito.verify(spiller, Mockito.never()).writeRows(any());
+    }
+
+    private ReadRecordsRequest makeExportRequest(Schema schema, String objectKey)
+    {
+        S3SpillLocation spillLocation = S3SpillLocation.newBuilder()
+                .withBucket("spill-bucket")
+                .withPrefix("spill")
+                .withSplitId("split")
+                .withQueryId("query")
+                .withIsDirectory(true)
+                .build();
+        Split split = Split.newBuilder(spillLocation, new LocalKeyFactory().create())
+                .add(REDSHIFT_SPLIT_QUERY_ID, "query")
+                .add(REDSHIFT_SPLIT_EXPORT_BUCKET, "export-bucket")
+                .add(REDSHIFT_SPLIT_OBJECT_KEY, objectKey.isEmpty() ? objectKey : "query/" + objectKey)
+                .build();
+        return new ReadRecordsRequest(Mockito.mock(FederatedIdentity.class), TEST_CATALOG, "query", new TableName(TEST_SCHEMA, TEST_TABLE),
+                schema, split,
+                new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                100_000_000_000L, 100_000_000_000L);
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * Amazon Athena Redshift Connector
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.redshift;
+
+import org.apache.arrow.dataset.file.DatasetFileWriter;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RedshiftS3ExportReaderTest
+{
+    private static final int ROWS = 100;
+    private static final long BASE_MICROS = 1609459200000000L;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private BufferAllocator allocator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new RootAllocator();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void readsProjectedColumnsAndConvertsTimestamps()
+            throws Exception
+    {
+        String uri = writeUnloadFixture();
+
+        int rows = 0;
+        try (RedshiftS3ExportReader reader = RedshiftS3ExportReader.open(allocator.newChildAllocator("export", 0, Long.MAX_VALUE),
+                uri, new String[] {"id", "updated_at"}, 30)) {
+            VectorSchemaRoot batch;
+            while ((batch = reader.nextBatch()) != null) {
+                assertEquals(2, batch.getFieldVectors().size());
+                assertTrue(batch.getRowCount() <= 30);
+                BigIntVector id = (BigIntVector) batch.getVector("id");
+                DateMilliVector updatedAt = (DateMilliVector) batch.getVector("updated_at");
+                for (int i = 0; i < batch.getRowCount(); i++) {
+                    long expectedId = rows + i;
+                    assertEquals(expectedId, id.get(i));
+                    if (expectedId % 10 == 0) {
+                        assertTrue(updatedAt.isNull(i));
+                    }
+                    else {
+                        assertEquals((BASE_MICROS + expectedId * 1000_999L) / 1000, updatedAt.get(i));
+                    }
+                }
+                rows += batch.getRowCount();
+            }
+            assertNull(reader.nextBatch());
+        }
+        assertEquals(ROWS, rows);
+    }
+
+    @Test
+    public void closeReleasesDecodedBuffers()
+            throws Exception
+    {
+        String uri = writeUnloadFixture();
+        BufferAllocator child = allocator.newChildAllocator("export", 0, Long.MAX_VALUE);
+        RedshiftS3ExportReader reader = RedshiftS3ExportReader.open(child, uri, new String[] {"updated_at"}, 30);
+        assertFalse(reader.nextBatch().getRowCount() == 0);
+        reader.close();
+
+        assertEquals(0, allocator.getAllocatedMemory());
+    }
+
+    /**
+     * Writes a Parquet file shaped like the output of an UNLOAD, TIMESTAMP columns are microsecond timestamps.
+     */
+    private String writeUnloadFixture()
+            throws Exception
+    {
+        Schema schema = new Schema(Arrays.asList(
+                Field.nullable("id", new ArrowType.Int(64, true)),
+                Field.nullable("name", ArrowType.Utf8.INSTANCE),
+                Field.nullable("updated_at", new ArrowType.Timestamp(TimeUnit.MICROSECOND, null))));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, stream)) {
+            BigIntVector id = (BigIntVector) root.getVector("id");
+            VarCharVector name = (VarCharVector) root.getVector("name");
+            TimeStampMicroVector updatedAt = (TimeStampMicroVector) root.getVector("updated_at");
+            root.allocateNew();
+            for (int i = 0; i < ROWS; i++) {
+                id.setSafe(i, i);
+                name.setSafe(i, ("name-" + i).getBytes(StandardCharsets.UTF_8));
+                if (i % 10 == 0) {
+                    updatedAt.setNull(i);
+                }
+                else {
+                    updatedAt.setSafe(i, BASE_MICROS + i * 1000_999L);
+                }
+            }
+            root.setRowCount(ROWS);
+            writer.start();
+            writer.writeBatch();
+            writer.end();
+        }
+
+        File dir = tempFolder.newFolder();
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream.toByteArray()), allocator)) {
+            DatasetFileWriter.write(allocator, reader, FileFormat.PARQUET, dir.toURI().toString());
+        }
+        File[] files = dir.listFiles(File::isFile);
+        assertEquals(1, files.length);
+        return files[0].toURI().toString();
+    }
+}
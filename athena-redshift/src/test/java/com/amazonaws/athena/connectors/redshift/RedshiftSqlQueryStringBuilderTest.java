@@ -19,11 +19,26 @@
  */
 package com.amazonaws.athena.connectors.redshift;
 
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.athena.connectors.postgresql.PostgreSqlFederationExpressionParser;
+import com.google.common.collect.ImmutableList;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.calcite.sql.SqlDialect;
 import org.apache.calcite.sql.dialect.RedshiftSqlDialect;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -55,4 +70,76 @@ public class RedshiftSqlQueryStringBuilderTest
         assertTrue("Constructor should create valid instance with RedshiftSqlDialect", 
             dialect instanceof RedshiftSqlDialect);
     }
+
+    @Test
+    public void testGetBaseExportSQLStringInlinesParameters()
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addBigIntField("id")
+                .addStringField("name")
+                .addStringField(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME)
+                .addStringField(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME)
+                .build();
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            Map<String, ValueSet> constraintsMap = new HashMap<>();
+            constraintsMap.put("id", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
+                    ImmutableList.of(Range.range(allocator, Types.MinorType.BIGINT.getType(), 10L, false, 20L, true)), false));
+            constraintsMap.put("name", SortedRangeSet.copyOf(Types.MinorType.VARCHAR.getType(),
+                    ImmutableList.of(Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "O'Brien?")), false));
+            Constraints constraints = new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+            String sql = queryStringBuilder.getBaseExportSQLString("public", "orders", schema, constraints);
+
+            assertEquals("SELECT \"id\", \"name\" FROM \"public\".\"orders\"  WHERE ((\"id\" > 10 AND \"id\" <= 20)) AND (\"name\" = 'O''Brien?')", sql);
+            assertEquals("'SELECT 1 WHERE \"name\" = ''O''''Brien\\\\'''", queryStringBuilder.toUnloadQueryLiteral("SELECT 1 WHERE \"name\" = 'O''Brien\\'"));
+        }
+    }
+
+    @Test
+    public void testGetBaseExportSQLStringCastsFloatingPointLiterals()
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addFloat4Field("ratio")
+                .addFloat8Field("score")
+                .addStringField(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME)
+                .addStringField(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME)
+                .build();
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            Map<String, ValueSet> constraintsMap = new HashMap<>();
+            constraintsMap.put("ratio", SortedRangeSet.copyOf(Types.MinorType.FLOAT4.getType(),
+                    ImmutableList.of(Range.equal(allocator, Types.MinorType.FLOAT4.getType(), 0.1F)), false));
+            constraintsMap.put("score", SortedRangeSet.copyOf(Types.MinorType.FLOAT8.getType(),
+                    ImmutableList.of(Range.range(allocator, Types.MinorType.FLOAT8.getType(), 2.5D, true, 7.25D, false)), false));
+            Constraints constraints = new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+            String sql = queryStringBuilder.getBaseExportSQLString("public", "readings", schema, constraints);
+
+            assertEquals("SELECT \"ratio\", \"score\" FROM \"public\".\"readings\"  WHERE (\"ratio\" = CAST('0.1' AS REAL)) "
+                    + "AND ((\"score\" >= CAST('2.5' AS DOUBLE PRECISION) AND \"score\" < CAST('7.25' AS DOUBLE PRECISION)))", sql);
+        }
+    }
+
+    @Test
+    public void testGetBaseExportSQLStringQuotesNaNAndInfinity()
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addFloat4Field("ratio")
+                .addFloat8Field("score")
+                .addStringField(PostGreSqlMetadataHandler.BLOCK_PARTITION_SCHEMA_COLUMN_NAME)
+                .addStringField(PostGreSqlMetadataHandler.BLOCK_PARTITION_COLUMN_NAME)
+                .build();
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            Map<String, ValueSet> constraintsMap = new HashMap<>();
+            constraintsMap.put("ratio", SortedRangeSet.copyOf(Types.MinorType.FLOAT4.getType(),
+                    ImmutableList.of(Range.lessThan(allocator, Types.MinorType.FLOAT4.getType(), Float.POSITIVE_INFINITY)), false));
+            constraintsMap.put("score", SortedRangeSet.copyOf(Types.MinorType.FLOAT8.getType(),
+                    ImmutableList.of(Range.equal(allocator, Types.MinorType.FLOAT8.getType(), Double.NaN)), false));
+            Constraints constraints = new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null);
+
+            String sql = queryStringBuilder.getBaseExportSQLString("public", "readings", schema, constraints);
+
+            assertEquals("SELECT \"ratio\", \"score\" FROM \"public\".\"readings\"  WHERE ((\"ratio\" < CAST('Infinity' AS REAL))) "
+                    + "AND (\"score\" = CAST('NaN' AS DOUBLE PRECISION))", sql);
+        }
+    }
 }
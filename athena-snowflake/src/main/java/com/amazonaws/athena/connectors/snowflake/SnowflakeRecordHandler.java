@@ -21,8 +21,8 @@ package com.amazonaws.athena.connectors.snowflake;
 
 import com.amazonaws.athena.connector.credentials.CredentialsProvider;
 import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
-import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.writers.ArrowBatchWriter;
 import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.TableName;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
@@ -37,25 +37,14 @@ import com.amazonaws.athena.connectors.jdbc.manager.JdbcRecordHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcSplitQueryBuilder;
 import com.amazonaws.athena.connectors.snowflake.connection.SnowflakeConnectionFactory;
 import com.google.common.annotations.VisibleForTesting;
-import org.apache.arrow.dataset.file.FileFormat;
-import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
-import org.apache.arrow.dataset.jni.NativeMemoryPool;
-import org.apache.arrow.dataset.scanner.ScanOptions;
-import org.apache.arrow.dataset.scanner.Scanner;
-import org.apache.arrow.dataset.source.Dataset;
-import org.apache.arrow.dataset.source.DatasetFactory;
-import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
-import org.apache.arrow.vector.BitVectorHelper;
 import org.apache.arrow.vector.DateMilliVector;
-import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.TimeStampMilliTZVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
-import org.apache.arrow.vector.util.VectorAppender;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,7 +60,7 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Optional;
+import java.util.Arrays;
 
 import static com.amazonaws.athena.connectors.snowflake.SnowflakeConstants.BLOCK_PARTITION_COLUMN_NAME;
 import static com.amazonaws.athena.connectors.snowflake.SnowflakeConstants.JDBC_PROPERTIES;
@@ -85,6 +74,8 @@ public class SnowflakeRecordHandler extends JdbcRecordHandler
     private final JdbcConnectionFactory jdbcConnectionFactory;
     private static final int EXPORT_READ_BATCH_SIZE_BYTE = 32768;
     private static final int FETCH_SIZE = 1000;
+    // Shared by all export reads of this container, each read decodes into its own child allocator.
+    private static final BufferAllocator EXPORT_ROOT_ALLOCATOR = new RootAllocator();
     private final JdbcSplitQueryBuilder jdbcSplitQueryBuilder;
 
     /**
@@ -160,36 +151,20 @@ public class SnowflakeRecordHandler extends JdbcRecordHandler
         }
 
         String s3path = constructS3Uri(exportBucket, s3ObjectKey);
-        try (ArrowReader reader = constructArrowReader(s3path, recordsRequest.getSchema())) {
-            VectorSchemaRoot root = reader.getVectorSchemaRoot();
-            while (reader.loadNextBatch()) {
-                // use writeRows method as it handle the spilling to s3.
-                spiller.writeRows((Block block, int startRowNum) -> {
-                    // Copy vectors directly to the block
-                    // Write all rows in the batch at once
-                    for (Field field : root.getSchema().getFields()) {
-                        if (recordsRequest.getSchema().findField(field.getName()) != null) {
-                            FieldVector originalVector = block.getFieldVector(field.getName());
-                            FieldVector toAppend = root.getVector(field.getName());
-
-                            // to_append block, both vector must be same time
-                            // However, Athena treat TSWithTZ as DateTimeMilli(UTC), hence we will need a conversion from TimeStampMilliTZ to DateTimeMilli
-                            if (toAppend instanceof TimeStampMilliTZVector) {
-                               toAppend = convertTimestampTZMilliToDateMilliFast((TimeStampMilliTZVector) toAppend, toAppend.getAllocator());
-                            }
-
-                            VectorAppender appender = new VectorAppender(originalVector);
-                            toAppend.accept(appender, null);
-                        }
-                    }
-                    return root.getRowCount();
-                });
+        // Batches are sliced to the block size and filtered column at a time before being moved into the block.
+        ArrowBatchWriter batchWriter = new ArrowBatchWriter(spiller, getSpillConfig(recordsRequest).getMaxBlockBytes());
+        long rowsWritten = 0;
+        try (SnowflakeS3ExportReader reader = constructExportReader(s3path, recordsRequest.getSchema())) {
+            VectorSchemaRoot batch;
+            while ((batch = reader.nextBatch()) != null) {
+                rowsWritten += batchWriter.write(batch);
             }
         }
         catch (Exception e) {
             throw new AthenaConnectorException("Error in object content for object : " + s3path + " " + e.getMessage(), e,
                     ErrorDetails.builder().errorCode(FederationSourceErrorCode.INTERNAL_SERVICE_EXCEPTION.toString()).build());
         }
+        LOGGER.info("handleS3ExportRead: wrote {} rows from {}", rowsWritten, s3path);
     }
 
     private void handleDirectRead(BlockSpiller spiller, ReadRecordsRequest recordsRequest, QueryStatusChecker queryStatusChecker)
@@ -199,26 +174,18 @@ public class SnowflakeRecordHandler extends JdbcRecordHandler
     }
 
     @VisibleForTesting
-    protected ArrowReader constructArrowReader(String uri, Schema schema)
+    protected SnowflakeS3ExportReader constructExportReader(String uri, Schema schema) throws IOException
     {
         LOGGER.debug("URI {}", uri);
-        BufferAllocator allocator = new RootAllocator();
-        DatasetFactory datasetFactory = new FileSystemDatasetFactory(
-                allocator,
-                NativeMemoryPool.getDefault(),
-                FileFormat.PARQUET,
-                uri);
-        Dataset dataset = datasetFactory.finish();
+        BufferAllocator allocator = EXPORT_ROOT_ALLOCATOR.newChildAllocator(uri, 0, Long.MAX_VALUE);
 
         // do a scan projection, only getting the column we want
-        ScanOptions options = new ScanOptions(/*batchSize*/ EXPORT_READ_BATCH_SIZE_BYTE,
-                Optional.of(schema.getFields().stream()
-                        .map(Field::getName)
-                        .filter(name -> !name.equalsIgnoreCase(BLOCK_PARTITION_COLUMN_NAME))
-                        .toArray(String[]::new))); // Project the column we needed only.
+        String[] columns = schema.getFields().stream()
+                .map(Field::getName)
+                .filter(name -> !name.equalsIgnoreCase(BLOCK_PARTITION_COLUMN_NAME))
+                .toArray(String[]::new); // Project the column we needed only.
 
-        Scanner scanner = dataset.newScan(options);
-        return scanner.scanBatches();
+        return SnowflakeS3ExportReader.open(allocator, uri, columns, EXPORT_READ_BATCH_SIZE_BYTE);
     }
 
     private static String constructS3Uri(String bucket, String key)
@@ -258,41 +225,22 @@ public class SnowflakeRecordHandler extends JdbcRecordHandler
     }
 
     // TSmilli and DateTimeMilli vector both have same width of 8bytes and same data type(long)
-    // direct copy the value.
-     static DateMilliVector convertTimestampTZMilliToDateMilliFast(
+    // the result is a view over the same buffers, no value is copied.
+    static DateMilliVector convertTimestampTZMilliToDateMilliFast(
             TimeStampMilliTZVector tsVector,
             BufferAllocator allocator)
-     {
+    {
         // record's timezone must be in UTC
         if (!tsVector.getTimeZone().equalsIgnoreCase("UTC")) {
             throw new IllegalArgumentException("Athena S3 Export only support Timezone with UTC");
         }
 
-        int rowCount = tsVector.getValueCount();
         DateMilliVector resultVector = new DateMilliVector(tsVector.getName(), allocator);
-        resultVector.allocateNew(rowCount);
-
-        // Copy data buffer directly to save time
-        ArrowBuf srcData = tsVector.getDataBuffer();
-        ArrowBuf dstData = resultVector.getDataBuffer();
-        long bytes = (long) rowCount * Long.BYTES;
-
-        // copy the data value into destination
-        dstData.setBytes(0, srcData, 0, bytes);
-
-        // copy the bitmap as well, otherwise it will show as empty(no value present)
-        ArrowBuf srcValidity = tsVector.getValidityBuffer();
-        ArrowBuf dstValidity = resultVector.getValidityBuffer();
-
-        dstValidity.setBytes(
-                0,
-                srcValidity,
-                0,
-                BitVectorHelper.getValidityBufferSize(rowCount)
-        );
-
-        // finalized the actual value, without this vector will see no data.
-        resultVector.setValueCount(rowCount);
+        // loading retains the validity and data buffers of the source vector, without the validity buffer the
+        // vector would see no value present.
+        resultVector.loadFieldBuffers(
+                new ArrowFieldNode(tsVector.getValueCount(), tsVector.getNullCount()),
+                Arrays.asList(tsVector.getValidityBuffer(), tsVector.getDataBuffer()));
 
         return resultVector;
     }
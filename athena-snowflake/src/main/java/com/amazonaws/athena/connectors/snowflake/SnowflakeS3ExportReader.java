@@ -0,0 +1,280 @@
+/*-
+ * #%L
+ * athena-snowflake
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.snowflake;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.arrow.dataset.file.FileFormat;
+import org.apache.arrow.dataset.file.FileSystemDatasetFactory;
+import org.apache.arrow.dataset.jni.NativeMemoryPool;
+import org.apache.arrow.dataset.scanner.ScanOptions;
+import org.apache.arrow.dataset.scanner.Scanner;
+import org.apache.arrow.dataset.source.Dataset;
+import org.apache.arrow.dataset.source.DatasetFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a single Snowflake S3 export (Parquet) file through the Apache Arrow Dataset scanner.
+ * <p>
+ * The next record batch is decoded on a background thread while the caller writes the current one, keeping at most
+ * PREFETCH_DEPTH decoded batches ahead of the caller. Batches handed to the caller have their TimeStampMilliTZ columns
+ * reinterpreted as DateMilli in place (Athena treats timestamp with time zone as UTC DateMilli) so they can be written
+ * into Blocks as is.
+ * <p>
+ * This reader owns every Apache Arrow resource involved in the scan, closing it closes the scanner, the dataset and
+ * the allocator the file was decoded into.
+ */
+public class SnowflakeS3ExportReader
+        implements AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnowflakeS3ExportReader.class);
+    //Max number of decoded batches waiting to be consumed.
+    private static final int PREFETCH_DEPTH = 1;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final BufferAllocator allocator;
+    private final ArrowReader reader;
+    private final VectorSchemaRoot readerRoot;
+    //Resources backing the reader, closed in order after the reader.
+    private final List<AutoCloseable> resources;
+    private final BlockingQueue<Optional<ArrowRecordBatch>> prefetched = new ArrayBlockingQueue<>(PREFETCH_DEPTH);
+    private final ExecutorService prefetchPool;
+    private final Future<?> prefetchTask;
+    private volatile boolean closed = false;
+
+    private VectorSchemaRoot current;
+    //DateMilli views over the TimeStampMilliTZ vectors of the current batch.
+    private final List<FieldVector> views = new ArrayList<>();
+    private boolean exhausted = false;
+
+    /**
+     * Wraps an already open ArrowReader.
+     *
+     * @param allocator The allocator the reader decodes into.
+     * @param reader The reader to prefetch batches from.
+     * @param resources Resources backing the reader that should be closed, in order, after the reader.
+     */
+    public SnowflakeS3ExportReader(BufferAllocator allocator, ArrowReader reader, AutoCloseable... resources)
+            throws IOException
+    {
+        this.allocator = allocator;
+        this.reader = reader;
+        this.readerRoot = reader.getVectorSchemaRoot();
+        this.resources = List.of(resources);
+        this.prefetchPool = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("snowflake-export-prefetch-%d")
+                .setDaemon(true)
+                .build());
+        this.prefetchTask = prefetchPool.submit(this::prefetch);
+    }
+
+    /**
+     * Opens the given export file, projecting only the requested columns.
+     *
+     * @param allocator The allocator to decode the file into, it is closed with this reader.
+     * @param uri The s3:// uri of the export file.
+     * @param columns The columns to read.
+     * @param batchSize The max number of rows per decoded batch.
+     * @return The opened reader.
+     */
+    public static SnowflakeS3ExportReader open(BufferAllocator allocator, String uri, String[] columns, long batchSize)
+            throws IOException
+    {
+        LOGGER.debug("open: URI {}", uri);
+        List<AutoCloseable> opened = new ArrayList<>();
+        opened.add(allocator);
+        try {
+            DatasetFactory datasetFactory = new FileSystemDatasetFactory(allocator, NativeMemoryPool.getDefault(), FileFormat.PARQUET, uri);
+            opened.add(datasetFactory);
+            Dataset dataset = datasetFactory.finish();
+            opened.add(dataset);
+            Scanner scanner = dataset.newScan(new ScanOptions(batchSize, Optional.of(columns)));
+            opened.add(scanner);
+            ArrowReader reader = scanner.scanBatches();
+
+            Collections.reverse(opened);
+            return new SnowflakeS3ExportReader(allocator, reader, opened.toArray(new AutoCloseable[0]));
+        }
+        catch (IOException | RuntimeException ex) {
+            Collections.reverse(opened);
+            closeAll(opened);
+            throw ex;
+        }
+    }
+
+    /**
+     * Provides the next batch of the file, the returned root is only valid until the next call to this method.
+     *
+     * @return The next batch or null once the file has been fully read.
+     */
+    public VectorSchemaRoot nextBatch()
+            throws Exception
+    {
+        releaseCurrent();
+        if (exhausted) {
+            return null;
+        }
+
+        Optional<ArrowRecordBatch> next = prefetched.take();
+        if (!next.isPresent()) {
+            exhausted = true;
+            //surfaces the failure of the prefetch thread, if any
+            prefetchTask.get();
+            return null;
+        }
+
+        try (ArrowRecordBatch batch = next.get()) {
+            if (current == null) {
+                current = VectorSchemaRoot.create(readerRoot.getSchema(), allocator);
+            }
+            new VectorLoader(current).load(batch);
+        }
+        return toAthenaTypes(current);
+    }
+
+    /**
+     * Replaces TimeStampMilliTZ vectors with DateMilli views over the same buffers.
+     */
+    private VectorSchemaRoot toAthenaTypes(VectorSchemaRoot batch)
+    {
+        List<Field> fields = new ArrayList<>();
+        List<FieldVector> vectors = new ArrayList<>();
+        boolean converted = false;
+        for (FieldVector next : batch.getFieldVectors()) {
+            FieldVector vector = next;
+            if (next instanceof TimeStampMilliTZVector) {
+                vector = SnowflakeRecordHandler.convertTimestampTZMilliToDateMilliFast((TimeStampMilliTZVector) next, next.getAllocator());
+                views.add(vector);
+                converted = true;
+            }
+            fields.add(vector.getField());
+            vectors.add(vector);
+        }
+        return converted ? new VectorSchemaRoot(fields, vectors, batch.getRowCount()) : batch;
+    }
+
+    private void releaseCurrent()
+    {
+        for (FieldVector next : views) {
+            next.close();
+        }
+        views.clear();
+    }
+
+    private Void prefetch()
+            throws Exception
+    {
+        try {
+            while (!closed && reader.loadNextBatch()) {
+                //The record batch holds its own references to the buffers, the reader is free to decode the next one.
+                ArrowRecordBatch batch = new VectorUnloader(readerRoot).getRecordBatch();
+                if (!offer(Optional.of(batch))) {
+                    batch.close();
+                }
+            }
+        }
+        finally {
+            offer(Optional.empty());
+        }
+        return null;
+    }
+
+    private boolean offer(Optional<ArrowRecordBatch> batch)
+            throws InterruptedException
+    {
+        while (!closed) {
+            if (prefetched.offer(batch, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close()
+            throws Exception
+    {
+        closed = true;
+        try {
+            prefetchTask.get();
+        }
+        catch (ExecutionException ex) {
+            LOGGER.warn("close: prefetch of export batches failed", ex.getCause());
+        }
+        finally {
+            prefetchPool.shutdownNow();
+            for (Optional<ArrowRecordBatch> next : prefetched) {
+                next.ifPresent(ArrowRecordBatch::close);
+            }
+            prefetched.clear();
+            releaseCurrent();
+            if (current != null) {
+                current.close();
+            }
+            List<AutoCloseable> toClose = new ArrayList<>();
+            toClose.add(reader);
+            toClose.addAll(resources);
+            closeAll(toClose);
+        }
+    }
+
+    private static void closeAll(List<AutoCloseable> closeables)
+    {
+        RuntimeException failure = null;
+        for (AutoCloseable next : closeables) {
+            try {
+                next.close();
+            }
+            catch (Exception ex) {
+                if (failure == null) {
+                    failure = new RuntimeException(ex);
+                }
+                else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -191,7 +191,7 @@ public class SnowflakeRecordHandlerTest
             when(mockReader.loadNextBatch()).thenReturn(true, false);
             when(mockReader.getVectorSchemaRoot()).thenReturn(schemaRoot);
             SnowflakeRecordHandler handlerSpy = spy(handler);
-            doReturn(mockReader).when(handlerSpy).constructArrowReader(any(), any());
+            doReturn(new SnowflakeS3ExportReader(bufferAllocator, mockReader)).when(handlerSpy).constructExportReader(any(), any());
 
             Map<String, ValueSet> constraintsMap = new HashMap<>();
             constraintsMap.put("time", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
@@ -252,7 +252,7 @@ public class SnowflakeRecordHandlerTest
             when(mockReader.loadNextBatch()).thenReturn(true, false);
             when(mockReader.getVectorSchemaRoot()).thenReturn(schemaRoot);
             SnowflakeRecordHandler handlerSpy = spy(handler);
-            doReturn(mockReader).when(handlerSpy).constructArrowReader(any(), any());
+            doReturn(new SnowflakeS3ExportReader(bufferAllocator, mockReader)).when(handlerSpy).constructExportReader(any(), any());
 
             Map<String, ValueSet> constraintsMap = new HashMap<>();
             constraintsMap.put("time", SortedRangeSet.copyOf(Types.MinorType.BIGINT.getType(),
@@ -647,7 +647,7 @@ public class SnowflakeRecordHandlerTest
             when(mockReader.getVectorSchemaRoot()).thenReturn(mockRoot);
             
             SnowflakeRecordHandler handlerSpy = spy(handler);
-            doReturn(mockReader).when(handlerSpy).constructArrowReader(any(), any());
+            doReturn(new SnowflakeS3ExportReader(bufferAllocator, mockReader)).when(handlerSpy).constructExportReader(any(), any());
             
             com.amazonaws.athena.connector.lambda.data.BlockSpiller spiller = 
                 mock(com.amazonaws.athena.connector.lambda.data.BlockSpiller.class);
@@ -757,7 +757,7 @@ public class SnowflakeRecordHandlerTest
         when(mockReader.getVectorSchemaRoot()).thenReturn(mockRoot);
         
         SnowflakeRecordHandler handlerSpy = spy(handler);
-        doReturn(mockReader).when(handlerSpy).constructArrowReader(any(), any());
+        doReturn(new SnowflakeS3ExportReader(bufferAllocator, mockReader)).when(handlerSpy).constructExportReader(any(), any());
         
         com.amazonaws.athena.connector.lambda.data.BlockSpiller spiller = 
             mock(com.amazonaws.athena.connector.lambda.data.BlockSpiller.class);
@@ -923,7 +923,7 @@ public class SnowflakeRecordHandlerTest
             100_000_000_000L, 100_000_000_000L);
         
         SnowflakeRecordHandler handlerSpy = spy(handler);
-        doThrow(new RuntimeException("Test IO exception")).when(handlerSpy).constructArrowReader(any(), any());
+        doThrow(new RuntimeException("Test IO exception")).when(handlerSpy).constructExportReader(any(), any());
         
         com.amazonaws.athena.connector.lambda.data.BlockSpiller spiller = 
             mock(com.amazonaws.athena.connector.lambda.data.BlockSpiller.class);
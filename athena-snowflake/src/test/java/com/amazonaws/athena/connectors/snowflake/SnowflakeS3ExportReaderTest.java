@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * athena-snowflake
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.snowflake;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SnowflakeS3ExportReaderTest
+{
+    private BufferAllocator allocator;
+    private VectorSchemaRoot readerRoot;
+
+    @Before
+    public void setup()
+    {
+        allocator = new RootAllocator();
+        Schema schema = new Schema(Arrays.asList(
+                Field.nullable("id", new ArrowType.Int(64, true)),
+                new Field("ts", FieldType.nullable(new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC")), null)));
+        readerRoot = VectorSchemaRoot.create(schema, allocator);
+    }
+
+    @After
+    public void tearDown()
+    {
+        readerRoot.close();
+        allocator.close();
+    }
+
+    @Test
+    public void nextBatchPrefetchesAndConvertsTimestamps()
+            throws Exception
+    {
+        AtomicInteger batchNum = new AtomicInteger();
+        ArrowReader reader = mock(ArrowReader.class);
+        when(reader.getVectorSchemaRoot()).thenReturn(readerRoot);
+        when(reader.loadNextBatch()).thenAnswer((Answer<Boolean>) invocation -> {
+            int next = batchNum.getAndIncrement();
+            if (next == 3) {
+                return false;
+            }
+            //the reader reuses its root for every batch, like the Dataset scanner
+            fill(next);
+            return true;
+        });
+
+        try (SnowflakeS3ExportReader exportReader = new SnowflakeS3ExportReader(allocator, reader)) {
+            for (int i = 0; i < 3; i++) {
+                VectorSchemaRoot batch = exportReader.nextBatch();
+                assertEquals(2, batch.getRowCount());
+                assertEquals(i * 10L, ((BigIntVector) batch.getVector("id")).get(0));
+                assertTrue(batch.getVector("ts") instanceof DateMilliVector);
+                assertEquals(1609459200000L + i, ((DateMilliVector) batch.getVector("ts")).get(0));
+                assertTrue(batch.getVector("ts").isNull(1));
+            }
+            assertNull(exportReader.nextBatch());
+            assertNull(exportReader.nextBatch());
+        }
+        verify(reader).close();
+    }
+
+    @Test(expected = java.util.concurrent.ExecutionException.class)
+    public void nextBatchSurfacesReaderFailure()
+            throws Exception
+    {
+        ArrowReader reader = mock(ArrowReader.class);
+        when(reader.getVectorSchemaRoot()).thenReturn(readerRoot);
+        when(reader.loadNextBatch()).thenThrow(new IOException("corrupt parquet footer"));
+
+        try (SnowflakeS3ExportReader exportReader = new SnowflakeS3ExportReader(allocator, reader)) {
+            exportReader.nextBatch();
+        }
+    }
+
+    private void fill(int batchNum)
+    {
+        BigIntVector id = (BigIntVector) readerRoot.getVector("id");
+        TimeStampMilliTZVector ts = (TimeStampMilliTZVector) readerRoot.getVector("ts");
+        //allocate fresh buffers so previously handed out batches are untouched, as the Dataset scanner does
+        id.allocateNew(2);
+        ts.allocateNew(2);
+        id.set(0, batchNum * 10L);
+        id.set(1, batchNum * 10L + 1);
+        ts.set(0, 1609459200000L + batchNum);
+        ts.setNull(1);
+        readerRoot.setRowCount(2);
+    }
+}
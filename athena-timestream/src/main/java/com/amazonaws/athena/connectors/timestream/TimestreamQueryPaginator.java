@@ -0,0 +1,143 @@
+/*-
+ * #%L
+ * athena-timestream
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.timestream;
+
+import software.amazon.awssdk.services.timestreamquery.TimestreamQueryClient;
+import software.amazon.awssdk.services.timestreamquery.model.QueryRequest;
+import software.amazon.awssdk.services.timestreamquery.model.QueryResponse;
+import software.amazon.awssdk.services.timestreamquery.model.Row;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Iterates over the pages of rows of a Timestream query, requesting the next page while the caller is still
+ * decoding the current one.
+ * <p>
+ * The request for a page needs the token returned with the previous page, so at most one page is fetched ahead of
+ * the caller. The first page is requested as soon as the paginator is created.
+ */
+class TimestreamQueryPaginator
+        implements Iterator<List<Row>>, AutoCloseable
+{
+    private final TimestreamQueryClient client;
+    private final String query;
+    private final ExecutorService executor;
+    //The page being fetched, null once the last page was handed to the caller.
+    private CompletableFuture<Page> pending;
+    private long pageCount = 0;
+
+    /**
+     * @param client The client to run the query with.
+     * @param query  The query to run.
+     */
+    TimestreamQueryPaginator(TimestreamQueryClient client, String query)
+    {
+        this.client = client;
+        this.query = query;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timestream-query-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = fetch(null);
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return pending != null;
+    }
+
+    /**
+     * Provides the rows of the next page, waiting for the page if it has not been fetched yet, and requests the page
+     * after it.
+     *
+     * @return The rows of the page, possibly empty.
+     */
+    @Override
+    public List<Row> next()
+    {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+        Page page;
+        try {
+            page = pending.join();
+        }
+        catch (CompletionException ex) {
+            pending = null;
+            Throwable cause = ex.getCause();
+            throw (cause instanceof RuntimeException) ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+        pageCount++;
+        pending = (page.nextToken == null || page.nextToken.isEmpty()) ? null : fetch(page.nextToken);
+        return page.rows;
+    }
+
+    /**
+     * @return The number of pages handed to the caller so far.
+     */
+    long getPageCount()
+    {
+        return pageCount;
+    }
+
+    private CompletableFuture<Page> fetch(String nextToken)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            QueryResponse response = client.query(QueryRequest.builder().queryString(query).nextToken(nextToken).build());
+            // rows are read before the token, the page is fully materialized off the caller's thread
+            List<Row> rows = response.rows();
+            return new Page(rows == null ? Collections.emptyList() : rows, response.nextToken());
+        }, executor);
+    }
+
+    /**
+     * Stops fetching pages, a page that is being fetched is discarded.
+     */
+    @Override
+    public void close()
+    {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        executor.shutdownNow();
+    }
+
+    private static final class Page
+    {
+        private final List<Row> rows;
+        private final String nextToken;
+
+        private Page(List<Row> rows, String nextToken)
+        {
+            this.rows = rows;
+            this.nextToken = nextToken;
+        }
+    }
+}
@@ -59,17 +59,9 @@ import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.timestreamquery.TimestreamQueryClient;
 import software.amazon.awssdk.services.timestreamquery.model.Datum;
-import software.amazon.awssdk.services.timestreamquery.model.QueryRequest;
-import software.amazon.awssdk.services.timestreamquery.model.QueryResponse;
 import software.amazon.awssdk.services.timestreamquery.model.Row;
 import software.amazon.awssdk.services.timestreamquery.model.TimeSeriesDataPoint;
 
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
-import java.time.temporal.ChronoField;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -80,15 +72,6 @@ public class TimestreamRecordHandler
         extends RecordHandler
 {
     private static final Logger logger = LoggerFactory.getLogger(TimestreamRecordHandler.class);
-    //Time stream `yyyy-MM-dd HH:mm:ss` doesn't contain zone information, treat everything as UTC
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER = new DateTimeFormatterBuilder()
-            .appendPattern("yyyy-MM-dd HH:mm:ss.")
-            .appendFraction(ChronoField.MILLI_OF_SECOND, 0, 9, false)
-            .toFormatter()
-            .withZone(ZoneId.of("UTC"));
-
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
-
     //Used to denote the 'type' of this connector for diagnostic purposes.
     private static final String SOURCE_TYPE = "timestream";
 
@@ -139,21 +122,19 @@ public class TimestreamRecordHandler
         logger.info("readWithConstraint: query[{}]", query);
 
         GeneratedRowWriter rowWriter = buildRowWriter(recordsRequest);
-        String nextToken = null;
         long numRows = 0;
 
-        do {
-            QueryResponse queryResult = tsQuery.query(QueryRequest.builder().queryString(query).nextToken(nextToken).build());
-            List<Row> data = queryResult.rows();
-            if (data != null) {
+        // the next page is fetched while the rows of the current one are written
+        try (TimestreamQueryPaginator paginator = new TimestreamQueryPaginator(tsQuery, query)) {
+            while (paginator.hasNext()) {
+                List<Row> data = paginator.next();
                 numRows += data.size();
                 for (Row nextRow : data) {
                     spiller.writeRows((Block block, int rowNum) -> rowWriter.writeRow(block, rowNum, nextRow) ? 1 : 0);
                 }
+                logger.info("readWithConstraint: numRows[{}]", numRows);
             }
-            nextToken = queryResult.nextToken();
-            logger.info("readWithConstraint: numRows[{}]", numRows);
-        } while (nextToken != null && !nextToken.isEmpty());
+        }
     }
 
     private GeneratedRowWriter buildRowWriter(ReadRecordsRequest request)
@@ -181,7 +162,7 @@ public class TimestreamRecordHandler
                         String doubleValue = ((Row) context).data().get(curFieldNum).scalarValue();
                         if (doubleValue != null) {
                             value.isSet = 1;
-                            value.value = Double.valueOf(doubleValue);
+                            value.value = Double.parseDouble(doubleValue);
                         }
                         else {
                             value.isSet = 0;
@@ -205,7 +186,7 @@ public class TimestreamRecordHandler
                         String longValue = ((Row) context).data().get(curFieldNum).scalarValue();
                         if (longValue != null) {
                             value.isSet = 1;
-                            value.value = Long.valueOf(longValue);
+                            value.value = Long.parseLong(longValue);
                         }
                         else {
                             value.isSet = 0;
@@ -217,7 +198,7 @@ public class TimestreamRecordHandler
                         String intValue = ((Row) context).data().get(curFieldNum).scalarValue();
                         if (intValue != null) {
                             value.isSet = 1;
-                            value.value = Integer.valueOf(intValue);
+                            value.value = Integer.parseInt(intValue);
                         }
                         else {
                             value.isSet = 0;
@@ -229,7 +210,7 @@ public class TimestreamRecordHandler
                         String dateMilliValue = ((Row) context).data().get(curFieldNum).scalarValue();
                         if (dateMilliValue != null) {
                             value.isSet = 1;
-                            value.value = Instant.from(TIMESTAMP_FORMATTER.parse(dateMilliValue)).toEpochMilli();
+                            value.value = TimestreamValueParser.parseTimestampMillis(dateMilliValue);
                         }
                         else {
                             value.isSet = 0;
@@ -241,7 +222,7 @@ public class TimestreamRecordHandler
                         String dateValue = ((Row) context).data().get(curFieldNum).scalarValue();
                         if (dateValue != null) {
                             value.isSet = 1;
-                            value.value = (int) LocalDate.parse(dateValue, DATE_FORMATTER).toEpochDay();
+                            value.value = TimestreamValueParser.parseDateDay(dateValue);
                         }
                         else {
                             value.isSet = 0;
@@ -343,7 +324,7 @@ public class TimestreamRecordHandler
         List<Map<String, Object>> values = new ArrayList<>();
         for (TimeSeriesDataPoint nextDatum : datum.timeSeriesValue()) {
             Map<String, Object> eventMap = new HashMap<>();
-            eventMap.put(timeField.getName(), Instant.from(TIMESTAMP_FORMATTER.parse(nextDatum.time())).toEpochMilli());
+            eventMap.put(timeField.getName(), TimestreamValueParser.parseTimestampMillis(nextDatum.time()));
             eventMap.put(valueField.getName(), parseMeasureScalar(nextDatum.value(), valueField));
             values.add(eventMap);
         }
@@ -427,9 +408,9 @@ public class TimestreamRecordHandler
             case INT:
                 return Integer.valueOf(scalarValue);
             case DATEMILLI:
-                return Instant.from(TIMESTAMP_FORMATTER.parse(scalarValue)).toEpochMilli();
+                return TimestreamValueParser.parseTimestampMillis(scalarValue);
             case DATEDAY:
-                return (int) LocalDate.parse(scalarValue, DATE_FORMATTER).toEpochDay();
+                return TimestreamValueParser.parseDateDay(scalarValue);
             default:
                 return scalarValue;
         }
@@ -0,0 +1,171 @@
+/*-
+ * #%L
+ * athena-timestream
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.timestream;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+
+/**
+ * Parses the scalar values of Timestream query results.
+ * <p>
+ * Timestream returns every scalar as a string. Timestamps ({@code yyyy-MM-dd HH:mm:ss.fffffffff}) and dates
+ * ({@code yyyy-MM-dd}) are by far the most common values of a time series table, they are parsed in place, one digit at
+ * a time, without the intermediate objects a DateTimeFormatter allocates. Values in any other shape go through the
+ * formatters, which also report malformed values.
+ */
+final class TimestreamValueParser
+{
+    //Time stream `yyyy-MM-dd HH:mm:ss` doesn't contain zone information, treat everything as UTC
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss.")
+            .appendFraction(ChronoField.MILLI_OF_SECOND, 0, 9, false)
+            .toFormatter()
+            .withZone(ZoneId.of("UTC"));
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static final int DATE_LENGTH = 10;
+    private static final int TIMESTAMP_LENGTH = 19;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private TimestreamValueParser()
+    {
+    }
+
+    /**
+     * @param value A Timestream timestamp, in UTC.
+     * @return The timestamp as milliseconds since the epoch, sub millisecond digits are truncated.
+     */
+    static long parseTimestampMillis(String value)
+    {
+        long epochDay = parseEpochDay(value);
+        if (epochDay != Long.MIN_VALUE && value.length() >= TIMESTAMP_LENGTH && value.charAt(DATE_LENGTH) == ' '
+                && value.charAt(13) == ':' && value.charAt(16) == ':') {
+            int hour = digits(value, 11, 2);
+            int minute = digits(value, 14, 2);
+            int second = digits(value, 17, 2);
+            int millis = fractionMillis(value);
+            if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60 && millis >= 0) {
+                return epochDay * MILLIS_PER_DAY + hour * 3_600_000L + minute * 60_000L + second * 1_000L + millis;
+            }
+        }
+        return Instant.from(TIMESTAMP_FORMATTER.parse(value)).toEpochMilli();
+    }
+
+    /**
+     * @param value A Timestream date.
+     * @return The date as days since the epoch.
+     */
+    static int parseDateDay(String value)
+    {
+        long epochDay = (value.length() == DATE_LENGTH) ? parseEpochDay(value) : Long.MIN_VALUE;
+        if (epochDay != Long.MIN_VALUE) {
+            return (int) epochDay;
+        }
+        return (int) LocalDate.parse(value, DATE_FORMATTER).toEpochDay();
+    }
+
+    /**
+     * @return The epoch day of the leading yyyy-MM-dd of the value or Long.MIN_VALUE if it does not start with a date.
+     */
+    private static long parseEpochDay(String value)
+    {
+        if (value.length() < DATE_LENGTH || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * @return The milliseconds of the optional fraction that follows the seconds or -1 if it is malformed.
+     */
+    private static int fractionMillis(String value)
+    {
+        if (value.length() == TIMESTAMP_LENGTH) {
+            return 0;
+        }
+        int fractionDigits = value.length() - TIMESTAMP_LENGTH - 1;
+        if (value.charAt(TIMESTAMP_LENGTH) != '.' || fractionDigits > MAX_FRACTION_DIGITS
+                || digits(value, TIMESTAMP_LENGTH + 1, fractionDigits) < 0) {
+            return -1;
+        }
+        int millis = 0;
+        for (int i = 0; i < 3; i++) {
+            millis = millis * 10 + ((i < fractionDigits) ? value.charAt(TIMESTAMP_LENGTH + 1 + i) - '0' : 0);
+        }
+        return millis;
+    }
+
+    /**
+     * @return The value of the decimal digits at [start, start + length) or -1 if any of them is not a digit.
+     */
+    private static int digits(String value, int start, int length)
+    {
+        int result = 0;
+        for (int i = start; i < start + length; i++) {
+            char next = value.charAt(i);
+            if (next < '0' || next > '9') {
+                return -1;
+            }
+            result = result * 10 + (next - '0');
+        }
+        return result;
+    }
+
+    private static int lengthOfMonth(int year, int month)
+    {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, see http://howardhinnant.github.io/date_algorithms.html
+     */
+    private static long epochDay(int year, int month, int day)
+    {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+}
@@ -0,0 +1,135 @@
+/*-
+ * #%L
+ * athena-timestream
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.timestream;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.timestreamquery.TimestreamQueryClient;
+import software.amazon.awssdk.services.timestreamquery.model.Datum;
+import software.amazon.awssdk.services.timestreamquery.model.QueryRequest;
+import software.amazon.awssdk.services.timestreamquery.model.QueryResponse;
+import software.amazon.awssdk.services.timestreamquery.model.Row;
+import software.amazon.awssdk.services.timestreamquery.model.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimestreamQueryPaginatorTest
+{
+    private static final String QUERY = "SELECT * FROM \"db\".\"table\"";
+
+    @Test
+    public void testPagesFollowTokens()
+    {
+        List<String> tokens = Collections.synchronizedList(new ArrayList<>());
+        TimestreamQueryClient client = mock(TimestreamQueryClient.class);
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            assertEquals(QUERY, request.queryString());
+            tokens.add(request.nextToken());
+            int page = (request.nextToken() == null) ? 0 : Integer.parseInt(request.nextToken());
+            return QueryResponse.builder()
+                    .rows(row(page), row(page))
+                    .nextToken(page < 2 ? String.valueOf(page + 1) : null)
+                    .build();
+        });
+
+        List<String> values = new ArrayList<>();
+        try (TimestreamQueryPaginator paginator = new TimestreamQueryPaginator(client, QUERY)) {
+            while (paginator.hasNext()) {
+                for (Row next : paginator.next()) {
+                    values.add(next.data().get(0).scalarValue());
+                }
+            }
+            assertEquals(3, paginator.getPageCount());
+        }
+
+        assertEquals(List.of("0", "0", "1", "1", "2", "2"), values);
+        assertEquals(3, tokens.size());
+        assertNull(tokens.get(0));
+        assertEquals(List.of("1", "2"), tokens.subList(1, 3));
+    }
+
+    @Test
+    public void testNextPageFetchedWhileCurrentPageIsConsumed()
+            throws Exception
+    {
+        CountDownLatch secondPageRequested = new CountDownLatch(1);
+        TimestreamQueryClient client = mock(TimestreamQueryClient.class);
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            if (request.nextToken() == null) {
+                return QueryResponse.builder().rows(row(0)).nextToken("1").build();
+            }
+            secondPageRequested.countDown();
+            return QueryResponse.builder().rows(row(1)).build();
+        });
+
+        try (TimestreamQueryPaginator paginator = new TimestreamQueryPaginator(client, QUERY)) {
+            assertEquals(1, paginator.next().size());
+            // the caller has not asked for the second page yet
+            assertTrue(secondPageRequested.await(10, TimeUnit.SECONDS));
+            assertTrue(paginator.hasNext());
+            assertEquals("1", paginator.next().get(0).data().get(0).scalarValue());
+            assertFalse(paginator.hasNext());
+        }
+    }
+
+    @Test
+    public void testEmptyPagesAndEmptyToken()
+    {
+        TimestreamQueryClient client = mock(TimestreamQueryClient.class);
+        when(client.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().nextToken("").build());
+
+        try (TimestreamQueryPaginator paginator = new TimestreamQueryPaginator(client, QUERY)) {
+            assertTrue(paginator.next().isEmpty());
+            assertFalse(paginator.hasNext());
+        }
+    }
+
+    @Test
+    public void testQueryFailureIsRethrown()
+    {
+        TimestreamQueryClient client = mock(TimestreamQueryClient.class);
+        when(client.query(any(QueryRequest.class))).thenThrow(ValidationException.builder().message("bad query").build());
+
+        try (TimestreamQueryPaginator paginator = new TimestreamQueryPaginator(client, QUERY)) {
+            ValidationException ex = assertThrows(ValidationException.class, paginator::next);
+            assertEquals("bad query", ex.getMessage());
+            assertFalse(paginator.hasNext());
+        }
+    }
+
+    private static Row row(int page)
+    {
+        return Row.builder().data(Datum.builder().scalarValue(String.valueOf(page)).build()).build();
+    }
+}
@@ -0,0 +1,80 @@
+/*-
+ * #%L
+ * athena-timestream
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.timestream;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class TimestreamValueParserTest
+{
+    @Test
+    public void testParseTimestampMillis()
+    {
+        assertEquals(0L, TimestreamValueParser.parseTimestampMillis("1970-01-01 00:00:00.000000000"));
+        assertEquals(millis(2020, 5, 18, 13, 7, 59, 123), TimestreamValueParser.parseTimestampMillis("2020-05-18 13:07:59.123456789"));
+        assertEquals(millis(2024, 2, 29, 23, 59, 59, 900), TimestreamValueParser.parseTimestampMillis("2024-02-29 23:59:59.9"));
+        assertEquals(millis(2021, 12, 31, 0, 0, 1, 0), TimestreamValueParser.parseTimestampMillis("2021-12-31 00:00:01."));
+        assertEquals(millis(1969, 12, 31, 23, 59, 59, 999), TimestreamValueParser.parseTimestampMillis("1969-12-31 23:59:59.999"));
+        assertEquals(millis(1600, 3, 1, 12, 0, 0, 50), TimestreamValueParser.parseTimestampMillis("1600-03-01 12:00:00.050"));
+    }
+
+    @Test
+    public void testParseTimestampMillis_MatchesFormatterOverManyDays()
+    {
+        LocalDateTime next = LocalDateTime.of(1899, 12, 25, 3, 4, 5, 6_789_000);
+        for (int i = 0; i < 100_000; i++, next = next.plusHours(37).plusNanos(1_000_123)) {
+            String value = String.format("%04d-%02d-%02d %02d:%02d:%02d.%09d", next.getYear(), next.getMonthValue(), next.getDayOfMonth(),
+                    next.getHour(), next.getMinute(), next.getSecond(), next.getNano());
+            assertEquals(value, next.toInstant(ZoneOffset.UTC).toEpochMilli(), TimestreamValueParser.parseTimestampMillis(value));
+        }
+    }
+
+    @Test
+    public void testParseTimestampMillis_Malformed()
+    {
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseTimestampMillis("2020-13-01 00:00:00.000"));
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseTimestampMillis("2021-02-01 25:00:00.000"));
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseTimestampMillis("2020-01-01T00:00:00.000"));
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseTimestampMillis("2020-01-01 00:00:00.0000000001"));
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseTimestampMillis("2020-01-01"));
+    }
+
+    @Test
+    public void testParseDateDay()
+    {
+        assertEquals(0, TimestreamValueParser.parseDateDay("1970-01-01"));
+        assertEquals((int) LocalDate.of(2020, 5, 18).toEpochDay(), TimestreamValueParser.parseDateDay("2020-05-18"));
+        assertEquals((int) LocalDate.of(1900, 3, 1).toEpochDay(), TimestreamValueParser.parseDateDay("1900-03-01"));
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseDateDay("1900-02-29"));
+        assertThrows(DateTimeParseException.class, () -> TimestreamValueParser.parseDateDay("2020-5-18"));
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute, int second, int millis)
+    {
+        return LocalDateTime.of(year, month, day, hour, minute, second, millis * 1_000_000).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
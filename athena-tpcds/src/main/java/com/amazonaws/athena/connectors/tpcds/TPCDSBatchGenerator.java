@@ -0,0 +1,228 @@
+/*-
+ * #%L
+ * athena-tpcds
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.tpcds;
+
+import com.teradata.tpcds.Results;
+import com.teradata.tpcds.Session;
+import com.teradata.tpcds.Table;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.teradata.tpcds.Results.constructResults;
+
+/**
+ * Generates the rows of a split in batches, parsed into one typed array per column by TPCDSColumnWriters.
+ * <p>
+ * The chunk of the split is cut into sub-chunks that are generated concurrently, TPC-DS generates the same data set
+ * whatever the number of chunks, so the splits still cover each row exactly once. The batches of all the sub-chunks
+ * are handed over in the order they are ready in, which is not the order TPC-DS generates the rows in.
+ */
+class TPCDSBatchGenerator
+        implements Iterator<TPCDSBatchGenerator.Batch>, AutoCloseable
+{
+    //The batches generated ahead of the caller, per sub-chunk.
+    private static final int BATCHES_AHEAD = 2;
+    //Marks the end of the batches of a sub-chunk.
+    private static final Batch END_OF_CHUNK = new Batch(null, 0);
+
+    private final ExecutorService executor;
+    private final BlockingQueue<Batch> batches;
+    private final int subChunks;
+    private int finishedSubChunks = 0;
+    //The batch hasNext() took, if any.
+    private Batch nextBatch;
+
+    /**
+     * @param session The session of the split, its chunk is the one to generate.
+     * @param table The table to generate.
+     * @param writers The writers of the projected columns.
+     * @param rowsPerBatch The most rows per batch.
+     * @param parallelism The number of sub-chunks to cut the chunk into and generate concurrently.
+     */
+    TPCDSBatchGenerator(Session session, Table table, List<TPCDSColumnWriter> writers, int rowsPerBatch, int parallelism)
+    {
+        this.subChunks = Math.max(1, parallelism);
+        this.batches = new ArrayBlockingQueue<>(BATCHES_AHEAD * subChunks);
+        this.executor = Executors.newFixedThreadPool(subChunks, runnable -> {
+            Thread thread = new Thread(runnable, "tpcds-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int subChunk = 0; subChunk < subChunks; subChunk++) {
+            Session subChunkSession = session
+                    .withParallelism(session.getParallelism() * subChunks)
+                    .withChunkNumber((session.getChunkNumber() - 1) * subChunks + subChunk + 1);
+            executor.execute(() -> generate(subChunkSession, table, writers, rowsPerBatch));
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (nextBatch == null && finishedSubChunks < subChunks) {
+            Batch batch = take();
+            if (batch.error != null) {
+                throw batch.error;
+            }
+            if (batch == END_OF_CHUNK) {
+                finishedSubChunks++;
+            }
+            else {
+                nextBatch = batch;
+            }
+        }
+        return nextBatch != null;
+    }
+
+    /**
+     * Provides the next batch, waiting for it if it has not been generated yet.
+     */
+    @Override
+    public Batch next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Batch batch = nextBatch;
+        nextBatch = null;
+        return batch;
+    }
+
+    /**
+     * Stops generating, batches that are being generated are discarded.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    private void generate(Session session, Table table, List<TPCDSColumnWriter> writers, int rowsPerBatch)
+    {
+        try {
+            try {
+                Results results = constructResults(table, session);
+                Batch batch = new Batch(writers, rowsPerBatch);
+                for (List<List<String>> rows : results) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    batch.add(rows.get(0));
+                    if (batch.getRowCount() == rowsPerBatch) {
+                        batches.put(batch);
+                        batch = new Batch(writers, rowsPerBatch);
+                    }
+                }
+                if (batch.getRowCount() > 0) {
+                    batches.put(batch);
+                }
+                batches.put(END_OF_CHUNK);
+            }
+            catch (RuntimeException ex) {
+                batches.put(new Batch(ex));
+            }
+        }
+        catch (InterruptedException ex) {
+            //the generator was closed
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Batch take()
+    {
+        try {
+            return batches.take();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * The values of the projected columns of consecutive rows, as parsed by the TPCDSColumnWriter of each column.
+     */
+    static final class Batch
+    {
+        private final List<TPCDSColumnWriter> writers;
+        private final Object[] values;
+        private final boolean[][] nulls;
+        private final RuntimeException error;
+        private int rowCount;
+
+        private Batch(List<TPCDSColumnWriter> writers, int rows)
+        {
+            this.writers = writers;
+            this.values = new Object[(writers == null) ? 0 : writers.size()];
+            this.nulls = new boolean[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = writers.get(i).newValues(rows);
+                nulls[i] = new boolean[rows];
+            }
+            this.error = null;
+        }
+
+        private Batch(RuntimeException error)
+        {
+            this.writers = null;
+            this.values = new Object[0];
+            this.nulls = new boolean[0][];
+            this.error = error;
+        }
+
+        private void add(List<String> row)
+        {
+            for (int i = 0; i < values.length; i++) {
+                String rawValue = row.get(writers.get(i).getPosition());
+                if (rawValue == null) {
+                    nulls[i][rowCount] = true;
+                }
+                else {
+                    writers.get(i).parse(values[i], rowCount, rawValue);
+                }
+            }
+            rowCount++;
+        }
+
+        int getRowCount()
+        {
+            return rowCount;
+        }
+
+        /**
+         * @return The values of the column of the writer at the given index, as made by its newValues(...).
+         */
+        Object getValues(int column)
+        {
+            return values[column];
+        }
+
+        boolean isNull(int column, int row)
+        {
+            return nulls[column][row];
+        }
+    }
+}
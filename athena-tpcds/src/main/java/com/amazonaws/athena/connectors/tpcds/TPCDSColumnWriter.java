@@ -0,0 +1,288 @@
+/*-
+ * #%L
+ * athena-tpcds
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.tpcds;
+
+import com.teradata.tpcds.column.Column;
+import com.teradata.tpcds.column.ColumnType;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Converts one column of the rows generated by TPC-DS, which are strings, into a typed array and writes that array
+ * straight into the column's Apache Arrow vector.
+ * <p>
+ * Parsing is split from writing so that generator threads can parse their rows while the Block is being written to,
+ * only writing to the vector and evaluating constraints has to happen on the thread that owns the Block.
+ */
+abstract class TPCDSColumnWriter
+{
+    private final String fieldName;
+    private final int position;
+
+    private TPCDSColumnWriter(String fieldName, int position)
+    {
+        this.fieldName = fieldName;
+        this.position = position;
+    }
+
+    /**
+     * Makes a TPCDSColumnWriter for the provided Apache Arrow Field and TPCDS Column.
+     *
+     * @param field The Apache Arrow Field, as made by TPCDSUtils.convertColumn(...).
+     * @param column The corresponding TPCDS Column.
+     * @return The TPCDSColumnWriter that can be used to convert and write values for the provided Field/Column pair.
+     */
+    static TPCDSColumnWriter of(Field field, Column column)
+    {
+        ColumnType type = column.getType();
+        switch (type.getBase()) {
+            case IDENTIFIER:
+                return new BigIntWriter(field.getName(), column.getPosition());
+            case INTEGER:
+                return new IntWriter(field.getName(), column.getPosition());
+            case DATE:
+                return new DateDayWriter(field.getName(), column.getPosition());
+            case DECIMAL:
+                return new DecimalWriter(field.getName(), column.getPosition(), type.getScale().get());
+            case TIME:
+            case CHAR:
+            case VARCHAR:
+                return new VarCharWriter(field.getName(), column.getPosition());
+        }
+        throw new IllegalArgumentException("Unsupported TPC-DS type " + column.getName() + ":" + column.getType().getBase());
+    }
+
+    String getFieldName()
+    {
+        return fieldName;
+    }
+
+    /**
+     * @return The position of the column in the rows generated by TPC-DS.
+     */
+    int getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * @return A new array for the values of the column in a batch of the given number of rows.
+     */
+    abstract Object newValues(int rows);
+
+    /**
+     * Parses a non-null value of the column into the given row of an array made by newValues(...).
+     */
+    abstract void parse(Object values, int row, String rawValue);
+
+    /**
+     * @return The value of the given row as the type a ConstraintProjector of the column expects, which is
+     * the type a DateDayVector or DecimalVector reads as for dates and decimals.
+     */
+    abstract Object getValue(Object values, int row);
+
+    /**
+     * Writes the value of the given row into the vector of the column, the vector is left null for null values.
+     */
+    abstract void write(FieldVector vector, int index, Object values, int row);
+
+    private static final class BigIntWriter
+            extends TPCDSColumnWriter
+    {
+        private BigIntWriter(String fieldName, int position)
+        {
+            super(fieldName, position);
+        }
+
+        @Override
+        Object newValues(int rows)
+        {
+            return new long[rows];
+        }
+
+        @Override
+        void parse(Object values, int row, String rawValue)
+        {
+            ((long[]) values)[row] = Long.parseLong(rawValue);
+        }
+
+        @Override
+        Object getValue(Object values, int row)
+        {
+            return ((long[]) values)[row];
+        }
+
+        @Override
+        void write(FieldVector vector, int index, Object values, int row)
+        {
+            ((BigIntVector) vector).setSafe(index, ((long[]) values)[row]);
+        }
+    }
+
+    private static final class IntWriter
+            extends TPCDSColumnWriter
+    {
+        private IntWriter(String fieldName, int position)
+        {
+            super(fieldName, position);
+        }
+
+        @Override
+        Object newValues(int rows)
+        {
+            return new int[rows];
+        }
+
+        @Override
+        void parse(Object values, int row, String rawValue)
+        {
+            ((int[]) values)[row] = Integer.parseInt(rawValue);
+        }
+
+        @Override
+        Object getValue(Object values, int row)
+        {
+            return ((int[]) values)[row];
+        }
+
+        @Override
+        void write(FieldVector vector, int index, Object values, int row)
+        {
+            ((IntVector) vector).setSafe(index, ((int[]) values)[row]);
+        }
+    }
+
+    /**
+     * TPC-DS formats dates as yyyy-mm-dd, they are kept as days since the epoch.
+     */
+    private static final class DateDayWriter
+            extends TPCDSColumnWriter
+    {
+        private DateDayWriter(String fieldName, int position)
+        {
+            super(fieldName, position);
+        }
+
+        @Override
+        Object newValues(int rows)
+        {
+            return new int[rows];
+        }
+
+        @Override
+        void parse(Object values, int row, String rawValue)
+        {
+            ((int[]) values)[row] = (int) LocalDate.parse(rawValue).toEpochDay();
+        }
+
+        @Override
+        Object getValue(Object values, int row)
+        {
+            return ((int[]) values)[row];
+        }
+
+        @Override
+        void write(FieldVector vector, int index, Object values, int row)
+        {
+            ((DateDayVector) vector).setSafe(index, ((int[]) values)[row]);
+        }
+    }
+
+    /**
+     * TPC-DS decimals are small enough for their unscaled value to fit in a long, which DecimalVector can take as is.
+     */
+    private static final class DecimalWriter
+            extends TPCDSColumnWriter
+    {
+        private final int scale;
+
+        private DecimalWriter(String fieldName, int position, int scale)
+        {
+            super(fieldName, position);
+            this.scale = scale;
+        }
+
+        @Override
+        Object newValues(int rows)
+        {
+            return new long[rows];
+        }
+
+        @Override
+        void parse(Object values, int row, String rawValue)
+        {
+            ((long[]) values)[row] = new BigDecimal(rawValue).setScale(scale).unscaledValue().longValueExact();
+        }
+
+        @Override
+        Object getValue(Object values, int row)
+        {
+            return BigDecimal.valueOf(((long[]) values)[row], scale);
+        }
+
+        @Override
+        void write(FieldVector vector, int index, Object values, int row)
+        {
+            ((DecimalVector) vector).setSafe(index, ((long[]) values)[row]);
+        }
+    }
+
+    private static final class VarCharWriter
+            extends TPCDSColumnWriter
+    {
+        private VarCharWriter(String fieldName, int position)
+        {
+            super(fieldName, position);
+        }
+
+        @Override
+        Object newValues(int rows)
+        {
+            return new String[rows];
+        }
+
+        @Override
+        void parse(Object values, int row, String rawValue)
+        {
+            ((String[]) values)[row] = rawValue;
+        }
+
+        @Override
+        Object getValue(Object values, int row)
+        {
+            return ((String[]) values)[row];
+        }
+
+        @Override
+        void write(FieldVector vector, int index, Object values, int row)
+        {
+            ((VarCharVector) vector).setSafe(index, ((String[]) values)[row].getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -23,14 +23,15 @@ import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
 import com.amazonaws.athena.connector.lambda.handlers.RecordHandler;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
-import com.teradata.tpcds.Results;
 import com.teradata.tpcds.Session;
 import com.teradata.tpcds.Table;
 import com.teradata.tpcds.column.Column;
-import com.teradata.tpcds.column.ColumnType;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
@@ -40,17 +41,14 @@ import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_NUMBER_FIELD;
 import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_SCALE_FACTOR_FIELD;
 import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_TOTAL_NUMBER_FIELD;
-import static com.teradata.tpcds.Results.constructResults;
 
 /**
  * Handles data read record requests for the Athena TPC-DS Connector.
@@ -59,6 +57,8 @@ import static com.teradata.tpcds.Results.constructResults;
  * <p>
  * 1. Generates data for the requested table on the fly.
  * 2. Applies constraints to the data as it is generated, emulating predicate-pushdown.
+ * 3. Generates and writes the data in batches of rows, a column at a time, optionally generating several parts of a
+ * split concurrently (see GENERATION_PARALLELISM) so that it can be used as a high throughput source for benchmarks.
  */
 public class TPCDSRecordHandler
         extends RecordHandler
@@ -71,6 +71,11 @@ public class TPCDSRecordHandler
      */
     private static final String SOURCE_TYPE = "tpcds";
 
+    //The number of sub-chunks each split is cut into and generated concurrently.
+    protected static final String GENERATION_PARALLELISM = "generation_parallelism";
+    //The most rows generated and written to the Block at a time.
+    private static final int ROWS_PER_WRITE = 1000;
+
     public TPCDSRecordHandler(java.util.Map<String, String> configOptions)
     {
         super(S3Client.create(), SecretsManagerClient.create(), AthenaClient.create(), SOURCE_TYPE, configOptions);
@@ -111,101 +116,94 @@ public class TPCDSRecordHandler
                 .withTable(table)
                 .withNoSexism(true);
 
-        Results results = constructResults(table, session);
-        Iterator<List<List<String>>> itr = results.iterator();
-
-        Map<Integer, CellWriter> writers = makeWriters(recordsRequest.getSchema(), table);
-        while (itr.hasNext() && queryStatusChecker.isQueryRunning()) {
-            List<String> row = itr.next().get(0);
-            spiller.writeRows((Block block, int numRow) -> {
-                boolean matched = true;
-                for (Map.Entry<Integer, CellWriter> nextWriter : writers.entrySet()) {
-                    matched &= nextWriter.getValue().write(block, numRow, row.get(nextWriter.getKey()));
+        List<TPCDSColumnWriter> writers = makeWriters(recordsRequest.getSchema(), table);
+        List<ConstraintProjector> projectors = makeProjectors(spiller.getConstraintEvaluator(), writers);
+        int parallelism = Integer.parseInt(configOptions.getOrDefault(GENERATION_PARALLELISM, "1"));
+        int[] matchingRows = new int[ROWS_PER_WRITE];
+
+        try (TPCDSBatchGenerator batches = new TPCDSBatchGenerator(session, table, writers, ROWS_PER_WRITE, parallelism)) {
+            while (batches.hasNext() && queryStatusChecker.isQueryRunning()) {
+                TPCDSBatchGenerator.Batch batch = batches.next();
+                int matches = filter(spiller.getConstraintEvaluator(), batch, writers, projectors, matchingRows);
+                if (matches > 0) {
+                    spiller.writeRows((Block block, int firstRow) -> {
+                        for (int column = 0; column < writers.size(); column++) {
+                            TPCDSColumnWriter writer = writers.get(column);
+                            FieldVector vector = block.getFieldVector(writer.getFieldName());
+                            Object values = batch.getValues(column);
+                            for (int i = 0; i < matches; i++) {
+                                if (!batch.isNull(column, matchingRows[i])) {
+                                    writer.write(vector, firstRow + i, values, matchingRows[i]);
+                                }
+                            }
+                        }
+                        return matches;
+                    });
                 }
-                return matched ? 1 : 0;
-            });
+            }
         }
     }
 
     /**
-     * Generates the CellWriters used to convert the TPCDS Generators data to Apache Arrow.
+     * Generates the TPCDSColumnWriters used to convert the TPCDS Generators data to Apache Arrow.
      *
      * @param schemaForRead The schema to read/project.
      * @param table The TPCDS Table we are reading from.
-     * @return Map<Integer, CellWriter> where integer is the Column position in the TPCDS data set and the CellWriter
-     * can be used to read,convert,write the value at that position for any row into the correct position and type
-     * in our Apache Arrow response.
+     * @return The TPCDSColumnWriter of each field of the schema, in the order of the schema.
      */
-    private Map<Integer, CellWriter> makeWriters(Schema schemaForRead, Table table)
+    private List<TPCDSColumnWriter> makeWriters(Schema schemaForRead, Table table)
     {
         Map<String, Column> columnPositions = new HashMap<>();
         for (Column next : table.getColumns()) {
             columnPositions.put(next.getName(), next);
         }
 
-        //We use this approach to reduce the overhead of field lookups. This isn't as good as true columnar processing
-        //using Arrow but it gets us ~80% of the way there from a rows/second per cpu-cycle perspective.
-        Map<Integer, CellWriter> writers = new HashMap<>();
+        List<TPCDSColumnWriter> writers = new ArrayList<>();
         for (Field nextField : schemaForRead.getFields()) {
-            Column column = columnPositions.get(nextField.getName());
-            writers.put(column.getPosition(), makeWriter(nextField, column));
+            writers.add(TPCDSColumnWriter.of(nextField, columnPositions.get(nextField.getName())));
         }
         return writers;
     }
 
     /**
-     * Makes a CellWriter for the provided Apache Arrow Field and TPCDS Column.
-     *
-     * @param field The Apache Arrow Field.
-     * @param column The corresponding TPCDS Column.
-     * @return The CellWriter that can be used to convert and write values for the provided Field/Column pair.
+     * @return The ConstraintProjector of each writer's column, null for the columns without constraints.
      */
-    private CellWriter makeWriter(Field field, Column column)
+    private List<ConstraintProjector> makeProjectors(ConstraintEvaluator evaluator, List<TPCDSColumnWriter> writers)
     {
-        ColumnType type = column.getType();
-        switch (type.getBase()) {
-            case IDENTIFIER:
-                return (Block block, int rowNum, String rawValue) -> {
-                    Long value = (rawValue != null) ? Long.parseLong(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
-                };
-            case INTEGER:
-                return (Block block, int rowNum, String rawValue) -> {
-                    Integer value = (rawValue != null) ? Integer.parseInt(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
-                };
-            case DATE:
-                return (Block block, int rowNum, String rawValue) -> {
-                    LocalDate value = (rawValue != null) ? LocalDate.parse(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
-                };
-            case DECIMAL:
-                return (Block block, int rowNum, String rawValue) -> {
-                    BigDecimal value = (rawValue != null) ? new BigDecimal(rawValue) : null;
-                    return block.setValue(field.getName(), rowNum, value);
-                };
-            case TIME:
-            case CHAR:
-            case VARCHAR:
-                return (Block block, int rowNum, String rawValue) -> {
-                    return block.setValue(field.getName(), rowNum, rawValue);
-                };
+        List<ConstraintProjector> projectors = new ArrayList<>();
+        for (TPCDSColumnWriter writer : writers) {
+            projectors.add(evaluator.makeConstraintProjector(writer.getFieldName()).orElse(null));
         }
-        throw new IllegalArgumentException("Unsupported TPC-DS type " + column.getName() + ":" + column.getType().getBase());
+        return projectors;
     }
 
-    public interface CellWriter
+    /**
+     * Applies the constraints to the rows of a batch, only the constrained columns are looked at.
+     *
+     * @param matchingRows Filled with the rows of the batch that passed all constraints.
+     * @return The number of rows that passed all constraints.
+     */
+    private int filter(ConstraintEvaluator evaluator, TPCDSBatchGenerator.Batch batch, List<TPCDSColumnWriter> writers,
+            List<ConstraintProjector> projectors, int[] matchingRows)
     {
-        /**
-         * Converts a value from TPCDS' string representation into the appropriate Apache Arrow type
-         * and writes it to the correct field in the provided Block and row. The implementation should
-         * also apply constraints as an optimization.
-         *
-         * @param block The Apache Arrow Block to write into.
-         * @param rowNum The row number in the Arrow Block to write into.
-         * @param value The value to convert and write into the Apache Arrow Block.
-         * @return True if the value passed all Contraints.
-         */
-        boolean write(Block block, int rowNum, String value);
+        int matches = 0;
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            boolean matched = true;
+            for (int column = 0; column < writers.size() && matched; column++) {
+                ConstraintProjector projector = projectors.get(column);
+                if (projector == null) {
+                    continue;
+                }
+                TPCDSColumnWriter writer = writers.get(column);
+                //The projectors compare values as they are, nulls have to go through the evaluator.
+                matched = batch.isNull(column, row)
+                        ? evaluator.apply(writer.getFieldName(), null)
+                        : projector.apply(writer.getValue(batch.getValues(column), row));
+            }
+            if (matched) {
+                matchingRows[matches++] = row;
+            }
+        }
+        return matches;
     }
 }
@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * athena-tpcds
+ * %%
+ * Copyright (C) 2019 - 2026 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.tpcds;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.teradata.tpcds.Table;
+import com.teradata.tpcds.column.Column;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.mockito.Mockito;
+import software.amazon.awssdk.services.athena.AthenaClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_NUMBER_FIELD;
+import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_SCALE_FACTOR_FIELD;
+import static com.amazonaws.athena.connectors.tpcds.TPCDSMetadataHandler.SPLIT_TOTAL_NUMBER_FIELD;
+
+/**
+ * Measures the rows/sec of generating a split of customer_demographics at scale factor 1 with a growing number of sub-chunks
+ * generated concurrently. Not part of the test suite, run the main method with the test classpath:
+ * <p>
+ * mvn -pl athena-tpcds test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.amazonaws.athena.connectors.tpcds.TPCDSRecordHandlerBenchmark
+ */
+public class TPCDSRecordHandlerBenchmark
+{
+    private static final int SPLITS = 40;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 5;
+
+    private TPCDSRecordHandlerBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
+        for (Column column : Table.CUSTOMER_DEMOGRAPHICS.getColumns()) {
+            schemaBuilder.addField(TPCDSUtils.convertColumn(column));
+        }
+        Schema schema = schemaBuilder.build();
+
+        for (int parallelism : new int[] {1, 2, 4, 8}) {
+            TPCDSRecordHandler handler = new TPCDSRecordHandler(Mockito.mock(S3Client.class),
+                    Mockito.mock(SecretsManagerClient.class), Mockito.mock(AthenaClient.class),
+                    Map.of(TPCDSRecordHandler.GENERATION_PARALLELISM, String.valueOf(parallelism)));
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                run(handler, schema);
+            }
+            long rows = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                rows += run(handler, schema);
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("parallelism %d: %,.0f rows/sec (%,d rows in %.2f s)%n", parallelism, rows / seconds, rows, seconds);
+        }
+    }
+
+    private static long run(TPCDSRecordHandler handler, Schema schema)
+            throws Exception
+    {
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+            S3SpillLocation spillLocation = S3SpillLocation.newBuilder()
+                    .withBucket("bucket")
+                    .withSplitId(UUID.randomUUID().toString())
+                    .withQueryId(UUID.randomUUID().toString())
+                    .withIsDirectory(true)
+                    .build();
+            Split split = Split.newBuilder(spillLocation, null)
+                    .add(SPLIT_NUMBER_FIELD, "0")
+                    .add(SPLIT_TOTAL_NUMBER_FIELD, String.valueOf(SPLITS))
+                    .add(SPLIT_SCALE_FACTOR_FIELD, "1")
+                    .build();
+
+            ReadRecordsRequest request = new ReadRecordsRequest(
+                    new FederatedIdentity("arn", "account", Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap()),
+                    "catalog",
+                    "queryId",
+                    new TableName("tpcds1", Table.CUSTOMER_DEMOGRAPHICS.getName()),
+                    schema,
+                    split,
+                    new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT, Collections.emptyMap(), null),
+                    100_000_000_000L,
+                    100_000_000_000L);
+
+            try (ReadRecordsResponse response = (ReadRecordsResponse) handler.doReadRecords(allocator, request)) {
+                return response.getRecordCount();
+            }
+        }
+    }
+}
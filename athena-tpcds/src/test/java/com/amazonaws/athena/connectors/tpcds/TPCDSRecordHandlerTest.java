@@ -42,9 +42,13 @@ import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.athena.connectors.tpcds.qpt.TPCDSQueryPassthrough;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
+import com.teradata.tpcds.Results;
+import com.teradata.tpcds.Session;
 import com.teradata.tpcds.Table;
 import com.teradata.tpcds.column.Column;
+import org.apache.arrow.vector.complex.reader.FieldReader;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.After;
@@ -68,11 +72,15 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
@@ -402,6 +410,97 @@ public class TPCDSRecordHandlerTest
         assertNotNull(response.getRecords());
     }
 
+    @Test
+    public void doReadRecords_WhenGeneratedInParallel_ReturnsSameRows()
+            throws Exception
+    {
+        handler = new TPCDSRecordHandler(mockS3, mockSecretsManager, mockAthena,
+                com.google.common.collect.ImmutableMap.of(TPCDSRecordHandler.GENERATION_PARALLELISM, "4"));
+
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put("c_customer_id", EquatableValueSet.newBuilder(allocator, Types.MinorType.VARCHAR.getType(), true, false)
+                .add("AAAAAAAABAAAAAAA")
+                .add("AAAAAAAACAAAAAAA")
+                .add("AAAAAAAADAAAAAAA").build());
+
+        ReadRecordsRequest request = newReadRecordsRequest(schemaForRead, table.getName(),
+                newSplit("0", "1000", "1"),
+                createConstraints(constraintsMap, Collections.emptyMap()),
+                100_000_000_000L,
+                100_000_000_000L);
+
+        RecordResponse rawResponse = handler.doReadRecords(allocator, request);
+
+        assertTrue(rawResponse instanceof ReadRecordsResponse);
+        Block records = ((ReadRecordsResponse) rawResponse).getRecords();
+        Set<String> customerIds = new HashSet<>();
+        FieldReader customerIdReader = records.getFieldReader("c_customer_id");
+        for (int row = 0; row < records.getRowCount(); row++) {
+            customerIdReader.setPosition(row);
+            customerIds.add(customerIdReader.readText().toString());
+        }
+        assertEquals(ImmutableSet.of("AAAAAAAABAAAAAAA", "AAAAAAAACAAAAAAA", "AAAAAAAADAAAAAAA"), customerIds);
+    }
+
+    @Test
+    public void doReadRecords_WhenConstrainedOnDateAndDecimal_ReturnsMatchingRows()
+            throws Exception
+    {
+        table = Table.ITEM;
+        SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
+        for (Column nextCol : table.getColumns()) {
+            schemaBuilder.addField(TPCDSUtils.convertColumn(nextCol));
+        }
+        Schema itemSchema = schemaBuilder.build();
+
+        LocalDate minStartDate = LocalDate.of(2000, 1, 1);
+        BigDecimal minPrice = new BigDecimal("10.00");
+        BigDecimal maxPrice = new BigDecimal("20.00");
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put("i_rec_start_date", SortedRangeSet.of(Range.greaterThanOrEqual(allocator,
+                itemSchema.findField("i_rec_start_date").getType(), (int) minStartDate.toEpochDay())));
+        constraintsMap.put("i_current_price", SortedRangeSet.of(Range.range(allocator,
+                itemSchema.findField("i_current_price").getType(), minPrice, true, maxPrice, true)));
+
+        ReadRecordsRequest request = newReadRecordsRequest(itemSchema, table.getName(),
+                newSplit("0", "1", "1"),
+                createConstraints(constraintsMap, Collections.emptyMap()),
+                100_000_000_000L,
+                100_000_000_000L);
+
+        RecordResponse rawResponse = handler.doReadRecords(allocator, request);
+
+        assertTrue(rawResponse instanceof ReadRecordsResponse);
+        Block records = ((ReadRecordsResponse) rawResponse).getRecords();
+
+        int startDatePosition = table.getColumn("i_rec_start_date").getPosition();
+        int pricePosition = table.getColumn("i_current_price").getPosition();
+        int expectedRows = 0;
+        Session session = Session.getDefaultSession().withScale(1).withTable(table).withNoSexism(true);
+        for (List<List<String>> rows : Results.constructResults(table, session)) {
+            String startDate = rows.get(0).get(startDatePosition);
+            String price = rows.get(0).get(pricePosition);
+            if (startDate != null && price != null
+                    && !LocalDate.parse(startDate).isBefore(minStartDate)
+                    && new BigDecimal(price).compareTo(minPrice) >= 0
+                    && new BigDecimal(price).compareTo(maxPrice) <= 0) {
+                expectedRows++;
+            }
+        }
+        assertTrue(expectedRows > 0);
+        assertEquals(expectedRows, records.getRowCount());
+
+        FieldReader startDateReader = records.getFieldReader("i_rec_start_date");
+        FieldReader priceReader = records.getFieldReader("i_current_price");
+        for (int row = 0; row < records.getRowCount(); row++) {
+            startDateReader.setPosition(row);
+            priceReader.setPosition(row);
+            assertTrue(startDateReader.readInteger() >= minStartDate.toEpochDay());
+            assertTrue(priceReader.readBigDecimal().compareTo(minPrice) >= 0);
+            assertTrue(priceReader.readBigDecimal().compareTo(maxPrice) <= 0);
+        }
+    }
+
     private Constraints createConstraints(
             Map<String, ValueSet> summaryConstraints,
             Map<String, String> queryPassthroughArguments)
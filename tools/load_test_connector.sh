@@ -0,0 +1,54 @@
+#!/bin/bash
+
+# Copyright (C) 2019 - 2026 Amazon Web Services
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+cat << EOF
+# Run this script from any directory:
+# 1. Builds the maven project, if needed.
+# 2. Runs the connector in the given jar in-process, against local stand-ins for S3 and Athena, and drives it
+#    through the calls of a select * on the given table. A throughput report per phase is printed at the end.
+#
+# NOTE: That this test causes a full table scan against your data source, unless you provide a query predicate.
+# The connector's configuration is read from the environment as it is on Lambda, spill_bucket defaults to
+# local-spill-bucket.
+#
+# Use the -h or --help args to print usage information.
+#
+EOF
+
+if [ -z "$1" ] || [ ! -f "$1" ]; then
+    echo "usage: tools/load_test_connector.sh connector.jar [args]"
+    exit 1
+fi
+
+CONNECTOR_JAR=$(cd -P -- "$(dirname -- "$1")" && pwd -P)/$(basename -- "$1")
+shift
+
+VERSION=2022.47.1
+
+dir=$(cd -P -- "$(dirname -- "$0")" && pwd -P)
+
+cd "$dir/../athena-federation-sdk-tools"
+
+if test -f "target/athena-federation-sdk-tools-${VERSION}.jar"; then
+    echo "athena-federation-sdk-tools is already built, skipping compilation."
+else
+    mvn clean install
+fi
+
+export spill_bucket=${spill_bucket:-local-spill-bucket}
+
+java --add-opens=java.base/java.nio=ALL-UNNAMED \
+    -cp "${CONNECTOR_JAR}:target/athena-federation-sdk-tools-${VERSION}-withdep.jar" \
+    com.amazonaws.athena.connector.validation.LocalLoadTester $@